@@ -0,0 +1,24 @@
+package com.teste.sinerji.application.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Erro de uma linha rejeitada na importação de pessoas.
+ * 
+ * @author Teste Sinerji
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErroImportacaoDTO implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private long linha;
+    
+    private String mensagem;
+}
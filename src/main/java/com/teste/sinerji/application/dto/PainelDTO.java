@@ -0,0 +1,44 @@
+package com.teste.sinerji.application.dto;
+
+import java.io.Serializable;
+import java.util.Map;
+
+import com.teste.sinerji.domain.enums.Estado;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Indicadores do painel inicial, calculados de uma vez no banco.
+ * Imutável: pode ser compartilhado entre requisições enquanto estiver válido.
+ * 
+ * @author Teste Sinerji
+ */
+@Value
+@Builder
+public class PainelDTO implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    long total;
+    
+    long aniversariantesDoMes;
+    
+    long homens;
+    
+    long mulheres;
+    
+    /** Pessoas por UF do endereço principal (o primeiro cadastrado). Mapa não modificável. */
+    Map<Estado, Long> pessoasPorEstado;
+    
+    /** Momento do cálculo, em milissegundos desde a época. */
+    long geradoEm;
+    
+    public double getPorcentagemHomens() {
+        return total == 0 ? 0.0 : homens * 100.0 / total;
+    }
+    
+    public double getPorcentagemMulheres() {
+        return total == 0 ? 0.0 : mulheres * 100.0 / total;
+    }
+}
@@ -10,6 +10,8 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
 import jakarta.validation.constraints.Size;
 
+import com.teste.sinerji.domain.valueobject.Cpf;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -34,9 +36,8 @@ public class PessoaDTO implements Serializable {
     @Size(min = 3, max = 150, message = "Nome deve ter entre 3 e 150 caracteres")
     private String nome;
     
-    @NotBlank(message = "CPF é obrigatório")
-    @Size(min = 11, max = 14, message = "CPF deve ter entre 11 e 14 caracteres")
-    private String cpf;
+    @NotNull(message = "CPF é obrigatório")
+    private Cpf cpf;
     
     @NotNull(message = "Data de nascimento é obrigatória")
     @Past(message = "Data de nascimento deve ser no passado")
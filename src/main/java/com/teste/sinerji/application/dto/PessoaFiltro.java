@@ -0,0 +1,52 @@
+package com.teste.sinerji.application.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.enums.Sexo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Critérios de filtro aplicados às consultas paginadas de Pessoa.
+ * Campos nulos ou vazios são ignorados.
+ *
+ * @author Teste Sinerji
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class PessoaFiltro implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String nome;
+
+    private String cpf;
+
+    private String cidade;
+
+    private Estado estado;
+
+    private Sexo sexo;
+
+    /** Idade mínima, em anos completos. */
+    private Integer idadeMinima;
+
+    /** Idade máxima, em anos completos. */
+    private Integer idadeMaxima;
+
+    /**
+     * Mês de nascimento (1 a 12). Resolvido pelo índice em memória quando o resultado cabe
+     * em "id IN (...)"; senão vira o predicado month() do HQL.
+     */
+    private Integer mesNascimento;
+
+    /** Restringe o resultado a estes IDs (preenchido pelo serviço a partir do índice em memória). */
+    private List<Long> ids;
+}
@@ -0,0 +1,73 @@
+package com.teste.sinerji.application.dto;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.domain.valueobject.Cpf;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Linha das telas de listagem: apenas os campos exibidos, lidos por projeção, sem
+ * entidades gerenciadas nem a lista de endereços. Os endereços completos são carregados
+ * só ao editar a pessoa ({@link PessoaDTO}).
+ *
+ * @author Teste Sinerji
+ */
+@Data
+@NoArgsConstructor
+public class PessoaResumo implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String nome;
+
+    private Cpf cpf;
+
+    private Date dataNascimento;
+
+    private Sexo sexo;
+
+    private long quantidadeEnderecos;
+
+    /**
+     * Cidade do endereço principal (o primeiro cadastrado), ou nula se não houver endereço.
+     */
+    private String cidade;
+
+    /**
+     * UF do endereço principal, ou nula se não houver endereço.
+     */
+    private Estado estado;
+
+    /**
+     * Cria o resumo com as colunas da pessoa; os dados de endereço são completados depois.
+     */
+    public PessoaResumo(Long id, String nome, Cpf cpf, Date dataNascimento, Sexo sexo) {
+        this.id = id;
+        this.nome = nome;
+        this.cpf = cpf;
+        this.dataNascimento = dataNascimento;
+        this.sexo = sexo;
+    }
+
+    /**
+     * Calcula a idade da pessoa com base na data de nascimento.
+     *
+     * @return A idade em anos
+     */
+    public Integer getIdade() {
+        if (dataNascimento == null) {
+            return null;
+        }
+
+        long diffInMillies = new Date().getTime() - dataNascimento.getTime();
+        long diffInDays = diffInMillies / (1000 * 60 * 60 * 24);
+        return (int) (diffInDays / 365.25);
+    }
+}
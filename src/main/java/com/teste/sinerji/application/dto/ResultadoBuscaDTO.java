@@ -0,0 +1,26 @@
+package com.teste.sinerji.application.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Página de resultados da busca textual, em ordem de relevância.
+ * 
+ * @author Teste Sinerji
+ */
+@Data
+public class ResultadoBuscaDTO implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private List<PessoaDTO> pessoas = new ArrayList<>();
+    
+    /** Relevância de cada pessoa, na mesma ordem de {@link #pessoas}. */
+    private List<Double> relevancias = new ArrayList<>();
+    
+    /** Total de pessoas encontradas em todas as páginas (zero se a página estiver vazia). */
+    private long total;
+}
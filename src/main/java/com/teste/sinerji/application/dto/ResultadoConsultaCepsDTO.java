@@ -0,0 +1,23 @@
+package com.teste.sinerji.application.dto;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.Data;
+
+/**
+ * Resultado de uma consulta de CEPs em lote.
+ * CEPs válidos são identificados pelos 8 dígitos; entradas inválidas, pelo valor informado.
+ * 
+ * @author Teste Sinerji
+ */
+@Data
+public class ResultadoConsultaCepsDTO implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private Map<String, ViaCepDTO> enderecos = new ConcurrentHashMap<>();
+    
+    private Map<String, String> erros = new ConcurrentHashMap<>();
+}
@@ -0,0 +1,64 @@
+package com.teste.sinerji.application.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Resultado (parcial ou final) de uma importação de pessoas.
+ * Apenas os primeiros {@link #LIMITE_ERROS} erros são guardados com detalhe;
+ * os demais entram somente na contagem de rejeitadas.
+ * 
+ * @author Teste Sinerji
+ */
+@Data
+public class ResultadoImportacaoDTO implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public static final int LIMITE_ERROS = 1000;
+    
+    private long linhasLidas;
+    
+    private long importadas;
+    
+    private long rejeitadas;
+    
+    private long tempoMillis;
+    
+    private boolean concluida;
+    
+    private List<ErroImportacaoDTO> erros = new ArrayList<>();
+    
+    /**
+     * Registra uma linha rejeitada.
+     * 
+     * @param linha Número da linha no arquivo (cabeçalho é a linha 1)
+     * @param mensagem Motivo da rejeição
+     */
+    public void adicionarErro(long linha, String mensagem) {
+        rejeitadas++;
+        if (erros.size() < LIMITE_ERROS) {
+            erros.add(new ErroImportacaoDTO(linha, mensagem));
+        }
+    }
+    
+    /**
+     * Cópia independente do resultado, para exibir o andamento enquanto a importação
+     * continua alterando o original em outra thread.
+     * 
+     * @return A cópia
+     */
+    public ResultadoImportacaoDTO copiar() {
+        ResultadoImportacaoDTO copia = new ResultadoImportacaoDTO();
+        copia.linhasLidas = linhasLidas;
+        copia.importadas = importadas;
+        copia.rejeitadas = rejeitadas;
+        copia.tempoMillis = tempoMillis;
+        copia.concluida = concluida;
+        copia.erros = new ArrayList<>(erros);
+        return copia;
+    }
+}
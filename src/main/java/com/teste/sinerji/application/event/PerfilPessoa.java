@@ -0,0 +1,88 @@
+package com.teste.sinerji.application.event;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import com.teste.sinerji.domain.entity.Endereco;
+import com.teste.sinerji.domain.entity.Pessoa;
+import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.enums.Sexo;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Atributos de uma pessoa usados pelos índices em memória: sexo, data de nascimento
+ * e UF/cidade de cada endereço, sem nome, CPF ou demais dados do cadastro.
+ * 
+ * @author Teste Sinerji
+ */
+@Value
+@AllArgsConstructor
+public class PerfilPessoa implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    Long id;
+    
+    Sexo sexo;
+    
+    LocalDate dataNascimento;
+    
+    /** UF de cada endereço, na ordem dos endereços (a primeira é a do endereço principal). */
+    List<Estado> estados;
+    
+    /** Cidade de cada endereço, na mesma ordem de {@link #estados}. */
+    List<String> cidades;
+    
+    /**
+     * Monta o perfil a partir da pessoa e da lista de endereços informada.
+     * 
+     * @param pessoa A pessoa
+     * @param enderecos Os endereços da pessoa (pode ser nula)
+     * @return O perfil
+     */
+    public static PerfilPessoa de(Pessoa pessoa, List<Endereco> enderecos) {
+        List<Endereco> ordenados = enderecos != null ? new ArrayList<>(enderecos) : new ArrayList<>();
+        // Endereço principal = menor ID; endereços novos (sem ID) ficam no fim, na ordem da lista
+        ordenados.sort((a, b) -> a.getId() == null || b.getId() == null
+                ? Boolean.compare(a.getId() == null, b.getId() == null)
+                : Long.compare(a.getId(), b.getId()));
+        List<Estado> estados = new ArrayList<>(ordenados.size());
+        List<String> cidades = new ArrayList<>(ordenados.size());
+        for (Endereco endereco : ordenados) {
+            estados.add(endereco.getEstado());
+            cidades.add(endereco.getCidade());
+        }
+        return new PerfilPessoa(pessoa.getId(), pessoa.getSexo(), converter(pessoa.getDataNascimento()),
+                Collections.unmodifiableList(estados), Collections.unmodifiableList(cidades));
+    }
+    
+    /**
+     * Monta o perfil com os endereços da própria entidade.
+     * 
+     * @param pessoa A pessoa
+     * @return O perfil
+     */
+    public static PerfilPessoa de(Pessoa pessoa) {
+        return de(pessoa, pessoa.getEnderecos());
+    }
+    
+    /**
+     * Converte datas vindas tanto do JDBC (java.sql.Date, sem hora) quanto da tela.
+     */
+    public static LocalDate converter(Date data) {
+        if (data == null) {
+            return null;
+        }
+        if (data instanceof java.sql.Date) {
+            return ((java.sql.Date) data).toLocalDate();
+        }
+        return data.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
@@ -0,0 +1,46 @@
+package com.teste.sinerji.application.event;
+
+import java.io.Serializable;
+
+import com.teste.sinerji.domain.valueobject.Cpf;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Evento CDI disparado pelos serviços de escrita a cada inclusão, alteração ou remoção
+ * de pessoa (inclusive pela alteração de seus endereços). Os índices em memória o
+ * observam após o commit ({@code TransactionPhase.AFTER_SUCCESS}), de modo que
+ * transações desfeitas não os alteram.
+ * 
+ * @author Teste Sinerji
+ */
+@Value
+@AllArgsConstructor
+public class PessoaAlterada implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /** Estado anterior, ou null em inclusões. */
+    PerfilPessoa antes;
+    
+    /** Estado posterior, ou null em remoções. */
+    PerfilPessoa depois;
+    
+    /**
+     * Nome posterior, informado nas gravações da própria pessoa; null em remoções e nas
+     * alterações que não mudam o nome (ex.: de endereços).
+     */
+    String nome;
+    
+    /** CPF posterior, informado junto com o nome. */
+    Cpf cpf;
+    
+    public PessoaAlterada(PerfilPessoa antes, PerfilPessoa depois) {
+        this(antes, depois, null, null);
+    }
+    
+    public Long getId() {
+        return depois != null ? depois.getId() : antes.getId();
+    }
+}
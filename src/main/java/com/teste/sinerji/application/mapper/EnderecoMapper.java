@@ -10,6 +10,7 @@ import jakarta.persistence.PersistenceContext;
 import com.teste.sinerji.application.dto.EnderecoDTO;
 import com.teste.sinerji.domain.entity.Endereco;
 import com.teste.sinerji.domain.entity.Pessoa;
+import com.teste.sinerji.infrastructure.persistence.RoteadorLeitura;
 
 /**
  * Mapper para conversão entre Endereco e EnderecoDTO.
@@ -19,7 +20,7 @@ import com.teste.sinerji.domain.entity.Pessoa;
 @Stateless
 public class EnderecoMapper {
     
-    @PersistenceContext
+    @PersistenceContext(unitName = RoteadorLeitura.UNIDADE_PRIMARIA)
     private EntityManager em;
     
     /**
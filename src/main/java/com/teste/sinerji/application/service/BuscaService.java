@@ -0,0 +1,71 @@
+package com.teste.sinerji.application.service;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.ejb.Stateless;
+import jakarta.inject.Inject;
+
+import com.teste.sinerji.application.dto.ResultadoBuscaDTO;
+import com.teste.sinerji.application.mapper.PessoaMapper;
+import com.teste.sinerji.domain.entity.Pessoa;
+import com.teste.sinerji.infrastructure.persistence.SomenteLeitura;
+import com.teste.sinerji.infrastructure.repository.PessoaRepository;
+
+/**
+ * Service da busca unificada: um único campo de texto pesquisado ao mesmo tempo no nome
+ * da pessoa e no logradouro e na cidade de seus endereços.
+ *
+ * @author Teste Sinerji
+ */
+@Stateless
+public class BuscaService implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Tamanho máximo de uma página de resultados.
+     */
+    static final int TAMANHO_MAXIMO = 100;
+
+    @Inject
+    private PessoaRepository pessoaRepository;
+
+    @Inject
+    private PessoaMapper pessoaMapper;
+
+    /**
+     * Busca pessoas pelo texto informado, em ordem de relevância (nome antes de endereço).
+     *
+     * @param texto Os termos pesquisados (fragmentos de nome, logradouro ou cidade)
+     * @param inicio Índice do primeiro resultado
+     * @param tamanho Quantidade máxima de resultados (limitada a {@value #TAMANHO_MAXIMO})
+     * @return A página de resultados
+     */
+    @SomenteLeitura
+    public ResultadoBuscaDTO buscar(String texto, int inicio, int tamanho) {
+        ResultadoBuscaDTO resultado = new ResultadoBuscaDTO();
+        List<Object[]> linhas = pessoaRepository.buscarPorTexto(texto, Math.max(inicio, 0),
+                Math.max(1, Math.min(tamanho, TAMANHO_MAXIMO)));
+        if (linhas.isEmpty()) {
+            return resultado;
+        }
+
+        List<Long> ids = new ArrayList<>(linhas.size());
+        Map<Long, Double> relevancias = new HashMap<>();
+        for (Object[] linha : linhas) {
+            ids.add((Long) linha[0]);
+            relevancias.put((Long) linha[0], ((Number) linha[1]).doubleValue());
+        }
+        // Pessoas removidas entre as duas consultas ficam de fora
+        for (Pessoa pessoa : pessoaRepository.listarPorIds(ids)) {
+            resultado.getPessoas().add(pessoaMapper.toDTO(pessoa));
+            resultado.getRelevancias().add(relevancias.get(pessoa.getId()));
+        }
+        resultado.setTotal(((Number) linhas.get(0)[2]).longValue());
+        return resultado;
+    }
+}
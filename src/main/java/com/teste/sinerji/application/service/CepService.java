@@ -1,19 +1,32 @@
 package com.teste.sinerji.application.service;
 
 import java.io.Serializable;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.time.Duration;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import jakarta.annotation.Resource;
 import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.inject.Inject;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teste.sinerji.application.dto.ResultadoConsultaCepsDTO;
 import com.teste.sinerji.application.dto.ViaCepDTO;
+import com.teste.sinerji.infrastructure.cache.CepCache;
+import com.teste.sinerji.infrastructure.cache.CepCachePersistente;
+import com.teste.sinerji.infrastructure.cep.BaseCepLocal;
+import com.teste.sinerji.infrastructure.http.ViaCepClient;
 import com.teste.sinerji.shared.exception.BusinessException;
+import com.teste.sinerji.shared.exception.ConsultaRecusadaException;
 
 /**
  * Serviço para consulta de CEP via API ViaCEP.
@@ -22,16 +35,33 @@ import com.teste.sinerji.shared.exception.BusinessException;
 public class CepService implements Serializable {
     
     private static final long serialVersionUID = 1L;
-    private static final String VIA_CEP_URL = "https://viacep.com.br/ws/%s/json/";
+    private static final long ESPERA_MAXIMA_SEGUNDOS = 15;
     
-    // Cache simples para evitar consultas repetidas ao mesmo CEP
-    private final Map<String, ViaCepDTO> cepCache = new HashMap<>();
+    static final int PARALELISMO_PADRAO = 8;
+    static final int MAX_TENTATIVAS = 8;
+    static final long ESPERA_INICIAL_MILLIS = 100;
+    static final long ESPERA_MAXIMA_MILLIS = 5_000;
+    static final long ESPERA_LOTE_PADRAO_MILLIS = 60_000;
     
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(5))
-            .build();
+    // Cache compartilhado entre todas as instâncias do pool
+    @Inject
+    private CepCache cepCache;
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Inject
+    private CepCachePersistente cepCachePersistente;
+    
+    @Inject
+    private BaseCepLocal baseCepLocal;
+    
+    @Inject
+    private ViaCepClient viaCepClient;
+    
+    /** Executa a leitura do cache persistente fora da thread que pediu o CEP. */
+    @Resource
+    private ManagedExecutorService executor;
+    
+    /** Espera máxima de uma consulta em lote; os CEPs ainda pendentes ao fim dela viram erro. */
+    private long esperaLoteMillis = ESPERA_LOTE_PADRAO_MILLIS;
     
     /**
      * Consulta um CEP na API ViaCEP.
@@ -41,6 +71,150 @@ public class CepService implements Serializable {
      * @throws BusinessException Se ocorrer erro na consulta ou CEP inválido
      */
     public ViaCepDTO consultarCep(String cep) throws BusinessException {
+        normalizarCep(cep);
+        return aguardar(consultarCepAsync(cep));
+    }
+    
+    /**
+     * Consulta um CEP sem bloquear a thread chamadora.
+     * A base local é consultada primeiro; somente CEPs ausentes dela vão para o cache
+     * em memória, depois para o cache persistente e, por fim, para a ViaCEP. A leitura do
+     * cache persistente roda no executor gerenciado do servidor e a requisição HTTP no do
+     * {@link ViaCepClient}; consultas simultâneas ao mesmo CEP compartilham o mesmo futuro.
+     * 
+     * @param cep O CEP a ser consultado (pode conter formatação)
+     * @return Futuro com os dados do endereço; falha com {@link BusinessException}
+     *         se o CEP for inválido, não existir ou a consulta falhar
+     */
+    public CompletableFuture<ViaCepDTO> consultarCepAsync(String cep) {
+        String cepLimpo;
+        try {
+            cepLimpo = normalizarCep(cep);
+        } catch (BusinessException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        
+        ViaCepDTO local = baseCepLocal.buscar(cepLimpo);
+        if (local != null) {
+            return CompletableFuture.completedFuture(local);
+        }
+        
+        cepCachePersistente.registrarAcesso(cepLimpo);
+        return cepCache.obterAsync(cepLimpo, this::carregar)
+                .thenApply(viaCepDTO -> {
+                    // Resultado negativo também fica em cache
+                    if (viaCepDTO.isErro()) {
+                        throw new CompletionException(new BusinessException("CEP não encontrado"));
+                    }
+                    return viaCepDTO;
+                });
+    }
+    
+    /**
+     * Consulta vários CEPs de uma vez, com o paralelismo padrão.
+     * 
+     * @see #consultarCeps(Collection, int)
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public ResultadoConsultaCepsDTO consultarCeps(Collection<String> ceps) {
+        return consultarCeps(ceps, PARALELISMO_PADRAO);
+    }
+    
+    /**
+     * Consulta vários CEPs de uma vez, para importações e rotinas de enriquecimento.
+     * 
+     * Os CEPs são normalizados e deduplicados; os encontrados na base local ou no cache
+     * são respondidos de imediato, e os demais são consultados com no máximo
+     * {@code paralelismo} consultas em andamento. Recusas temporárias do cliente
+     * (limite de taxa ou de concorrência) são repetidas com espera exponencial.
+     * Bloqueia até todas as consultas terminarem, por no máximo
+     * {@value #ESPERA_LOTE_PADRAO_MILLIS} ms; os CEPs sem resposta nesse prazo vão para os erros.
+     * 
+     * @param ceps CEPs, com ou sem formatação
+     * @param paralelismo Máximo de consultas simultâneas à ViaCEP
+     * @return Endereços encontrados e erros, por CEP
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public ResultadoConsultaCepsDTO consultarCeps(Collection<String> ceps, int paralelismo) {
+        ResultadoConsultaCepsDTO resultado = new ResultadoConsultaCepsDTO();
+        Set<String> pendentes = new LinkedHashSet<>();
+        
+        for (String cep : ceps) {
+            String cepLimpo;
+            try {
+                cepLimpo = normalizarCep(cep);
+            } catch (BusinessException e) {
+                resultado.getErros().put(String.valueOf(cep), e.getMessage());
+                continue;
+            }
+            if (pendentes.contains(cepLimpo) || resultado.getEnderecos().containsKey(cepLimpo)
+                    || resultado.getErros().containsKey(cepLimpo)) {
+                continue;
+            }
+            ViaCepDTO imediato = baseCepLocal.buscar(cepLimpo);
+            if (imediato == null) {
+                imediato = cepCache.consultar(cepLimpo);
+            }
+            if (imediato != null) {
+                registrar(resultado, cepLimpo, imediato);
+            } else {
+                pendentes.add(cepLimpo);
+            }
+        }
+        
+        Semaphore vagas = new Semaphore(Math.max(1, paralelismo));
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaLoteMillis);
+        String erroPendentes = "Tempo esgotado ao consultar CEP";
+        try {
+            for (String cepLimpo : pendentes) {
+                if (!vagas.tryAcquire(limite - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+                consultarComNovaTentativa(cepLimpo, 1).whenComplete((dto, erro) -> {
+                    // A vaga volta mesmo se o registro falhar, senão a espera final não termina
+                    try {
+                        if (erro == null) {
+                            registrar(resultado, cepLimpo, dto);
+                        } else {
+                            Throwable causa = desembrulhar(erro);
+                            resultado.getErros().put(cepLimpo,
+                                    causa.getMessage() != null ? causa.getMessage() : String.valueOf(causa));
+                        }
+                    } finally {
+                        vagas.release();
+                    }
+                });
+            }
+            // Aguarda as consultas ainda em andamento
+            vagas.tryAcquire(Math.max(1, paralelismo), limite - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            erroPendentes = "Consulta de CEP interrompida";
+        }
+        // Não iniciados ou ainda em andamento: uma resposta que chegue depois é ignorada
+        for (String cepLimpo : pendentes) {
+            if (!resultado.getEnderecos().containsKey(cepLimpo)) {
+                resultado.getErros().putIfAbsent(cepLimpo, erroPendentes);
+            }
+        }
+        return resultado;
+    }
+    
+    /**
+     * Limpa o cache de CEPs.
+     */
+    public void limparCache() {
+        cepCache.limpar();
+    }
+    
+    /**
+     * Remove a formatação e valida o CEP.
+     * 
+     * @param cep O CEP informado
+     * @return O CEP com 8 dígitos
+     * @throws BusinessException Se o CEP não for informado ou não tiver 8 dígitos
+     */
+    private String normalizarCep(String cep) throws BusinessException {
         if (cep == null || cep.trim().isEmpty()) {
             throw new BusinessException("CEP não informado");
         }
@@ -52,56 +226,107 @@ public class CepService implements Serializable {
         if (cepLimpo.length() != 8) {
             throw new BusinessException("CEP deve conter 8 dígitos");
         }
-        
-        // Verifica se o CEP já está em cache
-        if (cepCache.containsKey(cepLimpo)) {
-            return cepCache.get(cepLimpo);
-        }
-        
-        try {
-            // Formata a URL com o CEP
-            String url = String.format(VIA_CEP_URL, cepLimpo);
-            
-            // Cria a requisição HTTP
-            HttpRequest request = HttpRequest.newBuilder()
-                    .GET()
-                    .uri(URI.create(url))
-                    .timeout(Duration.ofSeconds(10))
-                    .build();
-            
-            // Executa a requisição
-            HttpResponse<String> response = httpClient.send(
-                    request, HttpResponse.BodyHandlers.ofString());
-            
-            // Verifica se a requisição foi bem-sucedida (código 200)
-            if (response.statusCode() != 200) {
-                throw new BusinessException("Erro ao consultar CEP: " + response.statusCode());
-            }
-            
-            // Converte a resposta JSON para objeto
-            ViaCepDTO viaCepDTO = objectMapper.readValue(response.body(), ViaCepDTO.class);
-            
-            // Verifica se o CEP foi encontrado
-            if (viaCepDTO.isErro()) {
-                throw new BusinessException("CEP não encontrado");
+        return cepLimpo;
+    }
+    
+    /**
+     * Carrega um CEP ausente do cache em memória: primeiro da tabela cep_cache,
+     * depois da ViaCEP, agendando a gravação da resposta na tabela. Nenhuma das etapas
+     * roda na thread chamadora.
+     */
+    private CompletableFuture<ViaCepDTO> carregar(String cepLimpo) {
+        return CompletableFuture.supplyAsync(() -> cepCachePersistente.buscar(cepLimpo), executor)
+                .thenCompose(persistido -> {
+                    if (persistido != null) {
+                        return CompletableFuture.completedFuture(persistido);
+                    }
+                    return viaCepClient.consultar(cepLimpo).thenApply(viaCepDTO -> {
+                        cepCachePersistente.enfileirar(cepLimpo, viaCepDTO);
+                        return viaCepDTO;
+                    });
+                });
+    }
+    
+    /**
+     * Consulta o CEP, repetindo as recusas temporárias com espera exponencial. O futuro
+     * devolvido sempre termina: se a nova tentativa não puder ser agendada (executor
+     * encerrado ou saturado) ou falhar ao iniciar, ele falha com o erro.
+     */
+    private CompletableFuture<ViaCepDTO> consultarComNovaTentativa(String cepLimpo, int tentativa) {
+        CompletableFuture<ViaCepDTO> resultado = new CompletableFuture<>();
+        consultarCepAsync(cepLimpo).whenComplete((dto, erro) -> {
+            try {
+                if (erro == null) {
+                    resultado.complete(dto);
+                    return;
+                }
+                Throwable causa = desembrulhar(erro);
+                if (causa instanceof ConsultaRecusadaException && tentativa < MAX_TENTATIVAS) {
+                    long espera = Math.min(ESPERA_MAXIMA_MILLIS, ESPERA_INICIAL_MILLIS << (tentativa - 1));
+                    // A recusa do executor acontece na thread do atraso, não aqui: ela é tratada no repasse
+                    Executor repasse = tarefa -> {
+                        try {
+                            executor.execute(tarefa);
+                        } catch (Throwable recusa) {
+                            resultado.completeExceptionally(recusa);
+                        }
+                    };
+                    CompletableFuture.delayedExecutor(espera, TimeUnit.MILLISECONDS, repasse).execute(() -> {
+                        try {
+                            consultarComNovaTentativa(cepLimpo, tentativa + 1).whenComplete((novo, novoErro) -> {
+                                if (novoErro == null) {
+                                    resultado.complete(novo);
+                                } else {
+                                    resultado.completeExceptionally(novoErro);
+                                }
+                            });
+                        } catch (Throwable falha) {
+                            resultado.completeExceptionally(falha);
+                        }
+                    });
+                } else {
+                    resultado.completeExceptionally(causa);
+                }
+            } catch (Throwable falha) {
+                resultado.completeExceptionally(falha);
             }
-            
-            // Armazena no cache
-            cepCache.put(cepLimpo, viaCepDTO);
-            
-            return viaCepDTO;
-            
-        } catch (BusinessException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new BusinessException("Erro ao consultar CEP: " + e.getMessage());
+        });
+        return resultado;
+    }
+    
+    void setEsperaLoteMillis(long esperaLoteMillis) {
+        this.esperaLoteMillis = esperaLoteMillis;
+    }
+    
+    private static void registrar(ResultadoConsultaCepsDTO resultado, String cepLimpo, ViaCepDTO dto) {
+        if (dto.isErro()) {
+            resultado.getErros().put(cepLimpo, "CEP não encontrado");
+        } else {
+            resultado.getEnderecos().put(cepLimpo, dto);
         }
     }
     
+    private static Throwable desembrulhar(Throwable erro) {
+        return erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+    }
+    
     /**
-     * Limpa o cache de CEPs.
+     * Aguarda o resultado de uma consulta assíncrona, convertendo falhas em BusinessException.
      */
-    public void limparCache() {
-        cepCache.clear();
+    private ViaCepDTO aguardar(CompletableFuture<ViaCepDTO> futuro) throws BusinessException {
+        try {
+            return futuro.get(ESPERA_MAXIMA_SEGUNDOS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof BusinessException) {
+                throw (BusinessException) causa;
+            }
+            throw new BusinessException("Erro ao consultar CEP: " + causa.getMessage(), causa);
+        } catch (TimeoutException e) {
+            throw new BusinessException("Tempo esgotado ao consultar CEP", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Consulta de CEP interrompida", e);
+        }
     }
 }
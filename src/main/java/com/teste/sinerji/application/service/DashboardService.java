@@ -0,0 +1,88 @@
+package com.teste.sinerji.application.service;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.inject.Inject;
+
+import com.teste.sinerji.application.dto.PainelDTO;
+import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.enums.Sexo;
+
+/**
+ * Serviço dos indicadores do painel inicial.
+ * 
+ * Os indicadores são lidos da tabela de estatísticas ({@link EstatisticaService}), sem
+ * consultar pessoas e endereços, e guardados por {@link #VALIDADE_MILLIS} em um único
+ * objeto imutável compartilhado por todas as sessões.
+ * 
+ * @author Teste Sinerji
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class DashboardService {
+    
+    static final long VALIDADE_MILLIS = 30_000;
+    
+    @Inject
+    private EstatisticaService estatisticaService;
+    
+    private volatile PainelDTO painel;
+    
+    private LongSupplier relogio = System::currentTimeMillis;
+    
+    /**
+     * Retorna os indicadores do painel, recalculando-os se o último cálculo expirou.
+     * 
+     * @return O painel atual
+     */
+    public PainelDTO obterPainel() {
+        PainelDTO atual = painel;
+        long agora = relogio.getAsLong();
+        if (atual != null && agora - atual.getGeradoEm() < VALIDADE_MILLIS) {
+            return atual;
+        }
+        PainelDTO novo = calcular(agora);
+        painel = novo;
+        return novo;
+    }
+    
+    /**
+     * Descarta o painel em cache; o próximo acesso recalcula os indicadores.
+     */
+    public void invalidar() {
+        painel = null;
+    }
+    
+    private PainelDTO calcular(long agora) {
+        Map<String, Long> valores = estatisticaService.valores();
+        
+        Map<Estado, Long> porEstado = new EnumMap<>(Estado.class);
+        for (Estado estado : Estado.values()) {
+            long quantidade = valores.getOrDefault(EstatisticaService.chaveUf(estado), 0L);
+            if (quantidade > 0) {
+                porEstado.put(estado, quantidade);
+            }
+        }
+        
+        return PainelDTO.builder()
+                .total(valores.getOrDefault(EstatisticaService.PESSOAS, 0L))
+                .homens(valores.getOrDefault(EstatisticaService.chaveSexo(Sexo.M), 0L))
+                .mulheres(valores.getOrDefault(EstatisticaService.chaveSexo(Sexo.F), 0L))
+                .aniversariantesDoMes(valores.getOrDefault(
+                        EstatisticaService.chaveMes(LocalDate.now().getMonthValue()), 0L))
+                .pessoasPorEstado(Collections.unmodifiableMap(porEstado))
+                .geradoEm(agora)
+                .build();
+    }
+    
+    void setRelogio(LongSupplier relogio) {
+        this.relogio = relogio;
+    }
+}
@@ -1,18 +1,25 @@
 package com.teste.sinerji.application.service;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
 import jakarta.ejb.Stateless;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
 import com.teste.sinerji.application.dto.EnderecoDTO;
+import com.teste.sinerji.application.event.PerfilPessoa;
+import com.teste.sinerji.application.event.PessoaAlterada;
 import com.teste.sinerji.application.mapper.EnderecoMapper;
 import com.teste.sinerji.domain.entity.Endereco;
 import com.teste.sinerji.domain.entity.Pessoa;
+import com.teste.sinerji.infrastructure.persistence.SomenteLeitura;
 import com.teste.sinerji.infrastructure.repository.EnderecoRepository;
 import com.teste.sinerji.infrastructure.repository.PessoaRepository;
 import com.teste.sinerji.shared.exception.BusinessException;
@@ -37,11 +44,18 @@ public class EnderecoService implements Serializable {
     @Inject
     private EnderecoMapper enderecoMapper;
     
+    @Inject
+    private EstatisticaService estatisticaService;
+    
+    @Inject
+    private Event<PessoaAlterada> pessoaAlterada;
+    
     /**
      * Lista todos os endereços cadastrados.
      * 
      * @return Lista de endereços DTO
      */
+    @SomenteLeitura
     public List<EnderecoDTO> listarTodos() {
         List<Endereco> enderecos = enderecoRepository.listarTodos();
         return enderecoMapper.toDTOList(enderecos);
@@ -83,6 +97,7 @@ public class EnderecoService implements Serializable {
      * @param cidade A cidade ou parte da cidade para busca
      * @return Lista de endereços encontrados
      */
+    @SomenteLeitura
     public List<EnderecoDTO> buscarPorCidade(String cidade) {
         List<Endereco> enderecos = enderecoRepository.buscarPorCidade(cidade);
         return enderecoMapper.toDTOList(enderecos);
@@ -115,8 +130,15 @@ public class EnderecoService implements Serializable {
             throw new EntityNotFoundException("Pessoa não encontrada com o ID: " + dto.getPessoaId());
         }
         
+        Pessoa pessoa = pessoaOpt.get();
+        Map<String, Long> antes = EstatisticaService.contribuicao(pessoa);
+        PerfilPessoa perfilAntes = PerfilPessoa.de(pessoa);
         Endereco endereco = enderecoMapper.toEntity(dto);
+        pessoa.adicionarEndereco(endereco);
         endereco = enderecoRepository.salvar(endereco);
+        List<Endereco> enderecos = enderecosAtuais(pessoa, endereco);
+        estatisticaService.registrar(antes, EstatisticaService.contribuicao(pessoa, enderecos));
+        pessoaAlterada.fire(new PessoaAlterada(perfilAntes, PerfilPessoa.de(pessoa, enderecos)));
         
         return enderecoMapper.toDTO(endereco);
     }
@@ -137,7 +159,8 @@ public class EnderecoService implements Serializable {
             throw new BusinessException("ID é obrigatório para atualização");
         }
         
-        buscarPorId(dto.getId());
+        Endereco atual = enderecoRepository.buscarPorId(dto.getId()).orElseThrow(() ->
+            new EntityNotFoundException("Endereço não encontrado com o ID: " + dto.getId()));
         
         validarEndereco(dto);
         
@@ -150,9 +173,31 @@ public class EnderecoService implements Serializable {
             throw new EntityNotFoundException("Pessoa não encontrada com o ID: " + dto.getPessoaId());
         }
         
+        // O endereço pode trocar de pessoa: as duas contribuições mudam
+        List<Pessoa> afetadas = new ArrayList<>();
+        afetadas.add(atual.getPessoa());
+        if (!atual.getPessoa().getId().equals(pessoaOpt.get().getId())) {
+            afetadas.add(pessoaOpt.get());
+        }
+        Map<String, Long> antes = new HashMap<>();
+        List<PerfilPessoa> perfisAntes = new ArrayList<>();
+        for (Pessoa pessoa : afetadas) {
+            EstatisticaService.acumular(antes, EstatisticaService.contribuicao(pessoa));
+            perfisAntes.add(PerfilPessoa.de(pessoa));
+        }
+        
         Endereco endereco = enderecoMapper.toEntity(dto);
         endereco = enderecoRepository.salvar(endereco);
         
+        Map<String, Long> depois = new HashMap<>();
+        for (int i = 0; i < afetadas.size(); i++) {
+            Pessoa pessoa = afetadas.get(i);
+            List<Endereco> enderecos = enderecosAtuais(pessoa, endereco);
+            EstatisticaService.acumular(depois, EstatisticaService.contribuicao(pessoa, enderecos));
+            pessoaAlterada.fire(new PessoaAlterada(perfisAntes.get(i), PerfilPessoa.de(pessoa, enderecos)));
+        }
+        estatisticaService.registrar(antes, depois);
+        
         return enderecoMapper.toDTO(endereco);
     }
     
@@ -171,25 +216,52 @@ public class EnderecoService implements Serializable {
             throw new EntityNotFoundException("Endereço não encontrado com o ID: " + id);
         }
         
+        Endereco endereco = enderecoOpt.get();
+        Pessoa pessoa = endereco.getPessoa();
+        Map<String, Long> antes = EstatisticaService.contribuicao(pessoa);
+        PerfilPessoa perfilAntes = PerfilPessoa.de(pessoa);
+        // Retira da coleção carregada, senão o cascade da pessoa regravaria o endereço no flush
+        pessoa.removerEndereco(endereco);
         enderecoRepository.remover(id);
+        estatisticaService.registrar(antes, EstatisticaService.contribuicao(pessoa));
+        pessoaAlterada.fire(new PessoaAlterada(perfilAntes, PerfilPessoa.de(pessoa)));
     }
     
     /**
-     * Conta o total de endereços cadastrados.
+     * Conta o total de endereços cadastrados, a partir da tabela de estatísticas.
      * 
      * @return O número total de endereços
      */
+    @SomenteLeitura
     public long contarTodos() {
-        return enderecoRepository.contarTodos();
+        return estatisticaService.valor(EstatisticaService.ENDERECOS);
+    }
+    
+    /**
+     * Lista os endereços de uma pessoa após a gravação de um endereço, sem depender
+     * de a coleção carregada já refletir a alteração (ex.: troca de pessoa).
+     */
+    private static List<Endereco> enderecosAtuais(Pessoa pessoa, Endereco alterado) {
+        List<Endereco> enderecos = new ArrayList<>();
+        for (Endereco endereco : pessoa.getEnderecos()) {
+            if (!endereco.equals(alterado)) {
+                enderecos.add(endereco);
+            }
+        }
+        if (alterado.getPessoa() != null && pessoa.getId().equals(alterado.getPessoa().getId())) {
+            enderecos.add(alterado);
+        }
+        return enderecos;
     }
     
     /**
      * Valida os dados de um endereço.
+     * Não depende de estado do bean, podendo ser reutilizada por outros serviços (ex.: importação).
      * 
      * @param dto O endereço a ser validado
      * @throws BusinessException Se houver erro de validação
      */
-    private void validarEndereco(EnderecoDTO dto) throws BusinessException {
+    static void validarEndereco(EnderecoDTO dto) throws BusinessException {
         if (dto == null) {
             throw new BusinessException("Dados do endereço são obrigatórios");
         }
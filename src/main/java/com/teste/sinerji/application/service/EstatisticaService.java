@@ -0,0 +1,265 @@
+package com.teste.sinerji.application.service;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Logger;
+
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Stateless;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import com.teste.sinerji.domain.entity.Endereco;
+import com.teste.sinerji.domain.entity.Pessoa;
+import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.infrastructure.persistence.SomenteLeitura;
+import com.teste.sinerji.infrastructure.repository.EnderecoRepository;
+import com.teste.sinerji.infrastructure.repository.EstatisticaRepository;
+import com.teste.sinerji.infrastructure.repository.PessoaRepository;
+
+/**
+ * Contadores de pessoas mantidos incrementalmente na tabela {@code pessoa_estatisticas}.
+ * 
+ * Cada pessoa contribui com 1 para "pessoas", para o seu sexo, para o seu mês de nascimento
+ * e para a UF do seu endereço principal (o de menor ID), e com a quantidade de endereços
+ * para "enderecos". Os serviços de escrita calculam a contribuição antes e depois da
+ * alteração e registram a diferença na mesma transação, de modo que as contagens
+ * são lidas sem varrer as tabelas de pessoas e endereços.
+ * 
+ * Todas as faixas de todos os contadores existem desde a inicialização, de modo que o
+ * registro de uma alteração só atualiza linhas. Uma reconciliação diária recalcula
+ * todos os contadores a partir das tabelas.
+ * 
+ * @author Teste Sinerji
+ */
+@Stateless
+public class EstatisticaService {
+    
+    private static final Logger LOGGER = Logger.getLogger(EstatisticaService.class.getName());
+    
+    /** Quantidade de linhas (faixas) por contador. */
+    static final int FAIXAS = 8;
+    
+    public static final String PESSOAS = "pessoas";
+    public static final String ENDERECOS = "enderecos";
+    
+    @Inject
+    private EstatisticaRepository estatisticaRepository;
+    
+    @Inject
+    private PessoaRepository pessoaRepository;
+    
+    @Inject
+    private EnderecoRepository enderecoRepository;
+    
+    public static String chaveSexo(Sexo sexo) {
+        return "sexo:" + sexo.name();
+    }
+    
+    public static String chaveUf(Estado estado) {
+        return "uf:" + estado.name();
+    }
+    
+    public static String chaveMes(int mes) {
+        return "mes:" + mes;
+    }
+    
+    /**
+     * Retorna as chaves de todos os contadores, em ordem alfabética.
+     *
+     * @return As chaves
+     */
+    public static List<String> chaves() {
+        TreeSet<String> chaves = new TreeSet<>();
+        chaves.add(PESSOAS);
+        chaves.add(ENDERECOS);
+        for (Sexo sexo : Sexo.values()) {
+            chaves.add(chaveSexo(sexo));
+        }
+        for (Estado estado : Estado.values()) {
+            chaves.add(chaveUf(estado));
+        }
+        for (int mes = 1; mes <= 12; mes++) {
+            chaves.add(chaveMes(mes));
+        }
+        return new ArrayList<>(chaves);
+    }
+    
+    /**
+     * Calcula a contribuição de uma pessoa, com os endereços da própria entidade.
+     *
+     * @param pessoa A pessoa
+     * @return Valor por chave de contador
+     */
+    public static Map<String, Long> contribuicao(Pessoa pessoa) {
+        return contribuicao(pessoa, pessoa.getEnderecos());
+    }
+    
+    /**
+     * Calcula a contribuição de uma pessoa com a lista de endereços informada.
+     *
+     * @param pessoa A pessoa
+     * @param enderecos Os endereços da pessoa
+     * @return Valor por chave de contador
+     */
+    public static Map<String, Long> contribuicao(Pessoa pessoa, List<Endereco> enderecos) {
+        Map<String, Long> contribuicao = new HashMap<>();
+        contribuicao.put(PESSOAS, 1L);
+        if (pessoa.getSexo() != null) {
+            contribuicao.put(chaveSexo(pessoa.getSexo()), 1L);
+        }
+        if (pessoa.getDataNascimento() != null) {
+            contribuicao.put(chaveMes(mes(pessoa.getDataNascimento())), 1L);
+        }
+        if (enderecos != null && !enderecos.isEmpty()) {
+            contribuicao.put(ENDERECOS, (long) enderecos.size());
+            Endereco principal = enderecoPrincipal(enderecos);
+            if (principal.getEstado() != null) {
+                contribuicao.put(chaveUf(principal.getEstado()), 1L);
+            }
+        }
+        return contribuicao;
+    }
+    
+    /**
+     * Soma uma contribuição a outra (ex.: várias pessoas de um lote).
+     *
+     * @param destino Contribuição acumulada
+     * @param parcela Contribuição a somar
+     */
+    public static void acumular(Map<String, Long> destino, Map<String, Long> parcela) {
+        parcela.forEach((chave, valor) -> destino.merge(chave, valor, Long::sum));
+    }
+    
+    /**
+     * Registra a diferença entre duas contribuições na transação corrente.
+     * Todas as chaves usam a mesma faixa sorteada e são atualizadas em ordem alfabética,
+     * para que transações concorrentes bloqueiem as linhas sempre na mesma ordem.
+     *
+     * @param antes Contribuição antes da alteração (vazia em inclusões)
+     * @param depois Contribuição depois da alteração (vazia em remoções)
+     */
+    @Transactional
+    public void registrar(Map<String, Long> antes, Map<String, Long> depois) {
+        Map<String, Long> diferencas = new TreeMap<>(depois);
+        antes.forEach((chave, valor) -> diferencas.merge(chave, -valor, Long::sum));
+    
+        int faixa = ThreadLocalRandom.current().nextInt(FAIXAS);
+        diferencas.forEach((chave, diferenca) -> {
+            if (diferenca != 0) {
+                estatisticaRepository.incrementar(chave, faixa, diferenca);
+            }
+        });
+    }
+    
+    /**
+     * Retorna o valor de um contador.
+     *
+     * @param chave A chave do contador
+     * @return O valor atual
+     */
+    public long valor(String chave) {
+        return estatisticaRepository.somar(chave);
+    }
+    
+    /**
+     * Retorna o valor de um contador lido do banco primário, mesmo dentro de um método
+     * {@link SomenteLeitura}.
+     *
+     * @param chave A chave do contador
+     * @return O valor atual, com todas as gravações confirmadas
+     */
+    public long valorNoPrimario(String chave) {
+        return estatisticaRepository.somarNoPrimario(chave);
+    }
+    
+    /**
+     * Retorna o valor de todos os contadores.
+     *
+     * @return Valor por chave
+     */
+    @SomenteLeitura
+    public Map<String, Long> valores() {
+        return estatisticaRepository.somarTodas();
+    }
+    
+    /**
+     * Recalcula todos os contadores a partir das tabelas de pessoas e endereços.
+     * 
+     * As faixas de todos os contadores são bloqueadas antes das contagens, na mesma ordem
+     * de {@link #registrar}: as transações que já incrementaram algum contador terminam
+     * antes e entram na contagem, e as demais esperam o fim da reconciliação e incrementam
+     * os valores já redefinidos, de modo que nenhum incremento se perde. O agendamento
+     * dispara em todos os nós; só o que obtém a trava da reconciliação a executa.
+     */
+    @Schedule(hour = "3", minute = "30", persistent = false)
+    public void reconciliar() {
+        if (!estatisticaRepository.travarReconciliacao()) {
+            LOGGER.info("Reconciliação das estatísticas já em andamento em outro nó");
+            return;
+        }
+        chaves().forEach(estatisticaRepository::travar);
+        
+        Map<String, Long> valores = new TreeMap<>();
+        chaves().forEach(chave -> valores.put(chave, 0L));
+        valores.put(PESSOAS, pessoaRepository.contarTodas());
+        valores.put(ENDERECOS, enderecoRepository.contarTodos());
+    
+        for (Object[] linha : pessoaRepository.contarPorSexo()) {
+            if (linha[0] != null) {
+                valores.put(chaveSexo((Sexo) linha[0]), (Long) linha[1]);
+            }
+        }
+        for (Object[] linha : pessoaRepository.contarPorEstadoDoEnderecoPrincipal()) {
+            if (linha[0] != null) {
+                valores.put(chaveUf((Estado) linha[0]), (Long) linha[1]);
+            }
+        }
+        for (Object[] linha : pessoaRepository.contarPorMesDeNascimento()) {
+            if (linha[0] != null) {
+                valores.put(chaveMes(((Number) linha[0]).intValue()), (Long) linha[1]);
+            }
+        }
+    
+        valores.forEach((chave, valor) -> estatisticaRepository.redefinir(chave, valor, FAIXAS));
+        LOGGER.info(() -> "Estatísticas de pessoas reconciliadas: " + valores.get(PESSOAS) + " pessoas");
+    }
+    
+    /**
+     * Prepara os contadores na inicialização: executa a reconciliação se a tabela estiver
+     * vazia e, caso contrário, cria as faixas que faltarem (ex.: um contador novo).
+     */
+    public void prepararContadores() {
+        if (estatisticaRepository.isVazia()) {
+            reconciliar();
+        } else {
+            chaves().forEach(chave -> estatisticaRepository.criarFaixas(chave, FAIXAS));
+        }
+    }
+    
+    private static Endereco enderecoPrincipal(List<Endereco> enderecos) {
+        // Endereços ainda sem ID (inclusão) seguem a ordem da lista, como na sequence
+        Endereco principal = enderecos.get(0);
+        for (Endereco endereco : enderecos) {
+            if (endereco.getId() != null
+                    && (principal.getId() == null || endereco.getId() < principal.getId())) {
+                principal = endereco;
+            }
+        }
+        return principal;
+    }
+    
+    private static int mes(Date data) {
+        Calendar calendario = Calendar.getInstance();
+        calendario.setTime(data);
+        return calendario.get(Calendar.MONTH) + 1;
+    }
+}
@@ -0,0 +1,411 @@
+package com.teste.sinerji.application.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.SessionContext;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.inject.Inject;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import com.teste.sinerji.application.dto.EnderecoDTO;
+import com.teste.sinerji.application.dto.PessoaDTO;
+import com.teste.sinerji.application.dto.ResultadoImportacaoDTO;
+import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.domain.valueobject.Cpf;
+import com.teste.sinerji.shared.exception.BusinessException;
+import com.teste.sinerji.shared.util.LongHashSet;
+
+/**
+ * Serviço de importação em massa de pessoas e endereços a partir de CSV.
+ * 
+ * O arquivo é lido em fluxo, em blocos de {@link #TAMANHO_BLOCO} linhas. Cada bloco
+ * passa pelas etapas: validação em paralelo nas threads gerenciadas do servidor (mesmas
+ * regras de {@link PessoaService} e {@link EnderecoService}), eliminação de CPFs
+ * repetidos no arquivo, e gravação em lote em uma transação própria, que recusa por
+ * linha os CPFs já cadastrados. Se a gravação do bloco falhar, as linhas são gravadas
+ * uma a uma, e só as que falharem de novo são rejeitadas.
+ * 
+ * Formato esperado (separador ";", com cabeçalho):
+ * nome;cpf;dataNascimento;sexo;cep;logradouro;numero;cidade;estado
+ * O endereço é opcional: se o CEP estiver vazio, a pessoa é importada sem endereço.
+ * 
+ * @author Teste Sinerji
+ */
+@Stateless
+public class ImportacaoService implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private static final Logger LOGGER = Logger.getLogger(ImportacaoService.class.getName());
+    
+    static final int TAMANHO_BLOCO = 1000;
+    
+    /** Linhas validadas por tarefa no executor. */
+    static final int TAMANHO_PARTE = 100;
+    
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    
+    private static final CSVFormat FORMATO_CSV = CSVFormat.DEFAULT.builder()
+            .setDelimiter(';')
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setIgnoreEmptyLines(true)
+            .setTrim(true)
+            .build();
+    
+    @Inject
+    private PessoaService pessoaService;
+    
+    @Resource
+    private ManagedExecutorService executor;
+    
+    @Resource
+    private SessionContext sessionContext;
+    
+    /** Threads que validam cada bloco, contando a da importação. */
+    private int paralelismo = Runtime.getRuntime().availableProcessors();
+    
+    /**
+     * Importa em segundo plano, em uma thread gerenciada pelo servidor, um CSV já gravado
+     * em arquivo temporário, que é apagado ao fim. A requisição que enviou o arquivo não
+     * espera pela importação: o andamento chega pelo {@code progresso}. A importação é
+     * chamada pela referência do contêiner, e não por {@code this}: assim vale o atributo
+     * de transação de {@link #importar} e ela roda em uma instância própria do pool, não
+     * nesta, que volta ao pool quando este método retorna.
+     * 
+     * @param arquivo O arquivo CSV (UTF-8)
+     * @param progresso Notificado ao fim de cada bloco com o resultado parcial (pode ser nulo)
+     * @return O resultado final; falha com {@link BusinessException} se o arquivo não puder ser lido
+     */
+    public CompletableFuture<ResultadoImportacaoDTO> importarEmSegundoPlano(Path arquivo,
+            Consumer<ResultadoImportacaoDTO> progresso) {
+        ImportacaoService servico = sessionContext.getBusinessObject(ImportacaoService.class);
+        return CompletableFuture.supplyAsync(() -> {
+            try (InputStream entrada = Files.newInputStream(arquivo)) {
+                return servico.importar(entrada, progresso);
+            } catch (IOException e) {
+                throw new CompletionException(new BusinessException("Erro ao ler arquivo CSV: " + e.getMessage(), e));
+            } catch (BusinessException e) {
+                throw new CompletionException(e);
+            } finally {
+                apagar(arquivo);
+            }
+        }, executor);
+    }
+    
+    /**
+     * Importa pessoas de um CSV.
+     * Executa fora de transação: cada bloco é gravado em sua própria transação,
+     * de modo que arquivos grandes não esbarram no timeout transacional.
+     * 
+     * @param entrada O conteúdo do arquivo CSV (UTF-8)
+     * @param progresso Notificado ao fim de cada bloco com o resultado parcial (pode ser nulo)
+     * @return O resultado final da importação
+     * @throws BusinessException Se o arquivo não puder ser lido
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public ResultadoImportacaoDTO importar(InputStream entrada, Consumer<ResultadoImportacaoDTO> progresso)
+            throws BusinessException {
+        long inicio = System.currentTimeMillis();
+        ResultadoImportacaoDTO resultado = new ResultadoImportacaoDTO();
+        LongHashSet cpfsDoArquivo = new LongHashSet();
+        
+        try (Reader leitor = new InputStreamReader(entrada, StandardCharsets.UTF_8);
+             CSVParser parser = FORMATO_CSV.parse(leitor)) {
+            
+            List<RegistroLido> bloco = new ArrayList<>(TAMANHO_BLOCO);
+            for (CSVRecord registro : parser) {
+                // Linha em que o registro termina, contando o cabeçalho e as linhas de
+                // campos entre aspas; o número do registro não conta nenhuma delas
+                bloco.add(new RegistroLido(registro, parser.getCurrentLineNumber()));
+                if (bloco.size() == TAMANHO_BLOCO) {
+                    processarBloco(bloco, cpfsDoArquivo, resultado);
+                    bloco.clear();
+                    notificar(progresso, resultado, inicio);
+                }
+            }
+            if (!bloco.isEmpty()) {
+                processarBloco(bloco, cpfsDoArquivo, resultado);
+            }
+        } catch (IOException | IllegalStateException e) {
+            throw new BusinessException("Erro ao ler arquivo CSV: " + e.getMessage(), e);
+        }
+        
+        resultado.setConcluida(true);
+        notificar(progresso, resultado, inicio);
+        LOGGER.info(String.format("Importação concluída: %d lidas, %d importadas, %d rejeitadas em %d ms",
+                resultado.getLinhasLidas(), resultado.getImportadas(), resultado.getRejeitadas(),
+                resultado.getTempoMillis()));
+        return resultado;
+    }
+    
+    /**
+     * Processa um bloco de registros: valida, deduplica e grava.
+     */
+    private void processarBloco(List<RegistroLido> bloco, LongHashSet cpfsDoArquivo, ResultadoImportacaoDTO resultado)
+            throws BusinessException {
+        resultado.setLinhasLidas(resultado.getLinhasLidas() + bloco.size());
+        
+        // Etapa 1: conversão e validação em paralelo (sem estado compartilhado)
+        List<LinhaImportacao> linhas = converterEmParalelo(bloco);
+        
+        // Etapa 2: CPFs repetidos dentro do próprio arquivo
+        List<LinhaImportacao> validas = new ArrayList<>(linhas.size());
+        for (LinhaImportacao linha : linhas) {
+            if (linha.erro != null) {
+                resultado.adicionarErro(linha.numero, linha.erro);
+            } else if (!cpfsDoArquivo.add(linha.cpf)) {
+                resultado.adicionarErro(linha.numero, "CPF repetido no arquivo");
+            } else {
+                validas.add(linha);
+            }
+        }
+        if (validas.isEmpty()) {
+            return;
+        }
+        
+        List<PessoaDTO> novas = new ArrayList<>(validas.size());
+        for (LinhaImportacao linha : validas) {
+            novas.add(linha.pessoa);
+        }
+        
+        // Etapa 3: gravação em lote, uma transação por bloco. Os CPFs já cadastrados,
+        // inclusive por uma gravação concorrente, são conferidos com os CPFs travados e
+        // recusados por linha, sem descartar o bloco
+        Set<Cpf> cadastrados;
+        try {
+            cadastrados = pessoaService.salvarNovasEmLote(novas);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Bloco não gravado; gravando linha a linha", e);
+            gravarLinhaALinha(validas, resultado);
+            return;
+        }
+        for (LinhaImportacao linha : validas) {
+            if (cadastrados.contains(linha.pessoa.getCpf())) {
+                resultado.adicionarErro(linha.numero, "Já existe um usuário cadastrado com esse CPF.");
+            }
+        }
+        resultado.setImportadas(resultado.getImportadas() + validas.size() - cadastrados.size());
+    }
+    
+    /**
+     * Grava cada linha de um bloco que falhou em sua própria transação, para que uma linha
+     * ruim (ex.: valor recusado pelo banco) não descarte as demais.
+     */
+    private void gravarLinhaALinha(List<LinhaImportacao> validas, ResultadoImportacaoDTO resultado) {
+        for (LinhaImportacao linha : validas) {
+            try {
+                if (pessoaService.salvarNovasEmLote(Collections.singletonList(linha.pessoa)).isEmpty()) {
+                    resultado.setImportadas(resultado.getImportadas() + 1);
+                } else {
+                    resultado.adicionarErro(linha.numero, "Já existe um usuário cadastrado com esse CPF.");
+                }
+            } catch (Exception e) {
+                resultado.adicionarErro(linha.numero, "Linha não gravada: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Converte e valida o bloco em partes de {@link #TAMANHO_PARTE} linhas, no executor
+     * gerenciado e na própria thread. A thread chamadora também consome partes e só
+     * espera as que já começaram em outra thread: se o executor estiver ocupado (inclusive
+     * com a própria importação), ela valida o bloco sozinha em vez de esperar uma vaga.
+     */
+    private List<LinhaImportacao> converterEmParalelo(List<RegistroLido> bloco) throws BusinessException {
+        LinhaImportacao[] linhas = new LinhaImportacao[bloco.size()];
+        AtomicInteger proxima = new AtomicInteger();
+        CountDownLatch partesPendentes = new CountDownLatch((linhas.length + TAMANHO_PARTE - 1) / TAMANHO_PARTE);
+        AtomicReference<RuntimeException> falha = new AtomicReference<>();
+        Runnable validarPartes = () -> {
+            int inicio;
+            while ((inicio = proxima.getAndAdd(TAMANHO_PARTE)) < linhas.length) {
+                try {
+                    for (int i = inicio, fim = Math.min(inicio + TAMANHO_PARTE, linhas.length); i < fim; i++) {
+                        linhas[i] = converterEValidar(bloco.get(i));
+                    }
+                } catch (RuntimeException e) {
+                    falha.compareAndSet(null, e);
+                } finally {
+                    partesPendentes.countDown();
+                }
+            }
+        };
+        int ajudantes = (int) Math.min(paralelismo - 1, partesPendentes.getCount() - 1);
+        try {
+            for (int i = 0; i < ajudantes; i++) {
+                executor.execute(validarPartes);
+            }
+        } catch (RejectedExecutionException e) {
+            LOGGER.log(Level.FINE, "Executor recusou a validação; seguindo na thread da importação", e);
+        }
+        validarPartes.run();
+        try {
+            partesPendentes.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Importação interrompida", e);
+        }
+        if (falha.get() != null) {
+            throw falha.get();
+        }
+        return Arrays.asList(linhas);
+    }
+    
+    /**
+     * Converte um registro CSV em PessoaDTO e aplica as regras de validação.
+     */
+    private static LinhaImportacao converterEValidar(RegistroLido lido) {
+        CSVRecord registro = lido.registro;
+        long numero = lido.linha;
+        try {
+            PessoaDTO pessoa = new PessoaDTO();
+            pessoa.setNome(valor(registro, "nome"));
+            pessoa.setDataNascimento(converterData(valor(registro, "dataNascimento")));
+            pessoa.setSexo(Sexo.fromCodigo(maiusculo(valor(registro, "sexo"))));
+            
+            String cpf = valor(registro, "cpf");
+            pessoa.setCpf(cpf != null ? Cpf.parse(cpf) : null);
+            PessoaService.validarPessoa(pessoa);
+            
+            String cep = valor(registro, "cep");
+            if (cep != null && !cep.isEmpty()) {
+                EnderecoDTO endereco = new EnderecoDTO();
+                endereco.setCep(cep);
+                endereco.setLogradouro(valor(registro, "logradouro"));
+                endereco.setNumero(converterNumero(valor(registro, "numero")));
+                endereco.setCidade(valor(registro, "cidade"));
+                endereco.setEstado(Estado.fromSigla(maiusculo(valor(registro, "estado"))));
+                EnderecoService.validarEndereco(endereco);
+                pessoa.getEnderecos().add(endereco);
+            }
+            
+            return new LinhaImportacao(numero, pessoa, pessoa.getCpf().getNumero(), null);
+        } catch (BusinessException e) {
+            return new LinhaImportacao(numero, null, 0L, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return new LinhaImportacao(numero, null, 0L, e.getMessage());
+        }
+    }
+    
+    private static String valor(CSVRecord registro, String coluna) {
+        if (!registro.isMapped(coluna) || !registro.isSet(coluna)) {
+            return null;
+        }
+        String valor = registro.get(coluna);
+        return valor.isEmpty() ? null : valor;
+    }
+    
+    private static String maiusculo(String valor) {
+        return valor != null ? valor.toUpperCase() : null;
+    }
+    
+    private static Date converterData(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            LocalDate data = LocalDate.parse(valor, FORMATO_DATA);
+            return Date.from(data.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data de nascimento inválida: " + valor);
+        }
+    }
+    
+    private static Integer converterNumero(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Número inválido: " + valor);
+        }
+    }
+    
+    private static void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Não foi possível apagar o arquivo temporário " + arquivo, e);
+        }
+    }
+    
+    private static void notificar(Consumer<ResultadoImportacaoDTO> progresso, ResultadoImportacaoDTO resultado,
+            long inicio) {
+        resultado.setTempoMillis(System.currentTimeMillis() - inicio);
+        if (progresso != null) {
+            progresso.accept(resultado);
+        }
+    }
+    
+    void setParalelismo(int paralelismo) {
+        this.paralelismo = paralelismo;
+    }
+    
+    /**
+     * Registro lido do arquivo, com a linha em que termina.
+     */
+    private static final class RegistroLido {
+        
+        private final CSVRecord registro;
+        private final long linha;
+        
+        private RegistroLido(CSVRecord registro, long linha) {
+            this.registro = registro;
+            this.linha = linha;
+        }
+    }
+    
+    /**
+     * Linha do arquivo após conversão: a pessoa válida ou o motivo da rejeição.
+     */
+    private static final class LinhaImportacao {
+        
+        private final long numero;
+        private final PessoaDTO pessoa;
+        private final long cpf;
+        private final String erro;
+        
+        private LinhaImportacao(long numero, PessoaDTO pessoa, long cpf, String erro) {
+            this.numero = numero;
+            this.pessoa = pessoa;
+            this.cpf = cpf;
+            this.erro = erro;
+        }
+    }
+}
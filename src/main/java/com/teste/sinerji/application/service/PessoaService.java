@@ -1,17 +1,35 @@
 package com.teste.sinerji.application.service;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 import jakarta.ejb.Stateless;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
 import com.teste.sinerji.application.dto.PessoaDTO;
+import com.teste.sinerji.application.dto.PessoaFiltro;
+import com.teste.sinerji.application.dto.PessoaResumo;
+import com.teste.sinerji.application.event.PerfilPessoa;
+import com.teste.sinerji.application.event.PessoaAlterada;
 import com.teste.sinerji.application.mapper.PessoaMapper;
 import com.teste.sinerji.domain.entity.Pessoa;
+import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.valueobject.Cpf;
+import com.teste.sinerji.infrastructure.cache.IndiceCpf;
+import com.teste.sinerji.infrastructure.cache.IndicePessoas;
+import com.teste.sinerji.infrastructure.persistence.SomenteLeitura;
+import com.teste.sinerji.infrastructure.persistence.TravasCpf;
 import com.teste.sinerji.infrastructure.repository.PessoaRepository;
 import com.teste.sinerji.shared.exception.BusinessException;
 import com.teste.sinerji.shared.exception.EntityNotFoundException;
@@ -32,13 +50,29 @@ public class PessoaService implements Serializable {
     @Inject
     private PessoaMapper pessoaMapper;
     
+    @Inject
+    private EstatisticaService estatisticaService;
+    
+    @Inject
+    private IndicePessoas indicePessoas;
+
+    @Inject
+    private IndiceCpf indiceCpf;
+
+    @Inject
+    private TravasCpf travasCpf;
+    
+    @Inject
+    private Event<PessoaAlterada> pessoaAlterada;
+    
     /**
      * Lista todas as pessoas cadastradas.
      * 
      * @return Lista de pessoas DTO
      */
+    @SomenteLeitura
     public List<PessoaDTO> listarTodas() {
-        List<Pessoa> pessoas = pessoaRepository.listarTodas();
+        List<Pessoa> pessoas = pessoaRepository.listarTodasComEnderecos();
         return pessoaMapper.toDTOList(pessoas);
     }
     
@@ -62,11 +96,115 @@ public class PessoaService implements Serializable {
      * @param nome O nome ou parte do nome para busca
      * @return Lista de pessoas encontradas
      */
+    @SomenteLeitura
     public List<PessoaDTO> buscarPorNome(String nome) {
-        List<Pessoa> pessoas = pessoaRepository.buscarPorNome(nome);
+        List<Pessoa> pessoas = pessoaRepository.buscarPorNomeComEnderecos(nome);
         return pessoaMapper.toDTOList(pessoas);
     }
     
+    /**
+     * Lista uma página de pessoas ordenada por nome usando paginação por cursor (keyset).
+     * Retorna resumos por projeção, com a quantidade de endereços calculada no banco.
+     * 
+     * @param filtro Critérios de filtro (pode ser nulo)
+     * @param ultimoNome Nome da última pessoa da página anterior, ou nulo para a primeira página
+     * @param ultimoId ID da última pessoa da página anterior, ou nulo para a primeira página
+     * @param tamanho Quantidade máxima de registros
+     * @param ascendente Direção da ordenação por nome
+     * @return Resumos das pessoas da página
+     */
+    @SomenteLeitura
+    public List<PessoaResumo> listarPaginaPorNome(PessoaFiltro filtro, String ultimoNome, Long ultimoId,
+            int tamanho, boolean ascendente) {
+        List<PessoaResumo> resumos = pessoaRepository.listarPaginaPorNome(resolverPeloIndice(filtro),
+                ultimoNome, ultimoId, tamanho, ascendente);
+        pessoaRepository.completarEnderecos(resumos);
+        return resumos;
+    }
+    
+    /**
+     * Lista uma página de pessoas por deslocamento, com ordenação pelo campo informado.
+     * Retorna resumos por projeção, com a quantidade de endereços calculada no banco.
+     * 
+     * @param filtro Critérios de filtro (pode ser nulo)
+     * @param inicio Índice do primeiro registro
+     * @param tamanho Quantidade máxima de registros
+     * @param campoOrdenacao Campo de ordenação
+     * @param ascendente Direção da ordenação
+     * @return Resumos das pessoas da página
+     */
+    @SomenteLeitura
+    public List<PessoaResumo> listarPagina(PessoaFiltro filtro, int inicio, int tamanho,
+            String campoOrdenacao, boolean ascendente) {
+        List<PessoaResumo> resumos = pessoaRepository.listarPagina(resolverPeloIndice(filtro),
+                inicio, tamanho, campoOrdenacao, ascendente);
+        pessoaRepository.completarEnderecos(resumos);
+        return resumos;
+    }
+    
+    /**
+     * Conta as pessoas que atendem ao filtro. Sem critério de nome ou CPF, a contagem
+     * é feita inteiramente no índice em memória.
+     * 
+     * @param filtro Critérios de filtro (pode ser nulo)
+     * @return O número de pessoas encontradas
+     */
+    @SomenteLeitura
+    public long contar(PessoaFiltro filtro) {
+        if (IndicePessoas.atendeTodos(filtro)) {
+            return indicePessoas.contar(filtro);
+        }
+        return pessoaRepository.contar(resolverPeloIndice(filtro));
+    }
+    
+    /**
+     * Conta as pessoas que atendem ao filtro pela UF do endereço principal. Sem critério de
+     * nome ou CPF, a contagem é feita no índice em memória; com UF no filtro, apenas ela é
+     * retornada.
+     * 
+     * @param filtro Critérios de filtro (pode ser nulo)
+     * @return Quantidade por UF, na ordem da enumeração, apenas para as UFs com pessoas
+     */
+    @SomenteLeitura
+    public Map<Estado, Long> contarPorEstado(PessoaFiltro filtro) {
+        Map<Estado, Long> resultado = new EnumMap<>(Estado.class);
+        if (IndicePessoas.atendeTodos(filtro)) {
+            resultado.putAll(indicePessoas.contarPorEstado(filtro));
+        } else {
+            for (Object[] linha : pessoaRepository.contarPorEstadoDoEnderecoPrincipal(resolverPeloIndice(filtro))) {
+                resultado.put((Estado) linha[0], (Long) linha[1]);
+            }
+        }
+        if (filtro != null && filtro.getEstado() != null) {
+            resultado.keySet().retainAll(Collections.singleton(filtro.getEstado()));
+        }
+        return Collections.unmodifiableMap(resultado);
+    }
+    
+    /**
+     * Substitui os critérios indexados do filtro (sexo, UF, cidade, idade, mês) pelos IDs
+     * que os atendem, quando o resultado é pequeno o bastante para "id IN (...)".
+     * Nome e CPF continuam como predicados SQL.
+     */
+    private PessoaFiltro resolverPeloIndice(PessoaFiltro filtro) {
+        if (!IndicePessoas.atendeAlgum(filtro)) {
+            return filtro;
+        }
+        List<Long> ids = indicePessoas.listarIds(filtro, IndicePessoas.LIMITE_IDS);
+        if (ids == null) {
+            return filtro;
+        }
+        return filtro.toBuilder()
+                .ids(ids)
+                .cidade(null)
+                .estado(null)
+                .sexo(null)
+                .idadeMinima(null)
+                .idadeMaxima(null)
+                .mesNascimento(null)
+                .build();
+    }
+    
     /**
      * Salva uma nova pessoa.
      * 
@@ -83,6 +221,7 @@ public class PessoaService implements Serializable {
         }
 
         validarPessoa(dto);
+        verificarCpfDisponivel(dto.getCpf(), null);
 
         Pessoa pessoa = pessoaMapper.toEntity(dto);
         try {
@@ -91,10 +230,118 @@ public class PessoaService implements Serializable {
             verificarCpfDuplicado(e);
             throw e;
         }
+        estatisticaService.registrar(Collections.emptyMap(), EstatisticaService.contribuicao(pessoa));
+        pessoaAlterada.fire(new PessoaAlterada(null, PerfilPessoa.de(pessoa), pessoa.getNome(), pessoa.getCpf()));
 
         return pessoaMapper.toDTO(pessoa);
     }
     
+    /**
+     * Salva uma lista de novas pessoas em lote, com inserções JDBC agrupadas.
+     * Todas as pessoas são validadas antes de qualquer inserção.
+     * 
+     * @param dtos Dados das pessoas a serem salvas
+     * @return A quantidade de pessoas salvas
+     * @throws BusinessException Se houver erro de validação ou CPF duplicado
+     */
+    @Transactional
+    public int salvarEmLote(List<PessoaDTO> dtos) throws BusinessException {
+        Objects.requireNonNull(dtos, "Lista de pessoas não pode ser nula");
+        
+        validarLote(dtos);
+        if (!buscarCpfsCadastrados(dtos).isEmpty()) {
+            throw new BusinessException("Já existe um usuário cadastrado com esse CPF.");
+        }
+        return gravarEmLote(dtos);
+    }
+    
+    /**
+     * Salva em lote as novas pessoas cujo CPF ainda não está cadastrado e devolve os CPFs
+     * recusados, em vez de falhar o lote inteiro. A conferência é feita com os CPFs já
+     * travados, de modo que uma inclusão concorrente do mesmo CPF (ex.: pela tela durante
+     * uma importação) é recusada na linha, e não na restrição única.
+     * 
+     * @param dtos Dados das pessoas a serem salvas
+     * @return Os CPFs já cadastrados, que não foram gravados
+     * @throws BusinessException Se houver erro de validação ou a espera pelos CPFs esgotar
+     */
+    @Transactional
+    public Set<Cpf> salvarNovasEmLote(List<PessoaDTO> dtos) throws BusinessException {
+        Objects.requireNonNull(dtos, "Lista de pessoas não pode ser nula");
+        
+        validarLote(dtos);
+        Set<Cpf> cadastrados = buscarCpfsCadastrados(dtos);
+        List<PessoaDTO> novas = dtos;
+        if (!cadastrados.isEmpty()) {
+            novas = new ArrayList<>(dtos.size());
+            for (PessoaDTO dto : dtos) {
+                if (!cadastrados.contains(dto.getCpf())) {
+                    novas.add(dto);
+                }
+            }
+        }
+        gravarEmLote(novas);
+        return cadastrados;
+    }
+    
+    private static void validarLote(List<PessoaDTO> dtos) throws BusinessException {
+        for (PessoaDTO dto : dtos) {
+            if (dto.getId() != null) {
+                throw new BusinessException("ID deve ser nulo para uma nova pessoa");
+            }
+            validarPessoa(dto);
+        }
+    }
+    
+    /**
+     * Trava os CPFs do lote até o fim da transação e retorna os que já estão cadastrados.
+     * Só os CPFs que o índice não descarta são confirmados no banco, em uma única consulta;
+     * se foi preciso esperar outra gravação, todos são confirmados.
+     */
+    private Set<Cpf> buscarCpfsCadastrados(List<PessoaDTO> dtos) throws BusinessException {
+        List<Cpf> cpfs = new ArrayList<>(dtos.size());
+        for (PessoaDTO dto : dtos) {
+            cpfs.add(dto.getCpf());
+        }
+        boolean esperou = travasCpf.travarTodos(cpfs);
+        List<Cpf> provaveis = new ArrayList<>();
+        for (Cpf cpf : cpfs) {
+            if (esperou || indiceCpf.talvezCadastrado(cpf)) {
+                provaveis.add(cpf);
+            }
+        }
+        if (provaveis.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(pessoaRepository.buscarCpfsExistentes(provaveis));
+    }
+    
+    private int gravarEmLote(List<PessoaDTO> dtos) throws BusinessException {
+        List<Pessoa> pessoas = new ArrayList<>(dtos.size());
+        Map<String, Long> contribuicao = new HashMap<>();
+        for (PessoaDTO dto : dtos) {
+            Pessoa pessoa = pessoaMapper.toEntity(dto);
+            pessoas.add(pessoa);
+            EstatisticaService.acumular(contribuicao, EstatisticaService.contribuicao(pessoa));
+        }
+        if (pessoas.isEmpty()) {
+            return 0;
+        }
+        
+        int salvas;
+        try {
+            salvas = pessoaRepository.salvarEmLote(pessoas);
+        } catch (Exception e) {
+            verificarCpfDuplicado(e);
+            throw e;
+        }
+        estatisticaService.registrar(Collections.emptyMap(), contribuicao);
+        for (Pessoa pessoa : pessoas) {
+            pessoaAlterada.fire(new PessoaAlterada(null, PerfilPessoa.de(pessoa), pessoa.getNome(), pessoa.getCpf()));
+        }
+        return salvas;
+    }
+    
     /**
      * Atualiza uma pessoa existente.
      * 
@@ -111,10 +358,17 @@ public class PessoaService implements Serializable {
             throw new BusinessException("ID é obrigatório para atualização");
         }
         
-        buscarPorId(dto.getId());
+        Pessoa atual = pessoaRepository.buscarPorId(dto.getId()).orElseThrow(() ->
+            new EntityNotFoundException("Pessoa não encontrada com o ID: " + dto.getId()));
         
         validarPessoa(dto);
+        if (!dto.getCpf().equals(atual.getCpf())) {
+            verificarCpfDisponivel(dto.getCpf(), dto.getId());
+        }
         
+        // Calculada antes do merge, que sobrescreve a entidade gerenciada
+        Map<String, Long> antes = EstatisticaService.contribuicao(atual);
+        PerfilPessoa perfilAntes = PerfilPessoa.de(atual);
         Pessoa pessoa = pessoaMapper.toEntity(dto);
         try {
             pessoa = pessoaRepository.salvar(pessoa);
@@ -122,6 +376,8 @@ public class PessoaService implements Serializable {
             verificarCpfDuplicado(e);
             throw e;
         }
+        estatisticaService.registrar(antes, EstatisticaService.contribuicao(pessoa));
+        pessoaAlterada.fire(new PessoaAlterada(perfilAntes, PerfilPessoa.de(pessoa), pessoa.getNome(), pessoa.getCpf()));
         
         return pessoaMapper.toDTO(pessoa);
     }
@@ -141,25 +397,31 @@ public class PessoaService implements Serializable {
             throw new EntityNotFoundException("Pessoa não encontrada com o ID: " + id);
         }
         
+        Map<String, Long> antes = EstatisticaService.contribuicao(pessoaOpt.get());
+        PerfilPessoa perfilAntes = PerfilPessoa.de(pessoaOpt.get());
         pessoaRepository.remover(id);
+        estatisticaService.registrar(antes, Collections.emptyMap());
+        pessoaAlterada.fire(new PessoaAlterada(perfilAntes, null));
     }
     
     /**
-     * Conta o total de pessoas cadastradas.
+     * Conta o total de pessoas cadastradas, a partir da tabela de estatísticas.
      * 
      * @return O número total de pessoas
      */
+    @SomenteLeitura
     public long contarTodas() {
-        return pessoaRepository.contarTodas();
+        return estatisticaService.valor(EstatisticaService.PESSOAS);
     }
     
     /**
      * Valida os dados de uma pessoa.
+     * Não depende de estado do bean, podendo ser reutilizada por outros serviços (ex.: importação).
      * 
      * @param dto A pessoa a ser validada
      * @throws BusinessException Se houver erro de validação
      */
-    private void validarPessoa(PessoaDTO dto) throws BusinessException {
+    static void validarPessoa(PessoaDTO dto) throws BusinessException {
         if (dto == null) {
             throw new BusinessException("Dados da pessoa são obrigatórios");
         }
@@ -168,10 +430,10 @@ public class PessoaService implements Serializable {
             throw new BusinessException("Nome é obrigatório");
         }
 
-        if (dto.getCpf() == null || dto.getCpf().trim().isEmpty()) {
+        if (dto.getCpf() == null) {
             throw new BusinessException("CPF é obrigatório");
         }
-        if (!isCpfValido(dto.getCpf())) {
+        if (!dto.getCpf().isValido()) {
             throw new BusinessException("CPF inválido");
         }
 
@@ -184,6 +446,28 @@ public class PessoaService implements Serializable {
         }
     }
 
+    /**
+     * Recusa, antes do INSERT, um CPF já cadastrado para outra pessoa. O CPF fica travado
+     * até o fim da transação, de modo que gravações concorrentes do mesmo CPF se
+     * enfileiram em vez de colidirem na restrição única. O índice em memória descarta sem
+     * consulta os CPFs certamente novos; os demais, e os de quem esperou outra gravação,
+     * são confirmados no banco.
+     * 
+     * @param cpf O CPF a gravar
+     * @param id ID da pessoa gravada, ou null em inclusões
+     * @throws BusinessException Se o CPF pertencer a outra pessoa ou continuar travado
+     */
+    private void verificarCpfDisponivel(Cpf cpf, Long id) throws BusinessException {
+        // Quem esperou pode ver o CPF gravado antes de o índice receber o evento
+        boolean esperou = travasCpf.travar(cpf);
+        if (esperou || indiceCpf.talvezCadastrado(cpf)) {
+            Optional<Long> dono = pessoaRepository.buscarIdPorCpf(cpf);
+            if (dono.isPresent() && !dono.get().equals(id)) {
+                throw new BusinessException("Já existe um usuário cadastrado com esse CPF.");
+            }
+        }
+    }
+    
     /**
      * Verifica se a exceção contém mensagem relacionada a CPF duplicado
      * 
@@ -200,32 +484,4 @@ public class PessoaService implements Serializable {
             cause = cause.getCause();
         }
     }
-    
-    /**
-     * Validação de CPF baseada no algoritmo oficial
-     * 
-     * @param cpf O CPF a ser validado
-     * @return true se o CPF for válido, false caso contrário
-     */
-    private boolean isCpfValido(String cpf) {
-        if (cpf == null) return false;
-        cpf = cpf.replaceAll("\\D", "");
-        if (cpf.length() != 11 || cpf.matches("(\\d)\\1{10}")) return false;
-        try {
-            int d1 = 0, d2 = 0;
-            for (int i = 0; i < 9; i++) {
-                int digito = Character.getNumericValue(cpf.charAt(i));
-                d1 += digito * (10 - i);
-                d2 += digito * (11 - i);
-            }
-            int resto1 = d1 % 11;
-            int dv1 = (resto1 < 2) ? 0 : 11 - resto1;
-            d2 += dv1 * 2;
-            int resto2 = d2 % 11;
-            int dv2 = (resto2 < 2) ? 0 : 11 - resto2;
-            return dv1 == Character.getNumericValue(cpf.charAt(9)) && dv2 == Character.getNumericValue(cpf.charAt(10));
-        } catch (Exception e) {
-            return false;
-        }
-    }
 }
@@ -0,0 +1,67 @@
+package com.teste.sinerji.domain.entity;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entrada do cache persistente de CEPs, compartilhado entre os nós do cluster.
+ * 
+ * @author Teste Sinerji
+ */
+@Entity
+@Table(name = "cep_cache")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "cep")
+public class CepCacheEntrada implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /** CEP com 8 dígitos, sem formatação. */
+    @Id
+    @Column(name = "cep", length = 8)
+    private String cep;
+    
+    @Column(name = "logradouro", length = 200)
+    private String logradouro;
+    
+    @Column(name = "bairro", length = 100)
+    private String bairro;
+    
+    @Column(name = "cidade", length = 100)
+    private String cidade;
+    
+    @Column(name = "estado", length = 2)
+    private String estado;
+    
+    /** Resposta "CEP não encontrado" da ViaCEP. */
+    @Column(name = "nao_encontrado", nullable = false)
+    private boolean naoEncontrado;
+    
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "atualizado_em", nullable = false)
+    private Date atualizadoEm;
+    
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "expira_em", nullable = false)
+    private Date expiraEm;
+    
+    /** Total de consultas ao CEP; define as entradas pré-carregadas na inicialização. */
+    @Column(name = "acessos", nullable = false)
+    private long acessos;
+}
@@ -2,6 +2,7 @@ package com.teste.sinerji.domain.entity;
 
 import java.io.Serializable;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -12,6 +13,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotBlank;
@@ -19,13 +23,19 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.shared.util.TextoBusca;
+import lombok.AccessLevel;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
 
 /**
@@ -35,6 +45,8 @@ import lombok.ToString;
  */
 @Entity
 @Table(name = "endereco")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Endereco.REGIAO_CACHE)
 @Data
 @Builder
 @NoArgsConstructor
@@ -44,8 +56,14 @@ public class Endereco implements Serializable {
     
     private static final long serialVersionUID = 1L;
     
+    /**
+     * Região do cache de segundo nível (configurada no ehcache.xml).
+     */
+    public static final String REGIAO_CACHE = "endereco";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "endereco_seq")
+    @SequenceGenerator(name = "endereco_seq", sequenceName = "endereco_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Estado é obrigatório")
@@ -58,6 +76,13 @@ public class Endereco implements Serializable {
     @Column(name = "cidade", length = 100, nullable = false)
     private String cidade;
     
+    /**
+     * Cidade normalizada para busca ({@link TextoBusca}), calculada a cada gravação.
+     */
+    @Column(name = "cidade_busca", length = 100)
+    @Setter(AccessLevel.NONE)
+    private String cidadeBusca;
+    
     @NotBlank(message = "Logradouro é obrigatório")
     @Size(min = 5, max = 100, message = "Logradouro deve ter entre 5 e 100 caracteres")
     @Column(name = "logradouro", length = 100, nullable = false)
@@ -78,6 +103,15 @@ public class Endereco implements Serializable {
     @ToString.Exclude
     private Pessoa pessoa;
     
+    /**
+     * Recalcula as colunas de busca a partir dos valores atuais.
+     */
+    @PrePersist
+    @PreUpdate
+    public void atualizarBusca() {
+        cidadeBusca = TextoBusca.normalizar(cidade);
+    }
+    
     /**
      * Retorna o endereço completo formatado.
      * 
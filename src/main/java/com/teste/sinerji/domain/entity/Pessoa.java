@@ -6,17 +6,24 @@ import java.util.Date;
 import java.util.List;
 
 import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.domain.valueobject.Cpf;
+import com.teste.sinerji.domain.valueobject.CpfAttributeConverter;
+import com.teste.sinerji.shared.util.TextoBusca;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
 import jakarta.validation.constraints.Size;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
 
 /**
@@ -26,6 +33,9 @@ import lombok.ToString;
  */
 @Entity
 @Table(name = "pessoa")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Pessoa.REGIAO_CACHE)
+@NamedEntityGraph(name = Pessoa.GRAFO_COM_ENDERECOS, attributeNodes = @NamedAttributeNode("enderecos"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -35,8 +45,20 @@ public class Pessoa implements Serializable {
     
     private static final long serialVersionUID = 1L;
     
+    /**
+     * Grafo de busca que carrega os endereços junto com a pessoa.
+     */
+    public static final String GRAFO_COM_ENDERECOS = "Pessoa.comEnderecos";
+    
+    /**
+     * Regiões do cache de segundo nível (configuradas no ehcache.xml).
+     */
+    public static final String REGIAO_CACHE = "pessoa";
+    public static final String REGIAO_CACHE_ENDERECOS = "pessoa.enderecos";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pessoa_seq")
+    @SequenceGenerator(name = "pessoa_seq", sequenceName = "pessoa_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Nome é obrigatório")
@@ -44,10 +66,17 @@ public class Pessoa implements Serializable {
     @Column(name = "nome", length = 150, nullable = false)
     private String nome;
     
-    @NotBlank(message = "CPF é obrigatório")
-    @Size(min = 11, max = 14, message = "CPF deve ter entre 11 e 14 caracteres")
-    @Column(name = "cpf", length = 14, nullable = false, unique = true)
-    private String cpf;
+    /**
+     * Nome normalizado para busca ({@link TextoBusca}), calculado a cada gravação.
+     */
+    @Column(name = "nome_busca", length = 150)
+    @Setter(AccessLevel.NONE)
+    private String nomeBusca;
+    
+    @NotNull(message = "CPF é obrigatório")
+    @Convert(converter = CpfAttributeConverter.class)
+    @Column(name = "cpf", nullable = false, unique = true)
+    private Cpf cpf;
     
     @NotNull(message = "Data de nascimento é obrigatória")
     @Past(message = "Data de nascimento deve ser no passado")
@@ -61,10 +90,20 @@ public class Pessoa implements Serializable {
     private Sexo sexo;
     
     @OneToMany(mappedBy = "pessoa", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Pessoa.REGIAO_CACHE_ENDERECOS)
     @ToString.Exclude
     @Builder.Default
     private List<Endereco> enderecos = new ArrayList<>();
     
+    /**
+     * Recalcula as colunas de busca a partir dos valores atuais.
+     */
+    @PrePersist
+    @PreUpdate
+    public void atualizarBusca() {
+        nomeBusca = TextoBusca.normalizar(nome);
+    }
+    
     /**
      * Adiciona um endereço à pessoa e estabelece o relacionamento bidirecional.
      * 
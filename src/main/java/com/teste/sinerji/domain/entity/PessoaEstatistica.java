@@ -0,0 +1,60 @@
+package com.teste.sinerji.domain.entity;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Faixa de um contador da tabela {@code pessoa_estatisticas}.
+ * 
+ * Cada contador (ex.: "pessoas", "sexo:M", "uf:PE", "mes:3") é dividido em várias linhas,
+ * uma por faixa; o valor do contador é a soma das faixas. Cada transação incrementa uma
+ * faixa sorteada, de modo que gravações simultâneas raramente disputam a mesma linha.
+ * 
+ * @author Teste Sinerji
+ */
+@Entity
+@Table(name = "pessoa_estatisticas")
+@IdClass(PessoaEstatistica.ChaveFaixa.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = {"chave", "faixa"})
+public class PessoaEstatistica implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    @Id
+    @Column(name = "chave", length = 16)
+    private String chave;
+    
+    @Id
+    @Column(name = "faixa")
+    private int faixa;
+    
+    @Column(name = "valor", nullable = false)
+    private long valor;
+    
+    /**
+     * Chave composta (chave, faixa).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChaveFaixa implements Serializable {
+    
+        private static final long serialVersionUID = 1L;
+    
+        private String chave;
+        private int faixa;
+    }
+}
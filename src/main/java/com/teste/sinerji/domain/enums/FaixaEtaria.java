@@ -0,0 +1,59 @@
+package com.teste.sinerji.domain.enums;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import lombok.Getter;
+
+/**
+ * Enumeração das faixas etárias usadas nos indicadores.
+ *
+ * @author Teste Sinerji
+ */
+@Getter
+public enum FaixaEtaria {
+
+    ATE_17("Até 17 anos", 0),
+    DE_18_A_29("18 a 29 anos", 18),
+    DE_30_A_44("30 a 44 anos", 30),
+    DE_45_A_59("45 a 59 anos", 45),
+    A_PARTIR_DE_60("60 anos ou mais", 60);
+
+    private final String descricao;
+
+    private final int idadeMinima;
+
+    FaixaEtaria(String descricao, int idadeMinima) {
+        this.descricao = descricao;
+        this.idadeMinima = idadeMinima;
+    }
+
+    public static FaixaEtaria deIdade(int idade) {
+        FaixaEtaria[] faixas = FaixaEtaria.values();
+        for (int i = faixas.length - 1; i > 0; i--) {
+            if (idade >= faixas[i].idadeMinima) {
+                return faixas[i];
+            }
+        }
+        return faixas[0];
+    }
+
+    /**
+     * Faixa cujos limites coincidem exatamente com um intervalo de idades de filtro.
+     *
+     * @param idadeMinima Idade mínima, ou null
+     * @param idadeMaxima Idade máxima, ou null
+     * @return A faixa, ou vazio se o intervalo não corresponder a uma única faixa
+     */
+    public static Optional<FaixaEtaria> doIntervalo(Integer idadeMinima, Integer idadeMaxima) {
+        int minima = idadeMinima != null ? idadeMinima : 0;
+        FaixaEtaria[] faixas = FaixaEtaria.values();
+        for (int i = 0; i < faixas.length; i++) {
+            Integer maxima = i + 1 < faixas.length ? faixas[i + 1].idadeMinima - 1 : null;
+            if (minima == faixas[i].idadeMinima && Objects.equals(idadeMaxima, maxima)) {
+                return Optional.of(faixas[i]);
+            }
+        }
+        return Optional.empty();
+    }
+}
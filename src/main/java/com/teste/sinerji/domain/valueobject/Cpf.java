@@ -0,0 +1,170 @@
+package com.teste.sinerji.domain.valueobject;
+
+import java.io.Serializable;
+
+/**
+ * CPF como valor: os 11 dígitos guardados em um {@code long}, gravado em coluna
+ * {@code bigint}. O texto digitado é lido uma única vez, ignorando a pontuação, e a
+ * formatação 000.000.000-00 só é montada quando exibida.
+ *
+ * Um CPF pode ser criado com dígitos verificadores incorretos (o valor digitado pelo
+ * usuário); a validação é feita à parte, por {@link #isValido()}, sem alocar objetos.
+ *
+ * @author Teste Sinerji
+ */
+public final class Cpf implements Serializable, Comparable<Cpf> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Maior número de 11 dígitos. */
+    public static final long MAXIMO = 99_999_999_999L;
+
+    /** Os CPFs de dígitos repetidos (000.000.000-00 ... 999.999.999-99) são os múltiplos deste número. */
+    private static final long REPETIDOS = 11_111_111_111L;
+
+    private final long numero;
+
+    private transient String formatado;
+
+    private Cpf(long numero) {
+        this.numero = numero;
+    }
+
+    /**
+     * Cria o CPF a partir do número de 11 dígitos.
+     *
+     * @param numero O número, de 0 a {@value #MAXIMO}
+     * @return O CPF
+     * @throws IllegalArgumentException Se o número tiver mais de 11 dígitos ou for negativo
+     */
+    public static Cpf of(long numero) {
+        if (numero < 0 || numero > MAXIMO) {
+            throw new IllegalArgumentException("CPF inválido");
+        }
+        return new Cpf(numero);
+    }
+
+    /**
+     * Lê o CPF de um texto com ou sem formatação.
+     *
+     * @param texto O texto digitado (ex.: "529.982.247-25" ou "52998224725")
+     * @return O CPF
+     * @throws IllegalArgumentException Se o texto não tiver exatamente 11 dígitos
+     */
+    public static Cpf parse(CharSequence texto) {
+        long numero = numero(texto);
+        if (numero < 0) {
+            throw new IllegalArgumentException("CPF inválido");
+        }
+        return new Cpf(numero);
+    }
+
+    /**
+     * Extrai o número do texto, ignorando os caracteres que não são dígitos.
+     *
+     * @param texto O texto (pode ser nulo)
+     * @return O número, ou -1 se o texto não tiver exatamente 11 dígitos
+     */
+    public static long numero(CharSequence texto) {
+        if (texto == null) {
+            return -1;
+        }
+        long numero = 0;
+        int digitos = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digitos > 11) {
+                    return -1;
+                }
+                numero = numero * 10 + (c - '0');
+            }
+        }
+        return digitos == 11 ? numero : -1;
+    }
+
+    /**
+     * Valida os dígitos verificadores pelo algoritmo oficial (módulo 11).
+     *
+     * @param numero O número de 11 dígitos
+     * @return true se o CPF for válido
+     */
+    public static boolean valido(long numero) {
+        if (numero < 0 || numero > MAXIMO || numero % REPETIDOS == 0) {
+            return false;
+        }
+        // Os 9 primeiros dígitos, do último para o primeiro: pesos 2..10 (1º DV) e 3..11 (2º DV)
+        long base = numero / 100;
+        int soma1 = 0;
+        int soma2 = 0;
+        for (int peso = 2; peso <= 10; peso++) {
+            int digito = (int) (base % 10);
+            base /= 10;
+            soma1 += digito * peso;
+            soma2 += digito * (peso + 1);
+        }
+        int resto1 = soma1 % 11;
+        int dv1 = resto1 < 2 ? 0 : 11 - resto1;
+        int resto2 = (soma2 + dv1 * 2) % 11;
+        int dv2 = resto2 < 2 ? 0 : 11 - resto2;
+        return numero % 100 == dv1 * 10 + dv2;
+    }
+
+    /**
+     * Valida um CPF em texto, com ou sem formatação.
+     *
+     * @param texto O texto (pode ser nulo)
+     * @return true se o texto tiver 11 dígitos e os verificadores estiverem corretos
+     */
+    public static boolean valido(CharSequence texto) {
+        return valido(numero(texto));
+    }
+
+    public boolean isValido() {
+        return valido(numero);
+    }
+
+    public long getNumero() {
+        return numero;
+    }
+
+    /**
+     * @return O CPF no formato 000.000.000-00
+     */
+    @Override
+    public String toString() {
+        String texto = formatado;
+        if (texto == null) {
+            char[] c = new char[14];
+            long resto = numero;
+            for (int i = 13; i >= 0; i--) {
+                if (i == 11) {
+                    c[i] = '-';
+                } else if (i == 3 || i == 7) {
+                    c[i] = '.';
+                } else {
+                    c[i] = (char) ('0' + resto % 10);
+                    resto /= 10;
+                }
+            }
+            texto = new String(c);
+            formatado = texto;
+        }
+        return texto;
+    }
+
+    @Override
+    public int compareTo(Cpf outro) {
+        return Long.compare(numero, outro.numero);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Cpf && ((Cpf) obj).numero == numero;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(numero);
+    }
+}
@@ -0,0 +1,23 @@
+package com.teste.sinerji.domain.valueobject;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Grava o {@link Cpf} como número ({@code bigint}), sem formatação.
+ *
+ * @author Teste Sinerji
+ */
+@Converter
+public class CpfAttributeConverter implements AttributeConverter<Cpf, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Cpf cpf) {
+        return cpf != null ? cpf.getNumero() : null;
+    }
+
+    @Override
+    public Cpf convertToEntityAttribute(Long numero) {
+        return numero != null ? Cpf.of(numero) : null;
+    }
+}
@@ -0,0 +1,143 @@
+package com.teste.sinerji.infrastructure.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import com.teste.sinerji.application.dto.ViaCepDTO;
+import com.teste.sinerji.shared.cache.CacheLruTtl;
+import com.teste.sinerji.shared.metrics.RegistroMetricas;
+
+/**
+ * Cache de CEPs compartilhado por toda a aplicação.
+ * 
+ * Guarda respostas da ViaCEP com TTL longo e respostas "CEP não encontrado"
+ * ({@link ViaCepDTO#isErro()}) com TTL curto. Consultas simultâneas ao mesmo CEP
+ * ausente do cache são agrupadas: apenas a primeira chama o carregador, e as demais
+ * aguardam o mesmo resultado.
+ * 
+ * @author Teste Sinerji
+ */
+@ApplicationScoped
+public class CepCache {
+    
+    static final int CAPACIDADE_MAXIMA = 50_000;
+    static final long TTL_NANOS = TimeUnit.HOURS.toNanos(24);
+    static final long TTL_NAO_ENCONTRADO_NANOS = TimeUnit.MINUTES.toNanos(10);
+    
+    private final CacheLruTtl<String, ViaCepDTO> cache;
+    private final ConcurrentMap<String, CompletableFuture<ViaCepDTO>> emAndamento = new ConcurrentHashMap<>();
+    private final LongAdder agrupadas = new LongAdder();
+    
+    @Inject
+    private RegistroMetricas registroMetricas;
+    
+    public CepCache() {
+        this(new CacheLruTtl<>(CAPACIDADE_MAXIMA));
+    }
+    
+    CepCache(CacheLruTtl<String, ViaCepDTO> cache) {
+        this.cache = cache;
+    }
+    
+    @PostConstruct
+    void registrarMetricas() {
+        registroMetricas.registrarContador("cep_cache_acertos_total", "Consultas de CEP atendidas pelo cache", cache::getAcertos);
+        registroMetricas.registrarContador("cep_cache_faltas_total", "Consultas de CEP ausentes do cache", cache::getFaltas);
+        registroMetricas.registrarContador("cep_cache_despejos_total", "Entradas despejadas por limite de tamanho", cache::getDespejos);
+        registroMetricas.registrarContador("cep_cache_expiracoes_total", "Entradas descartadas por TTL", cache::getExpiracoes);
+        registroMetricas.registrarContador("cep_cache_agrupadas_total", "Consultas que aguardaram uma consulta em andamento", agrupadas::sum);
+        registroMetricas.registrarMedidor("cep_cache_entradas", "Entradas atualmente no cache", cache::size);
+    }
+    
+    /**
+     * Obtém o CEP do cache ou, em caso de falta, do carregador informado.
+     * Se já houver uma consulta em andamento para o mesmo CEP, devolve o mesmo resultado
+     * em vez de iniciar outra.
+     * 
+     * @param cep CEP normalizado (8 dígitos)
+     * @param carregador Consulta a fonte externa; pode devolver DTO com erro=true para CEP inexistente
+     * @return Futuro com o DTO do CEP (com erro=true se o CEP não existir)
+     */
+    public CompletableFuture<ViaCepDTO> obterAsync(String cep, CarregadorCep carregador) {
+        ViaCepDTO emCache = cache.get(cep);
+        if (emCache != null) {
+            return CompletableFuture.completedFuture(emCache);
+        }
+        
+        CompletableFuture<ViaCepDTO> novo = new CompletableFuture<>();
+        CompletableFuture<ViaCepDTO> existente = emAndamento.putIfAbsent(cep, novo);
+        if (existente != null) {
+            agrupadas.increment();
+            return existente.copy();
+        }
+        
+        CompletableFuture<ViaCepDTO> carga;
+        try {
+            carga = carregador.carregar(cep);
+        } catch (RuntimeException e) {
+            carga = CompletableFuture.failedFuture(e);
+        }
+        
+        carga.whenComplete((dto, erro) -> {
+            if (erro == null) {
+                armazenar(cep, dto);
+            }
+            // Remove antes de completar: quem chegar depois já encontra o valor no cache
+            emAndamento.remove(cep, novo);
+            if (erro == null) {
+                novo.complete(dto);
+            } else {
+                novo.completeExceptionally(erro instanceof CompletionException && erro.getCause() != null
+                        ? erro.getCause() : erro);
+            }
+        });
+        return novo.copy();
+    }
+    
+    /**
+     * Armazena diretamente um resultado (ex.: vindo de outra camada de cache).
+     * 
+     * @param cep CEP normalizado
+     * @param dto O DTO a armazenar
+     */
+    public void armazenar(String cep, ViaCepDTO dto) {
+        if (dto != null) {
+            cache.put(cep, dto, dto.isErro() ? TTL_NAO_ENCONTRADO_NANOS : TTL_NANOS);
+        }
+    }
+    
+    /**
+     * Consulta apenas o cache, sem carregar em caso de falta.
+     * 
+     * @param cep CEP normalizado
+     * @return O DTO em cache, ou null
+     */
+    public ViaCepDTO consultar(String cep) {
+        return cache.get(cep);
+    }
+    
+    public void limpar() {
+        cache.clear();
+    }
+    
+    CacheLruTtl<String, ViaCepDTO> getCache() {
+        return cache;
+    }
+    
+    /**
+     * Carrega um CEP da fonte externa.
+     */
+    @FunctionalInterface
+    public interface CarregadorCep {
+        
+        CompletableFuture<ViaCepDTO> carregar(String cep);
+    }
+}
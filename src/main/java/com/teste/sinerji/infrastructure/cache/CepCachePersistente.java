@@ -0,0 +1,224 @@
+package com.teste.sinerji.infrastructure.cache;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+
+import com.teste.sinerji.application.dto.ViaCepDTO;
+import com.teste.sinerji.domain.entity.CepCacheEntrada;
+import com.teste.sinerji.infrastructure.repository.CepCacheRepository;
+import com.teste.sinerji.shared.metrics.RegistroMetricas;
+
+/**
+ * Segundo nível do cache de CEPs, na tabela {@code cep_cache}, compartilhado pelos nós do cluster.
+ * 
+ * Leitura: consultada quando o CEP falta no cache em memória, antes da ViaCEP.
+ * Escrita: respostas da ViaCEP entram em uma fila e são gravadas em lote a cada 10 segundos,
+ * fora do caminho da requisição. As contagens de acesso seguem o mesmo esquema.
+ * Na inicialização, as entradas mais consultadas são copiadas para o cache em memória.
+ * 
+ * @author Teste Sinerji
+ */
+@Singleton
+@Startup
+@DependsOn("MigracaoBanco")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class CepCachePersistente {
+    
+    private static final Logger LOGGER = Logger.getLogger(CepCachePersistente.class.getName());
+    
+    static final long VALIDADE_MILLIS = TimeUnit.DAYS.toMillis(30);
+    static final long VALIDADE_NAO_ENCONTRADO_MILLIS = TimeUnit.DAYS.toMillis(1);
+    static final int LIMITE_PRE_CARGA = 10_000;
+    static final int LIMITE_FILA = 50_000;
+    
+    private final ConcurrentMap<String, CepCacheEntrada> pendentes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> acessosPendentes = new ConcurrentHashMap<>();
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+    private final LongAdder gravadas = new LongAdder();
+    private final LongAdder descartadas = new LongAdder();
+    
+    private LongSupplier relogio = System::currentTimeMillis;
+    
+    @Inject
+    private CepCacheRepository cepCacheRepository;
+    
+    @Inject
+    private CepCache cepCache;
+    
+    @Inject
+    private RegistroMetricas registroMetricas;
+    
+    @PostConstruct
+    public void iniciar() {
+        if (registroMetricas != null) {
+            registroMetricas.registrarContador("cep_cache_persistente_acertos_total", "CEPs encontrados na tabela cep_cache", acertos::sum);
+            registroMetricas.registrarContador("cep_cache_persistente_faltas_total", "CEPs ausentes da tabela cep_cache", faltas::sum);
+            registroMetricas.registrarContador("cep_cache_persistente_gravadas_total", "Entradas gravadas na tabela cep_cache", gravadas::sum);
+            registroMetricas.registrarContador("cep_cache_persistente_descartadas_total", "Entradas descartadas com a fila de gravação cheia", descartadas::sum);
+            registroMetricas.registrarMedidor("cep_cache_persistente_pendentes", "Entradas aguardando gravação", pendentes::size);
+        }
+        preCarregar();
+    }
+    
+    /**
+     * Copia para o cache em memória as entradas válidas mais consultadas.
+     */
+    void preCarregar() {
+        try {
+            List<CepCacheEntrada> entradas = cepCacheRepository.listarMaisAcessadas(LIMITE_PRE_CARGA, agora());
+            for (CepCacheEntrada entrada : entradas) {
+                cepCache.armazenar(entrada.getCep(), converter(entrada));
+            }
+            LOGGER.info(() -> "CEPs pré-carregados do cache persistente: " + entradas.size());
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Não foi possível pré-carregar o cache persistente de CEPs", e);
+        }
+    }
+    
+    /**
+     * Busca o CEP na tabela. Falhas de banco não interrompem a consulta:
+     * o CEP é tratado como ausente e segue para a ViaCEP.
+     * 
+     * @param cep CEP com 8 dígitos
+     * @return O DTO armazenado, ou null
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public ViaCepDTO buscar(String cep) {
+        try {
+            return cepCacheRepository.buscarValida(cep, agora())
+                    .map(entrada -> {
+                        acertos.increment();
+                        return converter(entrada);
+                    })
+                    .orElseGet(() -> {
+                        faltas.increment();
+                        return null;
+                    });
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "Falha ao ler o cache persistente de CEPs", e);
+            faltas.increment();
+            return null;
+        }
+    }
+    
+    /**
+     * Agenda a gravação de uma resposta da ViaCEP.
+     * 
+     * @param cep CEP com 8 dígitos
+     * @param dto A resposta (com erro=true para CEP inexistente)
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void enfileirar(String cep, ViaCepDTO dto) {
+        if (pendentes.size() >= LIMITE_FILA && !pendentes.containsKey(cep)) {
+            descartadas.increment();
+            return;
+        }
+        pendentes.put(cep, converter(cep, dto));
+    }
+    
+    /**
+     * Conta uma consulta ao CEP, para a escolha das entradas pré-carregadas.
+     * 
+     * @param cep CEP com 8 dígitos
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void registrarAcesso(String cep) {
+        acessosPendentes.computeIfAbsent(cep, chave -> new LongAdder()).increment();
+    }
+    
+    /**
+     * Grava as entradas e contagens de acesso pendentes.
+     * Em caso de falha, as entradas voltam para a fila sem sobrescrever respostas mais novas.
+     */
+    @Schedule(second = "*/10", minute = "*", hour = "*", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void gravarPendentes() {
+        Map<String, CepCacheEntrada> lote = new HashMap<>();
+        for (String cep : pendentes.keySet()) {
+            CepCacheEntrada entrada = pendentes.remove(cep);
+            if (entrada != null) {
+                lote.put(cep, entrada);
+            }
+        }
+        Map<String, Long> acessos = new HashMap<>();
+        for (String cep : acessosPendentes.keySet()) {
+            LongAdder contador = acessosPendentes.remove(cep);
+            if (contador != null) {
+                acessos.put(cep, contador.sum());
+            }
+        }
+        
+        try {
+            cepCacheRepository.gravar(lote.values());
+            cepCacheRepository.somarAcessos(acessos);
+            gravadas.add(lote.size());
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Falha ao gravar o cache persistente de CEPs; nova tentativa no próximo ciclo", e);
+            lote.forEach(pendentes::putIfAbsent);
+            acessos.forEach((cep, total) -> acessosPendentes.computeIfAbsent(cep, chave -> new LongAdder()).add(total));
+        }
+    }
+    
+    /**
+     * Remove diariamente as entradas expiradas.
+     */
+    @Schedule(hour = "4", minute = "0", persistent = false)
+    public void removerExpiradas() {
+        int removidas = cepCacheRepository.removerExpiradas(agora());
+        LOGGER.info(() -> "Entradas expiradas removidas do cache persistente de CEPs: " + removidas);
+    }
+    
+    private Date agora() {
+        return new Date(relogio.getAsLong());
+    }
+    
+    private CepCacheEntrada converter(String cep, ViaCepDTO dto) {
+        long agora = relogio.getAsLong();
+        return CepCacheEntrada.builder()
+                .cep(cep)
+                .logradouro(dto.getLogradouro())
+                .bairro(dto.getBairro())
+                .cidade(dto.getCidade())
+                .estado(dto.getEstado())
+                .naoEncontrado(dto.isErro())
+                .atualizadoEm(new Date(agora))
+                .expiraEm(new Date(agora + (dto.isErro() ? VALIDADE_NAO_ENCONTRADO_MILLIS : VALIDADE_MILLIS)))
+                .build();
+    }
+    
+    private static ViaCepDTO converter(CepCacheEntrada entrada) {
+        ViaCepDTO dto = new ViaCepDTO();
+        dto.setCep(entrada.getCep().substring(0, 5) + "-" + entrada.getCep().substring(5));
+        dto.setLogradouro(entrada.getLogradouro());
+        dto.setBairro(entrada.getBairro());
+        dto.setCidade(entrada.getCidade());
+        dto.setEstado(entrada.getEstado());
+        dto.setErro(entrada.isNaoEncontrado());
+        return dto;
+    }
+    
+    void setRelogio(LongSupplier relogio) {
+        this.relogio = relogio;
+    }
+}
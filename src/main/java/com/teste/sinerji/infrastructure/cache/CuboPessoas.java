@@ -0,0 +1,654 @@
+package com.teste.sinerji.infrastructure.cache;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import com.teste.sinerji.application.event.PerfilPessoa;
+import com.teste.sinerji.application.event.PessoaAlterada;
+import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.enums.FaixaEtaria;
+import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.infrastructure.repository.PessoaRepository;
+import com.teste.sinerji.shared.metrics.RegistroMetricas;
+
+/**
+ * Cubo de contagens de pessoas por UF do endereço principal, sexo, mês de nascimento
+ * e faixa etária, mantido em um único vetor de int.
+ *
+ * Cada combinação das quatro dimensões (com uma posição extra em cada uma para valor
+ * ausente) é uma célula do vetor, de modo que qualquer fatia para gráficos e indicadores
+ * é a soma de algumas células, sem consultar a tabela de pessoas.
+ *
+ * Como o {@link IndicePessoas}, o cubo é imutável: as alterações confirmadas chegam pelo
+ * evento {@link PessoaAlterada} e são aplicadas em lote na próxima leitura, subtraindo a
+ * célula anterior e somando a nova. A carga completa percorre as pessoas em fluxo e conta
+ * os lotes em paralelo (fork/join); a contagem usa um pool próprio, criado e encerrado
+ * junto com o bean, e não o pool comum da JVM.
+ *
+ * O cubo é carregado na inicialização ({@link #recarregar()}) e recarregado na virada do
+ * dia, quando as idades de referência mudam, e a cada {@link #VALIDADE_MILLIS}, como o
+ * {@link IndicePessoas}, para incorporar as gravações feitas por outros nós, que não
+ * chegam como evento. Essa recarga roda no executor gerenciado:
+ * enquanto ela não termina, as leituras usam o cubo anterior, que continua recebendo as
+ * alterações. Como subtrair e somar não é idempotente, cada alteração recebe um número
+ * de sequência e o cubo guarda a marca (a última sequência) tomada imediatamente antes
+ * das consultas da carga; as alterações até a marca já estão nas contagens e são
+ * descartadas, e as posteriores são aplicadas.
+ *
+ * Para que "até a marca" signifique "confirmada no banco antes das consultas", a
+ * numeração acontece na própria transação que grava: uma {@link Synchronization} numera
+ * as alterações antes do commit e as enfileira depois dele, descartando-as se a transação
+ * for desfeita. Entre um momento e outro, a transação segura a leitura de uma barreira,
+ * cuja escrita a carga segura enquanto toma a marca e até as consultas começarem (o
+ * primeiro perfil recebido). Assim, ou o commit termina antes da marca, e a consulta o
+ * vê, ou a numeração espera a consulta começar, e a alteração fica depois da marca.
+ *
+ * A fila de alterações ainda não aplicadas guarda no máximo {@link #LIMITE_PENDENTES}
+ * itens: sem leituras durante uma importação longa, ela transborda e o cubo é recarregado,
+ * em vez de acumular os eventos no heap.
+ *
+ * @author Teste Sinerji
+ */
+@ApplicationScoped
+public class CuboPessoas {
+
+    private static final Logger LOGGER = Logger.getLogger(CuboPessoas.class.getName());
+
+    /** Perfis por tarefa de contagem enviada ao pool durante a carga. */
+    static final int TAMANHO_LOTE = 8192;
+
+    static final int LIMITE_PENDENTES = 100_000;
+
+    static final long VALIDADE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final int UFS = Estado.values().length + 1;
+    private static final int SEXOS = Sexo.values().length + 1;
+    /** Índices 1 a 12; o índice 0 é "sem data de nascimento". */
+    private static final int MESES = 13;
+    private static final int FAIXAS = FaixaEtaria.values().length + 1;
+    private static final int CELULAS = UFS * SEXOS * MESES * FAIXAS;
+
+    private static final int UF = 0;
+    private static final int SEXO = 1;
+    private static final int MES = 2;
+    private static final int FAIXA = 3;
+    private static final int[] TAMANHOS = {UFS, SEXOS, MESES, FAIXAS};
+    private static final int TODOS = -1;
+
+    /** Chave, no registro da transação, das alterações ainda não numeradas dela. */
+    private static final Object CHAVE = CuboPessoas.class;
+
+    private final ReentrantLock trava = new ReentrantLock();
+    /** Separa os commits da tomada da marca e do início das consultas da carga. */
+    private final StampedLock barreira = new StampedLock();
+    private final FilaAlteracoes<Alteracao> pendentes = new FilaAlteracoes<>(LIMITE_PENDENTES);
+    private final AtomicLong sequencia = new AtomicLong();
+    private final AtomicBoolean carregando = new AtomicBoolean();
+    /** Alterações aplicadas ao cubo enquanto a carga em andamento lê o banco. */
+    private final List<Alteracao> duranteCarga = new ArrayList<>();
+    /** Alterações descartadas durante a carga, por passarem do limite: exigem outra carga. */
+    private boolean descartadasDuranteCarga;
+    private final LongAdder cargas = new LongAdder();
+    private final LongAdder atualizacoes = new LongAdder();
+
+    private volatile Cubo cubo;
+
+    /** Pool da contagem paralela da carga; as threads são encerradas junto com o bean. */
+    private ForkJoinPool pool;
+
+    private LongSupplier relogio = System::currentTimeMillis;
+
+    @Inject
+    private PessoaRepository pessoaRepository;
+
+    @Inject
+    private RegistroMetricas registroMetricas;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    @Resource
+    private TransactionSynchronizationRegistry registro;
+
+    @PostConstruct
+    void iniciar() {
+        pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("cubo-pessoas-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        if (registroMetricas != null) {
+            registroMetricas.registrarContador("cubo_pessoas_cargas_total", "Cargas completas do cubo de pessoas", cargas::sum);
+            registroMetricas.registrarContador("cubo_pessoas_atualizacoes_total", "Lotes de alterações aplicados ao cubo", atualizacoes::sum);
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Guarda a alteração na transação que a grava, para ser numerada antes do commit e
+     * enfileirada depois dele; ela é aplicada na próxima leitura. Fora de transação, a
+     * gravação já está no banco e a alteração é numerada e enfileirada na hora.
+     *
+     * @param evento A alteração
+     */
+    void aoAlterarPessoa(@Observes PessoaAlterada evento) {
+        if (registro.getTransactionKey() == null) {
+            pendentes.adicionar(new Alteracao(sequencia.incrementAndGet(), evento));
+            return;
+        }
+        Confirmacao confirmacao = (Confirmacao) registro.getResource(CHAVE);
+        if (confirmacao == null) {
+            confirmacao = new Confirmacao();
+            registro.putResource(CHAVE, confirmacao);
+            registro.registerInterposedSynchronization(confirmacao);
+        }
+        confirmacao.eventos.add(evento);
+    }
+
+    /**
+     * Conta as pessoas de uma fatia do cubo. Dimensões nulas não restringem a contagem.
+     *
+     * @param estado UF do endereço principal
+     * @param sexo O sexo
+     * @param mes Mês de nascimento (1 a 12)
+     * @param faixa A faixa etária
+     * @return A quantidade de pessoas
+     */
+    public long contar(Estado estado, Sexo sexo, Integer mes, FaixaEtaria faixa) {
+        if (!mesValido(mes)) {
+            return 0;
+        }
+        return agrupar(atual(), TODOS, coordenadas(estado, sexo, mes, faixa))[0];
+    }
+
+    /**
+     * Conta as pessoas de cada UF (do endereço principal) dentro de uma fatia do cubo.
+     *
+     * @param estado UF do endereço principal, ou null para todas
+     * @param sexo O sexo, ou null para todos
+     * @param mes Mês de nascimento (1 a 12), ou null para todos
+     * @param faixa A faixa etária, ou null para todas
+     * @return Quantidade por UF, na ordem da enumeração, apenas para as UFs com pessoas
+     */
+    public Map<Estado, Long> contarPorEstado(Estado estado, Sexo sexo, Integer mes, FaixaEtaria faixa) {
+        Map<Estado, Long> resultado = new EnumMap<>(Estado.class);
+        if (mesValido(mes)) {
+            long[] totais = agrupar(atual(), UF, coordenadas(estado, sexo, mes, faixa));
+            for (Estado uf : Estado.values()) {
+                if (totais[uf.ordinal()] > 0) {
+                    resultado.put(uf, totais[uf.ordinal()]);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(resultado);
+    }
+
+    /**
+     * Conta as pessoas de cada faixa etária dentro de uma fatia do cubo.
+     *
+     * @param estado UF do endereço principal, ou null para todas
+     * @param sexo O sexo, ou null para todos
+     * @param mes Mês de nascimento (1 a 12), ou null para todos
+     * @return Quantidade por faixa etária (inclusive as vazias); pessoas sem data de nascimento não entram
+     */
+    public Map<FaixaEtaria, Long> contarPorFaixaEtaria(Estado estado, Sexo sexo, Integer mes) {
+        Map<FaixaEtaria, Long> resultado = new EnumMap<>(FaixaEtaria.class);
+        long[] totais = mesValido(mes)
+                ? agrupar(atual(), FAIXA, coordenadas(estado, sexo, mes, null)) : new long[FAIXAS];
+        for (FaixaEtaria faixa : FaixaEtaria.values()) {
+            resultado.put(faixa, totais[faixa.ordinal()]);
+        }
+        return Collections.unmodifiableMap(resultado);
+    }
+
+    /**
+     * Carrega o cubo do banco na thread chamadora (ex.: na inicialização da aplicação ou
+     * após cargas feitas diretamente no repositório). Se outra carga já estiver em
+     * andamento, não faz nada.
+     */
+    public void recarregar() {
+        if (iniciarCarga()) {
+            carregar();
+        }
+    }
+
+    /**
+     * Retorna o cubo atual, aplicando as alterações pendentes se a trava estiver livre, e
+     * agenda a recarga se ele não existir, estiver expirado, for de um dia anterior ou se a
+     * fila transbordou. Nunca lê o banco na thread da leitura.
+     *
+     * @return O cubo; sem carga concluída, um cubo vazio
+     */
+    Cubo atual() {
+        Cubo atual = cubo;
+        if (atual == null || expirado(atual) || pendentes.isTransbordada()) {
+            agendarCarga();
+            atual = cubo;
+        }
+        if (atual == null) {
+            return Cubo.VAZIO;
+        }
+        if (pendentes.isVazia() || !trava.tryLock()) {
+            return atual;
+        }
+        try {
+            // Pode ter sido trocado pela carga desde a leitura acima
+            atual = aplicarPendentes(cubo);
+            cubo = atual;
+            return atual;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private boolean expirado(Cubo atual) {
+        long agora = relogio.getAsLong();
+        return agora - atual.carregadoEm >= VALIDADE_MILLIS || !hoje(agora).equals(atual.referencia);
+    }
+
+    private void agendarCarga() {
+        if (!iniciarCarga()) {
+            return;
+        }
+        try {
+            executor.execute(this::carregar);
+        } catch (RuntimeException e) {
+            carregando.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Marca a carga como em andamento. Se a fila transbordou, ela volta a aceitar
+     * alterações: as descartadas já estão confirmadas e serão lidas pela carga.
+     *
+     * @return false se já houver uma carga em andamento
+     */
+    private boolean iniciarCarga() {
+        if (!carregando.compareAndSet(false, true)) {
+            return false;
+        }
+        trava.lock();
+        try {
+            duranteCarga.clear();
+            descartadasDuranteCarga = false;
+            if (pendentes.isTransbordada()) {
+                pendentes.reiniciar();
+            }
+        } finally {
+            trava.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Conta as pessoas do banco, fora da trava, e troca o cubo atual pelo novo, reaplicando
+     * as alterações posteriores à marca que o cubo anterior recebeu durante a leitura.
+     */
+    private void carregar() {
+        boolean outraCarga;
+        try {
+            long inicio = System.nanoTime();
+            long agora = relogio.getAsLong();
+            Carga carga = new Carga(hoje(agora), pool);
+            long marca = percorrer(carga);
+            Cubo carregado = new Cubo(carga.somar(), carga.referencia, marca, agora);
+            cargas.increment();
+            LOGGER.info(() -> String.format("Cubo de pessoas carregado: %d pessoas em %d ms",
+                    carga.total, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio)));
+            trava.lock();
+            try {
+                cubo = aplicar(carregado, duranteCarga);
+                outraCarga = descartadasDuranteCarga;
+                duranteCarga.clear();
+                carregando.set(false);
+            } finally {
+                trava.unlock();
+            }
+        } catch (RuntimeException e) {
+            carregando.set(false);
+            LOGGER.log(Level.WARNING, "Falha ao carregar o cubo de pessoas", e);
+            return;
+        }
+        if (outraCarga) {
+            agendarCarga();
+        }
+    }
+
+    /**
+     * Percorre os perfis do banco com a escrita da barreira, que é liberada no primeiro
+     * perfil: nesse ponto as consultas do percurso já tomaram a fotografia do banco.
+     *
+     * @return A marca: a última sequência numerada antes das consultas
+     */
+    private long percorrer(Carga carga) {
+        long escrita = barreira.writeLock();
+        boolean[] liberada = {false};
+        try {
+            long marca = sequencia.get();
+            pessoaRepository.percorrerPerfis(perfil -> {
+                if (!liberada[0]) {
+                    liberada[0] = true;
+                    barreira.unlockWrite(escrita);
+                }
+                carga.accept(perfil);
+            });
+            return marca;
+        } finally {
+            if (!liberada[0]) {
+                barreira.unlockWrite(escrita);
+            }
+        }
+    }
+
+    private Cubo aplicarPendentes(Cubo base) {
+        List<Alteracao> alteracoes = new ArrayList<>();
+        Alteracao alteracao;
+        while ((alteracao = pendentes.retirar()) != null) {
+            alteracoes.add(alteracao);
+        }
+        if (carregando.get() && !descartadasDuranteCarga) {
+            if (duranteCarga.size() + alteracoes.size() > LIMITE_PENDENTES) {
+                // Sem guardar tantas alterações: o cubo novo é recarregado em seguida
+                duranteCarga.clear();
+                descartadasDuranteCarga = true;
+            } else {
+                duranteCarga.addAll(alteracoes);
+            }
+        }
+        return aplicar(base, alteracoes);
+    }
+
+    /**
+     * Aplica as alterações posteriores à marca do cubo, em um novo vetor de contagens.
+     */
+    private Cubo aplicar(Cubo base, List<Alteracao> alteracoes) {
+        int[] contagens = null;
+        for (Alteracao alteracao : alteracoes) {
+            if (alteracao.sequencia <= base.marca) {
+                continue;
+            }
+            if (contagens == null) {
+                contagens = Arrays.copyOf(base.contagens, CELULAS);
+            }
+            PessoaAlterada evento = alteracao.evento;
+            if (evento.getAntes() != null) {
+                contagens[celula(evento.getAntes(), base.referencia)]--;
+            }
+            if (evento.getDepois() != null) {
+                contagens[celula(evento.getDepois(), base.referencia)]++;
+            }
+        }
+        if (contagens == null) {
+            return base;
+        }
+        atualizacoes.increment();
+        return new Cubo(contagens, base.referencia, base.marca, base.carregadoEm);
+    }
+
+    /**
+     * Soma as células que atendem às coordenadas fixadas (ou {@link #TODOS}), agrupando
+     * pela dimensão informada; com {@link #TODOS}, o total fica na posição 0.
+     */
+    static long[] agrupar(Cubo c, int dimensao, int[] fixas) {
+        long[] totais = new long[dimensao == TODOS ? 1 : TAMANHOS[dimensao]];
+        int[] coordenada = new int[4];
+        for (coordenada[UF] = inicio(fixas, UF); coordenada[UF] <= fim(fixas, UF); coordenada[UF]++) {
+            for (coordenada[SEXO] = inicio(fixas, SEXO); coordenada[SEXO] <= fim(fixas, SEXO); coordenada[SEXO]++) {
+                for (coordenada[MES] = inicio(fixas, MES); coordenada[MES] <= fim(fixas, MES); coordenada[MES]++) {
+                    int base = celula(coordenada[UF], coordenada[SEXO], coordenada[MES], 0);
+                    for (coordenada[FAIXA] = inicio(fixas, FAIXA); coordenada[FAIXA] <= fim(fixas, FAIXA); coordenada[FAIXA]++) {
+                        totais[dimensao == TODOS ? 0 : coordenada[dimensao]] += c.contagens[base + coordenada[FAIXA]];
+                    }
+                }
+            }
+        }
+        return totais;
+    }
+
+    private static int inicio(int[] fixas, int dimensao) {
+        return fixas[dimensao] == TODOS ? 0 : fixas[dimensao];
+    }
+
+    private static int fim(int[] fixas, int dimensao) {
+        return fixas[dimensao] == TODOS ? TAMANHOS[dimensao] - 1 : fixas[dimensao];
+    }
+
+    private static int[] coordenadas(Estado estado, Sexo sexo, Integer mes, FaixaEtaria faixa) {
+        return new int[] {
+            estado != null ? estado.ordinal() : TODOS,
+            sexo != null ? sexo.ordinal() : TODOS,
+            mes != null ? mes : TODOS,
+            faixa != null ? faixa.ordinal() : TODOS
+        };
+    }
+
+    private static boolean mesValido(Integer mes) {
+        return mes == null || (mes >= 1 && mes <= 12);
+    }
+
+    static int celula(PerfilPessoa perfil, LocalDate referencia) {
+        // UF do endereço principal: o primeiro do perfil, que vem ordenado por ID do endereço
+        Estado estado = perfil.getEstados().isEmpty() ? null : perfil.getEstados().get(0);
+        LocalDate nascimento = perfil.getDataNascimento();
+        return celula(
+                estado != null ? estado.ordinal() : UFS - 1,
+                perfil.getSexo() != null ? perfil.getSexo().ordinal() : SEXOS - 1,
+                nascimento != null ? nascimento.getMonthValue() : 0,
+                nascimento != null
+                        ? FaixaEtaria.deIdade(Period.between(nascimento, referencia).getYears()).ordinal()
+                        : FAIXAS - 1);
+    }
+
+    private static int celula(int uf, int sexo, int mes, int faixa) {
+        return ((uf * SEXOS + sexo) * MESES + mes) * FAIXAS + faixa;
+    }
+
+    private static LocalDate hoje(long agora) {
+        return Instant.ofEpochMilli(agora).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    void setRelogio(LongSupplier relogio) {
+        this.relogio = relogio;
+    }
+
+    /**
+     * Cubo imutável, com as faixas etárias calculadas na data de referência.
+     */
+    static final class Cubo {
+
+        static final Cubo VAZIO = new Cubo(new int[CELULAS], null, Long.MAX_VALUE, 0);
+
+        final int[] contagens;
+        final LocalDate referencia;
+        /** Sequência da última alteração já contida nas contagens da carga. */
+        final long marca;
+
+        /** Instante em que a carga começou a ler o banco. */
+        final long carregadoEm;
+
+        Cubo(int[] contagens, LocalDate referencia, long marca, long carregadoEm) {
+            this.contagens = contagens;
+            this.referencia = referencia;
+            this.marca = marca;
+            this.carregadoEm = carregadoEm;
+        }
+    }
+
+    /**
+     * Alterações gravadas por uma transação: numeradas antes do commit, com a leitura da
+     * barreira, e enfileiradas depois dele, se confirmadas. O fim da transação pode rodar
+     * em outra thread (ex.: timeout), por isso a barreira é uma {@link StampedLock}, que
+     * não tem dono.
+     */
+    private final class Confirmacao implements Synchronization {
+
+        final List<PessoaAlterada> eventos = new ArrayList<>();
+        private final List<Alteracao> numeradas = new ArrayList<>();
+        private long leitura;
+
+        @Override
+        public void beforeCompletion() {
+            leitura = barreira.readLock();
+            for (PessoaAlterada evento : eventos) {
+                numeradas.add(new Alteracao(sequencia.incrementAndGet(), evento));
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            // Sem beforeCompletion (transação desfeita antes do commit), nada foi numerado
+            if (leitura == 0) {
+                return;
+            }
+            try {
+                if (status == Status.STATUS_COMMITTED) {
+                    numeradas.forEach(pendentes::adicionar);
+                }
+            } finally {
+                barreira.unlockRead(leitura);
+            }
+        }
+    }
+
+    /**
+     * Alteração confirmada, numerada antes do commit da transação que a gravou.
+     */
+    private static final class Alteracao {
+
+        final long sequencia;
+        final PessoaAlterada evento;
+
+        Alteracao(long sequencia, PessoaAlterada evento) {
+            this.sequencia = sequencia;
+            this.evento = evento;
+        }
+    }
+
+    /**
+     * Recebe os perfis do fluxo do banco em lotes e envia cada lote cheio ao pool,
+     * de modo que a contagem acontece em paralelo com a leitura.
+     */
+    static final class Carga implements Consumer<PerfilPessoa> {
+
+        private final LocalDate referencia;
+        private final ForkJoinPool pool;
+        private final List<ForkJoinTask<int[]>> parciais = new ArrayList<>();
+        private PerfilPessoa[] lote = new PerfilPessoa[TAMANHO_LOTE];
+        private int tamanhoLote;
+        private long total;
+
+        Carga(LocalDate referencia, ForkJoinPool pool) {
+            this.referencia = referencia;
+            this.pool = pool;
+        }
+
+        @Override
+        public void accept(PerfilPessoa perfil) {
+            lote[tamanhoLote++] = perfil;
+            total++;
+            if (tamanhoLote == TAMANHO_LOTE) {
+                enviarLote();
+            }
+        }
+
+        int[] somar() {
+            if (tamanhoLote > 0) {
+                enviarLote();
+            }
+            int[] contagens = new int[CELULAS];
+            for (ForkJoinTask<int[]> parcial : parciais) {
+                int[] resultado = parcial.join();
+                for (int i = 0; i < CELULAS; i++) {
+                    contagens[i] += resultado[i];
+                }
+            }
+            return contagens;
+        }
+
+        private void enviarLote() {
+            parciais.add(pool.submit(new Contagem(lote, 0, tamanhoLote, referencia)));
+            lote = new PerfilPessoa[TAMANHO_LOTE];
+            tamanhoLote = 0;
+        }
+    }
+
+    /**
+     * Conta um intervalo de perfis, dividindo-o ao meio enquanto for maior que o limiar.
+     */
+    static final class Contagem extends RecursiveTask<int[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final int LIMIAR = 1024;
+
+        private final PerfilPessoa[] perfis;
+        private final int inicio;
+        private final int fim;
+        private final LocalDate referencia;
+
+        Contagem(PerfilPessoa[] perfis, int inicio, int fim, LocalDate referencia) {
+            this.perfis = perfis;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.referencia = referencia;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (fim - inicio <= LIMIAR) {
+                int[] contagens = new int[CELULAS];
+                for (int i = inicio; i < fim; i++) {
+                    contagens[celula(perfis[i], referencia)]++;
+                }
+                return contagens;
+            }
+            int meio = (inicio + fim) >>> 1;
+            Contagem esquerda = new Contagem(perfis, inicio, meio, referencia);
+            esquerda.fork();
+            int[] contagens = new Contagem(perfis, meio, fim, referencia).compute();
+            int[] outra = esquerda.join();
+            for (int i = 0; i < CELULAS; i++) {
+                contagens[i] += outra[i];
+            }
+            return contagens;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.teste.sinerji.infrastructure.cache;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fila das alterações confirmadas ainda não aplicadas a um índice em memória, drenada na
+ * leitura seguinte do índice.
+ *
+ * A fila guarda no máximo {@code limite} itens: sem leituras (ex.: uma importação longa
+ * sem ninguém consultando), ela não cresce sem fim. Ao transbordar, os itens são
+ * descartados e a fila passa a recusar novos até {@link #reiniciar()}, chamado pela carga
+ * completa que o índice deve fazer em seguida, e que lê do banco tudo o que foi descartado.
+ *
+ * @param <T> O tipo do item
+ * @author Teste Sinerji
+ */
+final class FilaAlteracoes<T> {
+
+    private final ConcurrentLinkedQueue<T> itens = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger tamanho = new AtomicInteger();
+    private final int limite;
+
+    private volatile boolean transbordada;
+
+    FilaAlteracoes(int limite) {
+        this.limite = limite;
+    }
+
+    /**
+     * Enfileira o item, a menos que a fila tenha transbordado.
+     *
+     * @param item O item
+     */
+    void adicionar(T item) {
+        if (transbordada) {
+            return;
+        }
+        if (tamanho.incrementAndGet() > limite) {
+            tamanho.decrementAndGet();
+            transbordada = true;
+            esvaziar();
+            return;
+        }
+        itens.add(item);
+    }
+
+    /**
+     * Retira o item mais antigo.
+     *
+     * @return O item, ou null se a fila estiver vazia
+     */
+    T retirar() {
+        T item = itens.poll();
+        if (item != null) {
+            tamanho.decrementAndGet();
+        }
+        return item;
+    }
+
+    boolean isVazia() {
+        return itens.isEmpty();
+    }
+
+    /**
+     * @return true se itens foram descartados e o índice precisa ser recarregado do banco
+     */
+    boolean isTransbordada() {
+        return transbordada;
+    }
+
+    /**
+     * Descarta os itens e volta a aceitar novos; chamado no início de uma carga completa.
+     */
+    void reiniciar() {
+        transbordada = false;
+        esvaziar();
+    }
+
+    int getTamanho() {
+        return tamanho.get();
+    }
+
+    private void esvaziar() {
+        while (retirar() != null) {
+            // descarta
+        }
+    }
+}
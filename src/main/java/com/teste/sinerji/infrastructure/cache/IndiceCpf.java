@@ -0,0 +1,382 @@
+package com.teste.sinerji.infrastructure.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import com.teste.sinerji.application.event.PessoaAlterada;
+import com.teste.sinerji.domain.valueobject.Cpf;
+import com.teste.sinerji.infrastructure.repository.PessoaRepository;
+import com.teste.sinerji.shared.metrics.RegistroMetricas;
+
+/**
+ * Índice em memória dos CPFs cadastrados, para recusar CPFs duplicados antes do INSERT.
+ *
+ * Um filtro de Bloom ({@value #BITS_POR_CPF} bits por CPF, {@value #FUNCOES} funções de
+ * hash, cerca de 1% de falsos positivos) responde a maioria das consultas; quando ele
+ * indica "talvez", a busca binária no vetor ordenado dos CPFs decide. O vetor fica fora
+ * do heap ({@link ByteBuffer#allocateDirect}), de modo que milhões de CPFs não pesam na
+ * coleta de lixo.
+ *
+ * Um resultado negativo só vale para as gravações já vistas por este nó: uma inclusão
+ * ainda não confirmada, ou feita por outro nó, continua barrada pela restrição única do
+ * banco. Um positivo deve ser confirmado no banco, pois o CPF pode ter sido removido ou
+ * alterado depois da carga. As inclusões confirmadas chegam pelo evento
+ * {@link PessoaAlterada} e formam um pequeno vetor ordenado (copy-on-write) consultado
+ * junto com a base; acima de {@link #LIMITE_ALTERACOES} inclusões, elas são intercaladas
+ * em uma nova base, sem ir ao banco.
+ *
+ * A leitura do banco (a primeira, após {@link #invalidar()} ou a cada
+ * {@link #VALIDADE_MILLIS}) roda no executor gerenciado, nunca na thread da gravação:
+ * enquanto ela não termina, vale a base anterior ou, sem base, toda consulta responde
+ * "talvez" e o CPF é confirmado no banco. Nenhuma consulta espera a trava: se outra
+ * thread está aplicando as inclusões, vale a fotografia corrente.
+ *
+ * @author Teste Sinerji
+ */
+@ApplicationScoped
+public class IndiceCpf {
+
+    private static final Logger LOGGER = Logger.getLogger(IndiceCpf.class.getName());
+
+    static final long VALIDADE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    static final int LIMITE_ALTERACOES = 10_000;
+
+    static final int BITS_POR_CPF = 10;
+
+    static final int FUNCOES = 7;
+
+    private final ReentrantLock trava = new ReentrantLock();
+    private final ConcurrentLinkedQueue<Long> pendentes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean carregando = new AtomicBoolean();
+    /** CPFs aplicados à fotografia enquanto a carga em andamento lê o banco. */
+    private long[] duranteCarga = new long[0];
+    private int quantidadeDuranteCarga;
+    private final LongAdder cargas = new LongAdder();
+    private final LongAdder consultas = new LongAdder();
+    private final LongAdder provaveis = new LongAdder();
+
+    private volatile Fotografia fotografia;
+
+    private LongSupplier relogio = System::currentTimeMillis;
+
+    @Inject
+    private PessoaRepository pessoaRepository;
+
+    @Inject
+    private RegistroMetricas registroMetricas;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    @PostConstruct
+    void registrarMetricas() {
+        if (registroMetricas != null) {
+            registroMetricas.registrarContador("indice_cpf_cargas_total", "Cargas completas do índice de CPFs", cargas::sum);
+            registroMetricas.registrarContador("indice_cpf_consultas_total", "Consultas ao índice de CPFs", consultas::sum);
+            registroMetricas.registrarContador("indice_cpf_provaveis_total", "CPFs possivelmente cadastrados, confirmados no banco", provaveis::sum);
+            registroMetricas.registrarMedidor("indice_cpf_linhas", "CPFs na base do índice em memória", () -> {
+                Fotografia atual = fotografia;
+                return atual != null ? atual.tamanho : 0;
+            });
+        }
+    }
+
+    /**
+     * Enfileira o CPF de uma inclusão ou alteração confirmada.
+     *
+     * @param evento A alteração
+     */
+    void aoAlterarPessoa(@Observes(during = TransactionPhase.AFTER_SUCCESS) PessoaAlterada evento) {
+        // Sem base nem carga em andamento, a próxima carga já lerá o CPF confirmado
+        if (evento.getCpf() != null && (fotografia != null || carregando.get())) {
+            pendentes.add(evento.getCpf().getNumero());
+        }
+    }
+
+    /**
+     * Verifica se o CPF pode estar cadastrado.
+     *
+     * @param cpf O CPF
+     * @return false se o CPF certamente não está entre os cadastrados vistos por este nó;
+     *         true se ele precisa ser confirmado no banco
+     */
+    public boolean talvezCadastrado(Cpf cpf) {
+        consultas.increment();
+        Fotografia atual = atual();
+        boolean talvez = atual == null || atual.contem(cpf.getNumero());
+        if (talvez) {
+            provaveis.increment();
+        }
+        return talvez;
+    }
+
+    /**
+     * Descarta o índice; a próxima consulta agenda a recarga do banco.
+     */
+    public void invalidar() {
+        fotografia = null;
+    }
+
+    /**
+     * Retorna a fotografia atual, aplicando as inclusões pendentes se a trava estiver
+     * livre, e agenda a recarga se ela não existir ou estiver expirada.
+     *
+     * @return A fotografia, ou null enquanto a primeira carga não termina
+     */
+    Fotografia atual() {
+        Fotografia atual = fotografia;
+        if (atual == null || relogio.getAsLong() - atual.carregadaEm >= VALIDADE_MILLIS) {
+            agendarCarga();
+            atual = fotografia;
+        }
+        if (atual == null || pendentes.isEmpty() || !trava.tryLock()) {
+            return atual;
+        }
+        try {
+            // Pode ter sido invalidada desde a leitura acima
+            atual = fotografia;
+            if (atual != null) {
+                atual = aplicarPendentes(atual);
+                fotografia = atual;
+            }
+            return atual;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private void agendarCarga() {
+        if (!carregando.compareAndSet(false, true)) {
+            return;
+        }
+        trava.lock();
+        try {
+            quantidadeDuranteCarga = 0;
+        } finally {
+            trava.unlock();
+        }
+        try {
+            executor.execute(this::carregar);
+        } catch (RuntimeException e) {
+            carregando.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Lê a base do banco, fora da trava, e a troca pela atual. As inclusões aplicadas
+     * durante a leitura podem ter sido confirmadas depois que ela passou pelo CPF, por
+     * isso são aplicadas de novo à base nova.
+     */
+    private void carregar() {
+        try {
+            long inicio = System.nanoTime();
+            Construtor construtor = new Construtor();
+            pessoaRepository.percorrerCpfs(construtor::adicionar);
+            Fotografia carregada = construtor.construir(relogio.getAsLong());
+            cargas.increment();
+            LOGGER.info(() -> String.format("Índice de CPFs carregado: %d CPFs em %d ms",
+                    carregada.tamanho, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio)));
+            trava.lock();
+            try {
+                fotografia = acrescentar(carregada, duranteCarga, quantidadeDuranteCarga);
+                quantidadeDuranteCarga = 0;
+                carregando.set(false);
+            } finally {
+                trava.unlock();
+            }
+        } catch (RuntimeException e) {
+            carregando.set(false);
+            LOGGER.log(Level.WARNING, "Falha ao carregar o índice de CPFs", e);
+        }
+    }
+
+    private Fotografia aplicarPendentes(Fotografia atual) {
+        long[] novos = new long[pendentes.size()];
+        int n = 0;
+        Long cpf;
+        while ((cpf = pendentes.poll()) != null) {
+            if (n == novos.length) {
+                novos = Arrays.copyOf(novos, Math.max(16, n * 2));
+            }
+            novos[n++] = cpf;
+        }
+        if (carregando.get()) {
+            if (quantidadeDuranteCarga + n > duranteCarga.length) {
+                duranteCarga = Arrays.copyOf(duranteCarga, Math.max(quantidadeDuranteCarga + n, duranteCarga.length * 2));
+            }
+            System.arraycopy(novos, 0, duranteCarga, quantidadeDuranteCarga, n);
+            quantidadeDuranteCarga += n;
+        }
+        return acrescentar(atual, novos, n);
+    }
+
+    /**
+     * Acrescenta CPFs à fotografia: no vetor de inclusões ou, se ele passar de
+     * {@link #LIMITE_ALTERACOES}, intercalados com a base em uma base nova.
+     */
+    private static Fotografia acrescentar(Fotografia atual, long[] cpfs, int quantidade) {
+        long[] novos = new long[quantidade];
+        int n = 0;
+        for (int i = 0; i < quantidade; i++) {
+            if (!atual.contem(cpfs[i])) {
+                novos[n++] = cpfs[i];
+            }
+        }
+        if (n == 0) {
+            return atual;
+        }
+        long[] adicionados = Arrays.copyOf(atual.adicionados, atual.adicionados.length + n);
+        System.arraycopy(novos, 0, adicionados, atual.adicionados.length, n);
+        Arrays.sort(adicionados);
+        // Um CPF repetido no lote entra duas vezes; a intercalação descarta a repetição
+        if (adicionados.length > LIMITE_ALTERACOES) {
+            return intercalar(atual, adicionados);
+        }
+        return new Fotografia(atual.filtro, atual.ordenados, atual.tamanho, adicionados, atual.carregadaEm);
+    }
+
+    private static Fotografia intercalar(Fotografia atual, long[] adicionados) {
+        Construtor construtor = new Construtor(atual.tamanho + adicionados.length);
+        int i = 0;
+        int j = 0;
+        while (i < atual.tamanho || j < adicionados.length) {
+            long proximo = j == adicionados.length || (i < atual.tamanho && atual.ordenados.get(i) <= adicionados[j])
+                    ? atual.ordenados.get(i++) : adicionados[j++];
+            construtor.adicionarSemRepetir(proximo);
+        }
+        return construtor.construir(atual.carregadaEm);
+    }
+
+    void setRelogio(LongSupplier relogio) {
+        this.relogio = relogio;
+    }
+
+    /**
+     * Mistura os bits do CPF (finalizador do SplitMix64), para espalhar números próximos.
+     */
+    static long misturar(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+
+    /**
+     * Base imutável (filtro de Bloom e vetor ordenado fora do heap) mais as inclusões
+     * confirmadas desde a carga.
+     */
+    static final class Fotografia {
+        final long[] filtro;
+        final long mascara;
+        final LongBuffer ordenados;
+        final int tamanho;
+        final long[] adicionados;
+        final long carregadaEm;
+
+        Fotografia(long[] filtro, LongBuffer ordenados, int tamanho, long[] adicionados, long carregadaEm) {
+            this.filtro = filtro;
+            this.mascara = filtro.length * 64L - 1;
+            this.ordenados = ordenados;
+            this.tamanho = tamanho;
+            this.adicionados = adicionados;
+            this.carregadaEm = carregadaEm;
+        }
+
+        boolean contem(long cpf) {
+            if (adicionados.length > 0 && Arrays.binarySearch(adicionados, cpf) >= 0) {
+                return true;
+            }
+            long hash = misturar(cpf);
+            long h1 = hash & 0xffffffffL;
+            long h2 = (hash >>> 32) | 1;
+            for (int f = 0; f < FUNCOES; f++) {
+                long bit = (h1 + f * h2) & mascara;
+                if ((filtro[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            int inicio = 0;
+            int fim = tamanho - 1;
+            while (inicio <= fim) {
+                int meio = (inicio + fim) >>> 1;
+                long valor = ordenados.get(meio);
+                if (valor < cpf) {
+                    inicio = meio + 1;
+                } else if (valor > cpf) {
+                    fim = meio - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Acumula os CPFs lidos em ordem crescente e monta a base.
+     */
+    static final class Construtor {
+        private long[] cpfs;
+        private int tamanho;
+
+        Construtor() {
+            this(1024);
+        }
+
+        Construtor(int capacidade) {
+            cpfs = new long[Math.max(16, capacidade)];
+        }
+
+        void adicionar(long cpf) {
+            if (tamanho == cpfs.length) {
+                cpfs = Arrays.copyOf(cpfs, tamanho * 2);
+            }
+            cpfs[tamanho++] = cpf;
+        }
+
+        void adicionarSemRepetir(long cpf) {
+            if (tamanho == 0 || cpfs[tamanho - 1] != cpf) {
+                adicionar(cpf);
+            }
+        }
+
+        Fotografia construir(long carregadaEm) {
+            // Quantidade de bits arredondada para potência de 2, para indexar com máscara
+            long bits = Long.highestOneBit(Math.max(64L, (long) tamanho * BITS_POR_CPF - 1)) << 1;
+            long[] filtro = new long[(int) (bits / 64)];
+            long mascara = bits - 1;
+            LongBuffer ordenados = ByteBuffer.allocateDirect(tamanho * Long.BYTES)
+                    .order(ByteOrder.nativeOrder()).asLongBuffer();
+            for (int i = 0; i < tamanho; i++) {
+                ordenados.put(i, cpfs[i]);
+                long hash = misturar(cpfs[i]);
+                long h1 = hash & 0xffffffffL;
+                long h2 = (hash >>> 32) | 1;
+                for (int f = 0; f < FUNCOES; f++) {
+                    long bit = (h1 + f * h2) & mascara;
+                    filtro[(int) (bit >>> 6)] |= 1L << bit;
+                }
+            }
+            return new Fotografia(filtro, ordenados, tamanho, new long[0], carregadaEm);
+        }
+    }
+}
@@ -0,0 +1,544 @@
+package com.teste.sinerji.infrastructure.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import com.teste.sinerji.application.event.PessoaAlterada;
+import com.teste.sinerji.infrastructure.repository.PessoaRepository;
+import com.teste.sinerji.shared.metrics.RegistroMetricas;
+import com.teste.sinerji.shared.util.TextoBusca;
+
+/**
+ * Índice invertido de trigramas dos nomes das pessoas, usado pelo autocompletar por nome.
+ *
+ * Cada palavra do nome normalizado ({@link TextoBusca}) gera os trigramas de
+ * {@code "  palavra "}, e cada trigrama aponta para a lista ordenada ({@code int[]}) das
+ * linhas que o contêm. Uma consulta casa com um nome quando cada palavra digitada é o
+ * início de alguma palavra do nome ("jo sil" encontra "João da Silva"): as listas dos
+ * trigramas da consulta são intersectadas a partir da menor e cada candidato é conferido.
+ * As linhas ficam ordenadas por nome normalizado, dos mais curtos para os mais longos, de
+ * modo que a varredura encontra primeiro os melhores candidatos e pode parar assim que
+ * tiver os K primeiros nomes que começam pelo texto digitado.
+ *
+ * A base é imutável e é carregada por leitura em fluxo na inicialização. As gravações
+ * confirmadas chegam pelo evento {@link PessoaAlterada} e formam um pequeno conjunto de
+ * alterações (copy-on-write) consultado junto com a base. A fila de alterações ainda não
+ * aplicadas tem o limite de {@link #LIMITE_ALTERACOES}: se ninguém consultar durante uma
+ * importação, ela transborda em vez de acumular os eventos no heap. Ocupa em torno de
+ * 200 bytes por pessoa.
+ *
+ * A base é relida do banco a cada {@link #VALIDADE_MILLIS}, como no {@link IndicePessoas},
+ * para incluir as gravações feitas por outros nós, e antes disso quando a fila transborda
+ * ou as alterações passam de {@link #LIMITE_ALTERACOES}. Essa leitura roda no executor
+ * gerenciado, como no {@link IndiceCpf}: enquanto ela não termina, as consultas usam a
+ * fotografia anterior.
+ * Nenhuma consulta espera a trava: se outra thread está aplicando as alterações, vale a
+ * fotografia corrente.
+ *
+ * @author Teste Sinerji
+ */
+@ApplicationScoped
+public class IndiceNomes {
+
+    private static final Logger LOGGER = Logger.getLogger(IndiceNomes.class.getName());
+
+    static final int LIMITE_ALTERACOES = 10_000;
+
+    static final long VALIDADE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /** Candidatos conferidos por consulta; limita o custo das consultas de uma ou duas letras. */
+    static final int LIMITE_VERIFICACOES = 20_000;
+
+    private static final Comparator<Sugestao> ORDEM = Comparator.<Sugestao>comparingInt(s -> s.faixa)
+            .thenComparingInt(s -> s.normalizado.length())
+            .thenComparing(s -> s.normalizado)
+            .thenComparingLong(s -> s.id);
+
+    private final ReentrantLock trava = new ReentrantLock();
+    private final FilaAlteracoes<PessoaAlterada> pendentes = new FilaAlteracoes<>(LIMITE_ALTERACOES);
+    private final AtomicBoolean carregando = new AtomicBoolean();
+    /** Alterações aplicadas à fotografia enquanto a carga em andamento lê o banco. */
+    private final List<PessoaAlterada> duranteCarga = new ArrayList<>();
+    /** Alterações descartadas durante a carga, por passarem do limite: exigem outra carga. */
+    private boolean descartadasDuranteCarga;
+    private final LongAdder cargas = new LongAdder();
+    private final LongAdder consultas = new LongAdder();
+
+    private volatile Fotografia fotografia;
+
+    private LongSupplier relogio = System::currentTimeMillis;
+
+    @Inject
+    private PessoaRepository pessoaRepository;
+
+    @Inject
+    private RegistroMetricas registroMetricas;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    @PostConstruct
+    void registrarMetricas() {
+        if (registroMetricas != null) {
+            registroMetricas.registrarContador("indice_nomes_cargas_total", "Cargas completas do índice de nomes", cargas::sum);
+            registroMetricas.registrarContador("indice_nomes_consultas_total", "Consultas ao índice de nomes", consultas::sum);
+            registroMetricas.registrarMedidor("indice_nomes_linhas", "Nomes na base do índice em memória", () -> {
+                Fotografia atual = fotografia;
+                return atual != null ? atual.base.ids.length : 0;
+            });
+        }
+    }
+
+    /**
+     * Enfileira uma alteração confirmada de nome ou uma remoção; alterações apenas de
+     * endereço são ignoradas.
+     *
+     * @param evento A alteração
+     */
+    void aoAlterarPessoa(@Observes(during = TransactionPhase.AFTER_SUCCESS) PessoaAlterada evento) {
+        if (evento.getDepois() == null || evento.getNome() != null) {
+            pendentes.adicionar(evento);
+        }
+    }
+
+    /**
+     * Sugere nomes para o texto digitado: primeiro os que começam pelo texto, depois os que
+     * têm palavras começando por cada termo, e, em cada grupo, os mais curtos primeiro.
+     *
+     * @param texto O texto digitado
+     * @param limite Quantidade máxima de sugestões
+     * @return Os nomes sugeridos, sem repetição
+     */
+    public List<String> sugerir(String texto, int limite) {
+        String consulta = TextoBusca.normalizar(texto);
+        if (consulta == null || consulta.isEmpty() || limite <= 0) {
+            return Collections.emptyList();
+        }
+        consultas.increment();
+        String[] palavras = consulta.split(" ");
+        String[] inicios = new String[palavras.length];
+        for (int i = 0; i < palavras.length; i++) {
+            inicios[i] = " " + palavras[i];
+        }
+
+        Fotografia atual = atual();
+        List<Sugestao> sugestoes = new ArrayList<>();
+        buscarNaBase(atual, consulta, palavras, inicios, limite, sugestoes);
+        for (Map.Entry<Long, String[]> alterado : atual.alterados.entrySet()) {
+            String normalizado = alterado.getValue()[1];
+            if (casa(normalizado, palavras, inicios)) {
+                sugestoes.add(new Sugestao(alterado.getKey(), alterado.getValue()[0], normalizado,
+                        normalizado.startsWith(consulta) ? 0 : 1));
+            }
+        }
+        sugestoes.sort(ORDEM);
+
+        Set<String> nomes = new LinkedHashSet<>();
+        for (int i = 0; i < sugestoes.size() && nomes.size() < limite; i++) {
+            nomes.add(sugestoes.get(i).nome);
+        }
+        return new ArrayList<>(nomes);
+    }
+
+    /**
+     * Carrega a base do banco na thread chamadora (ex.: na inicialização da aplicação).
+     * Se outra carga já estiver em andamento, não faz nada.
+     */
+    public void recarregar() {
+        if (iniciarCarga()) {
+            carregar();
+        }
+    }
+
+    /**
+     * Intersecta as listas dos trigramas da consulta, na ordem das linhas, e guarda os
+     * candidatos que casam, em duas faixas: 0 = o nome começa pela consulta; 1 = os demais.
+     */
+    private void buscarNaBase(Fotografia atual, String consulta, String[] palavras, String[] inicios,
+            int limite, List<Sugestao> sugestoes) {
+        Base base = atual.base;
+        long[] trigramas = trigramas(palavras, false);
+        int[][] listas = new int[trigramas.length][];
+        for (int i = 0; i < trigramas.length; i++) {
+            listas[i] = base.listas.get(trigramas[i]);
+            if (listas[i] == null) {
+                return;
+            }
+        }
+        Arrays.sort(listas, Comparator.comparingInt(lista -> lista.length));
+
+        int[] posicoes = new int[listas.length];
+        int primeiros = 0;
+        int demais = 0;
+        int verificadas = 0;
+        candidatos:
+        for (int linha : listas[0]) {
+            for (int k = 1; k < listas.length; k++) {
+                posicoes[k] = avancar(listas[k], posicoes[k], linha);
+                if (posicoes[k] == listas[k].length) {
+                    break candidatos;
+                }
+                if (listas[k][posicoes[k]] != linha) {
+                    continue candidatos;
+                }
+            }
+            if (++verificadas > LIMITE_VERIFICACOES) {
+                break;
+            }
+            if (atual.ocultos.contains(base.ids[linha])) {
+                continue;
+            }
+            String normalizado = base.normalizados[linha];
+            if (!casa(normalizado, palavras, inicios)) {
+                continue;
+            }
+            if (normalizado.startsWith(consulta)) {
+                sugestoes.add(new Sugestao(base.ids[linha], base.nomes[linha], normalizado, 0));
+                if (++primeiros >= limite) {
+                    break;
+                }
+            } else if (demais < limite) {
+                sugestoes.add(new Sugestao(base.ids[linha], base.nomes[linha], normalizado, 1));
+                demais++;
+            }
+        }
+    }
+
+    /**
+     * Posição da primeira linha {@code >= alvo} a partir de {@code inicio} (busca exponencial).
+     */
+    static int avancar(int[] lista, int inicio, int alvo) {
+        if (inicio >= lista.length || lista[inicio] >= alvo) {
+            return inicio;
+        }
+        int passo = 1;
+        int fim = inicio + 1;
+        while (fim < lista.length && lista[fim] < alvo) {
+            inicio = fim;
+            passo <<= 1;
+            fim = inicio + passo;
+        }
+        int posicao = Arrays.binarySearch(lista, inicio + 1, Math.min(fim + 1, lista.length), alvo);
+        return posicao >= 0 ? posicao : -posicao - 1;
+    }
+
+    /**
+     * Verifica se cada palavra da consulta é o início de alguma palavra do nome.
+     */
+    static boolean casa(String normalizado, String[] palavras, String[] inicios) {
+        for (int i = 0; i < palavras.length; i++) {
+            if (!normalizado.startsWith(palavras[i]) && !normalizado.contains(inicios[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Trigramas distintos das palavras, cada uma precedida de dois espaços. Nos nomes
+     * indexados a palavra também termina com espaço; na consulta, não, pois a última
+     * palavra pode estar incompleta.
+     */
+    static long[] trigramas(String[] palavras, boolean completas) {
+        long[] codigos = new long[16];
+        int n = 0;
+        for (String palavra : palavras) {
+            String texto = "  " + palavra + (completas ? " " : "");
+            for (int i = 0; i + 3 <= texto.length(); i++) {
+                long codigo = ((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2);
+                boolean repetido = false;
+                for (int j = 0; j < n && !repetido; j++) {
+                    repetido = codigos[j] == codigo;
+                }
+                if (!repetido) {
+                    if (n == codigos.length) {
+                        codigos = Arrays.copyOf(codigos, n * 2);
+                    }
+                    codigos[n++] = codigo;
+                }
+            }
+        }
+        return Arrays.copyOf(codigos, n);
+    }
+
+    /**
+     * Retorna a fotografia atual, aplicando as alterações pendentes se a trava estiver
+     * livre, e agenda a recarga da base se ela não existir, estiver expirada, se a fila
+     * transbordou ou se as alterações passaram do limite. Nunca lê o banco na thread da consulta.
+     *
+     * @return A fotografia; sem base carregada, uma fotografia vazia
+     */
+    Fotografia atual() {
+        Fotografia atual = fotografia;
+        if (atual == null || pendentes.isTransbordada()
+                || relogio.getAsLong() - atual.base.carregadaEm >= VALIDADE_MILLIS) {
+            agendarCarga();
+            atual = fotografia;
+        }
+        if (atual == null) {
+            return Fotografia.VAZIA;
+        }
+        if (pendentes.isVazia() || !trava.tryLock()) {
+            return atual;
+        }
+        try {
+            // Pode ter sido trocada pela carga desde a leitura acima
+            atual = aplicarPendentes(fotografia);
+            fotografia = atual;
+        } finally {
+            trava.unlock();
+        }
+        if (atual.ocultos.size() > LIMITE_ALTERACOES) {
+            agendarCarga();
+        }
+        return atual;
+    }
+
+    private void agendarCarga() {
+        if (!iniciarCarga()) {
+            return;
+        }
+        try {
+            executor.execute(this::carregar);
+        } catch (RuntimeException e) {
+            carregando.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Marca a carga como em andamento. Se a fila transbordou, ela volta a aceitar
+     * alterações: as descartadas já estão confirmadas e serão lidas pela carga.
+     *
+     * @return false se já houver uma carga em andamento
+     */
+    private boolean iniciarCarga() {
+        if (!carregando.compareAndSet(false, true)) {
+            return false;
+        }
+        trava.lock();
+        try {
+            duranteCarga.clear();
+            descartadasDuranteCarga = false;
+            if (pendentes.isTransbordada()) {
+                pendentes.reiniciar();
+            }
+        } finally {
+            trava.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Lê a base do banco, fora da trava, e a troca pela atual. As alterações aplicadas
+     * durante a leitura podem ter sido confirmadas depois que ela passou pela pessoa, por
+     * isso são reaplicadas, na mesma ordem, à base nova.
+     */
+    private void carregar() {
+        boolean outraCarga;
+        try {
+            long inicio = System.nanoTime();
+            Construtor construtor = new Construtor();
+            pessoaRepository.percorrerNomes(construtor::adicionar);
+            Base base = construtor.construir(relogio.getAsLong());
+            cargas.increment();
+            LOGGER.info(() -> String.format("Índice de nomes carregado: %d nomes em %d ms",
+                    base.ids.length, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio)));
+            trava.lock();
+            try {
+                fotografia = aplicar(new Fotografia(base, Collections.emptyMap(), Collections.emptySet()), duranteCarga);
+                outraCarga = descartadasDuranteCarga;
+                duranteCarga.clear();
+                carregando.set(false);
+            } finally {
+                trava.unlock();
+            }
+        } catch (RuntimeException e) {
+            carregando.set(false);
+            LOGGER.log(Level.WARNING, "Falha ao carregar o índice de nomes", e);
+            return;
+        }
+        if (outraCarga) {
+            agendarCarga();
+        }
+    }
+
+    void setRelogio(LongSupplier relogio) {
+        this.relogio = relogio;
+    }
+
+    private Fotografia aplicarPendentes(Fotografia atual) {
+        List<PessoaAlterada> eventos = new ArrayList<>();
+        PessoaAlterada evento;
+        while ((evento = pendentes.retirar()) != null) {
+            eventos.add(evento);
+        }
+        if (carregando.get() && !descartadasDuranteCarga) {
+            if (duranteCarga.size() + eventos.size() > LIMITE_ALTERACOES) {
+                duranteCarga.clear();
+                descartadasDuranteCarga = true;
+            } else {
+                duranteCarga.addAll(eventos);
+            }
+        }
+        return aplicar(atual, eventos);
+    }
+
+    private static Fotografia aplicar(Fotografia atual, List<PessoaAlterada> eventos) {
+        if (eventos.isEmpty()) {
+            return atual;
+        }
+        Map<Long, String[]> alterados = new HashMap<>(atual.alterados);
+        Set<Long> ocultos = new HashSet<>(atual.ocultos);
+        for (PessoaAlterada evento : eventos) {
+            Long id = evento.getId();
+            ocultos.add(id);
+            if (evento.getDepois() == null) {
+                alterados.remove(id);
+            } else {
+                alterados.put(id, new String[] {evento.getNome(), TextoBusca.normalizar(evento.getNome())});
+            }
+        }
+        return new Fotografia(atual.base, Collections.unmodifiableMap(alterados), Collections.unmodifiableSet(ocultos));
+    }
+
+    /**
+     * Base imutável: linhas ordenadas por nome normalizado (comprimento, texto, ID).
+     */
+    static final class Base {
+        final long[] ids;
+        final String[] nomes;
+        final String[] normalizados;
+        /** Trigrama → linhas que o contêm, em ordem crescente. */
+        final Map<Long, int[]> listas;
+        final long carregadaEm;
+
+        Base(long[] ids, String[] nomes, String[] normalizados, Map<Long, int[]> listas, long carregadaEm) {
+            this.ids = ids;
+            this.nomes = nomes;
+            this.normalizados = normalizados;
+            this.listas = listas;
+            this.carregadaEm = carregadaEm;
+        }
+    }
+
+    /**
+     * Base mais as alterações confirmadas desde a carga.
+     */
+    static final class Fotografia {
+        final Base base;
+        /** ID → {nome, nome normalizado} das pessoas incluídas ou renomeadas. */
+        final Map<Long, String[]> alterados;
+        /** IDs cujas linhas da base foram alteradas ou removidas. */
+        final Set<Long> ocultos;
+
+        static final Fotografia VAZIA = new Fotografia(
+                new Base(new long[0], new String[0], new String[0], Collections.emptyMap(), 0),
+                Collections.emptyMap(), Collections.emptySet());
+
+        Fotografia(Base base, Map<Long, String[]> alterados, Set<Long> ocultos) {
+            this.base = base;
+            this.alterados = alterados;
+            this.ocultos = ocultos;
+        }
+    }
+
+    private static final class Sugestao {
+        final long id;
+        final String nome;
+        final String normalizado;
+        final int faixa;
+
+        Sugestao(long id, String nome, String normalizado, int faixa) {
+            this.id = id;
+            this.nome = nome;
+            this.normalizado = normalizado;
+            this.faixa = faixa;
+        }
+    }
+
+    /**
+     * Acumula os nomes lidos e monta a base em duas passadas: contagem das listas e preenchimento.
+     */
+    static final class Construtor {
+        private long[] ids = new long[1024];
+        private String[] nomes = new String[1024];
+        private int tamanho;
+
+        void adicionar(Long id, String nome) {
+            if (nome == null) {
+                return;
+            }
+            if (tamanho == ids.length) {
+                ids = Arrays.copyOf(ids, tamanho * 2);
+                nomes = Arrays.copyOf(nomes, tamanho * 2);
+            }
+            ids[tamanho] = id;
+            nomes[tamanho++] = nome;
+        }
+
+        Base construir(long carregadaEm) {
+            String[] normalizados = new String[tamanho];
+            Integer[] ordem = new Integer[tamanho];
+            for (int i = 0; i < tamanho; i++) {
+                normalizados[i] = TextoBusca.normalizar(nomes[i]);
+                ordem[i] = i;
+            }
+            Arrays.sort(ordem, Comparator.<Integer>comparingInt(i -> normalizados[i].length())
+                    .thenComparing(i -> normalizados[i])
+                    .thenComparingLong(i -> ids[i]));
+
+            long[] idsOrdenados = new long[tamanho];
+            String[] nomesOrdenados = new String[tamanho];
+            String[] normalizadosOrdenados = new String[tamanho];
+            // Duas passadas sobre os nomes: a primeira conta as linhas de cada trigrama e a
+            // segunda preenche as listas, recalculando os trigramas em vez de guardá-los por linha
+            Map<Long, int[]> contagens = new HashMap<>();
+            for (int linha = 0; linha < tamanho; linha++) {
+                int origem = ordem[linha];
+                idsOrdenados[linha] = ids[origem];
+                nomesOrdenados[linha] = nomes[origem];
+                normalizadosOrdenados[linha] = normalizados[origem];
+                for (long trigrama : trigramas(normalizados[origem].split(" "), true)) {
+                    contagens.computeIfAbsent(trigrama, t -> new int[1])[0]++;
+                }
+            }
+
+            // A contagem de cada trigrama passa a ser a posição de preenchimento da sua lista
+            Map<Long, int[]> listas = new HashMap<>(contagens.size() * 2);
+            for (Map.Entry<Long, int[]> contagem : contagens.entrySet()) {
+                listas.put(contagem.getKey(), new int[contagem.getValue()[0]]);
+                contagem.getValue()[0] = 0;
+            }
+            for (int linha = 0; linha < tamanho; linha++) {
+                for (long trigrama : trigramas(normalizadosOrdenados[linha].split(" "), true)) {
+                    listas.get(trigrama)[contagens.get(trigrama)[0]++] = linha;
+                }
+            }
+            return new Base(idsOrdenados, nomesOrdenados, normalizadosOrdenados, listas, carregadaEm);
+        }
+    }
+}
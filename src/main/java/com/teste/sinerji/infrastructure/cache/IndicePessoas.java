@@ -0,0 +1,756 @@
+package com.teste.sinerji.infrastructure.cache;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import com.teste.sinerji.application.dto.PessoaFiltro;
+import com.teste.sinerji.application.event.PerfilPessoa;
+import com.teste.sinerji.application.event.PessoaAlterada;
+import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.infrastructure.repository.PessoaRepository;
+import com.teste.sinerji.shared.metrics.RegistroMetricas;
+import com.teste.sinerji.shared.util.TextoBusca;
+
+/**
+ * Índice colunar em memória das pessoas, compartilhado por toda a aplicação.
+ *
+ * Cada pessoa ocupa uma linha em vetores primitivos (ID, sexo, data de nascimento e
+ * UF/cidade de cada endereço), e cada valor de sexo, UF, mês de nascimento e cidade
+ * tem um bitmap com as linhas que o possuem. Um filtro vira a interseção (AND) dos
+ * bitmaps, e a contagem, a cardinalidade do resultado.
+ *
+ * A fotografia é imutável (copy-on-write): as alterações confirmadas chegam pelo evento
+ * {@link PessoaAlterada}, ficam em fila e são aplicadas em lote na próxima leitura,
+ * gerando uma nova fotografia. A aplicação é incremental: o novo estado de cada pessoa
+ * alterada é acrescentado ao fim dos vetores, a linha anterior é apenas marcada como morta,
+ * e só os bitmaps que ganham linhas são copiados. A cada {@link #VALIDADE_MILLIS} (ou quando
+ * as linhas mortas superam as vivas) a fotografia é recarregada do banco, o que a compacta e
+ * incorpora gravações feitas por outros nós. A fila guarda no máximo
+ * {@link #LIMITE_PENDENTES} alterações: sem leituras durante uma importação longa, ela
+ * transborda e a fotografia é recarregada, em vez de acumular os eventos.
+ *
+ * Só a primeira carga (normalmente na inicialização) roda na thread chamadora. As
+ * recargas seguintes rodam no executor gerenciado, como no {@link IndiceCpf}: enquanto
+ * elas leem o banco, as leituras usam a fotografia atual, que continua recebendo as
+ * alterações; as recebidas durante a recarga são reaplicadas à fotografia nova.
+ *
+ * @author Teste Sinerji
+ */
+@ApplicationScoped
+public class IndicePessoas {
+
+    private static final Logger LOGGER = Logger.getLogger(IndicePessoas.class.getName());
+
+    static final long VALIDADE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /** Acima desta quantidade de IDs, a listagem usa os predicados SQL em vez de "id IN (...)". */
+    public static final int LIMITE_IDS = 1000;
+
+    static final int LIMITE_PENDENTES = 100_000;
+
+    static final int SEM_DATA = Integer.MIN_VALUE;
+    private static final byte SEM_VALOR = -1;
+
+    private final ReentrantLock trava = new ReentrantLock();
+    private final FilaAlteracoes<PessoaAlterada> pendentes = new FilaAlteracoes<>(LIMITE_PENDENTES);
+    private final AtomicBoolean carregando = new AtomicBoolean();
+    /** Alterações aplicadas à fotografia enquanto a recarga em andamento lê o banco. */
+    private final List<PessoaAlterada> duranteCarga = new ArrayList<>();
+    private final LongAdder cargas = new LongAdder();
+    private final LongAdder atualizacoes = new LongAdder();
+
+    private volatile Fotografia fotografia;
+
+    /** Gravações feitas fora dos serviços: a próxima leitura agenda a recarga. */
+    private volatile boolean invalidada;
+
+    private LongSupplier relogio = System::currentTimeMillis;
+
+    @Inject
+    private PessoaRepository pessoaRepository;
+
+    @Inject
+    private RegistroMetricas registroMetricas;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    @PostConstruct
+    void registrarMetricas() {
+        if (registroMetricas != null) {
+            registroMetricas.registrarContador("indice_pessoas_cargas_total", "Cargas completas do índice de pessoas", cargas::sum);
+            registroMetricas.registrarContador("indice_pessoas_atualizacoes_total", "Lotes de alterações aplicados ao índice", atualizacoes::sum);
+            registroMetricas.registrarMedidor("indice_pessoas_linhas", "Pessoas no índice em memória", () -> {
+                Fotografia atual = fotografia;
+                return atual != null ? atual.quantidade : 0;
+            });
+        }
+    }
+
+    /**
+     * Enfileira uma alteração confirmada; ela é aplicada na próxima leitura.
+     *
+     * @param evento A alteração
+     */
+    void aoAlterarPessoa(@Observes(during = TransactionPhase.AFTER_SUCCESS) PessoaAlterada evento) {
+        pendentes.adicionar(evento);
+    }
+
+    /**
+     * Verifica se o filtro pode ser contado apenas pelo índice (sem nome nem CPF).
+     *
+     * @param filtro O filtro (pode ser nulo)
+     * @return true se o índice atende todos os critérios
+     */
+    public static boolean atendeTodos(PessoaFiltro filtro) {
+        return filtro == null || (vazio(filtro.getNome()) && vazio(filtro.getCpf()) && filtro.getIds() == null);
+    }
+
+    /**
+     * Verifica se o filtro tem algum critério atendido pelo índice.
+     *
+     * @param filtro O filtro (pode ser nulo)
+     * @return true se houver critério de sexo, UF, cidade, idade ou mês de nascimento
+     */
+    public static boolean atendeAlgum(PessoaFiltro filtro) {
+        return filtro != null && (filtro.getSexo() != null || filtro.getEstado() != null || !vazio(filtro.getCidade())
+                || filtro.getIdadeMinima() != null || filtro.getIdadeMaxima() != null
+                || filtro.getMesNascimento() != null);
+    }
+
+    /**
+     * Conta as pessoas que atendem aos critérios indexados do filtro (nome e CPF são ignorados).
+     *
+     * @param filtro O filtro (pode ser nulo)
+     * @return A quantidade de pessoas
+     */
+    public long contar(PessoaFiltro filtro) {
+        return filtrar(atual(), filtro).cardinality();
+    }
+
+    /**
+     * Conta, por UF do endereço principal (o primeiro cadastrado), as pessoas que atendem aos
+     * critérios indexados do filtro (nome e CPF são ignorados).
+     *
+     * @param filtro O filtro (pode ser nulo)
+     * @return Quantidade por UF, na ordem da enumeração, apenas para as UFs com pessoas
+     */
+    public Map<Estado, Long> contarPorEstado(PessoaFiltro filtro) {
+        Fotografia atual = atual();
+        BitSet linhas = filtrar(atual, filtro);
+        long[] totais = new long[Estado.values().length];
+        for (int linha = linhas.nextSetBit(0); linha >= 0; linha = linhas.nextSetBit(linha + 1)) {
+            int principal = atual.inicioEnderecos[linha];
+            if (principal < atual.inicioEnderecos[linha + 1] && atual.ufs[principal] != SEM_VALOR) {
+                totais[atual.ufs[principal]]++;
+            }
+        }
+        Map<Estado, Long> resultado = new EnumMap<>(Estado.class);
+        for (Estado estado : Estado.values()) {
+            if (totais[estado.ordinal()] > 0) {
+                resultado.put(estado, totais[estado.ordinal()]);
+            }
+        }
+        return Collections.unmodifiableMap(resultado);
+    }
+
+    /**
+     * Lista os IDs das pessoas que atendem aos critérios indexados do filtro.
+     *
+     * @param filtro O filtro (pode ser nulo)
+     * @param limite Quantidade máxima de IDs
+     * @return Os IDs em ordem crescente, ou null se o resultado exceder o limite
+     */
+    public List<Long> listarIds(PessoaFiltro filtro, int limite) {
+        Fotografia atual = atual();
+        BitSet linhas = filtrar(atual, filtro);
+        if (linhas.cardinality() > limite) {
+            return null;
+        }
+        long[] ids = new long[linhas.cardinality()];
+        int n = 0;
+        for (int linha = linhas.nextSetBit(0); linha >= 0; linha = linhas.nextSetBit(linha + 1)) {
+            ids[n++] = atual.ids[linha];
+        }
+        Arrays.sort(ids);
+        List<Long> resultado = new ArrayList<>(n);
+        for (long id : ids) {
+            resultado.add(id);
+        }
+        return resultado;
+    }
+
+    /**
+     * Carrega o índice do banco na thread chamadora (ex.: na inicialização da aplicação).
+     * Se outra carga já estiver em andamento, não faz nada.
+     */
+    public void recarregar() {
+        if (iniciarCarga()) {
+            carregar();
+        }
+    }
+
+    /**
+     * Marca a fotografia como desatualizada (ex.: após cargas feitas diretamente no
+     * repositório); a próxima leitura agenda a recarga e continua usando a atual até que
+     * ela termine.
+     */
+    public void invalidar() {
+        invalidada = true;
+    }
+
+    /**
+     * Retorna a fotografia atual, com as alterações pendentes aplicadas, e agenda a recarga
+     * se ela estiver expirada, invalidada ou com a fila transbordada. Sem fotografia (antes
+     * da primeira carga), a leitura a carrega e as demais esperam.
+     */
+    Fotografia atual() {
+        Fotografia atual = fotografia;
+        if (atual == null) {
+            return primeiraCarga();
+        }
+        if (invalidada || pendentes.isTransbordada() || expirada(atual)) {
+            agendarCarga();
+        }
+        if (pendentes.isVazia()) {
+            return fotografia;
+        }
+        // Aplicar as pendentes não lê o banco: a leitura espera para ver as próprias gravações
+        trava.lock();
+        try {
+            atual = aplicarPendentes(fotografia);
+            fotografia = atual;
+            return atual;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private boolean expirada(Fotografia atual) {
+        return relogio.getAsLong() - atual.carregadaEm >= VALIDADE_MILLIS
+                || atual.tamanho - atual.quantidade > atual.quantidade;
+    }
+
+    private Fotografia primeiraCarga() {
+        trava.lock();
+        try {
+            if (fotografia == null) {
+                if (pendentes.isTransbordada()) {
+                    pendentes.reiniciar();
+                }
+                // As alterações que chegarem durante a leitura são reaplicadas depois (a aplicação é idempotente por ID)
+                fotografia = aplicarPendentes(ler());
+            }
+            return fotografia;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private void agendarCarga() {
+        if (!iniciarCarga()) {
+            return;
+        }
+        try {
+            executor.execute(this::carregar);
+        } catch (RuntimeException e) {
+            carregando.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Marca a recarga como em andamento. Se a fila transbordou, ela volta a aceitar
+     * alterações: as descartadas já estão confirmadas e serão lidas pela recarga.
+     *
+     * @return false se já houver uma recarga em andamento
+     */
+    private boolean iniciarCarga() {
+        if (!carregando.compareAndSet(false, true)) {
+            return false;
+        }
+        trava.lock();
+        try {
+            invalidada = false;
+            duranteCarga.clear();
+            if (pendentes.isTransbordada()) {
+                pendentes.reiniciar();
+            }
+        } finally {
+            trava.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Lê o banco, fora da trava, e troca a fotografia atual pela nova. As alterações
+     * aplicadas durante a leitura podem ter sido confirmadas depois que ela passou pela
+     * pessoa, por isso são reaplicadas à fotografia nova.
+     */
+    private void carregar() {
+        try {
+            Fotografia carregada = ler();
+            trava.lock();
+            try {
+                fotografia = aplicar(carregada, duranteCarga);
+                duranteCarga.clear();
+                carregando.set(false);
+            } finally {
+                trava.unlock();
+            }
+        } catch (RuntimeException e) {
+            carregando.set(false);
+            LOGGER.log(Level.WARNING, "Falha ao carregar o índice de pessoas", e);
+        }
+    }
+
+    private Fotografia ler() {
+        long inicio = System.nanoTime();
+        Construtor construtor = new Construtor(1024);
+        pessoaRepository.percorrerPerfis(construtor::adicionar);
+        Fotografia carregada = construtor.construir(relogio.getAsLong());
+        cargas.increment();
+        LOGGER.info(() -> String.format("Índice de pessoas carregado: %d pessoas em %d ms",
+                carregada.quantidade, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio)));
+        return carregada;
+    }
+
+    private Fotografia aplicarPendentes(Fotografia base) {
+        List<PessoaAlterada> eventos = new ArrayList<>();
+        PessoaAlterada evento;
+        while ((evento = pendentes.retirar()) != null) {
+            eventos.add(evento);
+        }
+        if (carregando.get() && !invalidada) {
+            if (duranteCarga.size() + eventos.size() > LIMITE_PENDENTES) {
+                // Sem guardar tantas alterações: a fotografia nova é recarregada em seguida
+                duranteCarga.clear();
+                invalidada = true;
+            } else {
+                duranteCarga.addAll(eventos);
+            }
+        }
+        return aplicar(base, eventos);
+    }
+
+    private Fotografia aplicar(Fotografia base, List<PessoaAlterada> eventos) {
+        // Apenas o último estado de cada pessoa interessa; null = removida
+        Map<Long, PerfilPessoa> alteradas = new LinkedHashMap<>();
+        for (PessoaAlterada evento : eventos) {
+            alteradas.remove(evento.getId());
+            alteradas.put(evento.getId(), evento.getDepois());
+        }
+        if (alteradas.isEmpty()) {
+            return base;
+        }
+        atualizacoes.increment();
+        return base.comAlteracoes(alteradas);
+    }
+
+    static BitSet filtrar(Fotografia f, PessoaFiltro filtro) {
+        BitSet linhas = (BitSet) f.vivas.clone();
+        if (filtro == null) {
+            return linhas;
+        }
+
+        if (filtro.getSexo() != null) {
+            linhas.and(f.porSexo[filtro.getSexo().ordinal()]);
+        }
+        if (filtro.getEstado() != null) {
+            linhas.and(f.porUf[filtro.getEstado().ordinal()]);
+        }
+        if (filtro.getMesNascimento() != null) {
+            int mes = filtro.getMesNascimento();
+            if (mes >= 1 && mes <= 12) {
+                linhas.and(f.porMes[mes]);
+            } else {
+                linhas.clear();
+            }
+        }
+        if (!vazio(filtro.getCidade())) {
+            // Prefixo, como o LIKE 'x%' sobre cidade_busca: união dos bitmaps das cidades do intervalo
+            String prefixo = TextoBusca.normalizar(filtro.getCidade());
+            BitSet cidades = new BitSet(f.tamanho);
+            for (BitSet cidade : f.porCidade.subMap(prefixo, true, prefixo + Character.MAX_VALUE, true).values()) {
+                cidades.or(cidade);
+            }
+            linhas.and(cidades);
+        }
+
+        if (filtro.getIdadeMinima() != null || filtro.getIdadeMaxima() != null) {
+            // Mesmos limites da consulta SQL: nascido até hoje - min anos e depois de hoje - (max + 1) anos
+            LocalDate hoje = LocalDate.now();
+            long ate = filtro.getIdadeMinima() != null
+                    ? hoje.minusYears(filtro.getIdadeMinima()).toEpochDay() : Long.MAX_VALUE;
+            long depoisDe = filtro.getIdadeMaxima() != null
+                    ? hoje.minusYears(filtro.getIdadeMaxima() + 1L).toEpochDay() : Long.MIN_VALUE;
+            for (int linha = linhas.nextSetBit(0); linha >= 0; linha = linhas.nextSetBit(linha + 1)) {
+                int nascimento = f.nascimentos[linha];
+                if (nascimento == SEM_DATA || nascimento > ate || nascimento <= depoisDe) {
+                    linhas.clear(linha);
+                }
+            }
+        }
+        return linhas;
+    }
+
+    private static boolean vazio(String valor) {
+        return valor == null || valor.trim().isEmpty();
+    }
+
+    void setRelogio(LongSupplier relogio) {
+        this.relogio = relogio;
+    }
+
+    /**
+     * Fotografia imutável do índice.
+     *
+     * Os vetores podem ter capacidade além de {@link #tamanho} e são compartilhados com a
+     * fotografia seguinte, que acrescenta suas linhas nessa sobra: cada fotografia só lê as
+     * próprias posições, e apenas a mais recente (sob a trava do índice) ganha linhas.
+     */
+    static final class Fotografia {
+
+        /** Linhas ocupadas, inclusive as mortas. */
+        final int tamanho;
+        /** Linhas vivas. */
+        final int quantidade;
+        final long carregadaEm;
+
+        /** Linhas que representam o estado atual de alguma pessoa. */
+        final BitSet vivas;
+        /** As primeiras linhas vieram da carga, com IDs em ordem crescente. */
+        private final int carregadas;
+        /** Linha das pessoas acrescentadas depois da carga. */
+        private final Map<Long, Integer> acrescentadas;
+
+        final long[] ids;
+        final byte[] sexos;
+        /** Data de nascimento em dias desde 1970-01-01, ou {@link #SEM_DATA}. */
+        final int[] nascimentos;
+        /** Endereços da linha i: posições inicioEnderecos[i] até inicioEnderecos[i + 1] - 1. */
+        final int[] inicioEnderecos;
+        final byte[] ufs;
+        private final int totalEnderecos;
+
+        final BitSet[] porSexo;
+        final BitSet[] porUf;
+        /** Índices 1 a 12. */
+        final BitSet[] porMes;
+        /** Cidade (normalizada por {@link TextoBusca}) para as linhas com algum endereço nela. */
+        final NavigableMap<String, BitSet> porCidade;
+
+        private Fotografia(Construtor c, long carregadaEm) {
+            this.tamanho = c.tamanho;
+            this.quantidade = c.tamanho;
+            this.carregadaEm = carregadaEm;
+            this.vivas = new BitSet(tamanho);
+            this.vivas.set(0, tamanho);
+            this.carregadas = tamanho;
+            this.acrescentadas = Collections.emptyMap();
+            this.ids = c.ids;
+            this.sexos = c.sexos;
+            this.nascimentos = c.nascimentos;
+            this.inicioEnderecos = c.inicioEnderecos;
+            this.ufs = c.ufs;
+            this.totalEnderecos = c.totalEnderecos;
+
+            this.porSexo = novosBitmaps(Sexo.values().length);
+            this.porUf = novosBitmaps(Estado.values().length);
+            this.porMes = novosBitmaps(13);
+            BitSet[] porCodigoCidade = novosBitmaps(c.dicionario.size());
+            for (int linha = 0; linha < tamanho; linha++) {
+                if (sexos[linha] != SEM_VALOR) {
+                    porSexo[sexos[linha]].set(linha);
+                }
+                if (nascimentos[linha] != SEM_DATA) {
+                    porMes[LocalDate.ofEpochDay(nascimentos[linha]).getMonthValue()].set(linha);
+                }
+                for (int e = inicioEnderecos[linha]; e < inicioEnderecos[linha + 1]; e++) {
+                    if (ufs[e] != SEM_VALOR) {
+                        porUf[ufs[e]].set(linha);
+                    }
+                    if (c.cidades[e] >= 0) {
+                        porCodigoCidade[c.cidades[e]].set(linha);
+                    }
+                }
+            }
+            TreeMap<String, BitSet> mapaCidades = new TreeMap<>();
+            for (int codigo = 0; codigo < c.dicionario.size(); codigo++) {
+                mapaCidades.put(c.dicionario.get(codigo), porCodigoCidade[codigo]);
+            }
+            this.porCidade = Collections.unmodifiableNavigableMap(mapaCidades);
+        }
+
+        private Fotografia(Fotografia base, Acrescimo a) {
+            this.tamanho = a.tamanho;
+            this.quantidade = a.vivas.cardinality();
+            this.carregadaEm = base.carregadaEm;
+            this.vivas = a.vivas;
+            this.carregadas = base.carregadas;
+            this.acrescentadas = Collections.unmodifiableMap(a.acrescentadas);
+            this.ids = a.ids;
+            this.sexos = a.sexos;
+            this.nascimentos = a.nascimentos;
+            this.inicioEnderecos = a.inicioEnderecos;
+            this.ufs = a.ufs;
+            this.totalEnderecos = a.totalEnderecos;
+            this.porSexo = a.porSexo;
+            this.porUf = a.porUf;
+            this.porMes = a.porMes;
+            this.porCidade = a.porCidade != null ? Collections.unmodifiableNavigableMap(a.porCidade) : base.porCidade;
+        }
+
+        /**
+         * Gera a fotografia seguinte: as linhas das pessoas alteradas morrem e o novo estado
+         * delas (se não removidas) é acrescentado ao fim.
+         *
+         * @param alteradas Último estado de cada pessoa alterada; null = removida
+         */
+        Fotografia comAlteracoes(Map<Long, PerfilPessoa> alteradas) {
+            Acrescimo a = new Acrescimo(this, alteradas.values());
+            for (Long id : alteradas.keySet()) {
+                int linha = linha(id);
+                if (linha >= 0) {
+                    a.vivas.clear(linha);
+                }
+                a.acrescentadas.remove(id);
+            }
+            for (PerfilPessoa perfil : alteradas.values()) {
+                if (perfil != null) {
+                    a.acrescentar(perfil);
+                }
+            }
+            return new Fotografia(this, a);
+        }
+
+        /**
+         * Linha viva de uma pessoa, ou -1 se ela não estiver no índice.
+         */
+        int linha(long id) {
+            Integer acrescentada = acrescentadas.get(id);
+            if (acrescentada != null) {
+                return acrescentada;
+            }
+            int linha = Arrays.binarySearch(ids, 0, carregadas, id);
+            return linha >= 0 && vivas.get(linha) ? linha : -1;
+        }
+
+        private static BitSet[] novosBitmaps(int quantidade) {
+            BitSet[] bitmaps = new BitSet[quantidade];
+            for (int i = 0; i < quantidade; i++) {
+                bitmaps[i] = new BitSet();
+            }
+            return bitmaps;
+        }
+    }
+
+    /**
+     * Estado da fotografia seguinte durante a aplicação de um lote de alterações. Os vetores
+     * só são realocados se a sobra de capacidade não bastar, e cada bitmap é copiado na
+     * primeira linha que recebe; os demais continuam compartilhados com a base.
+     */
+    private static final class Acrescimo {
+
+        private final Fotografia base;
+        private int tamanho;
+        private int totalEnderecos;
+        private final BitSet vivas;
+        private final Map<Long, Integer> acrescentadas;
+        private final long[] ids;
+        private final byte[] sexos;
+        private final int[] nascimentos;
+        private final int[] inicioEnderecos;
+        private final byte[] ufs;
+        private final BitSet[] porSexo;
+        private final BitSet[] porUf;
+        private final BitSet[] porMes;
+        private TreeMap<String, BitSet> porCidade;
+
+        Acrescimo(Fotografia base, Collection<PerfilPessoa> perfis) {
+            this.base = base;
+            this.tamanho = base.tamanho;
+            this.totalEnderecos = base.totalEnderecos;
+            this.vivas = (BitSet) base.vivas.clone();
+            this.acrescentadas = new HashMap<>(base.acrescentadas);
+            int linhas = tamanho;
+            int enderecos = totalEnderecos;
+            for (PerfilPessoa perfil : perfis) {
+                if (perfil != null) {
+                    linhas++;
+                    enderecos += perfil.getEstados().size();
+                }
+            }
+            this.ids = base.ids.length >= linhas ? base.ids : Arrays.copyOf(base.ids, capacidade(linhas));
+            this.sexos = base.sexos.length >= linhas ? base.sexos : Arrays.copyOf(base.sexos, ids.length);
+            this.nascimentos = base.nascimentos.length >= linhas ? base.nascimentos : Arrays.copyOf(base.nascimentos, ids.length);
+            this.inicioEnderecos = base.inicioEnderecos.length > linhas
+                    ? base.inicioEnderecos : Arrays.copyOf(base.inicioEnderecos, ids.length + 1);
+            this.ufs = base.ufs.length >= enderecos ? base.ufs : Arrays.copyOf(base.ufs, capacidade(enderecos));
+            this.porSexo = base.porSexo.clone();
+            this.porUf = base.porUf.clone();
+            this.porMes = base.porMes.clone();
+        }
+
+        void acrescentar(PerfilPessoa perfil) {
+            int linha = tamanho++;
+            ids[linha] = perfil.getId();
+            vivas.set(linha);
+            acrescentadas.put(perfil.getId(), linha);
+            if (perfil.getSexo() != null) {
+                sexos[linha] = (byte) perfil.getSexo().ordinal();
+                marcar(porSexo, base.porSexo, perfil.getSexo().ordinal(), linha);
+            } else {
+                sexos[linha] = SEM_VALOR;
+            }
+            if (perfil.getDataNascimento() != null) {
+                nascimentos[linha] = (int) perfil.getDataNascimento().toEpochDay();
+                marcar(porMes, base.porMes, perfil.getDataNascimento().getMonthValue(), linha);
+            } else {
+                nascimentos[linha] = SEM_DATA;
+            }
+            inicioEnderecos[linha] = totalEnderecos;
+            for (int i = 0; i < perfil.getEstados().size(); i++) {
+                Estado estado = perfil.getEstados().get(i);
+                String cidade = perfil.getCidades().get(i);
+                ufs[totalEnderecos++] = estado != null ? (byte) estado.ordinal() : SEM_VALOR;
+                if (estado != null) {
+                    marcar(porUf, base.porUf, estado.ordinal(), linha);
+                }
+                if (cidade != null) {
+                    marcarCidade(TextoBusca.normalizar(cidade), linha);
+                }
+            }
+            inicioEnderecos[linha + 1] = totalEnderecos;
+        }
+
+        private static void marcar(BitSet[] bitmaps, BitSet[] originais, int indice, int linha) {
+            if (bitmaps[indice] == originais[indice]) {
+                bitmaps[indice] = (BitSet) originais[indice].clone();
+            }
+            bitmaps[indice].set(linha);
+        }
+
+        private void marcarCidade(String cidade, int linha) {
+            if (porCidade == null) {
+                porCidade = new TreeMap<>(base.porCidade);
+            }
+            BitSet original = base.porCidade.get(cidade);
+            BitSet bitmap = porCidade.get(cidade);
+            if (bitmap == null || bitmap == original) {
+                bitmap = original != null ? (BitSet) original.clone() : new BitSet();
+                porCidade.put(cidade, bitmap);
+            }
+            bitmap.set(linha);
+        }
+
+        private static int capacidade(int necessaria) {
+            return Math.max(16, Integer.highestOneBit(necessaria - 1) << 1);
+        }
+    }
+
+    /**
+     * Monta uma fotografia linha a linha, com os vetores crescendo conforme necessário.
+     */
+    static final class Construtor {
+
+        private int tamanho;
+        private int totalEnderecos;
+        private long[] ids;
+        private byte[] sexos;
+        private int[] nascimentos;
+        private int[] inicioEnderecos;
+        private byte[] ufs;
+        private int[] cidades;
+        private final List<String> dicionario = new ArrayList<>();
+        private final Map<String, Integer> codigos = new HashMap<>();
+
+        Construtor(int capacidade) {
+            int inicial = Math.max(capacidade, 16);
+            ids = new long[inicial];
+            sexos = new byte[inicial];
+            nascimentos = new int[inicial];
+            inicioEnderecos = new int[inicial + 1];
+            ufs = new byte[inicial];
+            cidades = new int[inicial];
+        }
+
+        void adicionar(PerfilPessoa perfil) {
+            int linha = novaLinha(perfil.getId());
+            sexos[linha] = perfil.getSexo() != null ? (byte) perfil.getSexo().ordinal() : SEM_VALOR;
+            nascimentos[linha] = perfil.getDataNascimento() != null
+                    ? (int) perfil.getDataNascimento().toEpochDay() : SEM_DATA;
+            for (int i = 0; i < perfil.getEstados().size(); i++) {
+                Estado estado = perfil.getEstados().get(i);
+                String cidade = perfil.getCidades().get(i);
+                novoEndereco(estado != null ? (byte) estado.ordinal() : SEM_VALOR,
+                        cidade != null ? codigo(TextoBusca.normalizar(cidade)) : -1);
+            }
+            inicioEnderecos[linha + 1] = totalEnderecos;
+        }
+
+        Fotografia construir(long carregadaEm) {
+            return new Fotografia(this, carregadaEm);
+        }
+
+        private int novaLinha(long id) {
+            if (tamanho == ids.length) {
+                int capacidade = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacidade);
+                sexos = Arrays.copyOf(sexos, capacidade);
+                nascimentos = Arrays.copyOf(nascimentos, capacidade);
+                inicioEnderecos = Arrays.copyOf(inicioEnderecos, capacidade + 1);
+            }
+            ids[tamanho] = id;
+            inicioEnderecos[tamanho] = totalEnderecos;
+            return tamanho++;
+        }
+
+        private void novoEndereco(byte uf, int cidade) {
+            if (totalEnderecos == ufs.length) {
+                ufs = Arrays.copyOf(ufs, ufs.length * 2);
+                cidades = Arrays.copyOf(cidades, cidades.length * 2);
+            }
+            ufs[totalEnderecos] = uf;
+            cidades[totalEnderecos] = cidade;
+            totalEnderecos++;
+        }
+
+        private int codigo(String cidade) {
+            Integer codigo = codigos.get(cidade);
+            if (codigo == null) {
+                codigo = dicionario.size();
+                dicionario.add(cidade);
+                codigos.put(cidade, codigo);
+            }
+            return codigo;
+        }
+    }
+}
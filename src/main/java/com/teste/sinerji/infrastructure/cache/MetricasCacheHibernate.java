@@ -0,0 +1,76 @@
+package com.teste.sinerji.infrastructure.cache;
+
+import java.util.Arrays;
+import java.util.List;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import com.teste.sinerji.domain.entity.Endereco;
+import com.teste.sinerji.domain.entity.Pessoa;
+import com.teste.sinerji.infrastructure.persistence.RoteadorLeitura;
+import com.teste.sinerji.shared.metrics.RegistroMetricas;
+
+/**
+ * Publica as estatísticas do cache de segundo nível e do cache de consultas do Hibernate
+ * (acertos, faltas e taxa de acerto, no total e por região) no {@link RegistroMetricas}.
+ *
+ * @author Teste Sinerji
+ */
+@Singleton
+@Startup
+public class MetricasCacheHibernate {
+
+    private static final List<String> REGIOES = Arrays.asList(
+            Pessoa.REGIAO_CACHE, Pessoa.REGIAO_CACHE_ENDERECOS, Endereco.REGIAO_CACHE);
+
+    @PersistenceUnit(unitName = RoteadorLeitura.UNIDADE_PRIMARIA)
+    private EntityManagerFactory emf;
+
+    @Inject
+    private RegistroMetricas registroMetricas;
+
+    @PostConstruct
+    public void registrarMetricas() {
+        Statistics estatisticas = emf.unwrap(SessionFactory.class).getStatistics();
+
+        registroMetricas.registrarContador("hibernate_cache_acertos_total", "Leituras atendidas pelo cache de segundo nível",
+                estatisticas::getSecondLevelCacheHitCount);
+        registroMetricas.registrarContador("hibernate_cache_faltas_total", "Leituras ausentes do cache de segundo nível",
+                estatisticas::getSecondLevelCacheMissCount);
+        registroMetricas.registrarContador("hibernate_cache_gravacoes_total", "Entradas gravadas no cache de segundo nível",
+                estatisticas::getSecondLevelCachePutCount);
+        registroMetricas.registrarMedidor("hibernate_cache_taxa_acerto", "Fração das leituras atendidas pelo cache de segundo nível",
+                () -> taxa(estatisticas.getSecondLevelCacheHitCount(), estatisticas.getSecondLevelCacheMissCount()));
+
+        registroMetricas.registrarContador("hibernate_cache_consultas_acertos_total", "Consultas atendidas pelo cache de consultas",
+                estatisticas::getQueryCacheHitCount);
+        registroMetricas.registrarContador("hibernate_cache_consultas_faltas_total", "Consultas ausentes do cache de consultas",
+                estatisticas::getQueryCacheMissCount);
+        registroMetricas.registrarMedidor("hibernate_cache_consultas_taxa_acerto", "Fração das consultas atendidas pelo cache de consultas",
+                () -> taxa(estatisticas.getQueryCacheHitCount(), estatisticas.getQueryCacheMissCount()));
+
+        for (String regiao : REGIOES) {
+            String prefixo = "hibernate_cache_" + regiao.replace('.', '_');
+            registroMetricas.registrarMedidor(prefixo + "_taxa_acerto", "Taxa de acerto da região " + regiao, () -> {
+                CacheRegionStatistics r = estatisticas.getDomainDataRegionStatistics(regiao);
+                return taxa(r.getHitCount(), r.getMissCount());
+            });
+            registroMetricas.registrarMedidor(prefixo + "_entradas", "Entradas em memória na região " + regiao,
+                    () -> estatisticas.getDomainDataRegionStatistics(regiao).getElementCountInMemory());
+        }
+    }
+
+    private static double taxa(long acertos, long faltas) {
+        long total = acertos + faltas;
+        return total == 0 ? 0.0 : (double) acertos / total;
+    }
+}
@@ -0,0 +1,184 @@
+package com.teste.sinerji.infrastructure.cep;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import com.teste.sinerji.application.dto.ViaCepDTO;
+import com.teste.sinerji.shared.metrics.RegistroMetricas;
+
+/**
+ * Base local de CEPs, mapeada em memória a partir do arquivo gerado pelo {@code GeradorBaseCep}.
+ * 
+ * O arquivo contém registros de tamanho fixo ordenados por CEP, seguidos de uma tabela
+ * de textos. A busca é binária diretamente sobre o arquivo mapeado, sem alocação;
+ * somente um acerto cria o DTO de retorno.
+ * 
+ * O caminho do arquivo vem da propriedade de sistema {@value #PROPRIEDADE_ARQUIVO}.
+ * Sem arquivo, a base fica desativada e todas as consultas seguem para a ViaCEP.
+ * 
+ * Layout (inteiros big-endian):
+ * <pre>
+ * cabeçalho: magic, versão, quantidade, reservado            (16 bytes)
+ * registro:  cep, offset logradouro, offset cidade, offset uf (16 bytes cada)
+ * textos:    tamanho (unsigned short) + bytes UTF-8
+ * </pre>
+ * Offsets são relativos ao início da tabela de textos; {@value #SEM_TEXTO} indica ausência.
+ * 
+ * @author Teste Sinerji
+ */
+@ApplicationScoped
+public class BaseCepLocal {
+    
+    private static final Logger LOGGER = Logger.getLogger(BaseCepLocal.class.getName());
+    
+    public static final String PROPRIEDADE_ARQUIVO = "cadastro.cep.base";
+    
+    static final int MAGIC = 0x43455031; // "CEP1"
+    static final int VERSAO = 1;
+    static final int TAMANHO_CABECALHO = 16;
+    static final int TAMANHO_REGISTRO = 16;
+    static final int SEM_TEXTO = -1;
+    
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+    
+    @Inject
+    private RegistroMetricas registroMetricas;
+    
+    private volatile ByteBuffer dados;
+    private int quantidade;
+    private int inicioTextos;
+    
+    @PostConstruct
+    void iniciar() {
+        registroMetricas.registrarContador("cep_base_local_acertos_total", "CEPs resolvidos pela base local", acertos::sum);
+        registroMetricas.registrarContador("cep_base_local_faltas_total", "CEPs ausentes da base local", faltas::sum);
+        registroMetricas.registrarMedidor("cep_base_local_registros", "Registros na base local de CEPs", () -> quantidade);
+        
+        String caminho = System.getProperty(PROPRIEDADE_ARQUIVO);
+        if (caminho == null || caminho.isBlank()) {
+            LOGGER.info("Base local de CEPs não configurada; consultas seguem para a ViaCEP");
+            return;
+        }
+        try {
+            abrir(Paths.get(caminho));
+            LOGGER.info(() -> "Base local de CEPs carregada: " + quantidade + " registros");
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.log(Level.WARNING, "Base local de CEPs indisponível: " + caminho, e);
+        }
+    }
+    
+    /**
+     * Mapeia o arquivo em memória. O mapeamento permanece válido após o fechamento do canal.
+     * 
+     * @param arquivo Arquivo gerado pelo {@code GeradorBaseCep}
+     * @throws IOException Se o arquivo não puder ser lido
+     */
+    void abrir(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, Files.size(arquivo));
+            if (mapa.capacity() < TAMANHO_CABECALHO || mapa.getInt(0) != MAGIC || mapa.getInt(4) != VERSAO) {
+                throw new IllegalStateException("Formato de arquivo de CEPs inválido");
+            }
+            quantidade = mapa.getInt(8);
+            inicioTextos = TAMANHO_CABECALHO + quantidade * TAMANHO_REGISTRO;
+            dados = mapa;
+        }
+    }
+    
+    public boolean isDisponivel() {
+        return dados != null;
+    }
+    
+    /**
+     * Busca um CEP na base local.
+     * 
+     * @param cepLimpo CEP com 8 dígitos
+     * @return DTO com logradouro, cidade e UF, ou null se a base estiver desativada ou não contiver o CEP
+     */
+    public ViaCepDTO buscar(String cepLimpo) {
+        ByteBuffer buffer = dados;
+        if (buffer == null) {
+            return null;
+        }
+        int cep = converter(cepLimpo);
+        int indice = cep < 0 ? -1 : localizar(buffer, cep);
+        if (indice < 0) {
+            faltas.increment();
+            return null;
+        }
+        acertos.increment();
+        
+        int registro = TAMANHO_CABECALHO + indice * TAMANHO_REGISTRO;
+        ViaCepDTO dto = new ViaCepDTO();
+        dto.setCep(cepLimpo.substring(0, 5) + "-" + cepLimpo.substring(5));
+        dto.setLogradouro(lerTexto(buffer, buffer.getInt(registro + 4)));
+        dto.setCidade(lerTexto(buffer, buffer.getInt(registro + 8)));
+        dto.setEstado(lerTexto(buffer, buffer.getInt(registro + 12)));
+        return dto;
+    }
+    
+    private int localizar(ByteBuffer buffer, int cep) {
+        int inicio = 0;
+        int fim = quantidade - 1;
+        while (inicio <= fim) {
+            int meio = (inicio + fim) >>> 1;
+            int valor = buffer.getInt(TAMANHO_CABECALHO + meio * TAMANHO_REGISTRO);
+            if (valor < cep) {
+                inicio = meio + 1;
+            } else if (valor > cep) {
+                fim = meio - 1;
+            } else {
+                return meio;
+            }
+        }
+        return -1;
+    }
+    
+    private String lerTexto(ByteBuffer buffer, int offset) {
+        if (offset == SEM_TEXTO) {
+            return null;
+        }
+        int posicao = inicioTextos + offset;
+        int tamanho = Short.toUnsignedInt(buffer.getShort(posicao));
+        byte[] bytes = new byte[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            bytes[i] = buffer.get(posicao + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Converte o CEP em inteiro sem criar objetos.
+     * 
+     * @return O CEP numérico, ou -1 se não tiver exatamente 8 dígitos
+     */
+    static int converter(String cepLimpo) {
+        if (cepLimpo == null || cepLimpo.length() != 8) {
+            return -1;
+        }
+        int valor = 0;
+        for (int i = 0; i < 8; i++) {
+            char c = cepLimpo.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,80 @@
+package com.teste.sinerji.infrastructure.http;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Parâmetros do cliente ViaCEP e de sua camada de resiliência.
+ * Em produção, cada valor pode ser sobrescrito pela propriedade de sistema
+ * {@code cadastro.viacep.<nome>} (ex.: {@code -Dcadastro.viacep.maxConcorrencia=32}).
+ * 
+ * @author Teste Sinerji
+ */
+@Getter
+@Builder(toBuilder = true)
+public class ConfiguracaoViaCep {
+    
+    private static final String PREFIXO = "cadastro.viacep.";
+    
+    /** Padrão da URL de consulta, com "%s" no lugar do CEP. */
+    @Builder.Default
+    private final String urlBase = "https://viacep.com.br/ws/%s/json/";
+    
+    @Builder.Default
+    private final long timeoutMillis = 5_000;
+    
+    /** Máximo de requisições simultâneas à ViaCEP (bulkhead). */
+    @Builder.Default
+    private final int maxConcorrencia = 16;
+    
+    /** Taxa sustentada de requisições por segundo. */
+    @Builder.Default
+    private final double requisicoesPorSegundo = 10;
+    
+    /** Rajada máxima acima da taxa sustentada. */
+    @Builder.Default
+    private final int rajada = 20;
+    
+    /** Falhas consecutivas que abrem o disjuntor. */
+    @Builder.Default
+    private final int limiarFalhas = 5;
+    
+    @Builder.Default
+    private final long tempoAbertoMillis = 30_000;
+    
+    /** Habilita a requisição paralela (hedge) após o p95 de latência. */
+    @Builder.Default
+    private final boolean requisicaoParalela = false;
+    
+    @Builder.Default
+    private final long atrasoMinimoParalelaMillis = 50;
+    
+    /** Amostras mínimas de latência antes de habilitar a requisição paralela. */
+    @Builder.Default
+    private final int amostrasMinimasParalela = 20;
+    
+    /**
+     * Monta a configuração a partir das propriedades de sistema, usando os padrões para as ausentes.
+     * 
+     * @return A configuração efetiva
+     */
+    public static ConfiguracaoViaCep doSistema() {
+        ConfiguracaoViaCep padrao = ConfiguracaoViaCep.builder().build();
+        return ConfiguracaoViaCep.builder()
+                .urlBase(System.getProperty(PREFIXO + "urlBase", padrao.urlBase))
+                .timeoutMillis(Long.getLong(PREFIXO + "timeoutMillis", padrao.timeoutMillis))
+                .maxConcorrencia(Integer.getInteger(PREFIXO + "maxConcorrencia", padrao.maxConcorrencia))
+                .requisicoesPorSegundo(Double.parseDouble(System.getProperty(PREFIXO + "requisicoesPorSegundo",
+                        String.valueOf(padrao.requisicoesPorSegundo))))
+                .rajada(Integer.getInteger(PREFIXO + "rajada", padrao.rajada))
+                .limiarFalhas(Integer.getInteger(PREFIXO + "limiarFalhas", padrao.limiarFalhas))
+                .tempoAbertoMillis(Long.getLong(PREFIXO + "tempoAbertoMillis", padrao.tempoAbertoMillis))
+                .requisicaoParalela(Boolean.parseBoolean(System.getProperty(PREFIXO + "requisicaoParalela",
+                        String.valueOf(padrao.requisicaoParalela))))
+                .atrasoMinimoParalelaMillis(Long.getLong(PREFIXO + "atrasoMinimoParalelaMillis",
+                        padrao.atrasoMinimoParalelaMillis))
+                .amostrasMinimasParalela(Integer.getInteger(PREFIXO + "amostrasMinimasParalela",
+                        padrao.amostrasMinimasParalela))
+                .build();
+    }
+}
@@ -0,0 +1,236 @@
+package com.teste.sinerji.infrastructure.http;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teste.sinerji.application.dto.ViaCepDTO;
+import com.teste.sinerji.shared.exception.BusinessException;
+import com.teste.sinerji.shared.exception.ConsultaRecusadaException;
+import com.teste.sinerji.shared.metrics.RegistroMetricas;
+import com.teste.sinerji.shared.resiliencia.Disjuntor;
+import com.teste.sinerji.shared.resiliencia.JanelaLatencia;
+import com.teste.sinerji.shared.resiliencia.LimitadorTaxa;
+
+/**
+ * Cliente HTTP não bloqueante da API ViaCEP.
+ * 
+ * Usa um único {@link HttpClient} para toda a aplicação, sobre o executor gerenciado
+ * do servidor, de modo que as consultas não ocupam threads de requisição; o tamanho
+ * do pool é o configurado no servidor de aplicação, que também o encerra.
+ * 
+ * Cada requisição passa, nesta ordem, pelo limitador de taxa, pelo limite de
+ * requisições simultâneas e pelo disjuntor; qualquer recusa falha imediatamente, e
+ * a ficha de taxa de uma requisição recusada adiante é devolvida.
+ * Opcionalmente, se a resposta demorar mais que o p95 recente, uma segunda
+ * requisição é disparada e vale a que responder primeiro.
+ * 
+ * @author Teste Sinerji
+ */
+@ApplicationScoped
+public class ViaCepClient {
+    
+    private static final double PERCENTIL_PARALELA = 0.95;
+    private static final int TAMANHO_JANELA = 256;
+    
+    private final ConfiguracaoViaCep configuracao;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private final LongAdder requisicoes = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder recusadasConcorrencia = new LongAdder();
+    private final LongAdder paralelas = new LongAdder();
+    
+    @Inject
+    private RegistroMetricas registroMetricas;
+    
+    @Resource
+    private ManagedExecutorService executor;
+    
+    private HttpClient httpClient;
+    private Disjuntor disjuntor;
+    private LimitadorTaxa limitadorTaxa;
+    private Semaphore concorrencia;
+    private JanelaLatencia janelaLatencia;
+    
+    public ViaCepClient() {
+        this(ConfiguracaoViaCep.doSistema());
+    }
+    
+    public ViaCepClient(ConfiguracaoViaCep configuracao) {
+        this.configuracao = configuracao;
+    }
+    
+    @PostConstruct
+    public void iniciar() {
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(configuracao.getTimeoutMillis()))
+                .executor(executor)
+                .build();
+        disjuntor = new Disjuntor(configuracao.getLimiarFalhas(),
+                TimeUnit.MILLISECONDS.toNanos(configuracao.getTempoAbertoMillis()));
+        limitadorTaxa = new LimitadorTaxa(configuracao.getRequisicoesPorSegundo(), configuracao.getRajada());
+        concorrencia = new Semaphore(configuracao.getMaxConcorrencia());
+        janelaLatencia = new JanelaLatencia(TAMANHO_JANELA);
+        
+        if (registroMetricas != null) {
+            registrarMetricas();
+        }
+    }
+    
+    private void registrarMetricas() {
+        registroMetricas.registrarContador("viacep_requisicoes_total", "Requisições enviadas à ViaCEP", requisicoes::sum);
+        registroMetricas.registrarContador("viacep_falhas_total", "Requisições à ViaCEP com erro, timeout ou status 429/5xx", falhas::sum);
+        registroMetricas.registrarContador("viacep_recusadas_disjuntor_total", "Consultas recusadas com o disjuntor aberto", disjuntor::getRejeitadas);
+        registroMetricas.registrarContador("viacep_recusadas_concorrencia_total", "Consultas recusadas pelo limite de requisições simultâneas", recusadasConcorrencia::sum);
+        registroMetricas.registrarContador("viacep_recusadas_taxa_total", "Consultas recusadas pelo limitador de taxa", limitadorTaxa::getRejeitadas);
+        registroMetricas.registrarContador("viacep_requisicoes_paralelas_total", "Requisições paralelas disparadas por lentidão", paralelas::sum);
+        registroMetricas.registrarMedidor("viacep_disjuntor_estado", "Estado do disjuntor (0=fechado, 1=aberto, 2=meio-aberto)", () -> disjuntor.getEstado().ordinal());
+        registroMetricas.registrarMedidor("viacep_requisicoes_em_andamento", "Requisições à ViaCEP em andamento",
+                () -> configuracao.getMaxConcorrencia() - concorrencia.availablePermits());
+        registroMetricas.registrarMedidor("viacep_latencia_p95_ms", "Latência p95 recente da ViaCEP em milissegundos",
+                () -> Math.max(0, TimeUnit.NANOSECONDS.toMillis(janelaLatencia.percentil(PERCENTIL_PARALELA))));
+    }
+    
+    /**
+     * Consulta um CEP de forma assíncrona.
+     * O futuro falha com {@link BusinessException} em caso de erro HTTP ou de leitura,
+     * ou se a consulta for recusada pela camada de resiliência.
+     * 
+     * @param cepLimpo CEP com 8 dígitos
+     * @return Futuro com o DTO (erro=true se o CEP não existir)
+     */
+    public CompletableFuture<ViaCepDTO> consultar(String cepLimpo) {
+        long atraso = atrasoParalela();
+        if (atraso < 0) {
+            return tentar(cepLimpo);
+        }
+        
+        CompletableFuture<ViaCepDTO> resultado = new CompletableFuture<>();
+        AtomicInteger pendentes = new AtomicInteger(1);
+        BiConsumer<ViaCepDTO, Throwable> concluir = (dto, erro) -> {
+            if (erro == null) {
+                resultado.complete(dto);
+            } else if (pendentes.decrementAndGet() == 0) {
+                resultado.completeExceptionally(desembrulhar(erro));
+            }
+        };
+        tentar(cepLimpo).whenComplete(concluir);
+        
+        CompletableFuture.delayedExecutor(atraso, TimeUnit.NANOSECONDS, executor).execute(() -> {
+            int atual;
+            do {
+                atual = pendentes.get();
+                if (atual == 0 || resultado.isDone()) {
+                    return;
+                }
+            } while (!pendentes.compareAndSet(atual, atual + 1));
+            paralelas.increment();
+            tentar(cepLimpo).whenComplete(concluir);
+        });
+        return resultado;
+    }
+    
+    /**
+     * Atraso para a requisição paralela: o p95 recente, respeitando o mínimo configurado.
+     * 
+     * @return O atraso em nanossegundos, ou -1 se a requisição paralela não se aplica
+     */
+    private long atrasoParalela() {
+        if (!configuracao.isRequisicaoParalela()
+                || janelaLatencia.getQuantidade() < configuracao.getAmostrasMinimasParalela()) {
+            return -1;
+        }
+        return Math.max(janelaLatencia.percentil(PERCENTIL_PARALELA),
+                TimeUnit.MILLISECONDS.toNanos(configuracao.getAtrasoMinimoParalelaMillis()));
+    }
+    
+    private CompletableFuture<ViaCepDTO> tentar(String cepLimpo) {
+        if (!limitadorTaxa.tentarAdquirir()) {
+            return CompletableFuture.failedFuture(
+                    new ConsultaRecusadaException("Limite de consultas de CEP excedido. Tente novamente em instantes."));
+        }
+        // Recusada adiante, a consulta não chega à ViaCEP e não gasta a taxa
+        if (!concorrencia.tryAcquire()) {
+            limitadorTaxa.devolver();
+            recusadasConcorrencia.increment();
+            return CompletableFuture.failedFuture(
+                    new ConsultaRecusadaException("Serviço de CEP sobrecarregado. Tente novamente em instantes."));
+        }
+        if (!disjuntor.permitir()) {
+            concorrencia.release();
+            limitadorTaxa.devolver();
+            return CompletableFuture.failedFuture(
+                    new BusinessException("Serviço de CEP indisponível no momento"));
+        }
+        
+        HttpRequest request = HttpRequest.newBuilder()
+                .GET()
+                .uri(URI.create(String.format(configuracao.getUrlBase(), cepLimpo)))
+                .timeout(Duration.ofMillis(configuracao.getTimeoutMillis()))
+                .build();
+        
+        requisicoes.increment();
+        long inicio = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, erro) -> {
+                    concorrencia.release();
+                    boolean falhou = erro != null || response.statusCode() == 429 || response.statusCode() >= 500;
+                    if (falhou) {
+                        falhas.increment();
+                        disjuntor.registrarFalha();
+                    } else {
+                        disjuntor.registrarSucesso();
+                        janelaLatencia.registrar(System.nanoTime() - inicio);
+                    }
+                    
+                    if (erro != null) {
+                        Throwable causa = desembrulhar(erro);
+                        throw new CompletionException(
+                                new BusinessException("Erro ao consultar CEP: " + causa.getMessage(), causa));
+                    }
+                    return converter(response);
+                });
+    }
+    
+    private ViaCepDTO converter(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new CompletionException(
+                    new BusinessException("Erro ao consultar CEP: " + response.statusCode()));
+        }
+        try {
+            return objectMapper.readValue(response.body(), ViaCepDTO.class);
+        } catch (Exception e) {
+            throw new CompletionException(
+                    new BusinessException("Erro ao consultar CEP: " + e.getMessage(), e));
+        }
+    }
+    
+    private static Throwable desembrulhar(Throwable erro) {
+        return erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+    }
+    
+    void setExecutor(ManagedExecutorService executor) {
+        this.executor = executor;
+    }
+    
+    Disjuntor getDisjuntor() {
+        return disjuntor;
+    }
+}
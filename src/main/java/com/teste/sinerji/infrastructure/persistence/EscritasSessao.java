@@ -0,0 +1,36 @@
+package com.teste.sinerji.infrastructure.persistence;
+
+import java.io.Serializable;
+
+import jakarta.enterprise.context.SessionScoped;
+
+/**
+ * Instante da última gravação confirmada pela sessão do usuário, usado para que as
+ * leituras seguintes da mesma sessão enxerguem as próprias gravações.
+ * 
+ * @author Teste Sinerji
+ */
+@SessionScoped
+public class EscritasSessao implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /** Milissegundos desde a época, ou 0 se a sessão ainda não gravou. */
+    private volatile long ultimaEscrita;
+    
+    void registrar(long agora) {
+        ultimaEscrita = agora;
+    }
+    
+    /**
+     * Verifica se a sessão gravou dentro da janela informada.
+     * 
+     * @param agora Instante atual
+     * @param janelaMillis Duração da janela
+     * @return true se a última gravação ocorreu há menos de janelaMillis
+     */
+    boolean gravouNosUltimos(long agora, long janelaMillis) {
+        long ultima = ultimaEscrita;
+        return ultima != 0 && agora - ultima < janelaMillis;
+    }
+}
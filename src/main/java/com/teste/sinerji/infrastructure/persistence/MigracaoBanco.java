@@ -0,0 +1,54 @@
+package com.teste.sinerji.infrastructure.persistence;
+
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionManagement;
+import jakarta.ejb.TransactionManagementType;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+
+/**
+ * Aplica as migrações versionadas do esquema ({@code db/migration/V<n>__<descricao>.sql})
+ * no banco primário durante a inicialização, antes dos beans de inicialização que
+ * acessam o banco (eles declaram {@code @DependsOn("MigracaoBanco")}).
+ *
+ * As migrações já aplicadas ficam registradas na tabela {@code flyway_schema_history};
+ * cada script roda uma única vez e não deve ser alterado depois de publicado.
+ *
+ * @author Teste Sinerji
+ */
+@Singleton
+@Startup
+@TransactionManagement(TransactionManagementType.BEAN)
+public class MigracaoBanco {
+
+    private static final Logger LOGGER = Logger.getLogger(MigracaoBanco.class.getName());
+
+    static final String LOCAL_SCRIPTS = "classpath:db/migration";
+
+    /** Mesmo datasource da unidade {@link RoteadorLeitura#UNIDADE_PRIMARIA}. */
+    @Resource(lookup = "java:jboss/datasources/CadastroDS")
+    private DataSource dataSource;
+
+    /**
+     * Executa as migrações pendentes. Roda sem transação do contêiner: o Flyway controla
+     * as próprias transações e executa fora delas os scripts com CREATE INDEX CONCURRENTLY.
+     */
+    @PostConstruct
+    public void migrar() {
+        MigrateResult resultado = Flyway.configure(getClass().getClassLoader())
+                .dataSource(dataSource)
+                .locations(LOCAL_SCRIPTS)
+                .load()
+                .migrate();
+        String versao = resultado.migrationsExecuted > 0 ? resultado.targetSchemaVersion : resultado.initialSchemaVersion;
+        LOGGER.info(() -> "Migrações aplicadas: " + resultado.migrationsExecuted + "; versão do esquema: " + versao);
+    }
+}
@@ -0,0 +1,100 @@
+package com.teste.sinerji.infrastructure.persistence;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.Timeout;
+import jakarta.ejb.TimerConfig;
+import jakarta.ejb.TimerService;
+import jakarta.ejb.TransactionManagement;
+import jakarta.ejb.TransactionManagementType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Status;
+import jakarta.transaction.UserTransaction;
+
+import com.teste.sinerji.domain.entity.Endereco;
+import com.teste.sinerji.domain.entity.Pessoa;
+
+/**
+ * Preenche as colunas de busca ({@code nome_busca}, {@code cidade_busca}) das linhas
+ * gravadas antes de elas existirem. Roda uma vez, logo após a inicialização, em lotes
+ * de {@value #TAMANHO_LOTE} linhas, cada lote em sua própria transação; as linhas novas
+ * já são gravadas com as colunas preenchidas.
+ *
+ * @author Teste Sinerji
+ */
+@Singleton
+@Startup
+@DependsOn("MigracaoBanco")
+@TransactionManagement(TransactionManagementType.BEAN)
+public class PreenchimentoColunasBusca {
+
+    private static final Logger LOGGER = Logger.getLogger(PreenchimentoColunasBusca.class.getName());
+
+    static final int TAMANHO_LOTE = 500;
+
+    @PersistenceContext(unitName = RoteadorLeitura.UNIDADE_PRIMARIA)
+    private EntityManager em;
+
+    @Resource
+    private UserTransaction transacao;
+
+    @Resource
+    private TimerService timerService;
+
+    /**
+     * Agenda o preenchimento para logo após a inicialização, sem atrasar o deploy.
+     */
+    @PostConstruct
+    public void agendar() {
+        timerService.createSingleActionTimer(0, new TimerConfig(null, false));
+    }
+
+    @Timeout
+    public void preencher() {
+        try {
+            int pessoas = preencher(Pessoa.class, "nomeBusca", Pessoa::atualizarBusca);
+            int enderecos = preencher(Endereco.class, "cidadeBusca", Endereco::atualizarBusca);
+            if (pessoas > 0 || enderecos > 0) {
+                LOGGER.info(() -> "Colunas de busca preenchidas: " + pessoas + " pessoas, " + enderecos + " endereços");
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Falha ao preencher as colunas de busca; será retomado na próxima inicialização", e);
+        }
+    }
+
+    /**
+     * Atualiza, lote a lote, as entidades cuja coluna de busca ainda está nula.
+     *
+     * @return Quantidade de entidades atualizadas
+     */
+    <T> int preencher(Class<T> tipo, String campo, Consumer<T> atualizar) throws Exception {
+        String jpql = "SELECT x FROM " + tipo.getSimpleName() + " x WHERE x." + campo + " IS NULL";
+        int total = 0;
+        while (true) {
+            transacao.begin();
+            try {
+                List<T> lote = em.createQuery(jpql, tipo).setMaxResults(TAMANHO_LOTE).getResultList();
+                lote.forEach(atualizar);
+                transacao.commit();
+                total += lote.size();
+                if (lote.size() < TAMANHO_LOTE) {
+                    return total;
+                }
+            } catch (Exception e) {
+                if (transacao.getStatus() != Status.STATUS_NO_TRANSACTION) {
+                    transacao.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+}
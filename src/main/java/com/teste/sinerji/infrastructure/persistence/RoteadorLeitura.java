@@ -0,0 +1,140 @@
+package com.teste.sinerji.infrastructure.persistence;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.ContextNotActiveException;
+import jakarta.enterprise.context.SessionScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import com.teste.sinerji.application.event.PessoaAlterada;
+import com.teste.sinerji.shared.metrics.RegistroMetricas;
+
+/**
+ * Decide se as consultas de leitura vão para a réplica ou para o banco primário.
+ *
+ * As gravações sempre usam o primário ({@link #UNIDADE_PRIMARIA}). Os repositórios enviam
+ * algumas consultas para a unidade de leitura ({@link #UNIDADE_LEITURA}), cujo datasource
+ * aponta para uma ou mais réplicas, somente quando:
+ * <ul>
+ * <li>a réplica está habilitada ({@code -Dcadastro.replica.habilitada=true});</li>
+ * <li>a consulta ocorre dentro de um método de serviço {@link SomenteLeitura};</li>
+ * <li>a sessão do usuário não gravou nos últimos {@code cadastro.replica.janelaMillis}
+ * milissegundos (padrão {@value #JANELA_PADRAO_MILLIS}), de modo que quem acabou de gravar
+ * continua lendo do primário até a réplica alcançá-lo.</li>
+ * </ul>
+ *
+ * @author Teste Sinerji
+ */
+@ApplicationScoped
+public class RoteadorLeitura {
+
+    public static final String UNIDADE_PRIMARIA = "cadastroPU";
+    public static final String UNIDADE_LEITURA = "cadastroLeituraPU";
+
+    private static final String PREFIXO = "cadastro.replica.";
+    static final long JANELA_PADRAO_MILLIS = 5_000;
+
+    /** Profundidade de métodos {@link SomenteLeitura} em execução na thread. */
+    private static final ThreadLocal<int[]> PROFUNDIDADE = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final LongAdder leiturasReplica = new LongAdder();
+    private final LongAdder leiturasPrimario = new LongAdder();
+
+    private boolean habilitada = Boolean.getBoolean(PREFIXO + "habilitada");
+
+    private long janelaMillis = Long.getLong(PREFIXO + "janelaMillis", JANELA_PADRAO_MILLIS);
+
+    private LongSupplier relogio = System::currentTimeMillis;
+
+    @Inject
+    private BeanManager beanManager;
+
+    @Inject
+    private Instance<EscritasSessao> escritasSessao;
+
+    @Inject
+    private RegistroMetricas registroMetricas;
+
+    @PostConstruct
+    void registrarMetricas() {
+        if (registroMetricas != null) {
+            registroMetricas.registrarContador("roteamento_leituras_replica_total", "Consultas de leitura enviadas à réplica", leiturasReplica::sum);
+            registroMetricas.registrarContador("roteamento_leituras_primario_total", "Consultas de leitura mantidas no primário", leiturasPrimario::sum);
+        }
+    }
+
+    /**
+     * Escolhe o EntityManager de uma consulta de leitura.
+     *
+     * @param primario EntityManager da unidade primária
+     * @param replica EntityManager da unidade de leitura
+     * @return A réplica, se a consulta puder ir para ela; senão, o primário
+     */
+    public EntityManager escolher(EntityManager primario, EntityManager replica) {
+        if (PROFUNDIDADE.get()[0] == 0) {
+            return primario;
+        }
+        if (habilitada && replica != null && !gravouRecentemente()) {
+            leiturasReplica.increment();
+            return replica;
+        }
+        leiturasPrimario.increment();
+        return primario;
+    }
+
+    /**
+     * Registra uma gravação confirmada na sessão do usuário, se houver uma
+     * (gravações de tarefas agendadas e da inicialização não têm sessão).
+     *
+     * @param evento A alteração confirmada
+     */
+    void aoAlterarPessoa(@Observes(during = TransactionPhase.AFTER_SUCCESS) PessoaAlterada evento) {
+        EscritasSessao escritas = escritasDaSessao();
+        if (escritas != null) {
+            escritas.registrar(relogio.getAsLong());
+        }
+    }
+
+    void entrar() {
+        PROFUNDIDADE.get()[0]++;
+    }
+
+    void sair() {
+        int[] profundidade = PROFUNDIDADE.get();
+        if (--profundidade[0] <= 0) {
+            PROFUNDIDADE.remove();
+        }
+    }
+
+    private boolean gravouRecentemente() {
+        EscritasSessao escritas = escritasDaSessao();
+        return escritas != null && escritas.gravouNosUltimos(relogio.getAsLong(), janelaMillis);
+    }
+
+    private EscritasSessao escritasDaSessao() {
+        try {
+            if (beanManager == null || !beanManager.getContext(SessionScoped.class).isActive()) {
+                return null;
+            }
+        } catch (ContextNotActiveException e) {
+            return null;
+        }
+        return escritasSessao.get();
+    }
+
+    void setHabilitada(boolean habilitada) {
+        this.habilitada = habilitada;
+    }
+
+    void setRelogio(LongSupplier relogio) {
+        this.relogio = relogio;
+    }
+}
@@ -0,0 +1,23 @@
+package com.teste.sinerji.infrastructure.persistence;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.interceptor.InterceptorBinding;
+
+/**
+ * Marca métodos de serviço que apenas leem dados: as consultas roteadas pelos repositórios
+ * durante a sua execução podem ir para a réplica de leitura (ver {@link RoteadorLeitura}).
+ * 
+ * Não deve ser usada em métodos chamados de dentro de uma transação que já gravou,
+ * pois a réplica não enxerga dados ainda não confirmados.
+ * 
+ * @author Teste Sinerji
+ */
+@InterceptorBinding
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SomenteLeitura {
+}
@@ -0,0 +1,35 @@
+package com.teste.sinerji.infrastructure.persistence;
+
+import java.io.Serializable;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Delimita a execução dos métodos {@link SomenteLeitura} para o {@link RoteadorLeitura}.
+ * 
+ * @author Teste Sinerji
+ */
+@SomenteLeitura
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class SomenteLeituraInterceptor implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    @Inject
+    private RoteadorLeitura roteadorLeitura;
+    
+    @AroundInvoke
+    public Object aplicar(InvocationContext contexto) throws Exception {
+        roteadorLeitura.entrar();
+        try {
+            return contexto.proceed();
+        } finally {
+            roteadorLeitura.sair();
+        }
+    }
+}
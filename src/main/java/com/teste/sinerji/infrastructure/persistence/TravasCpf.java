@@ -0,0 +1,210 @@
+package com.teste.sinerji.infrastructure.persistence;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import com.teste.sinerji.domain.valueobject.Cpf;
+import com.teste.sinerji.infrastructure.repository.PessoaRepository;
+import com.teste.sinerji.shared.exception.BusinessException;
+import com.teste.sinerji.shared.metrics.RegistroMetricas;
+
+/**
+ * Serializa as gravações de um mesmo CPF até o fim da transação, para que a segunda
+ * gravação espere a primeira e encontre o CPF já cadastrado, em vez de falhar tarde na
+ * restrição única.
+ *
+ * Cada CPF em gravação tem a própria trava, criada na primeira gravação e descartada
+ * quando ninguém mais a usa: gravações de CPFs diferentes nunca esperam uma pela outra,
+ * mesmo que um lote de importação segure milhares de CPFs até o commit. Com
+ * {@code -Dcadastro.travaCpf.banco=true}, para implantações com mais de um nó, os CPFs
+ * também são travados no PostgreSQL ({@code pg_advisory_xact_lock}), depois das travas
+ * locais e um a um, em ordem crescente de chave. A espera, local ou no banco, é limitada a
+ * {@code cadastro.travaCpf.esperaMillis} milissegundos (padrão
+ * {@value #ESPERA_PADRAO_MILLIS}).
+ *
+ * @author Teste Sinerji
+ */
+@ApplicationScoped
+public class TravasCpf {
+
+    private static final String PREFIXO = "cadastro.travaCpf.";
+    static final long ESPERA_PADRAO_MILLIS = 10_000;
+
+    /** Chave, no registro da transação, dos CPFs já travados por ela. */
+    private static final Object CHAVE = TravasCpf.class;
+
+    private final ConcurrentHashMap<Long, Trava> travas = new ConcurrentHashMap<>();
+
+    private final LongAdder esperas = new LongAdder();
+    private final LongAdder esgotadas = new LongAdder();
+
+    private boolean banco = Boolean.getBoolean(PREFIXO + "banco");
+
+    private long esperaMillis = Long.getLong(PREFIXO + "esperaMillis", ESPERA_PADRAO_MILLIS);
+
+    @Resource
+    private TransactionSynchronizationRegistry registro;
+
+    @Inject
+    private PessoaRepository pessoaRepository;
+
+    @Inject
+    private RegistroMetricas registroMetricas;
+
+    @PostConstruct
+    void registrarMetricas() {
+        if (registroMetricas != null) {
+            registroMetricas.registrarContador("travas_cpf_esperas_total", "Gravações que esperaram outra do mesmo CPF", esperas::sum);
+            registroMetricas.registrarContador("travas_cpf_esgotadas_total", "Gravações recusadas por tempo de espera esgotado", esgotadas::sum);
+            registroMetricas.registrarMedidor("travas_cpf_ativas", "CPFs travados ou aguardados no momento", travas::size);
+        }
+    }
+
+    /**
+     * Trava o CPF até o fim da transação corrente. Travar de novo na mesma transação não
+     * espera.
+     *
+     * @param cpf O CPF a gravar
+     * @return true se foi preciso esperar outra gravação, caso em que o CPF deve ser
+     *         conferido no banco, e não apenas nos índices em memória
+     * @throws BusinessException Se a espera passar do limite
+     */
+    public boolean travar(Cpf cpf) throws BusinessException {
+        return travarTodos(Collections.singleton(cpf));
+    }
+
+    /**
+     * Trava de uma vez os CPFs de um lote até o fim da transação corrente. Os CPFs são
+     * travados em ordem crescente, de modo que dois lotes concorrentes nunca esperam um
+     * pelo outro em ciclo.
+     *
+     * @param cpfs Os CPFs a gravar
+     * @return true se foi preciso esperar outra gravação de algum deles
+     * @throws BusinessException Se a espera passar do limite
+     */
+    public boolean travarTodos(Collection<Cpf> cpfs) throws BusinessException {
+        Set<Long> travados = travados();
+        TreeSet<Cpf> ordem = new TreeSet<>(cpfs);
+        boolean esperou = false;
+        for (Cpf cpf : ordem) {
+            esperou |= travarLocal(travados, cpf.getNumero());
+        }
+        if (banco) {
+            try {
+                esperou |= pessoaRepository.travarCpfs(ordem, esperaMillis);
+            } catch (BusinessException e) {
+                esgotadas.increment();
+                throw e;
+            }
+        }
+        return esperou;
+    }
+
+    /**
+     * CPFs já travados pela transação corrente; na primeira chamada, registra a
+     * liberação deles ao fim da transação.
+     */
+    @SuppressWarnings("unchecked")
+    private Set<Long> travados() {
+        Set<Long> travados = (Set<Long>) registro.getResource(CHAVE);
+        if (travados == null) {
+            Set<Long> novos = new HashSet<>();
+            registro.putResource(CHAVE, novos);
+            registro.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    // Pode rodar em outra thread (ex.: timeout da transação): semáforos não têm dono
+                    for (Long cpf : novos) {
+                        travas.get(cpf).semaforo.release();
+                        soltar(cpf);
+                    }
+                }
+            });
+            travados = novos;
+        }
+        return travados;
+    }
+
+    private boolean travarLocal(Set<Long> travados, long cpf) throws BusinessException {
+        if (travados.contains(cpf)) {
+            return false;
+        }
+        // A referência impede que a trava seja descartada enquanto esta transação a usa
+        Trava trava = travas.compute(cpf, (chave, atual) -> {
+            Trava usada = atual != null ? atual : new Trava();
+            usada.referencias++;
+            return usada;
+        });
+        boolean esperou = false;
+        if (!trava.semaforo.tryAcquire()) {
+            esperou = true;
+            esperas.increment();
+            try {
+                esperar(trava.semaforo);
+            } catch (BusinessException e) {
+                soltar(cpf);
+                throw e;
+            }
+        }
+        travados.add(cpf);
+        return esperou;
+    }
+
+    /**
+     * Devolve a referência à trava do CPF, descartando-a se ninguém mais a usa.
+     */
+    private void soltar(long cpf) {
+        travas.computeIfPresent(cpf, (chave, atual) -> --atual.referencias == 0 ? null : atual);
+    }
+
+    private void esperar(Semaphore semaforo) throws BusinessException {
+        try {
+            if (semaforo.tryAcquire(esperaMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        esgotadas.increment();
+        throw new BusinessException("Outra gravação do mesmo CPF está em andamento. Tente novamente.");
+    }
+
+    int quantidadeTravas() {
+        return travas.size();
+    }
+
+    void setEsperaMillis(long esperaMillis) {
+        this.esperaMillis = esperaMillis;
+    }
+
+    void setBanco(boolean banco) {
+        this.banco = banco;
+    }
+
+    /**
+     * Trava de um CPF: o semáforo e quantas transações o seguram ou aguardam, alteradas
+     * apenas dentro do {@code compute} do mapa.
+     */
+    private static final class Trava {
+        final Semaphore semaforo = new Semaphore(1);
+        int referencias;
+    }
+}
@@ -0,0 +1,133 @@
+package com.teste.sinerji.infrastructure.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import jakarta.ejb.Stateless;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+
+import com.teste.sinerji.domain.entity.CepCacheEntrada;
+import com.teste.sinerji.infrastructure.persistence.RoteadorLeitura;
+
+/**
+ * Repositório do cache persistente de CEPs.
+ * As gravações usam lotes JDBC com "INSERT ... ON CONFLICT" (PostgreSQL), de modo que
+ * nós diferentes podem gravar o mesmo CEP sem conflito de chave.
+ * 
+ * @author Teste Sinerji
+ */
+@Stateless
+public class CepCacheRepository {
+    
+    private static final String SQL_GRAVAR =
+            "INSERT INTO cep_cache (cep, logradouro, bairro, cidade, estado, nao_encontrado, atualizado_em, expira_em, acessos) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0) "
+            + "ON CONFLICT (cep) DO UPDATE SET logradouro = EXCLUDED.logradouro, bairro = EXCLUDED.bairro, "
+            + "cidade = EXCLUDED.cidade, estado = EXCLUDED.estado, nao_encontrado = EXCLUDED.nao_encontrado, "
+            + "atualizado_em = EXCLUDED.atualizado_em, expira_em = EXCLUDED.expira_em";
+    
+    private static final String SQL_SOMAR_ACESSOS =
+            "UPDATE cep_cache SET acessos = acessos + ? WHERE cep = ?";
+    
+    @PersistenceContext(unitName = RoteadorLeitura.UNIDADE_PRIMARIA)
+    private EntityManager em;
+    
+    /**
+     * Busca uma entrada ainda não expirada.
+     * 
+     * @param cep CEP com 8 dígitos
+     * @param agora Instante de referência para a expiração
+     * @return Optional contendo a entrada, se existir e estiver válida
+     */
+    public Optional<CepCacheEntrada> buscarValida(String cep, Date agora) {
+        return em.createQuery(
+                "SELECT c FROM CepCacheEntrada c WHERE c.cep = :cep AND c.expiraEm > :agora", CepCacheEntrada.class)
+                .setParameter("cep", cep)
+                .setParameter("agora", agora)
+                .getResultStream()
+                .findFirst();
+    }
+    
+    /**
+     * Lista as entradas válidas mais consultadas.
+     * 
+     * @param limite Quantidade máxima de entradas
+     * @param agora Instante de referência para a expiração
+     * @return Entradas em ordem decrescente de acessos
+     */
+    public List<CepCacheEntrada> listarMaisAcessadas(int limite, Date agora) {
+        return em.createQuery(
+                "SELECT c FROM CepCacheEntrada c WHERE c.expiraEm > :agora ORDER BY c.acessos DESC", CepCacheEntrada.class)
+                .setParameter("agora", agora)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+    
+    /**
+     * Insere ou atualiza as entradas em um único lote JDBC.
+     * 
+     * @param entradas As entradas a gravar
+     */
+    public void gravar(Collection<CepCacheEntrada> entradas) {
+        if (entradas.isEmpty()) {
+            return;
+        }
+        em.unwrap(Session.class).doWork(conexao -> {
+            try (PreparedStatement ps = conexao.prepareStatement(SQL_GRAVAR)) {
+                for (CepCacheEntrada entrada : entradas) {
+                    ps.setString(1, entrada.getCep());
+                    ps.setString(2, entrada.getLogradouro());
+                    ps.setString(3, entrada.getBairro());
+                    ps.setString(4, entrada.getCidade());
+                    ps.setString(5, entrada.getEstado());
+                    ps.setBoolean(6, entrada.isNaoEncontrado());
+                    ps.setTimestamp(7, new Timestamp(entrada.getAtualizadoEm().getTime()));
+                    ps.setTimestamp(8, new Timestamp(entrada.getExpiraEm().getTime()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+    
+    /**
+     * Soma contagens de acesso acumuladas em memória.
+     * 
+     * @param acessos Quantidade de acessos por CEP
+     */
+    public void somarAcessos(Map<String, Long> acessos) {
+        if (acessos.isEmpty()) {
+            return;
+        }
+        em.unwrap(Session.class).doWork(conexao -> {
+            try (PreparedStatement ps = conexao.prepareStatement(SQL_SOMAR_ACESSOS)) {
+                for (Map.Entry<String, Long> acesso : acessos.entrySet()) {
+                    ps.setLong(1, acesso.getValue());
+                    ps.setString(2, acesso.getKey());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+    
+    /**
+     * Remove as entradas expiradas.
+     * 
+     * @param agora Instante de referência para a expiração
+     * @return Quantidade de entradas removidas
+     */
+    public int removerExpiradas(Date agora) {
+        return em.createQuery("DELETE FROM CepCacheEntrada c WHERE c.expiraEm <= :agora")
+                .setParameter("agora", agora)
+                .executeUpdate();
+    }
+}
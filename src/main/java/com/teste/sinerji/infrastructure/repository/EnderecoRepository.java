@@ -4,12 +4,15 @@ import java.util.List;
 import java.util.Optional;
 
 import jakarta.ejb.Stateless;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 
 import com.teste.sinerji.domain.entity.Endereco;
+import com.teste.sinerji.infrastructure.persistence.RoteadorLeitura;
+import com.teste.sinerji.shared.util.TextoBusca;
 
 /**
  * Repositório para operações de persistência relacionadas à entidade Endereco.
@@ -19,16 +22,25 @@ import com.teste.sinerji.domain.entity.Endereco;
 @Stateless
 public class EnderecoRepository {
     
-    @PersistenceContext
+    @PersistenceContext(unitName = RoteadorLeitura.UNIDADE_PRIMARIA)
     private EntityManager em;
     
+    /**
+     * Unidade de leitura (réplicas). Usada apenas nas consultas liberadas pelo {@link RoteadorLeitura}.
+     */
+    @PersistenceContext(unitName = RoteadorLeitura.UNIDADE_LEITURA)
+    private EntityManager replica;
+    
+    @Inject
+    private RoteadorLeitura roteadorLeitura;
+    
     /**
      * Lista todos os endereços cadastrados.
      * 
      * @return Lista de endereços
      */
     public List<Endereco> listarTodos() {
-        return em.createQuery("SELECT e FROM Endereco e ORDER BY e.cidade, e.logradouro", Endereco.class)
+        return leitura().createQuery("SELECT e FROM Endereco e ORDER BY e.cidade, e.logradouro", Endereco.class)
                 .getResultList();
     }
     
@@ -58,20 +70,21 @@ public class EnderecoRepository {
                 "SELECT e FROM Endereco e WHERE e.pessoa.id = :pessoaId ORDER BY e.cidade, e.logradouro", 
                 Endereco.class);
         query.setParameter("pessoaId", pessoaId);
+        query.setHint("org.hibernate.cacheable", true);
         return query.getResultList();
     }
     
     /**
-     * Busca endereços por cidade (busca parcial).
+     * Busca endereços por cidade (busca parcial), sem diferenciar acentos e maiúsculas.
      * 
      * @param cidade A cidade ou parte da cidade para busca
      * @return Lista de endereços encontrados
      */
     public List<Endereco> buscarPorCidade(String cidade) {
-        TypedQuery<Endereco> query = em.createQuery(
-                "SELECT e FROM Endereco e WHERE LOWER(e.cidade) LIKE LOWER(:cidade) ORDER BY e.logradouro", 
+        TypedQuery<Endereco> query = leitura().createQuery(
+                "SELECT e FROM Endereco e WHERE e.cidadeBusca LIKE :cidade ORDER BY e.logradouro", 
                 Endereco.class);
-        query.setParameter("cidade", "%" + cidade + "%");
+        query.setParameter("cidade", "%" + TextoBusca.normalizar(cidade) + "%");
         return query.getResultList();
     }
     
@@ -109,4 +122,11 @@ public class EnderecoRepository {
         return em.createQuery("SELECT COUNT(e) FROM Endereco e", Long.class)
                 .getSingleResult();
     }
+    
+    /**
+     * EntityManager das consultas que podem ser atendidas por uma réplica.
+     */
+    private EntityManager leitura() {
+        return roteadorLeitura.escolher(em, replica);
+    }
 }
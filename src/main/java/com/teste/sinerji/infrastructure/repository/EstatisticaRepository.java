@@ -0,0 +1,216 @@
+package com.teste.sinerji.infrastructure.repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import jakarta.ejb.Stateless;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import com.teste.sinerji.domain.entity.PessoaEstatistica;
+import com.teste.sinerji.infrastructure.persistence.RoteadorLeitura;
+
+/**
+ * Repositório dos contadores da tabela {@code pessoa_estatisticas}.
+ * 
+ * @author Teste Sinerji
+ */
+@Stateless
+public class EstatisticaRepository {
+    
+    private static final Logger LOGGER = Logger.getLogger(EstatisticaRepository.class.getName());
+    
+    /**
+     * Chaves do advisory lock da reconciliação no PostgreSQL ("EST" em ASCII, 0).
+     */
+    static final int ESPACO_TRAVAS_ESTATISTICAS = 0x455354;
+    static final int TRAVA_RECONCILIACAO = 0;
+    
+    @PersistenceContext(unitName = RoteadorLeitura.UNIDADE_PRIMARIA)
+    private EntityManager em;
+    
+    /**
+     * Unidade de leitura (réplicas). Usada apenas nas consultas liberadas pelo {@link RoteadorLeitura}.
+     */
+    @PersistenceContext(unitName = RoteadorLeitura.UNIDADE_LEITURA)
+    private EntityManager replica;
+    
+    @Inject
+    private RoteadorLeitura roteadorLeitura;
+    
+    /**
+     * Soma um valor a uma faixa existente do contador. As faixas são criadas antes, na
+     * inicialização ({@link #criarFaixas}) e na reconciliação ({@link #redefinir}); aqui
+     * só há o UPDATE, para que duas transações que gravam a mesma faixa pela primeira vez
+     * não tentem inseri-la ao mesmo tempo e uma delas desfaça a gravação da pessoa por
+     * violação de chave primária.
+     *
+     * @param chave A chave do contador
+     * @param faixa A faixa a incrementar
+     * @param delta O valor a somar (pode ser negativo)
+     */
+    public void incrementar(String chave, int faixa, long delta) {
+        int atualizadas = em.createQuery(
+                "UPDATE PessoaEstatistica e SET e.valor = e.valor + :delta WHERE e.chave = :chave AND e.faixa = :faixa")
+                .setParameter("delta", delta)
+                .setParameter("chave", chave)
+                .setParameter("faixa", faixa)
+                .executeUpdate();
+        if (atualizadas == 0) {
+            // Faixa ausente: o contador diverge até a próxima reconciliação, que a cria
+            LOGGER.warning(() -> "Faixa " + faixa + " do contador " + chave + " não existe; incremento descartado");
+        }
+    }
+    
+    /**
+     * Cria, com valor zero, as faixas ainda inexistentes de um contador.
+     *
+     * @param chave A chave do contador
+     * @param faixas Quantidade de faixas do contador
+     */
+    public void criarFaixas(String chave, int faixas) {
+        List<Integer> existentes = em.createQuery(
+                "SELECT e.faixa FROM PessoaEstatistica e WHERE e.chave = :chave", Integer.class)
+                .setParameter("chave", chave)
+                .getResultList();
+        if (existentes.size() < faixas) {
+            for (int faixa = 0; faixa < faixas; faixa++) {
+                if (!existentes.contains(faixa)) {
+                    em.persist(new PessoaEstatistica(chave, faixa, 0));
+                }
+            }
+            em.flush();
+        }
+    }
+    
+    /**
+     * Retorna o valor de um contador (soma das faixas).
+     *
+     * @param chave A chave do contador
+     * @return O valor do contador, ou zero se ele não existir
+     */
+    public long somar(String chave) {
+        return somar(leitura(), chave);
+    }
+    
+    /**
+     * Retorna o valor de um contador lido sempre do primário, para decisões que não podem
+     * partir de uma réplica atrasada (ex.: a carga inicial, que duplicaria os dados).
+     *
+     * @param chave A chave do contador
+     * @return O valor do contador, ou zero se ele não existir
+     */
+    public long somarNoPrimario(String chave) {
+        return somar(em, chave);
+    }
+    
+    private static long somar(EntityManager origem, String chave) {
+        Long soma = origem.createQuery(
+                "SELECT SUM(e.valor) FROM PessoaEstatistica e WHERE e.chave = :chave", Long.class)
+                .setParameter("chave", chave)
+                .getSingleResult();
+        return soma != null ? soma : 0;
+    }
+    
+    /**
+     * Retorna o valor de todos os contadores.
+     *
+     * @return Valor por chave
+     */
+    public Map<String, Long> somarTodas() {
+        List<Object[]> linhas = leitura().createQuery(
+                "SELECT e.chave, SUM(e.valor) FROM PessoaEstatistica e GROUP BY e.chave", Object[].class)
+                .getResultList();
+        Map<String, Long> valores = new HashMap<>();
+        for (Object[] linha : linhas) {
+            valores.put((String) linha[0], (Long) linha[1]);
+        }
+        return valores;
+    }
+    
+    /**
+     * Redefine um contador: a faixa 0 recebe o valor e as demais são zeradas.
+     * As linhas são atualizadas no lugar, e não removidas e reinseridas, para que
+     * incrementos concorrentes aguardem o bloqueio da linha em vez de falharem.
+     *
+     * @param chave A chave do contador
+     * @param valor O novo valor
+     * @param faixas Quantidade de faixas do contador
+     */
+    public void redefinir(String chave, long valor, int faixas) {
+        int atualizadas = em.createQuery(
+                "UPDATE PessoaEstatistica e SET e.valor = CASE WHEN e.faixa = 0 THEN :valor ELSE 0 END "
+                + "WHERE e.chave = :chave")
+                .setParameter("valor", valor)
+                .setParameter("chave", chave)
+                .executeUpdate();
+        if (atualizadas < faixas) {
+            for (int faixa = 0; faixa < faixas; faixa++) {
+                if (em.find(PessoaEstatistica.class, new PessoaEstatistica.ChaveFaixa(chave, faixa)) == null) {
+                    em.persist(new PessoaEstatistica(chave, faixa, faixa == 0 ? valor : 0));
+                }
+            }
+            em.flush();
+        }
+    }
+    
+    /**
+     * Tenta obter, até o fim da transação, a trava da reconciliação no PostgreSQL
+     * ({@code pg_try_advisory_xact_lock}), para que só um nó a execute. Não espera: se
+     * outro nó estiver reconciliando, retorna false. Em outros bancos sempre obtém.
+     *
+     * @return true se a trava foi obtida
+     */
+    public boolean travarReconciliacao() {
+        if (!isPostgres(em)) {
+            return true;
+        }
+        return (Boolean) em.createNativeQuery("SELECT pg_try_advisory_xact_lock(:espaco, :chave)")
+                .setParameter("espaco", ESPACO_TRAVAS_ESTATISTICAS)
+                .setParameter("chave", TRAVA_RECONCILIACAO)
+                .getSingleResult();
+    }
+    
+    /**
+     * Bloqueia as faixas de um contador até o fim da transação ({@code SELECT ... FOR UPDATE}),
+     * em ordem de faixa. Os incrementos concorrentes esperam o fim da transação, e os que
+     * já gravaram alguma faixa são esperados aqui.
+     *
+     * @param chave A chave do contador
+     */
+    public void travar(String chave) {
+        em.createNativeQuery("SELECT faixa FROM pessoa_estatisticas WHERE chave = :chave ORDER BY faixa FOR UPDATE")
+                .setParameter("chave", chave)
+                .getResultList();
+    }
+    
+    /**
+     * Verifica se a tabela de contadores está vazia (ex.: primeira inicialização).
+     *
+     * @return true se não houver nenhum contador
+     */
+    public boolean isVazia() {
+        return em.createQuery("SELECT e.chave FROM PessoaEstatistica e", String.class)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+    
+    /**
+     * EntityManager das consultas que podem ser atendidas por uma réplica.
+     */
+    private EntityManager leitura() {
+        return roteadorLeitura.escolher(em, replica);
+    }
+    
+    private static boolean isPostgres(EntityManager em) {
+        return em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+}
@@ -1,15 +1,56 @@
 package com.teste.sinerji.infrastructure.repository;
 
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 import jakarta.ejb.Stateless;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
 import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
 
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import com.teste.sinerji.application.dto.PessoaFiltro;
+import com.teste.sinerji.application.dto.PessoaResumo;
+import com.teste.sinerji.application.event.PerfilPessoa;
+import com.teste.sinerji.domain.entity.Endereco;
 import com.teste.sinerji.domain.entity.Pessoa;
+import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.domain.valueobject.Cpf;
+import com.teste.sinerji.infrastructure.persistence.RoteadorLeitura;
+import com.teste.sinerji.shared.exception.BusinessException;
+import com.teste.sinerji.shared.util.TextoBusca;
 
 /**
  * Repositório para operações de persistência relacionadas à entidade Pessoa.
@@ -19,16 +60,63 @@ import com.teste.sinerji.domain.entity.Pessoa;
 @Stateless
 public class PessoaRepository {
     
-    @PersistenceContext
+    /**
+     * Quantidade de pessoas persistidas entre cada flush/detach no salvamento em lote.
+     * Deve acompanhar o hibernate.jdbc.batch_size configurado no persistence.xml.
+     */
+    static final int TAMANHO_LOTE = 50;
+    
+    /**
+     * Atributos de Pessoa aceitos na ordenação paginada.
+     */
+    private static final Set<String> CAMPOS_ORDENACAO = Set.of("id", "nome", "cpf", "dataNascimento", "sexo");
+    
+    /**
+     * Primeira chave dos advisory locks de CPF no PostgreSQL ("CPF" em ASCII).
+     */
+    static final int ESPACO_TRAVAS_CPF = 0x435046;
+    
+    /**
+     * Linhas buscadas por ida ao banco nas leituras em fluxo.
+     */
+    private static final int TAMANHO_FETCH = 1000;
+    
+    /**
+     * Termos considerados na busca textual; os excedentes são ignorados.
+     */
+    static final int MAX_TERMOS_BUSCA = 8;
+    
+    @PersistenceContext(unitName = RoteadorLeitura.UNIDADE_PRIMARIA)
     private EntityManager em;
     
+    /**
+     * Unidade de leitura (réplicas). Usada apenas nas consultas liberadas pelo {@link RoteadorLeitura}.
+     */
+    @PersistenceContext(unitName = RoteadorLeitura.UNIDADE_LEITURA)
+    private EntityManager replica;
+    
+    @Inject
+    private RoteadorLeitura roteadorLeitura;
+    
     /**
      * Lista todas as pessoas cadastradas.
      * 
      * @return Lista de pessoas
      */
     public List<Pessoa> listarTodas() {
-        return em.createQuery("SELECT p FROM Pessoa p ORDER BY p.nome", Pessoa.class)
+        return leitura().createQuery("SELECT p FROM Pessoa p ORDER BY p.nome", Pessoa.class)
+                .getResultList();
+    }
+    
+    /**
+     * Lista todas as pessoas com seus endereços em uma única consulta (fetch join),
+     * evitando uma consulta adicional por pessoa ao acessar os endereços.
+     * 
+     * @return Lista de pessoas com endereços inicializados
+     */
+    public List<Pessoa> listarTodasComEnderecos() {
+        return leitura().createQuery(
+                "SELECT p FROM Pessoa p LEFT JOIN FETCH p.enderecos ORDER BY p.nome, p.id", Pessoa.class)
                 .getResultList();
     }
     
@@ -48,31 +136,318 @@ public class PessoaRepository {
     }
     
     /**
-     * Busca pessoas por nome (busca parcial).
+     * Busca pessoas por nome (busca parcial), sem diferenciar acentos e maiúsculas.
      * 
      * @param nome O nome ou parte do nome para busca
      * @return Lista de pessoas encontradas
      */
     public List<Pessoa> buscarPorNome(String nome) {
-        TypedQuery<Pessoa> query = em.createQuery(
-                "SELECT p FROM Pessoa p WHERE LOWER(p.nome) LIKE LOWER(:nome) ORDER BY p.nome", 
+        TypedQuery<Pessoa> query = leitura().createQuery(
+                "SELECT p FROM Pessoa p WHERE p.nomeBusca LIKE :nome ORDER BY p.nome", 
+                Pessoa.class);
+        query.setParameter("nome", "%" + TextoBusca.normalizar(nome) + "%");
+        return query.getResultList();
+    }
+    
+    /**
+     * Busca pessoas por nome (busca parcial, sem diferenciar acentos e maiúsculas) com seus endereços, usando o grafo de busca
+     * {@link Pessoa#GRAFO_COM_ENDERECOS}.
+     * 
+     * @param nome O nome ou parte do nome para busca
+     * @return Lista de pessoas com endereços inicializados
+     */
+    public List<Pessoa> buscarPorNomeComEnderecos(String nome) {
+        EntityManager leitura = leitura();
+        TypedQuery<Pessoa> query = leitura.createQuery(
+                "SELECT p FROM Pessoa p WHERE p.nomeBusca LIKE :nome ORDER BY p.nome, p.id", 
                 Pessoa.class);
-        query.setParameter("nome", "%" + nome + "%");
+        query.setParameter("nome", "%" + TextoBusca.normalizar(nome) + "%");
+        query.setHint("jakarta.persistence.fetchgraph", leitura.getEntityGraph(Pessoa.GRAFO_COM_ENDERECOS));
         return query.getResultList();
     }
     
+    /**
+     * Busca textual sobre o nome e os endereços (logradouro e cidade) das pessoas, ordenada
+     * por relevância. Cada termo casa com o início de uma palavra, sem diferenciar acentos
+     * e maiúsculas ("jose recif" encontra "José ..., Recife"), e todos os termos precisam casar.
+     * 
+     * No PostgreSQL, a consulta usa o tsvector {@code pessoa.busca_texto}, mantido por
+     * gatilhos, e seu índice GIN; nos demais bancos (H2 dos testes), LIKE sobre as colunas
+     * de busca, ordenado por nome e com relevância zero.
+     * 
+     * @param texto Os termos pesquisados
+     * @param inicio Índice do primeiro resultado
+     * @param tamanho Quantidade máxima de resultados
+     * @return Linhas [Long id, Number relevância, Number total de resultados], vazia se não houver termos
+     */
+    public List<Object[]> buscarPorTexto(String texto, int inicio, int tamanho) {
+        List<String> termos = termosBusca(texto);
+        if (termos.isEmpty()) {
+            return new ArrayList<>();
+        }
+        EntityManager leitura = leitura();
+        if (isPostgres(leitura)) {
+            StringBuilder consulta = new StringBuilder();
+            for (String termo : termos) {
+                consulta.append(consulta.length() == 0 ? "" : " & ").append(termo).append(":*");
+            }
+            @SuppressWarnings("unchecked")
+            List<Object[]> linhas = leitura.createNativeQuery(
+                    "SELECT p.id, ts_rank_cd(p.busca_texto, q.consulta) AS relevancia, COUNT(*) OVER () AS total "
+                    + "FROM pessoa p, to_tsquery('portugues_sem_acento', :consulta) AS q(consulta) "
+                    + "WHERE p.busca_texto @@ q.consulta "
+                    + "ORDER BY relevancia DESC, p.nome, p.id "
+                    + "LIMIT :tamanho OFFSET :inicio")
+                    .setParameter("consulta", consulta.toString())
+                    .setParameter("tamanho", tamanho)
+                    .setParameter("inicio", inicio)
+                    .getResultList();
+            for (Object[] linha : linhas) {
+                linha[0] = ((Number) linha[0]).longValue();
+            }
+            return linhas;
+        }
+        return buscarPorTextoComLike(leitura, termos, inicio, tamanho);
+    }
+    
+    private List<Object[]> buscarPorTextoComLike(EntityManager leitura, List<String> termos, int inicio, int tamanho) {
+        CriteriaBuilder cb = leitura.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<Pessoa> p = cq.from(Pessoa.class);
+        cq.select(p.get("id")).where(predicadosTexto(cb, cq, p, termos))
+                .orderBy(cb.asc(p.get("nome")), cb.asc(p.get("id")));
+        List<Long> ids = leitura.createQuery(cq).setFirstResult(inicio).setMaxResults(tamanho).getResultList();
+        
+        List<Object[]> linhas = new ArrayList<>(ids.size());
+        if (!ids.isEmpty()) {
+            CriteriaQuery<Long> contagem = cb.createQuery(Long.class);
+            Root<Pessoa> pc = contagem.from(Pessoa.class);
+            contagem.select(cb.count(pc)).where(predicadosTexto(cb, contagem, pc, termos));
+            Long total = leitura.createQuery(contagem).getSingleResult();
+            for (Long id : ids) {
+                linhas.add(new Object[] {id, 0.0, total});
+            }
+        }
+        return linhas;
+    }
+    
+    private Predicate[] predicadosTexto(CriteriaBuilder cb, CriteriaQuery<?> cq, Root<Pessoa> p, List<String> termos) {
+        Predicate[] predicados = new Predicate[termos.size()];
+        for (int i = 0; i < termos.size(); i++) {
+            String padrao = "%" + termos.get(i) + "%";
+            predicados[i] = cb.or(cb.like(p.get("nomeBusca"), padrao),
+                    cb.exists(subconsultaEndereco(cb, cq, p, e -> cb.or(
+                            cb.like(e.get("cidadeBusca"), padrao),
+                            cb.like(cb.lower(e.get("logradouro")), padrao)))));
+        }
+        return predicados;
+    }
+    
+    /**
+     * Lista pessoas, com seus endereços, na ordem dos IDs informados.
+     * 
+     * @param ids Os IDs das pessoas
+     * @return As pessoas encontradas, na ordem dos IDs
+     */
+    public List<Pessoa> listarPorIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Pessoa> porId = new HashMap<>();
+        for (Pessoa pessoa : leitura().createQuery(
+                "SELECT DISTINCT p FROM Pessoa p LEFT JOIN FETCH p.enderecos WHERE p.id IN :ids", Pessoa.class)
+                .setParameter("ids", ids)
+                .getResultList()) {
+            porId.put(pessoa.getId(), pessoa);
+        }
+        List<Pessoa> pessoas = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Pessoa pessoa = porId.get(id);
+            if (pessoa != null) {
+                pessoas.add(pessoa);
+            }
+        }
+        return pessoas;
+    }
+    
+    /**
+     * Completa uma página de resumos com a quantidade de endereços e a cidade/UF do
+     * endereço principal (o de menor ID), em uma única consulta agregada no banco, sem
+     * carregar entidades Endereco.
+     * 
+     * @param resumos Os resumos da página
+     */
+    public void completarEnderecos(List<PessoaResumo> resumos) {
+        if (resumos == null || resumos.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, PessoaResumo> porId = new HashMap<>();
+        for (PessoaResumo resumo : resumos) {
+            porId.put(resumo.getId(), resumo);
+        }
+        
+        List<Object[]> linhas = leitura().createQuery(
+                "SELECT e.pessoa.id, e.cidade, e.estado, "
+                + "(SELECT COUNT(e2) FROM Endereco e2 WHERE e2.pessoa = e.pessoa) "
+                + "FROM Endereco e WHERE e.pessoa.id IN :ids "
+                + "AND e.id = (SELECT MIN(e3.id) FROM Endereco e3 WHERE e3.pessoa = e.pessoa)", Object[].class)
+                .setParameter("ids", porId.keySet())
+                .getResultList();
+        for (Object[] linha : linhas) {
+            PessoaResumo resumo = porId.get((Long) linha[0]);
+            resumo.setCidade((String) linha[1]);
+            resumo.setEstado((Estado) linha[2]);
+            resumo.setQuantidadeEnderecos(((Number) linha[3]).longValue());
+        }
+    }
+    
+    /**
+     * Retorna, dentre os CPFs informados, os que já estão cadastrados.
+     * 
+     * @param cpfs Os CPFs a verificar
+     * @return Lista dos CPFs existentes
+     */
+    public List<Cpf> buscarCpfsExistentes(Collection<Cpf> cpfs) {
+        if (cpfs == null || cpfs.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return em.createQuery("SELECT p.cpf FROM Pessoa p WHERE p.cpf IN :cpfs", Cpf.class)
+                .setParameter("cpfs", cpfs)
+                .getResultList();
+    }
+    
+    /**
+     * Busca o ID da pessoa com o CPF informado, sempre no banco principal.
+     * 
+     * @param cpf O CPF
+     * @return O ID, ou vazio se o CPF não estiver cadastrado
+     */
+    public Optional<Long> buscarIdPorCpf(Cpf cpf) {
+        return em.createQuery("SELECT p.id FROM Pessoa p WHERE p.cpf = :cpf", Long.class)
+                .setParameter("cpf", cpf)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /**
+     * Trava os CPFs no PostgreSQL até o fim da transação, serializando as gravações do
+     * mesmo CPF entre todos os nós. Cada CPF vira um advisory lock de duas chaves
+     * ({@value #ESPACO_TRAVAS_CPF}, hash do número), para não colidir com travas de outras
+     * partes do banco. As chaves são travadas uma a uma, em ordem crescente, e a espera é
+     * limitada pelo {@code lock_timeout} da transação. Em outros bancos não faz nada.
+     *
+     * @param cpfs Os CPFs
+     * @param esperaMillis Espera máxima por CPF travado por outra transação
+     * @return true se foi preciso esperar outra transação liberar algum CPF
+     * @throws BusinessException Se a espera passar do limite
+     */
+    public boolean travarCpfs(Collection<Cpf> cpfs, long esperaMillis) throws BusinessException {
+        if (cpfs.isEmpty() || !isPostgres(em)) {
+            return false;
+        }
+        // Dois CPFs com o mesmo hash dividem a trava: só serializa mais que o necessário
+        TreeSet<Integer> chaves = new TreeSet<>();
+        for (Cpf cpf : cpfs) {
+            chaves.add(Long.hashCode(cpf.getNumero()));
+        }
+        Object anterior = em.createNativeQuery("SELECT current_setting('lock_timeout')").getSingleResult();
+        em.createNativeQuery("SELECT set_config('lock_timeout', :espera, true)")
+                .setParameter("espera", esperaMillis + "ms")
+                .getSingleResult();
+        boolean esperou = false;
+        try {
+            // Tenta cada chave e só espera pelas ocupadas, sem sair da ordem crescente
+            for (Integer chave : chaves) {
+                Boolean livre = (Boolean) em.createNativeQuery("SELECT pg_try_advisory_xact_lock(:espaco, :chave)")
+                        .setParameter("espaco", ESPACO_TRAVAS_CPF)
+                        .setParameter("chave", chave)
+                        .getSingleResult();
+                if (!livre) {
+                    // pg_advisory_xact_lock retorna void, que o Hibernate não mapeia
+                    em.createNativeQuery("SELECT pg_advisory_xact_lock(:espaco, :chave)::text")
+                            .setParameter("espaco", ESPACO_TRAVAS_CPF)
+                            .setParameter("chave", chave)
+                            .getSingleResult();
+                    esperou = true;
+                }
+            }
+        } catch (PersistenceException e) {
+            if (tempoEsgotado(e)) {
+                throw new BusinessException("Outra gravação do mesmo CPF está em andamento. Tente novamente.", e);
+            }
+            throw e;
+        }
+        em.createNativeQuery("SELECT set_config('lock_timeout', :espera, true)")
+                .setParameter("espera", anterior)
+                .getSingleResult();
+        return esperou;
+    }
+
+    /**
+     * Verifica se a falha foi o {@code lock_timeout} do PostgreSQL (SQLSTATE 55P03).
+     */
+    private static boolean tempoEsgotado(Throwable erro) {
+        for (Throwable causa = erro; causa != null; causa = causa.getCause()) {
+            if (causa instanceof SQLException && "55P03".equals(((SQLException) causa).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Salva ou atualiza uma pessoa.
+     * O flush imediato garante que violações de restrição (ex.: CPF duplicado) sejam
+     * lançadas aqui, e não apenas no commit, já que os IDs vêm de sequence.
      * 
      * @param pessoa A pessoa a ser salva ou atualizada
      * @return A pessoa persistida
      */
     public Pessoa salvar(Pessoa pessoa) {
+        Pessoa salva;
         if (pessoa.getId() == null) {
             em.persist(pessoa);
-            return pessoa;
+            salva = pessoa;
         } else {
-            return em.merge(pessoa);
+            salva = em.merge(pessoa);
+        }
+        em.flush();
+        return salva;
+    }
+    
+    /**
+     * Persiste uma lista de novas pessoas (e seus endereços em cascata) em lotes JDBC.
+     * A cada {@link #TAMANHO_LOTE} pessoas o contexto de persistência é descarregado
+     * e as pessoas do lote são desanexadas, mantendo o consumo de memória constante
+     * independentemente do volume. Só as pessoas inseridas aqui saem do contexto: as
+     * entidades que o chamador já tinha carregado na transação continuam gerenciadas.
+     * 
+     * @param pessoas As novas pessoas a serem persistidas
+     * @return A quantidade de pessoas persistidas
+     */
+    public int salvarEmLote(List<Pessoa> pessoas) {
+        int contador = 0;
+        int inicio = 0;
+        for (Pessoa pessoa : pessoas) {
+            em.persist(pessoa);
+            if (++contador % TAMANHO_LOTE == 0) {
+                desanexar(pessoas.subList(inicio, contador));
+                inicio = contador;
+            }
+        }
+        desanexar(pessoas.subList(inicio, contador));
+        return contador;
+    }
+
+    /**
+     * Grava as pessoas pendentes e as retira do contexto de persistência; o detach
+     * alcança os endereços pelo cascade da associação.
+     */
+    private void desanexar(List<Pessoa> pessoas) {
+        em.flush();
+        for (Pessoa pessoa : pessoas) {
+            em.detach(pessoa);
         }
     }
     
@@ -95,4 +470,379 @@ public class PessoaRepository {
         return em.createQuery("SELECT COUNT(p) FROM Pessoa p", Long.class)
                 .getSingleResult();
     }
+    
+    /**
+     * Conta as pessoas por sexo.
+     * 
+     * @return Linhas [Sexo, Long]
+     */
+    public List<Object[]> contarPorSexo() {
+        return em.createQuery("SELECT p.sexo, COUNT(p) FROM Pessoa p GROUP BY p.sexo", Object[].class)
+                .getResultList();
+    }
+    
+    /**
+     * Conta as pessoas pela UF do endereço principal (o de menor ID), de modo que
+     * cada pessoa com endereço entra em exatamente uma UF.
+     * 
+     * @return Linhas [Estado, Long]
+     */
+    public List<Object[]> contarPorEstadoDoEnderecoPrincipal() {
+        return em.createQuery(
+                "SELECT e.estado, COUNT(e) FROM Endereco e "
+                + "WHERE e.id = (SELECT MIN(e2.id) FROM Endereco e2 WHERE e2.pessoa = e.pessoa) "
+                + "GROUP BY e.estado", Object[].class)
+                .getResultList();
+    }
+    
+    /**
+     * Conta as pessoas que atendem ao filtro pela UF do endereço principal (o de menor ID).
+     * 
+     * @param filtro Critérios de filtro (pode ser nulo)
+     * @return Linhas [Estado, Long]
+     */
+    public List<Object[]> contarPorEstadoDoEnderecoPrincipal(PessoaFiltro filtro) {
+        EntityManager leitura = leitura();
+        CriteriaBuilder cb = leitura.getCriteriaBuilder();
+        CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+        Root<Pessoa> p = cq.from(Pessoa.class);
+        Join<Pessoa, Endereco> e = p.join("enderecos");
+        
+        Subquery<Long> principal = cq.subquery(Long.class);
+        Root<Pessoa> pessoa = principal.correlate(p);
+        Root<Endereco> e2 = principal.from(Endereco.class);
+        principal.select(cb.min(e2.get("id"))).where(cb.equal(e2.get("pessoa"), pessoa));
+        
+        List<Predicate> predicados = montarPredicados(cb, cq, p, filtro);
+        predicados.add(cb.equal(e.get("id"), principal));
+        cq.multiselect(e.get("estado"), cb.count(p)).groupBy(e.get("estado"));
+        aplicarWhere(cq, predicados);
+        return leitura.createQuery(cq).getResultList();
+    }
+    
+    /**
+     * Conta as pessoas por mês de nascimento.
+     * 
+     * @return Linhas [Number (mês, 1 a 12), Long]
+     */
+    public List<Object[]> contarPorMesDeNascimento() {
+        return em.createQuery(
+                "SELECT EXTRACT(MONTH FROM p.dataNascimento), COUNT(p) FROM Pessoa p "
+                + "GROUP BY EXTRACT(MONTH FROM p.dataNascimento)", Object[].class)
+                .getResultList();
+    }
+    
+    /**
+     * Percorre o perfil (sexo, nascimento, UF e cidade dos endereços) de todas as pessoas,
+     * sem carregar entidades: pessoas e endereços são lidos em dois fluxos ordenados
+     * por ID da pessoa e combinados em uma única passada.
+     * 
+     * @param consumidor Recebe cada perfil, em ordem de ID
+     */
+    public void percorrerPerfis(Consumer<PerfilPessoa> consumidor) {
+        try (Stream<Object[]> pessoas = em.createQuery(
+                    "SELECT p.id, p.sexo, p.dataNascimento FROM Pessoa p ORDER BY p.id", Object[].class)
+                    .setHint("org.hibernate.fetchSize", TAMANHO_FETCH)
+                    .getResultStream();
+             Stream<Object[]> enderecos = em.createQuery(
+                    "SELECT e.pessoa.id, e.estado, e.cidade FROM Endereco e ORDER BY e.pessoa.id, e.id", Object[].class)
+                    .setHint("org.hibernate.fetchSize", TAMANHO_FETCH)
+                    .getResultStream()) {
+            Iterator<Object[]> itEnderecos = enderecos.iterator();
+            Object[] endereco = itEnderecos.hasNext() ? itEnderecos.next() : null;
+            for (Iterator<Object[]> itPessoas = pessoas.iterator(); itPessoas.hasNext();) {
+                Object[] pessoa = itPessoas.next();
+                long id = (Long) pessoa[0];
+                List<Estado> estados = new ArrayList<>(2);
+                List<String> cidades = new ArrayList<>(2);
+                while (endereco != null && (Long) endereco[0] <= id) {
+                    if ((Long) endereco[0] == id) {
+                        estados.add((Estado) endereco[1]);
+                        cidades.add((String) endereco[2]);
+                    }
+                    endereco = itEnderecos.hasNext() ? itEnderecos.next() : null;
+                }
+                consumidor.accept(new PerfilPessoa(id, (Sexo) pessoa[1],
+                        PerfilPessoa.converter((Date) pessoa[2]), estados, cidades));
+            }
+        }
+    }
+    
+    /**
+     * Percorre os CPFs de todas as pessoas em ordem crescente, em fluxo.
+     * 
+     * @param consumidor Recebe o número de cada CPF
+     */
+    public void percorrerCpfs(LongConsumer consumidor) {
+        try (Stream<Cpf> cpfs = em.createQuery("SELECT p.cpf FROM Pessoa p ORDER BY p.cpf", Cpf.class)
+                    .setHint("org.hibernate.fetchSize", TAMANHO_FETCH)
+                    .getResultStream()) {
+            cpfs.forEach(cpf -> consumidor.accept(cpf.getNumero()));
+        }
+    }
+    
+    /**
+     * Percorre o ID e o nome de todas as pessoas em fluxo, sem carregar entidades.
+     * 
+     * @param consumidor Recebe o ID e o nome de cada pessoa
+     */
+    public void percorrerNomes(BiConsumer<Long, String> consumidor) {
+        try (Stream<Object[]> pessoas = em.createQuery("SELECT p.id, p.nome FROM Pessoa p", Object[].class)
+                    .setHint("org.hibernate.fetchSize", TAMANHO_FETCH)
+                    .getResultStream()) {
+            pessoas.forEach(pessoa -> consumidor.accept((Long) pessoa[0], (String) pessoa[1]));
+        }
+    }
+    
+    /**
+     * Busca uma página de pessoas ordenada por (nome, id) a partir de um cursor (keyset).
+     * A consulta continua imediatamente após a última linha da página anterior,
+     * sem OFFSET, de modo que o custo independe da profundidade da página.
+     * 
+     * @param filtro Critérios de filtro (pode ser nulo)
+     * @param ultimoNome Nome da última pessoa da página anterior, ou nulo para a primeira página
+     * @param ultimoId ID da última pessoa da página anterior, ou nulo para a primeira página
+     * @param tamanho Quantidade máxima de registros
+     * @param ascendente Direção da ordenação por nome
+     * @return Resumos das pessoas da página, sem os dados de endereço
+     */
+    public List<PessoaResumo> listarPaginaPorNome(PessoaFiltro filtro, String ultimoNome, Long ultimoId,
+            int tamanho, boolean ascendente) {
+        EntityManager leitura = leitura();
+        CriteriaBuilder cb = leitura.getCriteriaBuilder();
+        CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+        Root<Pessoa> p = cq.from(Pessoa.class);
+        List<Predicate> predicados = montarPredicados(cb, cq, p, filtro);
+        
+        if (ultimoNome != null && ultimoId != null) {
+            Path<String> nome = p.get("nome");
+            Path<Long> id = p.get("id");
+            predicados.add(ascendente
+                    ? cb.or(cb.greaterThan(nome, ultimoNome),
+                            cb.and(cb.equal(nome, ultimoNome), cb.greaterThan(id, ultimoId)))
+                    : cb.or(cb.lessThan(nome, ultimoNome),
+                            cb.and(cb.equal(nome, ultimoNome), cb.lessThan(id, ultimoId))));
+        }
+        
+        cq.multiselect(colunasResumo(p)).orderBy(ordem(cb, p.get("nome"), ascendente), ordem(cb, p.get("id"), ascendente));
+        aplicarWhere(cq, predicados);
+        return resumos(leitura.createQuery(cq).setMaxResults(tamanho).getResultList());
+    }
+    
+    /**
+     * Busca uma página de pessoas por deslocamento, usada quando a ordenação não é por nome
+     * ou quando o usuário salta diretamente para uma página arbitrária.
+     * 
+     * @param filtro Critérios de filtro (pode ser nulo)
+     * @param inicio Índice do primeiro registro
+     * @param tamanho Quantidade máxima de registros
+     * @param campoOrdenacao Campo de ordenação (nome, cpf, dataNascimento, sexo ou id)
+     * @param ascendente Direção da ordenação
+     * @return Resumos das pessoas da página, sem os dados de endereço
+     */
+    public List<PessoaResumo> listarPagina(PessoaFiltro filtro, int inicio, int tamanho,
+            String campoOrdenacao, boolean ascendente) {
+        EntityManager leitura = leitura();
+        CriteriaBuilder cb = leitura.getCriteriaBuilder();
+        CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+        Root<Pessoa> p = cq.from(Pessoa.class);
+        
+        String campo = CAMPOS_ORDENACAO.contains(campoOrdenacao) ? campoOrdenacao : "nome";
+        cq.multiselect(colunasResumo(p)).orderBy(ordem(cb, p.get(campo), ascendente), ordem(cb, p.get("id"), ascendente));
+        aplicarWhere(cq, montarPredicados(cb, cq, p, filtro));
+        return resumos(leitura.createQuery(cq).setFirstResult(inicio).setMaxResults(tamanho)
+                .getResultList());
+    }
+    
+    /**
+     * Conta as pessoas que atendem ao filtro.
+     * 
+     * @param filtro Critérios de filtro (pode ser nulo)
+     * @return O número de pessoas encontradas
+     */
+    public long contar(PessoaFiltro filtro) {
+        EntityManager leitura = leitura();
+        CriteriaBuilder cb = leitura.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<Pessoa> p = cq.from(Pessoa.class);
+        cq.select(cb.count(p));
+        aplicarWhere(cq, montarPredicados(cb, cq, p, filtro));
+        return leitura.createQuery(cq).getSingleResult();
+    }
+    
+    /**
+     * Traduz o filtro em predicados. Todos os critérios, exceto o mês de nascimento, podem
+     * ser atendidos por índice: prefixos de texto (nome, CPF, cidade), igualdade (sexo, UF)
+     * e intervalo de data de nascimento (idade). Cidade e UF usam EXISTS sobre Endereco, sem join
+     * que multiplique as linhas de Pessoa.
+     * 
+     * @param cb O CriteriaBuilder
+     * @param cq A consulta que recebe as subconsultas
+     * @param p A raiz Pessoa
+     * @param filtro Critérios de filtro (pode ser nulo)
+     * @return Lista mutável de predicados
+     */
+    private List<Predicate> montarPredicados(CriteriaBuilder cb, CriteriaQuery<?> cq, Root<Pessoa> p,
+            PessoaFiltro filtro) {
+        List<Predicate> predicados = new ArrayList<>();
+        if (filtro == null) {
+            return predicados;
+        }
+        
+        if (filtro.getIds() != null) {
+            // IDs já resolvidos pelo índice em memória
+            predicados.add(filtro.getIds().isEmpty() ? cb.disjunction() : p.get("id").in(filtro.getIds()));
+        }
+        
+        if (preenchido(filtro.getNome())) {
+            predicados.add(cb.like(p.get("nomeBusca"), TextoBusca.normalizar(filtro.getNome()) + "%"));
+        }
+        
+        long[] faixaCpf = faixaCpf(filtro.getCpf());
+        if (faixaCpf != null) {
+            // Prefixo de dígitos vira um intervalo numérico, atendido pelo índice único
+            Path<Cpf> campoCpf = p.get("cpf");
+            predicados.add(cb.between(campoCpf, Cpf.of(faixaCpf[0]), Cpf.of(faixaCpf[1])));
+        }
+        
+        if (filtro.getSexo() != null) {
+            predicados.add(cb.equal(p.get("sexo"), filtro.getSexo()));
+        }
+        
+        LocalDate hoje = LocalDate.now();
+        if (filtro.getIdadeMinima() != null) {
+            // Idade >= n: nascido até hoje - n anos
+            predicados.add(cb.lessThanOrEqualTo(p.<Date>get("dataNascimento"),
+                    converter(hoje.minusYears(filtro.getIdadeMinima()))));
+        }
+        if (filtro.getIdadeMaxima() != null) {
+            // Idade <= n: nascido depois de hoje - (n + 1) anos
+            predicados.add(cb.greaterThan(p.<Date>get("dataNascimento"),
+                    converter(hoje.minusYears(filtro.getIdadeMaxima() + 1L))));
+        }
+        
+        if (filtro.getMesNascimento() != null) {
+            // month() do HQL: EXTRACT(MONTH FROM ...) tanto no PostgreSQL quanto no H2
+            predicados.add(cb.equal(cb.function("month", Integer.class, p.get("dataNascimento")),
+                    filtro.getMesNascimento()));
+        }
+        
+        if (preenchido(filtro.getCidade())) {
+            String cidade = TextoBusca.normalizar(filtro.getCidade()) + "%";
+            predicados.add(cb.exists(subconsultaEndereco(cb, cq, p,
+                    e -> cb.like(e.get("cidadeBusca"), cidade))));
+        }
+        
+        if (filtro.getEstado() != null) {
+            predicados.add(cb.exists(subconsultaEndereco(cb, cq, p,
+                    e -> cb.equal(e.get("estado"), filtro.getEstado()))));
+        }
+        
+        return predicados;
+    }
+    
+    /**
+     * Aplica os predicados apenas se houver algum: o Hibernate 6.0 falha com WHERE vazio.
+     */
+    private static void aplicarWhere(CriteriaQuery<?> cq, List<Predicate> predicados) {
+        if (!predicados.isEmpty()) {
+            cq.where(predicados.toArray(new Predicate[0]));
+        }
+    }
+    
+    private Subquery<Long> subconsultaEndereco(CriteriaBuilder cb, CriteriaQuery<?> cq, Root<Pessoa> p,
+            Function<Root<Endereco>, Predicate> condicao) {
+        Subquery<Long> sub = cq.subquery(Long.class);
+        Root<Pessoa> pessoa = sub.correlate(p);
+        Root<Endereco> e = sub.from(Endereco.class);
+        return sub.select(e.get("id")).where(cb.equal(e.get("pessoa"), pessoa), condicao.apply(e));
+    }
+    
+    /**
+     * Colunas exibidas nas listagens, lidas como tupla, sem entidade gerenciada. O Hibernate
+     * 6.0 não casa o construtor de um DTO com atributos convertidos (CPF), por isso a
+     * montagem é feita em {@link #resumos(List)}.
+     */
+    private static List<Selection<?>> colunasResumo(Root<Pessoa> p) {
+        return List.of(p.get("id"), p.get("nome"), p.get("cpf"), p.get("dataNascimento"), p.get("sexo"));
+    }
+    
+    private static List<PessoaResumo> resumos(List<Object[]> linhas) {
+        List<PessoaResumo> resumos = new ArrayList<>(linhas.size());
+        for (Object[] linha : linhas) {
+            resumos.add(new PessoaResumo((Long) linha[0], (String) linha[1], (Cpf) linha[2],
+                    (Date) linha[3], (Sexo) linha[4]));
+        }
+        return resumos;
+    }
+    
+    private Order ordem(CriteriaBuilder cb, Expression<?> expressao, boolean ascendente) {
+        return ascendente ? cb.asc(expressao) : cb.desc(expressao);
+    }
+    
+    /**
+     * Divide o texto pesquisado em termos normalizados, apenas com letras e dígitos
+     * (os demais caracteres separam termos e não chegam à sintaxe do tsquery).
+     */
+    static List<String> termosBusca(String texto) {
+        List<String> termos = new ArrayList<>();
+        String normalizado = TextoBusca.normalizar(texto);
+        if (normalizado != null) {
+            for (String termo : normalizado.split("[^a-z0-9]+")) {
+                if (!termo.isEmpty() && termos.size() < MAX_TERMOS_BUSCA) {
+                    termos.add(termo);
+                }
+            }
+        }
+        return termos;
+    }
+    
+    private static boolean isPostgres(EntityManager em) {
+        return em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+    
+    private static boolean preenchido(String valor) {
+        return valor != null && !valor.trim().isEmpty();
+    }
+    
+    private static Date converter(LocalDate data) {
+        return Date.from(data.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+    
+    /**
+     * Intervalo dos CPFs que começam pelos dígitos do texto, ignorando a pontuação
+     * (ex.: "529.98" vira 529.980.000-00 a 529.989.999-99).
+     * 
+     * @return {primeiro, último}, ou null se o texto não tiver dígitos
+     */
+    static long[] faixaCpf(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        long prefixo = 0;
+        int digitos = 0;
+        for (int i = 0; i < texto.length() && digitos < 11; i++) {
+            char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                prefixo = prefixo * 10 + (c - '0');
+                digitos++;
+            }
+        }
+        if (digitos == 0) {
+            return null;
+        }
+        long escala = 1;
+        for (int i = digitos; i < 11; i++) {
+            escala *= 10;
+        }
+        return new long[] {prefixo * escala, prefixo * escala + escala - 1};
+    }
+    
+    /**
+     * EntityManager das consultas que podem ser atendidas por uma réplica.
+     */
+    private EntityManager leitura() {
+        return roteadorLeitura.escolher(em, replica);
+    }
 }
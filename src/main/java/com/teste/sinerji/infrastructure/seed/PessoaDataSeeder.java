@@ -1,11 +1,17 @@
 package com.teste.sinerji.infrastructure.seed;
 
+import com.teste.sinerji.application.service.EstatisticaService;
 import com.teste.sinerji.domain.entity.Pessoa;
 import com.teste.sinerji.domain.entity.Endereco;
 import com.teste.sinerji.domain.enums.Estado;
 import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.domain.valueobject.Cpf;
+import com.teste.sinerji.infrastructure.cache.CuboPessoas;
+import com.teste.sinerji.infrastructure.cache.IndiceNomes;
+import com.teste.sinerji.infrastructure.cache.IndicePessoas;
 import com.teste.sinerji.infrastructure.repository.PessoaRepository;
 import jakarta.annotation.PostConstruct;
+import jakarta.ejb.DependsOn;
 import jakarta.ejb.Singleton;
 import jakarta.ejb.Startup;
 import jakarta.inject.Inject;
@@ -13,20 +19,35 @@ import java.text.SimpleDateFormat;
 
 @Singleton
 @Startup
+@DependsOn("MigracaoBanco")
 public class PessoaDataSeeder {
 
     @Inject
     private PessoaRepository pessoaRepository;
 
+    @Inject
+    private EstatisticaService estatisticaService;
+
+    @Inject
+    private IndicePessoas indicePessoas;
+
+    @Inject
+    private CuboPessoas cuboPessoas;
+
+    @Inject
+    private IndiceNomes indiceNomes;
+
     @PostConstruct
     public void init() {
-        if (pessoaRepository.contarTodas() == 0) {
+        estatisticaService.prepararContadores();
+        // Do primário: uma réplica atrasada repetiria a carga
+        if (estatisticaService.valorNoPrimario(EstatisticaService.PESSOAS) == 0) {
             try {
                 SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
                 // Pessoa 1
                 Pessoa p1 = new Pessoa();
                 p1.setNome("João Silva");
-                p1.setCpf("347.337.210-21");
+                p1.setCpf(Cpf.parse("347.337.210-21"));
                 p1.setSexo(Sexo.M);
                 p1.setDataNascimento(sdf.parse("01/01/1990"));
                 Endereco e1 = new Endereco();
@@ -41,7 +62,7 @@ public class PessoaDataSeeder {
                 // Pessoa 2
                 Pessoa p2 = new Pessoa();
                 p2.setNome("Maria Oliveira");
-                p2.setCpf("333.899.330-77");
+                p2.setCpf(Cpf.parse("333.899.330-77"));
                 p2.setSexo(Sexo.F);
                 p2.setDataNascimento(sdf.parse("02/02/1992"));
                 Endereco e2 = new Endereco();
@@ -56,7 +77,7 @@ public class PessoaDataSeeder {
                 // Pessoa 3
                 Pessoa p3 = new Pessoa();
                 p3.setNome("Carlos Pereira");
-                p3.setCpf("813.839.480-38");
+                p3.setCpf(Cpf.parse("813.839.480-38"));
                 p3.setSexo(Sexo.M);
                 p3.setDataNascimento(sdf.parse("03/03/1988"));
                 Endereco e3 = new Endereco();
@@ -71,7 +92,7 @@ public class PessoaDataSeeder {
                 // Pessoa 4
                 Pessoa p4 = new Pessoa();
                 p4.setNome("Ana Souza");
-                p4.setCpf("603.164.820-21");
+                p4.setCpf(Cpf.parse("603.164.820-21"));
                 p4.setSexo(Sexo.F);
                 p4.setDataNascimento(sdf.parse("04/04/1995"));
                 Endereco e4 = new Endereco();
@@ -86,7 +107,7 @@ public class PessoaDataSeeder {
                 // Pessoa 5
                 Pessoa p5 = new Pessoa();
                 p5.setNome("Lucas Lima");
-                p5.setCpf("545.072.120-06");
+                p5.setCpf(Cpf.parse("545.072.120-06"));
                 p5.setSexo(Sexo.M);
                 p5.setDataNascimento(sdf.parse("05/05/1993"));
                 Endereco e5 = new Endereco();
@@ -101,7 +122,7 @@ public class PessoaDataSeeder {
                 // Pessoa 6
                 Pessoa p6 = new Pessoa();
                 p6.setNome("Fernanda Costa");
-                p6.setCpf("757.842.950-71");
+                p6.setCpf(Cpf.parse("757.842.950-71"));
                 p6.setSexo(Sexo.F);
                 p6.setDataNascimento(sdf.parse("06/06/1991"));
                 Endereco e6 = new Endereco();
@@ -116,7 +137,7 @@ public class PessoaDataSeeder {
                 // Pessoa 7
                 Pessoa p7 = new Pessoa();
                 p7.setNome("Bruno Almeida");
-                p7.setCpf("835.246.230-00");
+                p7.setCpf(Cpf.parse("835.246.230-00"));
                 p7.setSexo(Sexo.M);
                 p7.setDataNascimento(sdf.parse("07/07/1987"));
                 Endereco e7 = new Endereco();
@@ -131,7 +152,7 @@ public class PessoaDataSeeder {
                 // Pessoa 8
                 Pessoa p8 = new Pessoa();
                 p8.setNome("Juliana Martins");
-                p8.setCpf("225.649.100-50");
+                p8.setCpf(Cpf.parse("225.649.100-50"));
                 p8.setSexo(Sexo.F);
                 p8.setDataNascimento(sdf.parse("08/08/1994"));
                 Endereco e8 = new Endereco();
@@ -146,7 +167,7 @@ public class PessoaDataSeeder {
                 // Pessoa 9
                 Pessoa p9 = new Pessoa();
                 p9.setNome("Ricardo Mendes");
-                p9.setCpf("473.230.830-95");
+                p9.setCpf(Cpf.parse("473.230.830-95"));
                 p9.setSexo(Sexo.M);
                 p9.setDataNascimento(sdf.parse("09/09/1990"));
                 Endereco e9 = new Endereco();
@@ -161,7 +182,7 @@ public class PessoaDataSeeder {
                 // Pessoa 10
                 Pessoa p10 = new Pessoa();
                 p10.setNome("Patrícia Gomes");
-                p10.setCpf("587.234.320-55");
+                p10.setCpf(Cpf.parse("587.234.320-55"));
                 p10.setSexo(Sexo.F);
                 p10.setDataNascimento(sdf.parse("10/10/1989"));
                 Endereco e10 = new Endereco();
@@ -172,11 +193,15 @@ public class PessoaDataSeeder {
                 e10.setCep("90010-320");
                 p10.adicionarEndereco(e10);
                 pessoaRepository.salvar(p10);
+                estatisticaService.reconciliar();
 
                 System.out.println("Seed de pessoas inserido com sucesso!");
             } catch (Exception e) {
                 e.printStackTrace();
             }
         }
+        indicePessoas.recarregar();
+        cuboPessoas.recarregar();
+        indiceNomes.recarregar();
     }
 }
@@ -1,12 +1,26 @@
 package com.teste.sinerji.presentation.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Month;
+import java.time.format.TextStyle;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.primefaces.event.FileUploadEvent;
 import org.primefaces.model.chart.BarChartModel;
 import org.primefaces.model.chart.ChartSeries;
 
@@ -18,12 +32,23 @@ import jakarta.inject.Inject;
 import jakarta.inject.Named;
 
 import com.teste.sinerji.application.dto.EnderecoDTO;
+import com.teste.sinerji.application.dto.PainelDTO;
 import com.teste.sinerji.application.dto.PessoaDTO;
+import com.teste.sinerji.application.dto.PessoaFiltro;
+import com.teste.sinerji.application.dto.PessoaResumo;
+import com.teste.sinerji.application.dto.ResultadoImportacaoDTO;
 import com.teste.sinerji.application.dto.ViaCepDTO;
 import com.teste.sinerji.application.service.CepService;
+import com.teste.sinerji.application.service.DashboardService;
+import com.teste.sinerji.application.service.ImportacaoService;
 import com.teste.sinerji.application.service.PessoaService;
 import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.enums.FaixaEtaria;
 import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.infrastructure.cache.CuboPessoas;
+import com.teste.sinerji.infrastructure.cache.IndicePessoas;
+import com.teste.sinerji.infrastructure.cache.IndiceNomes;
+import com.teste.sinerji.presentation.model.PessoaLazyDataModel;
 import com.teste.sinerji.shared.exception.BusinessException;
 import com.teste.sinerji.shared.exception.EntityNotFoundException;
 
@@ -41,23 +66,40 @@ public class PessoaController implements Serializable {
     
     private static final long serialVersionUID = 1L;
     
+    private static final int QUANTIDADE_SUGESTOES = 10;
+    
+    /** Quanto o blur do campo de CEP aguarda a consulta antes de deixá-la para o p:poll. */
+    private static final long ESPERA_CEP_MILLIS = 300;
+    
     @Inject
     private PessoaService pessoaService;
     
     @Inject
     private CepService cepService;
     
+    @Inject
+    private ImportacaoService importacaoService;
+    
+    @Inject
+    private DashboardService dashboardService;
+    
+    @Inject
+    private CuboPessoas cuboPessoas;
+    
+    @Inject
+    private IndiceNomes indiceNomes;
+    
     @Getter @Setter
     private PessoaDTO pessoa;
     
     @Getter @Setter
     private EnderecoDTO endereco;
     
-    @Getter @Setter
-    private List<PessoaDTO> pessoas;
+    @Getter
+    private PessoaLazyDataModel pessoasLazy;
     
     @Getter @Setter
-    private List<PessoaDTO> pessoasFiltradas;
+    private String filtroNome;
     
     @Getter @Setter
     private String filtroCpf;
@@ -71,36 +113,59 @@ public class PessoaController implements Serializable {
     @Getter @Setter
     private Sexo filtroSexo;
     
+    @Getter @Setter
+    private Integer filtroIdadeMinima;
+    
+    @Getter @Setter
+    private Integer filtroIdadeMaxima;
+    
+    @Getter @Setter
+    private Integer filtroMesNascimento;
+    
     @Getter @Setter
     private boolean modoEdicao;
     
     @Getter @Setter
     private boolean modoEdicaoEndereco;
 
+    /** Resultado da última importação; durante a importação, uma cópia do andamento. */
+    @Getter
+    private volatile ResultadoImportacaoDTO resultadoImportacao;
+    
+    /** Importação em segundo plano ainda não acompanhada até o fim pelo p:poll da tela. */
+    private transient CompletableFuture<ResultadoImportacaoDTO> importacao;
+    
+    /** Consulta de CEP que não respondeu no blur; acompanhada pelo p:poll do diálogo de endereço. */
+    private transient CompletableFuture<ViaCepDTO> consultaCep;
+    
+    /** CEP da consulta em andamento, para descartá-la se o campo for alterado. */
+    private String cepConsultado;
+    
     @Getter
     private BarChartModel pessoasPorEstadoModel;
     
     @PostConstruct
     public void init() {
         novaPessoa();
-        carregarPessoas();
+        pessoasLazy = new PessoaLazyDataModel(pessoaService);
         limparFiltros();
-        criarGraficoPessoasPorEstado();
     }
     
     /**
-     * Carrega todas as pessoas.
+     * Retorna os indicadores do painel inicial.
+     * O painel é compartilhado e recalculado periodicamente pelo {@link DashboardService}.
+     * 
+     * @return O painel atual
      */
-    private void carregarPessoas() {
-        try {
-            pessoas = pessoaService.listarTodas();
-            pessoasFiltradas = new ArrayList<>(pessoas);
-            criarGraficoPessoasPorEstado();
-        } catch (Exception e) {
-            adicionarMensagemErro("Erro ao carregar pessoas: " + e.getMessage());
-            pessoas = new ArrayList<>();
-            pessoasFiltradas = new ArrayList<>();
-        }
+    public PainelDTO getPainel() {
+        return dashboardService.obterPainel();
+    }
+    
+    /**
+     * Descarta os indicadores em cache após alterações, para que reflitam os novos dados.
+     */
+    private void invalidarPainel() {
+        dashboardService.invalidar();
     }
     
     /**
@@ -112,13 +177,17 @@ public class PessoaController implements Serializable {
     }
     
     /**
-     * Prepara o formulário para edição de pessoa.
+     * Prepara o formulário para edição de pessoa, carregando-a com os endereços completos.
      * 
-     * @param pessoa A pessoa a ser editada
+     * @param resumo A linha da listagem a ser editada
      */
-    public void editarPessoa(PessoaDTO pessoa) {
-        this.pessoa = pessoa;
-        modoEdicao = true;
+    public void editarPessoa(PessoaResumo resumo) {
+        try {
+            this.pessoa = pessoaService.buscarPorId(resumo.getId());
+            modoEdicao = true;
+        } catch (EntityNotFoundException e) {
+            adicionarMensagemErro(e.getMessage());
+        }
     }
     
     /**
@@ -130,11 +199,11 @@ public class PessoaController implements Serializable {
                 pessoaService.atualizar(pessoa);
                 adicionarMensagemSucesso("Pessoa atualizada com sucesso!");
                 limparFormulario();
-                carregarPessoas();
+                invalidarPainel();
             } else {
                 pessoaService.salvar(pessoa);
                 adicionarMensagemSucesso("Pessoa cadastrada com sucesso! Agora cadastre o endereço.");
-                carregarPessoas();
+                invalidarPainel();
                 modoEdicao = true;
                 modoEdicaoEndereco = true;
                 return;
@@ -151,13 +220,13 @@ public class PessoaController implements Serializable {
     /**
      * Remove uma pessoa.
      * 
-     * @param pessoa A pessoa a ser removida
+     * @param pessoa A linha da listagem a ser removida
      */
-    public void removerPessoa(PessoaDTO pessoa) {
+    public void removerPessoa(PessoaResumo pessoa) {
         try {
             pessoaService.remover(pessoa.getId());
             adicionarMensagemSucesso("Pessoa removida com sucesso!");
-            carregarPessoas();
+            invalidarPainel();
             
         } catch (EntityNotFoundException e) {
             adicionarMensagemErro(e.getMessage());
@@ -166,6 +235,67 @@ public class PessoaController implements Serializable {
         }
     }
     
+    /**
+     * Inicia a importação do arquivo CSV enviado em segundo plano. O andamento é exibido
+     * pelo p:poll da tela, que chama {@link #acompanharImportacao()}.
+     * 
+     * @param event O evento de upload com o arquivo
+     */
+    public void importarCsv(FileUploadEvent event) {
+        if (isImportando()) {
+            adicionarMensagemErro("Aguarde o fim da importação em andamento.");
+            return;
+        }
+        try {
+            // O arquivo enviado só vale durante a requisição: a importação lê uma cópia
+            Path arquivo = Files.createTempFile("importacao-", ".csv");
+            try (InputStream entrada = event.getFile().getInputStream()) {
+                Files.copy(entrada, arquivo, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                Files.deleteIfExists(arquivo);
+                throw e;
+            }
+            resultadoImportacao = new ResultadoImportacaoDTO();
+            importacao = importacaoService.importarEmSegundoPlano(arquivo,
+                    parcial -> resultadoImportacao = parcial.copiar());
+        } catch (Exception e) {
+            adicionarMensagemErro("Erro ao importar arquivo: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Indica se há importação em andamento nesta tela.
+     * 
+     * @return true enquanto a importação não tiver sido concluída e acompanhada
+     */
+    public boolean isImportando() {
+        return importacao != null;
+    }
+    
+    /**
+     * Chamado periodicamente pela tela durante a importação: quando ela termina, publica o
+     * resultado final e descarta os indicadores do painel.
+     */
+    public void acompanharImportacao() {
+        if (importacao == null || !importacao.isDone()) {
+            return;
+        }
+        try {
+            resultadoImportacao = importacao.join();
+            invalidarPainel();
+            adicionarMensagemSucesso(String.format("Importação concluída: %d importada(s), %d rejeitada(s).",
+                    resultadoImportacao.getImportadas(), resultadoImportacao.getRejeitadas()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BusinessException) {
+                adicionarMensagemErro(e.getCause().getMessage());
+            } else {
+                adicionarMensagemErro("Erro ao importar arquivo: " + e.getCause().getMessage());
+            }
+        } finally {
+            importacao = null;
+        }
+    }
+    
     /**
      * Prepara o formulário para novo endereço.
      */
@@ -177,6 +307,7 @@ public class PessoaController implements Serializable {
         endereco = new EnderecoDTO();
         endereco.setPessoaId(pessoa.getId());
         modoEdicaoEndereco = false;
+        consultaCep = null;
     }
     
     /**
@@ -187,6 +318,7 @@ public class PessoaController implements Serializable {
     public void editarEndereco(EnderecoDTO endereco) {
         this.endereco = endereco;
         modoEdicaoEndereco = true;
+        consultaCep = null;
     }
     
     /**
@@ -221,46 +353,40 @@ public class PessoaController implements Serializable {
     
     /**
      * Filtra a lista de pessoas com base nos critérios definidos.
+     * Os critérios são repassados ao modelo lazy e aplicados na consulta ao banco.
      */
     public void filtrarPessoas() {
         try {
-            pessoasFiltradas = pessoas.stream()
-                .filter(p -> filtroCpf == null || filtroCpf.isEmpty() || 
-                         (p.getCpf() != null && p.getCpf().replace(".", "").replace("-", "").contains(filtroCpf.replace(".", "").replace("-", ""))))
-                .filter(p -> filtroSexo == null || 
-                         (p.getSexo() != null && p.getSexo().equals(filtroSexo)))
-                .filter(p -> {
-                    if (filtroCidade == null || filtroCidade.isEmpty()) {
-                        return true;
-                    }
-                    if (p.getEnderecos() == null || p.getEnderecos().isEmpty()) {
-                        return false;
-                    }
-                    return p.getEnderecos().stream()
-                        .anyMatch(e -> e.getCidade() != null && 
-                                 e.getCidade().toLowerCase().contains(filtroCidade.toLowerCase()));
-                })
-                .filter(p -> {
-                    if (filtroEstado == null) {
-                        return true;
-                    }
-                    if (p.getEnderecos() == null || p.getEnderecos().isEmpty()) {
-                        return false;
-                    }
-                    return p.getEnderecos().stream()
-                        .anyMatch(e -> e.getEstado() != null && e.getEstado().equals(filtroEstado));
-                })
-                .collect(Collectors.toList());
-
-            criarGraficoPessoasPorEstado();
+            PessoaFiltro filtro = PessoaFiltro.builder()
+                .nome(filtroNome)
+                .cpf(filtroCpf)
+                .cidade(filtroCidade)
+                .estado(filtroEstado)
+                .sexo(filtroSexo)
+                .idadeMinima(filtroIdadeMinima)
+                .idadeMaxima(filtroIdadeMaxima)
+                .mesNascimento(filtroMesNascimento)
+                .build();
+            pessoasLazy.setFiltro(filtro);
+            montarGraficoPorEstado(filtro);
 
             adicionarMensagemSucesso("Filtro aplicado com sucesso. " + 
-                                    pessoasFiltradas.size() + " pessoa(s) encontrada(s).");
+                                    pessoaService.contar(filtro) + " pessoa(s) encontrada(s).");
         } catch (Exception e) {
             adicionarMensagemErro("Erro ao filtrar pessoas: " + e.getMessage());
         }
     }
     
+    /**
+     * Sugestões para o autocompletar do filtro por nome, a partir do índice em memória.
+     * 
+     * @param texto O texto digitado
+     * @return Os nomes sugeridos
+     */
+    public List<String> completarNome(String texto) {
+        return indiceNomes.sugerir(texto, QUANTIDADE_SUGESTOES);
+    }
+    
     /**
      * Limpa o filtro de pesquisa (compatibilidade com versão antiga).
      */
@@ -272,16 +398,19 @@ public class PessoaController implements Serializable {
      * Limpa todos os filtros e restaura a lista completa.
      */
     public void limparFiltros() {
+        filtroNome = null;
         filtroCpf = null;
         filtroCidade = null;
         filtroEstado = null;
         filtroSexo = null;
+        filtroIdadeMinima = null;
+        filtroIdadeMaxima = null;
+        filtroMesNascimento = null;
         
-        if (pessoas != null) {
-            pessoasFiltradas = new ArrayList<>(pessoas);
-        } else {
-            pessoasFiltradas = new ArrayList<>();
+        if (pessoasLazy != null) {
+            pessoasLazy.setFiltro(new PessoaFiltro());
         }
+        montarGraficoPorEstado(new PessoaFiltro());
     }
     
     /**
@@ -339,101 +468,146 @@ public class PessoaController implements Serializable {
     public Estado[] getEstados() {
         return Estado.values();
     }
-
+    
     /**
-     * Retorna a quantidade de aniversariantes do mês atual
+     * Retorna os meses para o select de mês de nascimento.
+     * 
+     * @return Nome do mês para o número do mês (1 a 12)
      */
-    public int getAniversariantesDoMes() {
-        int count = 0;
-        java.util.Calendar hoje = java.util.Calendar.getInstance();
-        int mesAtual = hoje.get(java.util.Calendar.MONTH) + 1; // +1 porque Calendar.MONTH é 0-based
-        
-        for (PessoaDTO pessoa : pessoas) {
-            if (pessoa.getDataNascimento() != null) {
-                java.util.Calendar nascimento = java.util.Calendar.getInstance();
-                nascimento.setTime(pessoa.getDataNascimento());
-                if (nascimento.get(java.util.Calendar.MONTH) + 1 == mesAtual) {
-                    count++;
-                }
-            }
+    public Map<String, Integer> getMeses() {
+        Map<String, Integer> meses = new LinkedHashMap<>();
+        Locale ptBr = new Locale("pt", "BR");
+        for (Month mes : Month.values()) {
+            String nome = mes.getDisplayName(TextStyle.FULL, ptBr);
+            meses.put(nome.substring(0, 1).toUpperCase(ptBr) + nome.substring(1), mes.getValue());
         }
-        return count;
-    }
-
-    public double getPorcentagemHomens() {
-        if (pessoas == null || pessoas.isEmpty()) return 0.0;
-        long totalHomens = pessoas.stream()
-            .filter(p -> p.getSexo() != null && p.getSexo().name().equalsIgnoreCase("M"))
-            .count();
-        return (totalHomens * 100.0) / pessoas.size();
+        return meses;
     }
 
-    public double getPorcentagemMulheres() {
-        if (pessoas == null || pessoas.isEmpty()) return 0.0;
-        long totalMulheres = pessoas.stream()
-            .filter(p -> p.getSexo() != null && p.getSexo().name().equalsIgnoreCase("F"))
-            .count();
-        return (totalMulheres * 100.0) / pessoas.size();
-    }
-
-    public void criarGraficoPessoasPorEstado() {
-        pessoasPorEstadoModel = new BarChartModel();
+    /**
+     * Monta o gráfico de pessoas por UF com o mesmo filtro aplicado à tabela. O modelo é
+     * guardado e só é refeito quando o filtro muda.
+     * 
+     * @param filtro O filtro aplicado
+     */
+    private void montarGraficoPorEstado(PessoaFiltro filtro) {
+        BarChartModel modelo = new BarChartModel();
         ChartSeries serie = new ChartSeries();
         serie.setLabel("Pessoas");
 
-        Map<String, Integer> contagemPorEstado = new HashMap<>();
-
-        for (Estado estado : Estado.values()) {
-            contagemPorEstado.put(estado.getNome(), 0);
-        }
-        if (pessoasFiltradas != null) {
-            for (PessoaDTO pessoa : pessoasFiltradas) {
-                if (pessoa.getEnderecos() != null && !pessoa.getEnderecos().isEmpty()) {
-                    Estado estado = pessoa.getEnderecos().get(0).getEstado();
-                    if (estado != null) {
-                        String nomeEstado = estado.getNome();
-                        contagemPorEstado.put(nomeEstado, contagemPorEstado.getOrDefault(nomeEstado, 0) + 1);
-                    }
-                }
-            }
+        for (Map.Entry<Estado, Long> entry : contarPorEstado(filtro).entrySet()) {
+            serie.set(entry.getKey().getNome(), entry.getValue());
         }
 
-        for (Map.Entry<String, Integer> entry : contagemPorEstado.entrySet()) {
-            if (entry.getValue() > 0) {
-                serie.set(entry.getKey(), entry.getValue());
-            }
+        modelo.addSeries(serie);
+        modelo.setTitle("Pessoas por Estado");
+        modelo.setLegendPosition("ne");
+        modelo.setShowPointLabels(true);
+        pessoasPorEstadoModel = modelo;
+    }
+
+    /**
+     * Conta as pessoas por UF pelo {@link CuboPessoas} quando o filtro cabe nas suas dimensões
+     * (UF, sexo, mês de nascimento e faixa etária exata); com cidade, nome, CPF ou um intervalo
+     * de idades qualquer, a contagem fica com o {@link PessoaService} (índice em memória ou banco).
+     */
+    private Map<Estado, Long> contarPorEstado(PessoaFiltro filtro) {
+        boolean semIdade = filtro.getIdadeMinima() == null && filtro.getIdadeMaxima() == null;
+        Optional<FaixaEtaria> faixa = FaixaEtaria.doIntervalo(filtro.getIdadeMinima(), filtro.getIdadeMaxima());
+        if (IndicePessoas.atendeTodos(filtro) && vazio(filtro.getCidade()) && (semIdade || faixa.isPresent())) {
+            return cuboPessoas.contarPorEstado(filtro.getEstado(), filtro.getSexo(),
+                    filtro.getMesNascimento(), faixa.orElse(null));
         }
+        return pessoaService.contarPorEstado(filtro);
+    }
+
+    private static boolean vazio(String valor) {
+        return valor == null || valor.trim().isEmpty();
+    }
 
-        pessoasPorEstadoModel.addSeries(serie);
-        pessoasPorEstadoModel.setTitle("Pessoas por Estado");
-        pessoasPorEstadoModel.setLegendPosition("ne");
-        pessoasPorEstadoModel.setShowPointLabels(true);
+    /**
+     * Dispara a consulta do CEP em segundo plano assim que o último dígito é digitado,
+     * sem aguardar a resposta. Quando o campo perde o foco, {@link #buscarEnderecoPorCep()}
+     * encontra o resultado já em cache ou a consulta em andamento.
+     */
+    public void preCarregarCep() {
+        if (endereco != null && endereco.getCep() != null
+                && endereco.getCep().replaceAll("\\D", "").length() == 8) {
+            cepService.consultarCepAsync(endereco.getCep());
+        }
     }
 
+    /**
+     * Busca o endereço do CEP quando o campo perde o foco. Aguarda a consulta por no máximo
+     * {@value #ESPERA_CEP_MILLIS} ms; se ela não responder nesse prazo, a tela mostra o
+     * estado de consulta e o p:poll chama {@link #acompanharConsultaCep()} até a resposta.
+     */
     public void buscarEnderecoPorCep() {
+        consultaCep = null;
+        if (endereco == null || endereco.getCep() == null || endereco.getCep().trim().isEmpty()) {
+            return;
+        }
+        CompletableFuture<ViaCepDTO> consulta = cepService.consultarCepAsync(endereco.getCep());
         try {
-            if (endereco == null || endereco.getCep() == null || endereco.getCep().trim().isEmpty()) {
-                return;
-            }
-            
-            ViaCepDTO viaCepDTO = cepService.consultarCep(endereco.getCep());
-            
-            endereco.setLogradouro(viaCepDTO.getLogradouro());
-            endereco.setCidade(viaCepDTO.getCidade());
-            
-            try {
-                Estado estado = Estado.valueOf(viaCepDTO.getEstado());
-                endereco.setEstado(estado);
-            } catch (IllegalArgumentException e) {
-                adicionarMensagemErro("Estado não reconhecido: " + viaCepDTO.getEstado());
+            aplicarEndereco(consulta.get(ESPERA_CEP_MILLIS, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            consultaCep = consulta;
+            cepConsultado = endereco.getCep();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            adicionarMensagemErro("Consulta de CEP interrompida");
+        } catch (ExecutionException e) {
+            adicionarMensagemErroCep(e.getCause());
+        }
+    }
+    
+    /**
+     * Indica se há consulta de CEP aguardando resposta neste diálogo.
+     * 
+     * @return true enquanto a consulta iniciada no blur não tiver sido acompanhada até o fim
+     */
+    public boolean isConsultandoCep() {
+        return consultaCep != null;
+    }
+    
+    /**
+     * Chamado periodicamente pela tela enquanto a consulta de CEP está em andamento: quando
+     * ela termina, preenche o endereço, a menos que o CEP do campo já seja outro.
+     */
+    public void acompanharConsultaCep() {
+        if (consultaCep == null || !consultaCep.isDone()) {
+            return;
+        }
+        try {
+            if (endereco != null && cepConsultado.equals(endereco.getCep())) {
+                aplicarEndereco(consultaCep.join());
             }
-            
-            adicionarMensagemSucesso("Endereço encontrado com sucesso!");
-            
-        } catch (BusinessException e) {
-            adicionarMensagemErro(e.getMessage());
-        } catch (Exception e) {
-            adicionarMensagemErro("Erro ao buscar CEP: " + e.getMessage());
+        } catch (CompletionException e) {
+            adicionarMensagemErroCep(e.getCause());
+        } finally {
+            consultaCep = null;
+        }
+    }
+    
+    private void aplicarEndereco(ViaCepDTO viaCepDTO) {
+        endereco.setLogradouro(viaCepDTO.getLogradouro());
+        endereco.setCidade(viaCepDTO.getCidade());
+        
+        try {
+            Estado estado = Estado.valueOf(viaCepDTO.getEstado());
+            endereco.setEstado(estado);
+        } catch (IllegalArgumentException e) {
+            adicionarMensagemErro("Estado não reconhecido: " + viaCepDTO.getEstado());
+        }
+        
+        adicionarMensagemSucesso("Endereço encontrado com sucesso!");
+    }
+    
+    private void adicionarMensagemErroCep(Throwable erro) {
+        if (erro instanceof BusinessException) {
+            adicionarMensagemErro(erro.getMessage());
+        } else {
+            adicionarMensagemErro("Erro ao buscar CEP: " + erro.getMessage());
         }
     }
 }
@@ -0,0 +1,38 @@
+package com.teste.sinerji.presentation.converter;
+
+import jakarta.faces.application.FacesMessage;
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.convert.Converter;
+import jakarta.faces.convert.ConverterException;
+import jakarta.faces.convert.FacesConverter;
+
+import com.teste.sinerji.domain.valueobject.Cpf;
+
+/**
+ * Converter para o CPF: aplicado a todo valor do tipo {@link Cpf}, lê o texto da máscara
+ * e exibe no formato 000.000.000-00.
+ * 
+ * @author Teste Sinerji
+ */
+@FacesConverter(forClass = Cpf.class, managed = true)
+public class CpfConverter implements Converter<Cpf> {
+
+    @Override
+    public Cpf getAsObject(FacesContext context, UIComponent component, String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        
+        try {
+            return Cpf.parse(value);
+        } catch (IllegalArgumentException e) {
+            throw new ConverterException(new FacesMessage(FacesMessage.SEVERITY_ERROR, e.getMessage(), null), e);
+        }
+    }
+
+    @Override
+    public String getAsString(FacesContext context, UIComponent component, Cpf value) {
+        return value != null ? value.toString() : "";
+    }
+}
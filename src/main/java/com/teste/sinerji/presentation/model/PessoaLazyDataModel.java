@@ -0,0 +1,160 @@
+package com.teste.sinerji.presentation.model;
+
+import java.util.List;
+import java.util.Map;
+
+import org.primefaces.model.FilterMeta;
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortMeta;
+import org.primefaces.model.SortOrder;
+
+import com.teste.sinerji.application.dto.PessoaFiltro;
+import com.teste.sinerji.application.dto.PessoaResumo;
+import com.teste.sinerji.application.service.PessoaService;
+
+/**
+ * Modelo lazy da tabela de pessoas: busca no banco apenas a página visível, como
+ * resumos ({@link PessoaResumo}) sem os endereços completos.
+ * Na ordenação por nome, a navegação sequencial (próxima página) usa o cursor
+ * (nome, id) da última linha carregada; saltos arbitrários e demais ordenações
+ * recorrem à consulta por deslocamento.
+ *
+ * @author Teste Sinerji
+ */
+public class PessoaLazyDataModel extends LazyDataModel<PessoaResumo> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String CAMPO_NOME = "nome";
+    private static final String CAMPO_IDADE = "idade";
+
+    private final PessoaService pessoaService;
+
+    private PessoaFiltro filtro = new PessoaFiltro();
+
+    private PessoaFiltro ultimoFiltro;
+    private String ultimoCampo;
+    private boolean ultimoAscendente;
+    private int ultimoInicio = -1;
+    private int ultimoTamanho;
+    private PessoaResumo ultimaLinha;
+
+    public PessoaLazyDataModel(PessoaService pessoaService) {
+        this.pessoaService = pessoaService;
+    }
+
+    /**
+     * Define os filtros externos à tabela (painel de filtros) e descarta o cursor atual.
+     *
+     * @param filtro Os critérios de filtro
+     */
+    public void setFiltro(PessoaFiltro filtro) {
+        this.filtro = filtro != null ? filtro : new PessoaFiltro();
+        this.ultimaLinha = null;
+        this.ultimoInicio = -1;
+    }
+
+    public PessoaFiltro getFiltro() {
+        return filtro;
+    }
+
+    @Override
+    public int count(Map<String, FilterMeta> filterBy) {
+        return (int) pessoaService.contar(filtroEfetivo(filterBy));
+    }
+
+    @Override
+    public List<PessoaResumo> load(int first, int pageSize, Map<String, SortMeta> sortBy,
+            Map<String, FilterMeta> filterBy) {
+        PessoaFiltro filtroEfetivo = filtroEfetivo(filterBy);
+
+        String campo = CAMPO_NOME;
+        boolean ascendente = true;
+        if (sortBy != null) {
+            for (SortMeta meta : sortBy.values()) {
+                if (meta.getOrder() != null && meta.getOrder() != SortOrder.UNSORTED) {
+                    campo = meta.getField();
+                    ascendente = meta.getOrder() == SortOrder.ASCENDING;
+                    if (CAMPO_IDADE.equals(campo)) {
+                        // Idade crescente equivale a data de nascimento decrescente
+                        campo = "dataNascimento";
+                        ascendente = !ascendente;
+                    }
+                    break;
+                }
+            }
+        }
+
+        List<PessoaResumo> pagina;
+        if (CAMPO_NOME.equals(campo) && first == 0) {
+            pagina = pessoaService.listarPaginaPorNome(filtroEfetivo, null, null, pageSize, ascendente);
+        } else if (CAMPO_NOME.equals(campo) && continuaPaginaAnterior(first, filtroEfetivo, campo, ascendente)) {
+            pagina = pessoaService.listarPaginaPorNome(filtroEfetivo, ultimaLinha.getNome(),
+                    ultimaLinha.getId(), pageSize, ascendente);
+        } else {
+            pagina = pessoaService.listarPagina(filtroEfetivo, first, pageSize, campo, ascendente);
+        }
+
+        ultimoFiltro = filtroEfetivo;
+        ultimoCampo = campo;
+        ultimoAscendente = ascendente;
+        ultimoInicio = first;
+        ultimoTamanho = pageSize;
+        ultimaLinha = pagina.isEmpty() ? null : pagina.get(pagina.size() - 1);
+
+        return pagina;
+    }
+
+    @Override
+    public String getRowKey(PessoaResumo pessoa) {
+        return pessoa.getId() != null ? pessoa.getId().toString() : null;
+    }
+
+    @Override
+    public PessoaResumo getRowData(String rowKey) {
+        List<PessoaResumo> pagina = getWrappedData();
+        if (pagina == null || rowKey == null) {
+            return null;
+        }
+        for (PessoaResumo pessoa : pagina) {
+            if (rowKey.equals(getRowKey(pessoa))) {
+                return pessoa;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Verifica se a página solicitada é a imediatamente seguinte à última carregada,
+     * com a mesma ordenação e o mesmo filtro, permitindo seguir pelo cursor.
+     */
+    private boolean continuaPaginaAnterior(int first, PessoaFiltro filtroEfetivo, String campo, boolean ascendente) {
+        return ultimaLinha != null
+                && first == ultimoInicio + ultimoTamanho
+                && campo.equals(ultimoCampo)
+                && ascendente == ultimoAscendente
+                && filtroEfetivo.equals(ultimoFiltro);
+    }
+
+    /**
+     * Combina os filtros do painel com os filtros de coluna da tabela.
+     */
+    private PessoaFiltro filtroEfetivo(Map<String, FilterMeta> filterBy) {
+        PessoaFiltro efetivo = filtro.toBuilder().build();
+        if (filterBy == null) {
+            return efetivo;
+        }
+        for (FilterMeta meta : filterBy.values()) {
+            Object valor = meta.getFilterValue();
+            if (valor == null) {
+                continue;
+            }
+            if (CAMPO_NOME.equals(meta.getField())) {
+                efetivo.setNome(valor.toString());
+            } else if ("cpf".equals(meta.getField())) {
+                efetivo.setCpf(valor.toString());
+            }
+        }
+        return efetivo;
+    }
+}
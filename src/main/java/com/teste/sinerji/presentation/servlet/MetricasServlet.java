@@ -0,0 +1,33 @@
+package com.teste.sinerji.presentation.servlet;
+
+import java.io.IOException;
+
+import jakarta.inject.Inject;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.teste.sinerji.shared.metrics.RegistroMetricas;
+import com.teste.sinerji.shared.security.AuthFilter;
+
+/**
+ * Expõe as métricas da aplicação em texto no formato Prometheus.
+ * O acesso (administrador logado ou token do coletor) é controlado pelo {@link AuthFilter}.
+ * 
+ * @author Teste Sinerji
+ */
+@WebServlet(urlPatterns = "/metricas")
+public class MetricasServlet extends HttpServlet {
+    
+    private static final long serialVersionUID = 1L;
+    
+    @Inject
+    private RegistroMetricas registroMetricas;
+    
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType("text/plain; version=0.0.4; charset=UTF-8");
+        registroMetricas.escrever(response.getWriter());
+    }
+}
@@ -0,0 +1,173 @@
+package com.teste.sinerji.shared.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache limitado, thread-safe, com despejo LRU e expiração por entrada (TTL).
+ * 
+ * As entradas são distribuídas em segmentos, cada um um {@link LinkedHashMap} em
+ * ordem de acesso protegido por seu próprio lock. Assim, acessos a chaves de
+ * segmentos diferentes não disputam o mesmo lock, e cada segmento despeja sua
+ * entrada menos usada ao atingir a capacidade.
+ * 
+ * @param <K> Tipo da chave
+ * @param <V> Tipo do valor
+ * @author Teste Sinerji
+ */
+public class CacheLruTtl<K, V> {
+    
+    private static final int SEGMENTOS = 16;
+    
+    private final Segmento<K, V>[] segmentos;
+    private final LongSupplier relogio;
+    
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+    private final LongAdder despejos = new LongAdder();
+    private final LongAdder expiracoes = new LongAdder();
+    
+    public CacheLruTtl(int capacidadeMaxima) {
+        this(capacidadeMaxima, System::nanoTime);
+    }
+    
+    /**
+     * @param capacidadeMaxima Número máximo aproximado de entradas (dividido entre os segmentos)
+     * @param relogio Fonte de tempo em nanossegundos (permite relógio controlado em testes)
+     */
+    @SuppressWarnings("unchecked")
+    public CacheLruTtl(int capacidadeMaxima, LongSupplier relogio) {
+        if (capacidadeMaxima < SEGMENTOS) {
+            throw new IllegalArgumentException("Capacidade mínima: " + SEGMENTOS);
+        }
+        this.relogio = relogio;
+        this.segmentos = new Segmento[SEGMENTOS];
+        int capacidadeSegmento = (capacidadeMaxima + SEGMENTOS - 1) / SEGMENTOS;
+        for (int i = 0; i < SEGMENTOS; i++) {
+            segmentos[i] = new Segmento<>(capacidadeSegmento, despejos);
+        }
+    }
+    
+    /**
+     * Obtém o valor associado à chave, se presente e não expirado.
+     * 
+     * @param chave A chave
+     * @return O valor, ou null em caso de falta
+     */
+    public V get(K chave) {
+        Segmento<K, V> segmento = segmento(chave);
+        synchronized (segmento) {
+            Entrada<V> entrada = segmento.get(chave);
+            if (entrada == null) {
+                faltas.increment();
+                return null;
+            }
+            if (entrada.expiraEm - relogio.getAsLong() <= 0) {
+                segmento.remove(chave);
+                expiracoes.increment();
+                faltas.increment();
+                return null;
+            }
+            acertos.increment();
+            return entrada.valor;
+        }
+    }
+    
+    /**
+     * Armazena um valor com o tempo de vida informado.
+     * 
+     * @param chave A chave
+     * @param valor O valor
+     * @param ttlNanos Tempo de vida em nanossegundos
+     */
+    public void put(K chave, V valor, long ttlNanos) {
+        Segmento<K, V> segmento = segmento(chave);
+        Entrada<V> entrada = new Entrada<>(valor, relogio.getAsLong() + ttlNanos);
+        synchronized (segmento) {
+            segmento.put(chave, entrada);
+        }
+    }
+    
+    public void remove(K chave) {
+        Segmento<K, V> segmento = segmento(chave);
+        synchronized (segmento) {
+            segmento.remove(chave);
+        }
+    }
+    
+    public void clear() {
+        for (Segmento<K, V> segmento : segmentos) {
+            synchronized (segmento) {
+                segmento.clear();
+            }
+        }
+    }
+    
+    public int size() {
+        int total = 0;
+        for (Segmento<K, V> segmento : segmentos) {
+            synchronized (segmento) {
+                total += segmento.size();
+            }
+        }
+        return total;
+    }
+    
+    public long getAcertos() {
+        return acertos.sum();
+    }
+    
+    public long getFaltas() {
+        return faltas.sum();
+    }
+    
+    public long getDespejos() {
+        return despejos.sum();
+    }
+    
+    public long getExpiracoes() {
+        return expiracoes.sum();
+    }
+    
+    private Segmento<K, V> segmento(K chave) {
+        int h = chave.hashCode();
+        h ^= (h >>> 16);
+        return segmentos[h & (SEGMENTOS - 1)];
+    }
+    
+    private static final class Entrada<V> {
+        
+        private final V valor;
+        private final long expiraEm;
+        
+        private Entrada(V valor, long expiraEm) {
+            this.valor = valor;
+            this.expiraEm = expiraEm;
+        }
+    }
+    
+    private static final class Segmento<K, V> extends LinkedHashMap<K, Entrada<V>> {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final int capacidade;
+        private final transient LongAdder despejos;
+        
+        private Segmento(int capacidade, LongAdder despejos) {
+            super(16, 0.75f, true);
+            this.capacidade = capacidade;
+            this.despejos = despejos;
+        }
+        
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> maisAntiga) {
+            if (size() > capacidade) {
+                despejos.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.teste.sinerji.shared.exception;
+
+/**
+ * Consulta a serviço externo recusada localmente por excesso de demanda
+ * (limite de taxa ou de requisições simultâneas). É temporária: a mesma
+ * consulta pode ser repetida em instantes.
+ * 
+ * @author Teste Sinerji
+ */
+public class ConsultaRecusadaException extends BusinessException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public ConsultaRecusadaException(String message) {
+        super(message);
+    }
+}
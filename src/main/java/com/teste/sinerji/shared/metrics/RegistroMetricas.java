@@ -0,0 +1,89 @@
+package com.teste.sinerji.shared.metrics;
+
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Registro central de métricas da aplicação.
+ * Componentes registram medidores (valores lidos sob demanda) e o
+ * {@code MetricasServlet} os expõe no formato texto do Prometheus.
+ * 
+ * @author Teste Sinerji
+ */
+@ApplicationScoped
+public class RegistroMetricas {
+    
+    private final Map<String, Medidor> medidores = new ConcurrentSkipListMap<>();
+    
+    /**
+     * Registra (ou substitui) um contador monotônico.
+     * 
+     * @param nome Nome da métrica (ex.: cep_cache_acertos_total)
+     * @param descricao Texto de ajuda
+     * @param valor Fornecedor do valor atual
+     */
+    public void registrarContador(String nome, String descricao, Supplier<? extends Number> valor) {
+        medidores.put(nome, new Medidor("counter", descricao, valor));
+    }
+    
+    /**
+     * Registra (ou substitui) um medidor de valor instantâneo.
+     * 
+     * @param nome Nome da métrica
+     * @param descricao Texto de ajuda
+     * @param valor Fornecedor do valor atual
+     */
+    public void registrarMedidor(String nome, String descricao, Supplier<? extends Number> valor) {
+        medidores.put(nome, new Medidor("gauge", descricao, valor));
+    }
+    
+    /**
+     * Lê o valor atual de uma métrica.
+     * 
+     * @param nome Nome da métrica
+     * @return O valor, ou null se não registrada
+     */
+    public Number valor(String nome) {
+        Medidor medidor = medidores.get(nome);
+        return medidor != null ? medidor.valor.get() : null;
+    }
+    
+    /**
+     * Escreve todas as métricas no formato de exposição do Prometheus.
+     * 
+     * @param saida Destino do texto
+     */
+    public void escrever(PrintWriter saida) {
+        for (Map.Entry<String, Medidor> entrada : medidores.entrySet()) {
+            Medidor medidor = entrada.getValue();
+            saida.print("# HELP ");
+            saida.print(entrada.getKey());
+            saida.print(' ');
+            saida.println(medidor.descricao);
+            saida.print("# TYPE ");
+            saida.print(entrada.getKey());
+            saida.print(' ');
+            saida.println(medidor.tipo);
+            saida.print(entrada.getKey());
+            saida.print(' ');
+            saida.println(medidor.valor.get());
+        }
+    }
+    
+    private static final class Medidor {
+        
+        private final String tipo;
+        private final String descricao;
+        private final Supplier<? extends Number> valor;
+        
+        private Medidor(String tipo, String descricao, Supplier<? extends Number> valor) {
+            this.tipo = tipo;
+            this.descricao = descricao;
+            this.valor = valor;
+        }
+    }
+}
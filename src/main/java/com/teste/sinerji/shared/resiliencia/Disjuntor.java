@@ -0,0 +1,84 @@
+package com.teste.sinerji.shared.resiliencia;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Disjuntor (circuit breaker) baseado em falhas consecutivas.
+ * 
+ * FECHADO: chamadas passam normalmente. Após {@code limiarFalhas} falhas seguidas, passa a ABERTO.
+ * ABERTO: chamadas são recusadas imediatamente até decorrer {@code tempoAbertoNanos}.
+ * MEIO_ABERTO: uma única chamada de teste é liberada; sucesso fecha o disjuntor, falha o reabre.
+ * 
+ * @author Teste Sinerji
+ */
+public class Disjuntor {
+    
+    public enum Estado {
+        FECHADO, ABERTO, MEIO_ABERTO
+    }
+    
+    private final int limiarFalhas;
+    private final long tempoAbertoNanos;
+    private final LongSupplier relogio;
+    
+    private Estado estado = Estado.FECHADO;
+    private int falhasSeguidas;
+    private long abertoEm;
+    private boolean testeEmAndamento;
+    private long rejeitadas;
+    
+    public Disjuntor(int limiarFalhas, long tempoAbertoNanos) {
+        this(limiarFalhas, tempoAbertoNanos, System::nanoTime);
+    }
+    
+    public Disjuntor(int limiarFalhas, long tempoAbertoNanos, LongSupplier relogio) {
+        this.limiarFalhas = limiarFalhas;
+        this.tempoAbertoNanos = tempoAbertoNanos;
+        this.relogio = relogio;
+    }
+    
+    /**
+     * Verifica se uma chamada pode prosseguir.
+     * Toda chamada liberada deve depois informar {@link #registrarSucesso()} ou {@link #registrarFalha()}.
+     * 
+     * @return true se a chamada pode ser feita
+     */
+    public synchronized boolean permitir() {
+        if (estado == Estado.ABERTO && relogio.getAsLong() - abertoEm >= tempoAbertoNanos) {
+            estado = Estado.MEIO_ABERTO;
+            testeEmAndamento = false;
+        }
+        if (estado == Estado.FECHADO) {
+            return true;
+        }
+        if (estado == Estado.MEIO_ABERTO && !testeEmAndamento) {
+            testeEmAndamento = true;
+            return true;
+        }
+        rejeitadas++;
+        return false;
+    }
+    
+    public synchronized void registrarSucesso() {
+        falhasSeguidas = 0;
+        estado = Estado.FECHADO;
+        testeEmAndamento = false;
+    }
+    
+    public synchronized void registrarFalha() {
+        falhasSeguidas++;
+        if (estado == Estado.MEIO_ABERTO || falhasSeguidas >= limiarFalhas) {
+            estado = Estado.ABERTO;
+            abertoEm = relogio.getAsLong();
+            testeEmAndamento = false;
+        }
+    }
+    
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+    
+    public synchronized long getRejeitadas() {
+        return rejeitadas;
+    }
+}
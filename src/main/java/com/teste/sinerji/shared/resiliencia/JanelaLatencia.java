@@ -0,0 +1,50 @@
+package com.teste.sinerji.shared.resiliencia;
+
+import java.util.Arrays;
+
+/**
+ * Janela circular com as latências mais recentes, para cálculo de percentis.
+ * 
+ * @author Teste Sinerji
+ */
+public class JanelaLatencia {
+    
+    private final long[] amostras;
+    private int proxima;
+    private int quantidade;
+    
+    public JanelaLatencia(int tamanho) {
+        this.amostras = new long[tamanho];
+    }
+    
+    public synchronized void registrar(long nanos) {
+        amostras[proxima] = nanos;
+        proxima = (proxima + 1) % amostras.length;
+        if (quantidade < amostras.length) {
+            quantidade++;
+        }
+    }
+    
+    /**
+     * Calcula um percentil das amostras da janela.
+     * 
+     * @param percentil Valor entre 0 e 1 (ex.: 0.95)
+     * @return A latência em nanossegundos, ou -1 se não houver amostras
+     */
+    public long percentil(double percentil) {
+        long[] copia;
+        synchronized (this) {
+            if (quantidade == 0) {
+                return -1;
+            }
+            copia = Arrays.copyOf(amostras, quantidade);
+        }
+        Arrays.sort(copia);
+        int indice = (int) Math.ceil(percentil * copia.length) - 1;
+        return copia[Math.max(0, Math.min(indice, copia.length - 1))];
+    }
+    
+    public synchronized int getQuantidade() {
+        return quantidade;
+    }
+}
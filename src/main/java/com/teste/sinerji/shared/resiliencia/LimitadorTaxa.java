@@ -0,0 +1,63 @@
+package com.teste.sinerji.shared.resiliencia;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limitador de taxa por balde de fichas (token bucket).
+ * O balde comporta até {@code capacidade} fichas e é reabastecido continuamente
+ * a {@code fichasPorSegundo}; cada chamada consome uma ficha e nunca espera.
+ * 
+ * @author Teste Sinerji
+ */
+public class LimitadorTaxa {
+    
+    private final double capacidade;
+    private final double fichasPorNano;
+    private final LongSupplier relogio;
+    
+    private double fichas;
+    private long ultimaRecarga;
+    private long rejeitadas;
+    
+    public LimitadorTaxa(double fichasPorSegundo, int capacidade) {
+        this(fichasPorSegundo, capacidade, System::nanoTime);
+    }
+    
+    public LimitadorTaxa(double fichasPorSegundo, int capacidade, LongSupplier relogio) {
+        this.capacidade = capacidade;
+        this.fichasPorNano = fichasPorSegundo / TimeUnit.SECONDS.toNanos(1);
+        this.relogio = relogio;
+        this.fichas = capacidade;
+        this.ultimaRecarga = relogio.getAsLong();
+    }
+    
+    /**
+     * Tenta consumir uma ficha.
+     * 
+     * @return true se havia ficha disponível
+     */
+    public synchronized boolean tentarAdquirir() {
+        long agora = relogio.getAsLong();
+        fichas = Math.min(capacidade, fichas + (agora - ultimaRecarga) * fichasPorNano);
+        ultimaRecarga = agora;
+        if (fichas >= 1) {
+            fichas -= 1;
+            return true;
+        }
+        rejeitadas++;
+        return false;
+    }
+    
+    /**
+     * Devolve a ficha de uma chamada recusada depois por outro motivo, que não chegou
+     * a ser feita.
+     */
+    public synchronized void devolver() {
+        fichas = Math.min(capacidade, fichas + 1);
+    }
+    
+    public synchronized long getRejeitadas() {
+        return rejeitadas;
+    }
+}
@@ -8,14 +8,25 @@ import jakarta.servlet.annotation.WebFilter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 
 /**
  * Filtro para controlar acesso a páginas protegidas.
  * Redireciona para a página de login se o usuário não estiver autenticado.
+ * 
+ * As métricas ({@value #CAMINHO_METRICAS}) exigem um administrador logado ou, para o
+ * coletor, o cabeçalho {@code Authorization: Bearer <token>} com o token da propriedade
+ * de sistema {@value #PROPRIEDADE_TOKEN_METRICAS}; sem ela, só o administrador tem acesso.
+ * Nelas o acesso negado responde 401, em vez de redirecionar para o login.
  */
-@WebFilter(urlPatterns = {"*.xhtml"})
+@WebFilter(urlPatterns = {"*.xhtml", AuthFilter.CAMINHO_METRICAS})
 public class AuthFilter implements Filter {
 
+    static final String CAMINHO_METRICAS = "/metricas";
+    
+    static final String PROPRIEDADE_TOKEN_METRICAS = "cadastro.metricas.token";
+
     @Inject
     private LoginBean loginBean;
 
@@ -33,6 +44,16 @@ public class AuthFilter implements Filter {
         
         String requestPath = getRequestPath(httpRequest);
         
+        if (requestPath.equals(CAMINHO_METRICAS)) {
+            if ((loginBean.isLoggedIn() && loginBean.isAdmin()) || isTokenMetricasValido(httpRequest)) {
+                chain.doFilter(request, response);
+            } else {
+                httpResponse.setHeader("WWW-Authenticate", "Bearer");
+                httpResponse.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            }
+            return;
+        }
+        
         if (isPublicResource(requestPath) || loginBean.isLoggedIn()) {
             // Se for recurso público ou usuário autenticado, continua a requisição
             chain.doFilter(request, response);
@@ -65,6 +86,23 @@ public class AuthFilter implements Filter {
         return isLoginPage || isResourceRequest;
     }
     
+    /**
+     * Verifica se a requisição traz o token do coletor de métricas, comparado em tempo
+     * constante.
+     * 
+     * @param request A requisição HTTP
+     * @return true se o token estiver configurado e for o informado
+     */
+    private boolean isTokenMetricasValido(HttpServletRequest request) {
+        String token = System.getProperty(PROPRIEDADE_TOKEN_METRICAS);
+        String autorizacao = request.getHeader("Authorization");
+        if (token == null || token.isBlank() || autorizacao == null || !autorizacao.startsWith("Bearer ")) {
+            return false;
+        }
+        return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                autorizacao.substring("Bearer ".length()).trim().getBytes(StandardCharsets.UTF_8));
+    }
+    
     /**
      * Redireciona para a página de login
      * 
@@ -0,0 +1,114 @@
+package com.teste.sinerji.shared.util;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de valores {@code long} com endereçamento aberto, sem boxing.
+ * Ocupa cerca de 16 bytes por elemento, contra algo em torno de 50 bytes de um
+ * {@code HashSet<Long>}, o que permite manter milhões de CPFs em memória.
+ * Não é thread-safe.
+ * 
+ * @author Teste Sinerji
+ */
+public class LongHashSet {
+    
+    private static final long VAZIO = Long.MIN_VALUE;
+    
+    private long[] tabela;
+    private int tamanho;
+    private boolean contemVazio;
+    
+    public LongHashSet() {
+        this(1024);
+    }
+    
+    public LongHashSet(int capacidadeEsperada) {
+        int capacidade = Integer.highestOneBit(Math.max(4, capacidadeEsperada * 2 - 1)) << 1;
+        tabela = novaTabela(capacidade);
+    }
+    
+    /**
+     * Adiciona um valor ao conjunto.
+     * 
+     * @param valor O valor
+     * @return true se o valor não existia no conjunto
+     */
+    public boolean add(long valor) {
+        if (valor == VAZIO) {
+            boolean novo = !contemVazio;
+            contemVazio = true;
+            if (novo) {
+                tamanho++;
+            }
+            return novo;
+        }
+        
+        if ((tamanho + 1) * 2 > tabela.length) {
+            redimensionar();
+        }
+        
+        int mascara = tabela.length - 1;
+        int i = espalhar(valor) & mascara;
+        while (tabela[i] != VAZIO) {
+            if (tabela[i] == valor) {
+                return false;
+            }
+            i = (i + 1) & mascara;
+        }
+        tabela[i] = valor;
+        tamanho++;
+        return true;
+    }
+    
+    /**
+     * Verifica se o valor pertence ao conjunto.
+     * 
+     * @param valor O valor
+     * @return true se o valor estiver no conjunto
+     */
+    public boolean contains(long valor) {
+        if (valor == VAZIO) {
+            return contemVazio;
+        }
+        
+        int mascara = tabela.length - 1;
+        int i = espalhar(valor) & mascara;
+        while (tabela[i] != VAZIO) {
+            if (tabela[i] == valor) {
+                return true;
+            }
+            i = (i + 1) & mascara;
+        }
+        return false;
+    }
+    
+    public int size() {
+        return tamanho;
+    }
+    
+    private void redimensionar() {
+        long[] antiga = tabela;
+        tabela = novaTabela(antiga.length << 1);
+        int mascara = tabela.length - 1;
+        for (long valor : antiga) {
+            if (valor != VAZIO) {
+                int i = espalhar(valor) & mascara;
+                while (tabela[i] != VAZIO) {
+                    i = (i + 1) & mascara;
+                }
+                tabela[i] = valor;
+            }
+        }
+    }
+    
+    private static long[] novaTabela(int capacidade) {
+        long[] nova = new long[capacidade];
+        Arrays.fill(nova, VAZIO);
+        return nova;
+    }
+    
+    private static int espalhar(long valor) {
+        long h = valor * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,36 @@
+package com.teste.sinerji.shared.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalização de texto para as colunas de busca ({@code nome_busca}, {@code cidade_busca}):
+ * sem acentos, em minúsculas e com os espaços em branco reduzidos a um único espaço.
+ * O mesmo método normaliza o valor gravado e o termo pesquisado, de modo que
+ * "Sao  paulo" encontra "São Paulo".
+ *
+ * @author Teste Sinerji
+ */
+public final class TextoBusca {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    private TextoBusca() {
+    }
+
+    /**
+     * Normaliza um texto para busca.
+     *
+     * @param texto O texto original (pode ser nulo)
+     * @return O texto normalizado, ou nulo se o texto for nulo
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String semAcentos = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACOS.matcher(semAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,65 @@
+-- Esquema inicial, equivalente ao que o Hibernate gerava com hbm2ddl.
+-- IF NOT EXISTS adota as tabelas deixadas por uma execução anterior com hbm2ddl; as
+-- sequences são então adiantadas para depois dos IDs já gravados.
+
+-- Ordenação alfabética em português para a coluna pessoa.nome (requer PostgreSQL com ICU)
+CREATE COLLATION IF NOT EXISTS pt_br (provider = icu, locale = 'pt-BR');
+
+-- Incremento igual ao allocationSize das entidades (otimizador pooled do Hibernate)
+CREATE SEQUENCE IF NOT EXISTS pessoa_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS endereco_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS pessoa (
+    id bigint NOT NULL,
+    nome varchar(150) COLLATE pt_br NOT NULL,
+    cpf varchar(14) NOT NULL,
+    idade date,
+    sexo varchar(2) NOT NULL,
+    CONSTRAINT pessoa_pkey PRIMARY KEY (id),
+    CONSTRAINT pessoa_cpf_key UNIQUE (cpf)
+);
+
+-- Tabelas adotadas do hbm2ddl têm nome com a ordenação padrão do banco
+ALTER TABLE pessoa ALTER COLUMN nome TYPE varchar(150) COLLATE pt_br;
+
+CREATE TABLE IF NOT EXISTS endereco (
+    id bigint NOT NULL,
+    estado varchar(2) NOT NULL,
+    cidade varchar(100) NOT NULL,
+    logradouro varchar(100) NOT NULL,
+    numero integer,
+    cep varchar(9) NOT NULL,
+    id_pessoa bigint NOT NULL,
+    CONSTRAINT endereco_pkey PRIMARY KEY (id),
+    CONSTRAINT endereco_pessoa_fkey FOREIGN KEY (id_pessoa) REFERENCES pessoa (id)
+);
+
+-- Tabelas adotadas já têm linhas, com IDs da antiga coluna IDENTITY. O otimizador pooled
+-- usa os 50 IDs que terminam no valor lido da sequence, por isso o próximo valor fica
+-- pelo menos 50 acima do maior ID; uma sequence adotada que já esteja adiante não recua.
+SELECT setval('pessoa_seq', GREATEST(
+    (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM pessoa_seq),
+    (SELECT COALESCE(max(id), 0) + 50 FROM pessoa)), false);
+SELECT setval('endereco_seq', GREATEST(
+    (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM endereco_seq),
+    (SELECT COALESCE(max(id), 0) + 50 FROM endereco)), false);
+
+CREATE TABLE IF NOT EXISTS cep_cache (
+    cep varchar(8) NOT NULL,
+    logradouro varchar(200),
+    bairro varchar(100),
+    cidade varchar(100),
+    estado varchar(2),
+    nao_encontrado boolean NOT NULL,
+    atualizado_em timestamp(6) NOT NULL,
+    expira_em timestamp(6) NOT NULL,
+    acessos bigint NOT NULL,
+    CONSTRAINT cep_cache_pkey PRIMARY KEY (cep)
+);
+
+CREATE TABLE IF NOT EXISTS pessoa_estatisticas (
+    chave varchar(16) NOT NULL,
+    faixa integer NOT NULL,
+    valor bigint NOT NULL,
+    CONSTRAINT pessoa_estatisticas_pkey PRIMARY KEY (chave, faixa)
+);
@@ -0,0 +1,32 @@
+-- Índices dos caminhos de acesso mais usados.
+--
+-- CONCURRENTLY constrói o índice sem bloquear gravações na tabela, mas não roda em
+-- transação: o Flyway executa este script fora de transação, por isso ele contém
+-- apenas comandos CONCURRENTLY. Se uma construção for interrompida, o índice fica
+-- INVALID e o IF NOT EXISTS não o refaz; remova-o com DROP INDEX CONCURRENTLY e
+-- repare a migração (flyway repair) antes de reiniciar.
+
+-- Chave estrangeira: endereços de uma pessoa, endereço principal (MIN(id)) e
+-- leitura ordenada por (id_pessoa, id) na carga do índice em memória
+CREATE INDEX CONCURRENTLY IF NOT EXISTS endereco_id_pessoa_idx ON endereco (id_pessoa, id);
+
+-- Filtros por UF e por UF + cidade
+CREATE INDEX CONCURRENTLY IF NOT EXISTS endereco_estado_cidade_idx ON endereco (estado, cidade);
+
+-- Prefixo de cidade sem diferenciar maiúsculas: lower(cidade) LIKE 'x%'
+CREATE INDEX CONCURRENTLY IF NOT EXISTS endereco_cidade_lower_idx ON endereco (lower(cidade) text_pattern_ops);
+
+-- ORDER BY nome, id e paginação por cursor, na ordenação pt_br da coluna
+CREATE INDEX CONCURRENTLY IF NOT EXISTS pessoa_nome_id_idx ON pessoa (nome, id);
+
+-- Prefixo de nome sem diferenciar maiúsculas: lower(nome) LIKE 'x%'
+CREATE INDEX CONCURRENTLY IF NOT EXISTS pessoa_nome_lower_idx ON pessoa (lower(nome) text_pattern_ops);
+
+-- Prefixo de CPF: a restrição única usa a ordenação da coluna, que não atende LIKE 'x%'
+CREATE INDEX CONCURRENTLY IF NOT EXISTS pessoa_cpf_prefixo_idx ON pessoa (cpf varchar_pattern_ops);
+
+-- Filtro por faixa de idade (coluna idade guarda a data de nascimento)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS pessoa_idade_idx ON pessoa (idade);
+
+-- Pré-carga das entradas válidas e remoção das expiradas do cache de CEPs
+CREATE INDEX CONCURRENTLY IF NOT EXISTS cep_cache_expira_em_idx ON cep_cache (expira_em);
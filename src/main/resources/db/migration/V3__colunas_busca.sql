@@ -0,0 +1,6 @@
+-- Colunas de busca normalizadas (sem acentos, minúsculas, espaços reduzidos), calculadas
+-- pela aplicação a cada gravação (Pessoa.atualizarBusca, Endereco.atualizarBusca).
+-- Ficam nulas nas linhas existentes até o PreenchimentoColunasBusca preenchê-las.
+
+ALTER TABLE pessoa ADD COLUMN IF NOT EXISTS nome_busca varchar(150);
+ALTER TABLE endereco ADD COLUMN IF NOT EXISTS cidade_busca varchar(100);
@@ -0,0 +1,13 @@
+-- Índices das colunas de busca. Executado fora de transação, como o V2.
+--
+-- varchar_pattern_ops atende os prefixos (LIKE 'x%') dos filtros independentemente
+-- da ordenação do banco. Os índices sobre lower(nome) e lower(cidade) deixam de ser
+-- usados pelas consultas e são removidos para não pesar nas gravações.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS pessoa_nome_busca_idx ON pessoa (nome_busca varchar_pattern_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS endereco_cidade_busca_idx ON endereco (cidade_busca varchar_pattern_ops);
+
+DROP INDEX CONCURRENTLY IF EXISTS pessoa_nome_lower_idx;
+
+DROP INDEX CONCURRENTLY IF EXISTS endereco_cidade_lower_idx;
@@ -0,0 +1,62 @@
+-- Busca textual (PessoaRepository.buscarPorTexto): um tsvector por pessoa com o nome
+-- (peso A) e o logradouro e a cidade de todos os endereços (peso B).
+-- O vetor é mantido por gatilhos: recalculado ao inserir a pessoa, ao mudar o nome e
+-- a cada endereço inserido, alterado ou removido.
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- Configuração em português que também remove acentos ("Sao Jose" encontra "São José")
+CREATE TEXT SEARCH CONFIGURATION portugues_sem_acento (COPY = pg_catalog.portuguese);
+ALTER TEXT SEARCH CONFIGURATION portugues_sem_acento
+    ALTER MAPPING FOR hword, hword_part, word WITH unaccent, portuguese_stem;
+
+ALTER TABLE pessoa ADD COLUMN busca_texto tsvector;
+
+CREATE FUNCTION pessoa_busca_texto(p_id bigint, p_nome text) RETURNS tsvector
+LANGUAGE sql STABLE AS $$
+    SELECT setweight(to_tsvector('portugues_sem_acento', coalesce(p_nome, '')), 'A')
+        || setweight(to_tsvector('portugues_sem_acento', coalesce(
+               (SELECT string_agg(e.logradouro || ' ' || e.cidade, ' ') FROM endereco e WHERE e.id_pessoa = p_id),
+               '')), 'B')
+$$;
+
+CREATE FUNCTION pessoa_busca_texto_gatilho() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.busca_texto := pessoa_busca_texto(NEW.id, NEW.nome);
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER pessoa_busca_texto_inserir
+    BEFORE INSERT ON pessoa
+    FOR EACH ROW EXECUTE FUNCTION pessoa_busca_texto_gatilho();
+
+-- O Hibernate grava todas as colunas em cada UPDATE; o WHEN ignora os que não mudam o nome
+CREATE TRIGGER pessoa_busca_texto_atualizar
+    BEFORE UPDATE OF nome ON pessoa
+    FOR EACH ROW WHEN (OLD.nome IS DISTINCT FROM NEW.nome)
+    EXECUTE FUNCTION pessoa_busca_texto_gatilho();
+
+CREATE FUNCTION endereco_busca_texto_gatilho() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'UPDATE'
+            AND (OLD.logradouro, OLD.cidade, OLD.id_pessoa) IS NOT DISTINCT FROM (NEW.logradouro, NEW.cidade, NEW.id_pessoa) THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP <> 'INSERT' THEN
+        UPDATE pessoa SET busca_texto = pessoa_busca_texto(id, nome) WHERE id = OLD.id_pessoa;
+    END IF;
+    IF TG_OP = 'INSERT' OR (TG_OP = 'UPDATE' AND NEW.id_pessoa <> OLD.id_pessoa) THEN
+        UPDATE pessoa SET busca_texto = pessoa_busca_texto(id, nome) WHERE id = NEW.id_pessoa;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER endereco_busca_texto
+    AFTER INSERT OR DELETE OR UPDATE OF logradouro, cidade, id_pessoa ON endereco
+    FOR EACH ROW EXECUTE FUNCTION endereco_busca_texto_gatilho();
+
+UPDATE pessoa SET busca_texto = pessoa_busca_texto(id, nome);
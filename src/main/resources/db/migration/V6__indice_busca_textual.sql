@@ -0,0 +1,3 @@
+-- Índice GIN do vetor de busca textual. Executado fora de transação, como o V2.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS pessoa_busca_texto_idx ON pessoa USING gin (busca_texto);
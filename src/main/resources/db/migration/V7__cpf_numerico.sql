@@ -0,0 +1,7 @@
+-- CPF gravado como número (os 11 dígitos, sem formatação): 8 bytes em vez de até 15,
+-- comparação numérica no índice único e prefixos de CPF atendidos como intervalos.
+-- A conversão reescreve a tabela; em bases grandes, aplicar em janela de manutenção.
+
+DROP INDEX IF EXISTS pessoa_cpf_prefixo_idx;
+
+ALTER TABLE pessoa ALTER COLUMN cpf TYPE bigint USING regexp_replace(cpf, '\D', '', 'g')::bigint;
@@ -0,0 +1,48 @@
+-- Vetor de busca textual recalculado por comando, e não por endereço: o gatilho do V5
+-- (FOR EACH ROW) fazia um UPDATE pessoa e um string_agg para cada endereço gravado, de modo
+-- que um INSERT de várias linhas (lotes do Hibernate reescritos pelo driver com
+-- reWriteBatchedInserts) recalculava a mesma pessoa uma vez por endereço. Com as tabelas de
+-- transição, cada pessoa afetada pelo comando é recalculada uma única vez.
+--
+-- O PostgreSQL não aceita tabelas de transição em gatilhos de mais de um evento nem com
+-- lista de colunas: há um gatilho por evento (INSERT com NEW TABLE, UPDATE com OLD e NEW,
+-- DELETE com OLD), e no UPDATE a função compara as linhas antigas e novas.
+
+DROP TRIGGER endereco_busca_texto ON endereco;
+DROP FUNCTION endereco_busca_texto_gatilho();
+
+CREATE FUNCTION endereco_busca_texto_comando() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE pessoa SET busca_texto = pessoa_busca_texto(id, nome)
+        WHERE id IN (SELECT id_pessoa FROM novos);
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE pessoa SET busca_texto = pessoa_busca_texto(id, nome)
+        WHERE id IN (SELECT id_pessoa FROM antigos);
+    ELSE
+        -- O Hibernate grava todas as colunas: só contam os endereços que mudaram o texto ou a pessoa
+        UPDATE pessoa SET busca_texto = pessoa_busca_texto(id, nome)
+        WHERE id IN (
+            SELECT unnest(ARRAY[a.id_pessoa, n.id_pessoa])
+            FROM antigos a JOIN novos n ON n.id = a.id
+            WHERE (a.logradouro, a.cidade, a.id_pessoa) IS DISTINCT FROM (n.logradouro, n.cidade, n.id_pessoa));
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER endereco_busca_texto_inserir
+    AFTER INSERT ON endereco
+    REFERENCING NEW TABLE AS novos
+    FOR EACH STATEMENT EXECUTE FUNCTION endereco_busca_texto_comando();
+
+CREATE TRIGGER endereco_busca_texto_atualizar
+    AFTER UPDATE ON endereco
+    REFERENCING OLD TABLE AS antigos NEW TABLE AS novos
+    FOR EACH STATEMENT EXECUTE FUNCTION endereco_busca_texto_comando();
+
+CREATE TRIGGER endereco_busca_texto_remover
+    AFTER DELETE ON endereco
+    REFERENCING OLD TABLE AS antigos
+    FOR EACH STATEMENT EXECUTE FUNCTION endereco_busca_texto_comando();
@@ -0,0 +1,216 @@
+package com.teste.sinerji.application.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.teste.sinerji.application.dto.ResultadoConsultaCepsDTO;
+import com.teste.sinerji.application.dto.ViaCepDTO;
+import com.teste.sinerji.infrastructure.cache.CepCache;
+import com.teste.sinerji.infrastructure.cache.CepCachePersistente;
+import com.teste.sinerji.infrastructure.cep.BaseCepLocal;
+import com.teste.sinerji.infrastructure.http.ViaCepClient;
+import com.teste.sinerji.shared.exception.ConsultaRecusadaException;
+
+/**
+ * Testes unitários para o CepService.
+ * Foco na consulta em lote: deduplicação, cache, limite de paralelismo e término garantido.
+ */
+@ExtendWith(MockitoExtension.class)
+class CepServiceTest {
+
+    @Spy
+    private CepCache cepCache = new CepCache();
+
+    @Mock
+    private CepCachePersistente cepCachePersistente;
+
+    @Mock
+    private BaseCepLocal baseCepLocal;
+
+    @Mock
+    private ViaCepClient viaCepClient;
+
+    @Mock
+    private ManagedExecutorService executor;
+
+    @InjectMocks
+    private CepService cepService;
+
+    private final ScheduledExecutorService agendador = Executors.newScheduledThreadPool(4);
+
+    @BeforeEach
+    void setUp() {
+        // Como o executor gerenciado: roda em outra thread
+        lenient().doAnswer(inv -> {
+            agendador.execute(inv.getArgument(0));
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        agendador.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deve normalizar, deduplicar e separar endereços de erros")
+    void deveDeduplicarESepararErros() {
+        cepCache.armazenar("01001000", dto("01001-000", false));
+        when(viaCepClient.consultar("01310100")).thenReturn(CompletableFuture.completedFuture(dto("01310-100", false)));
+        when(viaCepClient.consultar("99999999")).thenReturn(CompletableFuture.completedFuture(dto(null, true)));
+
+        ResultadoConsultaCepsDTO resultado = cepService.consultarCeps(
+                Arrays.asList("01001-000", "01001000", "01310-100", "01310100", "99999-999", "123"));
+
+        assertEquals(2, resultado.getEnderecos().size());
+        assertEquals("01310-100", resultado.getEnderecos().get("01310100").getCep());
+        assertEquals("CEP não encontrado", resultado.getErros().get("99999999"));
+        assertEquals("CEP deve conter 8 dígitos", resultado.getErros().get("123"));
+        verify(viaCepClient, never()).consultar("01001000");
+        verify(viaCepClient, times(1)).consultar("01310100");
+        verify(cepCachePersistente).enfileirar(eq("01310100"), any(ViaCepDTO.class));
+    }
+
+    @Test
+    @DisplayName("Não deve ultrapassar o paralelismo informado")
+    void deveRespeitarParalelismo() {
+        AtomicInteger emAndamento = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        when(viaCepClient.consultar(anyString())).thenAnswer(invocacao -> {
+            String cep = invocacao.getArgument(0);
+            maximo.accumulateAndGet(emAndamento.incrementAndGet(), Math::max);
+            CompletableFuture<ViaCepDTO> futuro = new CompletableFuture<>();
+            agendador.schedule(() -> {
+                emAndamento.decrementAndGet();
+                futuro.complete(dto(cep, false));
+            }, 20, TimeUnit.MILLISECONDS);
+            return futuro;
+        });
+        List<String> ceps = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ceps.add(String.format("%08d", 10_000_000 + i));
+        }
+
+        ResultadoConsultaCepsDTO resultado = cepService.consultarCeps(ceps, 3);
+
+        assertEquals(40, resultado.getEnderecos().size());
+        assertTrue(resultado.getErros().isEmpty());
+        assertTrue(maximo.get() <= 3, "Máximo em andamento: " + maximo.get());
+    }
+
+    @Test
+    @DisplayName("Deve repetir consultas recusadas temporariamente")
+    void deveRepetirConsultasRecusadas() {
+        when(viaCepClient.consultar("01001000"))
+                .thenReturn(CompletableFuture.failedFuture(new ConsultaRecusadaException("limite")))
+                .thenReturn(CompletableFuture.completedFuture(dto("01001-000", false)));
+
+        ResultadoConsultaCepsDTO resultado = cepService.consultarCeps(Arrays.asList("01001-000"));
+
+        assertEquals("01001-000", resultado.getEnderecos().get("01001000").getCep());
+        verify(viaCepClient, times(2)).consultar("01001000");
+        // Duas leituras do cache persistente e a espera da nova tentativa, todas no executor gerenciado
+        verify(executor, times(3)).execute(any(Runnable.class));
+    }
+
+    @Test
+    @DisplayName("Deve registrar erro sem mensagem e liberar a vaga da consulta")
+    void deveRegistrarErroSemMensagem() {
+        when(viaCepClient.consultar(anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new NullPointerException()));
+
+        ResultadoConsultaCepsDTO resultado = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> cepService.consultarCeps(Arrays.asList("01001-000", "01310-100"), 1));
+
+        assertEquals(NullPointerException.class.getName(), resultado.getErros().get("01001000"));
+        assertEquals(NullPointerException.class.getName(), resultado.getErros().get("01310100"));
+    }
+
+    @Test
+    @DisplayName("Deve registrar erro e liberar a vaga quando o executor recusar a nova tentativa")
+    void deveTerminarQuandoExecutorRecusarNovaTentativa() {
+        AtomicInteger execucoes = new AtomicInteger();
+        doAnswer(inv -> {
+            // A primeira é a leitura do cache persistente; a segunda, a nova tentativa
+            if (execucoes.incrementAndGet() > 1) {
+                throw new RejectedExecutionException("executor encerrado");
+            }
+            agendador.execute(inv.getArgument(0));
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+        when(viaCepClient.consultar("01001000"))
+                .thenReturn(CompletableFuture.failedFuture(new ConsultaRecusadaException("limite")));
+
+        ResultadoConsultaCepsDTO resultado = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> cepService.consultarCeps(Arrays.asList("01001-000"), 1));
+
+        assertEquals("executor encerrado", resultado.getErros().get("01001000"));
+        verify(viaCepClient, times(1)).consultar("01001000");
+    }
+
+    @Test
+    @DisplayName("Deve limitar a espera do lote e registrar como erro os CEPs sem resposta")
+    void deveLimitarEsperaDoLote() {
+        cepService.setEsperaLoteMillis(200);
+        when(viaCepClient.consultar("01001000")).thenReturn(new CompletableFuture<>());
+
+        ResultadoConsultaCepsDTO resultado = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> cepService.consultarCeps(Arrays.asList("01001-000", "01310-100", "20040-002"), 1));
+
+        assertEquals("Tempo esgotado ao consultar CEP", resultado.getErros().get("01001000"));
+        assertEquals("Tempo esgotado ao consultar CEP", resultado.getErros().get("01310100"));
+        assertEquals("Tempo esgotado ao consultar CEP", resultado.getErros().get("20040002"));
+        verify(viaCepClient, never()).consultar("01310100");
+    }
+
+    @Test
+    @DisplayName("Não deve bloquear a thread chamadora na leitura do cache persistente")
+    void naoDeveBloquearNaLeituraDoCachePersistente() throws Exception {
+        CountDownLatch liberarBanco = new CountDownLatch(1);
+        when(cepCachePersistente.buscar("01001000")).thenAnswer(invocacao -> {
+            liberarBanco.await(5, TimeUnit.SECONDS);
+            return dto("01001-000", false);
+        });
+
+        CompletableFuture<ViaCepDTO> futuro = cepService.consultarCepAsync("01001-000");
+
+        assertFalse(futuro.isDone());
+        liberarBanco.countDown();
+        assertEquals("01001-000", futuro.get(5, TimeUnit.SECONDS).getCep());
+        verifyNoInteractions(viaCepClient);
+    }
+
+    private ViaCepDTO dto(String cep, boolean erro) {
+        ViaCepDTO dto = new ViaCepDTO();
+        dto.setCep(cep);
+        dto.setErro(erro);
+        return dto;
+    }
+}
@@ -0,0 +1,76 @@
+package com.teste.sinerji.application.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.teste.sinerji.application.dto.PainelDTO;
+import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.enums.Sexo;
+
+/**
+ * Testes unitários para o DashboardService.
+ * Verifica a montagem do painel a partir dos contadores e o reaproveitamento dentro da validade.
+ */
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    @Mock
+    private EstatisticaService estatisticaService;
+
+    @InjectMocks
+    private DashboardService dashboardService;
+
+    private final AtomicLong relogio = new AtomicLong(1_000_000L);
+
+    @BeforeEach
+    void setUp() {
+        dashboardService.setRelogio(relogio::get);
+        Map<String, Long> valores = new HashMap<>();
+        valores.put(EstatisticaService.PESSOAS, 4L);
+        valores.put(EstatisticaService.chaveSexo(Sexo.M), 3L);
+        valores.put(EstatisticaService.chaveSexo(Sexo.F), 1L);
+        valores.put(EstatisticaService.chaveUf(Estado.PE), 4L);
+        valores.put(EstatisticaService.chaveUf(Estado.SP), 0L);
+        valores.put(EstatisticaService.chaveMes(LocalDate.now().getMonthValue()), 2L);
+        when(estatisticaService.valores()).thenReturn(valores);
+    }
+
+    @Test
+    @DisplayName("Deve montar o painel a partir dos contadores")
+    void deveMontarPainel() {
+        PainelDTO painel = dashboardService.obterPainel();
+
+        assertEquals(4, painel.getTotal());
+        assertEquals(75.0, painel.getPorcentagemHomens(), 0.001);
+        assertEquals(25.0, painel.getPorcentagemMulheres(), 0.001);
+        assertEquals(2, painel.getAniversariantesDoMes());
+        assertEquals(4L, painel.getPessoasPorEstado().get(Estado.PE));
+        assertFalse(painel.getPessoasPorEstado().containsKey(Estado.SP));
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar o painel dentro da validade e recalcular após invalidação")
+    void deveReaproveitarPainelDentroDaValidade() {
+        PainelDTO primeiro = dashboardService.obterPainel();
+        relogio.addAndGet(DashboardService.VALIDADE_MILLIS - 1);
+        assertSame(primeiro, dashboardService.obterPainel());
+        verify(estatisticaService, times(1)).valores();
+
+        dashboardService.invalidar();
+        assertNotSame(primeiro, dashboardService.obterPainel());
+        verify(estatisticaService, times(2)).valores();
+    }
+}
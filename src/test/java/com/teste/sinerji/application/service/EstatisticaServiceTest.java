@@ -0,0 +1,162 @@
+package com.teste.sinerji.application.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.teste.sinerji.domain.entity.Endereco;
+import com.teste.sinerji.domain.entity.Pessoa;
+import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.infrastructure.repository.EnderecoRepository;
+import com.teste.sinerji.infrastructure.repository.EstatisticaRepository;
+import com.teste.sinerji.infrastructure.repository.PessoaRepository;
+
+/**
+ * Testes unitários para o EstatisticaService.
+ * Verifica o cálculo das contribuições, o registro das diferenças e a reconciliação.
+ */
+@ExtendWith(MockitoExtension.class)
+class EstatisticaServiceTest {
+
+    @Mock
+    private EstatisticaRepository estatisticaRepository;
+
+    @Mock
+    private PessoaRepository pessoaRepository;
+
+    @Mock
+    private EnderecoRepository enderecoRepository;
+
+    @InjectMocks
+    private EstatisticaService estatisticaService;
+
+    @Test
+    @DisplayName("Deve contar a pessoa na UF do endereço de menor ID")
+    void deveCalcularContribuicaoPeloEnderecoPrincipal() {
+        Pessoa pessoa = pessoa(Sexo.F, Calendar.MARCH);
+        pessoa.adicionarEndereco(endereco(20L, Estado.SP));
+        pessoa.adicionarEndereco(endereco(10L, Estado.PE));
+
+        Map<String, Long> contribuicao = EstatisticaService.contribuicao(pessoa);
+
+        assertEquals(1L, contribuicao.get(EstatisticaService.PESSOAS));
+        assertEquals(2L, contribuicao.get(EstatisticaService.ENDERECOS));
+        assertEquals(1L, contribuicao.get(EstatisticaService.chaveSexo(Sexo.F)));
+        assertEquals(1L, contribuicao.get(EstatisticaService.chaveMes(3)));
+        assertEquals(1L, contribuicao.get(EstatisticaService.chaveUf(Estado.PE)));
+        assertFalse(contribuicao.containsKey(EstatisticaService.chaveUf(Estado.SP)));
+    }
+
+    @Test
+    @DisplayName("Deve registrar apenas as diferenças, em ordem de chave e na mesma faixa")
+    void deveRegistrarDiferencasEmOrdem() {
+        Pessoa antes = pessoa(Sexo.M, Calendar.JANUARY);
+        antes.adicionarEndereco(endereco(1L, Estado.PE));
+        Pessoa depois = pessoa(Sexo.F, Calendar.JANUARY);
+        depois.adicionarEndereco(endereco(1L, Estado.PE));
+
+        estatisticaService.registrar(EstatisticaService.contribuicao(antes), EstatisticaService.contribuicao(depois));
+
+        ArgumentCaptor<Integer> faixas = ArgumentCaptor.forClass(Integer.class);
+        InOrder ordem = inOrder(estatisticaRepository);
+        ordem.verify(estatisticaRepository).incrementar(eq("sexo:F"), faixas.capture(), eq(1L));
+        ordem.verify(estatisticaRepository).incrementar(eq("sexo:M"), faixas.capture(), eq(-1L));
+        verifyNoMoreInteractions(estatisticaRepository);
+        assertEquals(faixas.getAllValues().get(0), faixas.getAllValues().get(1));
+        assertTrue(faixas.getValue() >= 0 && faixas.getValue() < EstatisticaService.FAIXAS);
+    }
+
+    @Test
+    @DisplayName("Deve reconciliar todos os contadores, zerando os ausentes das agregações")
+    void deveReconciliarContadores() {
+        when(estatisticaRepository.travarReconciliacao()).thenReturn(true);
+        when(pessoaRepository.contarTodas()).thenReturn(3L);
+        when(enderecoRepository.contarTodos()).thenReturn(5L);
+        when(pessoaRepository.contarPorSexo()).thenReturn(Collections.singletonList(new Object[] {Sexo.M, 3L}));
+        when(pessoaRepository.contarPorEstadoDoEnderecoPrincipal()).thenReturn(Arrays.asList(
+                new Object[] {Estado.PE, 2L}, new Object[] {Estado.SP, 1L}));
+        when(pessoaRepository.contarPorMesDeNascimento()).thenReturn(Collections.singletonList(new Object[] {7, 3L}));
+
+        estatisticaService.reconciliar();
+
+        int faixas = EstatisticaService.FAIXAS;
+        verify(estatisticaRepository).redefinir(EstatisticaService.PESSOAS, 3L, faixas);
+        verify(estatisticaRepository).redefinir(EstatisticaService.ENDERECOS, 5L, faixas);
+        verify(estatisticaRepository).redefinir("sexo:M", 3L, faixas);
+        verify(estatisticaRepository).redefinir("sexo:F", 0L, faixas);
+        verify(estatisticaRepository).redefinir("uf:PE", 2L, faixas);
+        verify(estatisticaRepository).redefinir("uf:RJ", 0L, faixas);
+        verify(estatisticaRepository).redefinir("mes:7", 3L, faixas);
+        verify(estatisticaRepository, times(2 + Sexo.values().length + Estado.values().length + 12))
+                .redefinir(anyString(), anyLong(), eq(faixas));
+
+        // Todos os contadores travados, em ordem de chave, antes de contar
+        InOrder ordem = inOrder(estatisticaRepository, pessoaRepository);
+        ordem.verify(estatisticaRepository).travarReconciliacao();
+        for (String chave : EstatisticaService.chaves()) {
+            ordem.verify(estatisticaRepository).travar(chave);
+        }
+        ordem.verify(pessoaRepository).contarTodas();
+        ordem.verify(estatisticaRepository, atLeastOnce()).redefinir(anyString(), anyLong(), eq(faixas));
+    }
+
+    @Test
+    @DisplayName("Não deve reconciliar quando outro nó tiver a trava da reconciliação")
+    void naoDeveReconciliarSemTrava() {
+        when(estatisticaRepository.travarReconciliacao()).thenReturn(false);
+
+        estatisticaService.reconciliar();
+
+        verify(estatisticaRepository, never()).travar(anyString());
+        verify(estatisticaRepository, never()).redefinir(anyString(), anyLong(), anyInt());
+        verifyNoInteractions(pessoaRepository, enderecoRepository);
+    }
+
+    @Test
+    @DisplayName("Deve criar as faixas ausentes na inicialização quando já houver contadores")
+    void deveCriarFaixasNaInicializacao() {
+        when(estatisticaRepository.isVazia()).thenReturn(false);
+
+        estatisticaService.prepararContadores();
+
+        verify(estatisticaRepository).criarFaixas(EstatisticaService.PESSOAS, EstatisticaService.FAIXAS);
+        verify(estatisticaRepository).criarFaixas("uf:PE", EstatisticaService.FAIXAS);
+        verify(estatisticaRepository, times(EstatisticaService.chaves().size()))
+                .criarFaixas(anyString(), eq(EstatisticaService.FAIXAS));
+        verify(estatisticaRepository, never()).redefinir(anyString(), anyLong(), anyInt());
+        verifyNoInteractions(pessoaRepository);
+    }
+
+    private Pessoa pessoa(Sexo sexo, int mes) {
+        Calendar calendario = Calendar.getInstance();
+        calendario.clear();
+        calendario.set(1990, mes, 15);
+        Pessoa pessoa = new Pessoa();
+        pessoa.setId(1L);
+        pessoa.setSexo(sexo);
+        pessoa.setDataNascimento(calendario.getTime());
+        return pessoa;
+    }
+
+    private Endereco endereco(Long id, Estado estado) {
+        Endereco endereco = new Endereco();
+        endereco.setId(id);
+        endereco.setEstado(estado);
+        return endereco;
+    }
+}
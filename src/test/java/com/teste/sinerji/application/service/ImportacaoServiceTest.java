@@ -0,0 +1,247 @@
+package com.teste.sinerji.application.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.ejb.SessionContext;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.teste.sinerji.application.dto.ErroImportacaoDTO;
+import com.teste.sinerji.application.dto.PessoaDTO;
+import com.teste.sinerji.application.dto.ResultadoImportacaoDTO;
+import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.valueobject.Cpf;
+import com.teste.sinerji.shared.exception.BusinessException;
+
+/**
+ * Testes unitários para o ImportacaoService.
+ * Foco nas etapas de validação, deduplicação, gravação em blocos e nova tentativa por linha.
+ */
+@ExtendWith(MockitoExtension.class)
+class ImportacaoServiceTest {
+
+    private static final String CABECALHO = "nome;cpf;dataNascimento;sexo;cep;logradouro;numero;cidade;estado\n";
+
+    @Mock
+    private PessoaService pessoaService;
+
+    @Mock
+    private ManagedExecutorService executor;
+
+    @Mock
+    private SessionContext sessionContext;
+
+    @InjectMocks
+    private ImportacaoService importacaoService;
+
+    @Test
+    @DisplayName("Deve importar linhas válidas e rejeitar inválidas, repetidas e já cadastradas")
+    @SuppressWarnings("unchecked")
+    void deveImportarERejeitarLinhas() throws BusinessException {
+        String csv = CABECALHO
+                + "João Silva;529.982.247-25;01/01/1990;M;50010-030;Rua Frei Vicente;505;Recife;PE\n"
+                + "Maria Souza;11144477735;02/02/1992;f;;;;;\n"
+                + "CPF Inválido;111.111.111-11;03/03/1993;M;;;;;\n"
+                + "João Repetido;52998224725;04/04/1994;M;;;;;\n"
+                + "Ana Cadastrada;347.337.210-21;05/05/1995;F;;;;;\n"
+                + "Data Ruim;333.899.330-77;31-12-1990;F;;;;;\n";
+
+        // Cadastrado (ex.: pela tela) antes de o bloco travar os CPFs: recusado na linha
+        Cpf cadastrado = Cpf.parse("347.337.210-21");
+        when(pessoaService.salvarNovasEmLote(anyList())).thenReturn(Collections.singleton(cadastrado));
+
+        ResultadoImportacaoDTO resultado = importacaoService.importar(entrada(csv), null);
+
+        assertTrue(resultado.isConcluida());
+        assertEquals(6, resultado.getLinhasLidas());
+        assertEquals(2, resultado.getImportadas());
+        assertEquals(4, resultado.getRejeitadas());
+        assertEquals("CPF inválido", mensagemDaLinha(resultado, 4));
+        assertEquals("CPF repetido no arquivo", mensagemDaLinha(resultado, 5));
+        assertEquals("Já existe um usuário cadastrado com esse CPF.", mensagemDaLinha(resultado, 6));
+        assertTrue(mensagemDaLinha(resultado, 7).startsWith("Data de nascimento inválida"));
+
+        ArgumentCaptor<List<PessoaDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(pessoaService).salvarNovasEmLote(captor.capture());
+        PessoaDTO joao = captor.getValue().get(0);
+        assertEquals("529.982.247-25", joao.getCpf().toString());
+        assertEquals(Estado.PE, joao.getEnderecos().get(0).getEstado());
+        assertEquals("111.444.777-35", captor.getValue().get(1).getCpf().toString());
+        assertTrue(captor.getValue().get(1).getEnderecos().isEmpty());
+        assertEquals(cadastrado, captor.getValue().get(2).getCpf());
+    }
+
+    @Test
+    @DisplayName("Deve gravar em blocos e notificar o progresso a cada bloco")
+    void deveGravarEmBlocosENotificarProgresso() throws BusinessException {
+        int total = ImportacaoService.TAMANHO_BLOCO * 2 + 10;
+        StringBuilder csv = new StringBuilder(CABECALHO);
+        for (int i = 0; i < total; i++) {
+            csv.append("Pessoa ").append(i).append(';').append(gerarCpf(200000000 + i)).append(";01/01/1990;M;;;;;\n");
+        }
+        when(pessoaService.salvarNovasEmLote(anyList())).thenReturn(Collections.emptySet());
+
+        List<Long> progresso = new ArrayList<>();
+        ResultadoImportacaoDTO resultado = importacaoService.importar(entrada(csv.toString()),
+                parcial -> progresso.add(parcial.getLinhasLidas()));
+
+        assertEquals(total, resultado.getImportadas());
+        assertEquals(0, resultado.getRejeitadas());
+        verify(pessoaService, times(3)).salvarNovasEmLote(anyList());
+        assertEquals(List.of(1000L, 2000L, (long) total), progresso);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar a linha quando a gravação falhar também linha a linha")
+    void deveRejeitarLinhasQuandoGravacaoFalhar() throws BusinessException {
+        String csv = CABECALHO + "João Silva;529.982.247-25;01/01/1990;M;;;;;\n";
+        when(pessoaService.salvarNovasEmLote(anyList())).thenThrow(new BusinessException("falha"));
+
+        ResultadoImportacaoDTO resultado = importacaoService.importar(entrada(csv), null);
+
+        assertEquals(0, resultado.getImportadas());
+        assertEquals(1, resultado.getRejeitadas());
+        assertEquals("Linha não gravada: falha", mensagemDaLinha(resultado, 2));
+    }
+
+    @Test
+    @DisplayName("Deve gravar linha a linha o bloco que falhou, rejeitando só as linhas ruins")
+    void deveGravarLinhaALinhaQuandoBlocoFalhar() throws BusinessException {
+        String csv = CABECALHO
+                + "João Silva;529.982.247-25;01/01/1990;M;;;;;\n"
+                + "Maria Souza;11144477735;02/02/1992;F;;;;;\n"
+                + "Ana Cadastrada;347.337.210-21;05/05/1995;F;;;;;\n";
+        Cpf cadastrado = Cpf.parse("347.337.210-21");
+        when(pessoaService.salvarNovasEmLote(anyList())).thenAnswer(inv -> {
+            List<PessoaDTO> pessoas = inv.getArgument(0);
+            if (pessoas.size() > 1 || pessoas.get(0).getNome().startsWith("Maria")) {
+                throw new BusinessException("falha");
+            }
+            return cadastrado.equals(pessoas.get(0).getCpf())
+                    ? Collections.singleton(cadastrado) : Collections.emptySet();
+        });
+
+        ResultadoImportacaoDTO resultado = importacaoService.importar(entrada(csv), null);
+
+        assertEquals(1, resultado.getImportadas());
+        assertEquals(2, resultado.getRejeitadas());
+        assertEquals("Linha não gravada: falha", mensagemDaLinha(resultado, 3));
+        assertEquals("Já existe um usuário cadastrado com esse CPF.", mensagemDaLinha(resultado, 4));
+        verify(pessoaService, times(4)).salvarNovasEmLote(anyList());
+    }
+
+    @Test
+    @DisplayName("Deve apontar a linha do arquivo mesmo com linhas em branco e campos em várias linhas")
+    void deveApontarLinhaDoArquivo() throws BusinessException {
+        String csv = CABECALHO
+                + "\n"
+                + "\"Nome em\nduas linhas\";111.111.111-11;01/01/1990;M;;;;;\n"
+                + "\n"
+                + "Data Ruim;333.899.330-77;31-12-1990;F;;;;;";
+
+        ResultadoImportacaoDTO resultado = importacaoService.importar(entrada(csv), null);
+
+        assertEquals(2, resultado.getLinhasLidas());
+        assertEquals("CPF inválido", mensagemDaLinha(resultado, 4));
+        assertTrue(mensagemDaLinha(resultado, 6).startsWith("Data de nascimento inválida"));
+        verifyNoInteractions(pessoaService);
+    }
+
+    @Test
+    @DisplayName("Deve validar o bloco em paralelo nas threads do executor")
+    void deveValidarNoExecutor() throws BusinessException {
+        importacaoService.setParalelismo(4);
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            doAnswer(inv -> {
+                threads.execute(inv.<Runnable>getArgument(0));
+                return null;
+            }).when(executor).execute(any(Runnable.class));
+            StringBuilder csv = new StringBuilder(CABECALHO);
+            for (int i = 0; i < ImportacaoService.TAMANHO_BLOCO; i++) {
+                String cpf = i % 10 == 0 ? "111.111.111-11" : gerarCpf(300000000 + i);
+                csv.append("Pessoa ").append(i).append(';').append(cpf).append(";01/01/1990;M;;;;;\n");
+            }
+            when(pessoaService.salvarNovasEmLote(anyList())).thenReturn(Collections.emptySet());
+
+            ResultadoImportacaoDTO resultado = importacaoService.importar(entrada(csv.toString()), null);
+
+            assertEquals(ImportacaoService.TAMANHO_BLOCO * 9 / 10, resultado.getImportadas());
+            assertEquals(ImportacaoService.TAMANHO_BLOCO / 10, resultado.getRejeitadas());
+            assertEquals("CPF inválido", mensagemDaLinha(resultado, 2 + 990));
+            verify(executor, times(3)).execute(any(Runnable.class));
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve importar em segundo plano a partir do arquivo temporário e apagá-lo ao fim")
+    void deveImportarEmSegundoPlano() throws Exception {
+        Path arquivo = Files.createTempFile("importacao-", ".csv");
+        Files.write(arquivo, (CABECALHO + "João Silva;529.982.247-25;01/01/1990;M;;;;;\n").getBytes(StandardCharsets.UTF_8));
+        when(pessoaService.salvarNovasEmLote(anyList())).thenReturn(Collections.emptySet());
+        when(sessionContext.getBusinessObject(ImportacaoService.class)).thenReturn(importacaoService);
+        doAnswer(inv -> {
+            inv.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+
+        List<ResultadoImportacaoDTO> progresso = new ArrayList<>();
+        ResultadoImportacaoDTO resultado = importacaoService.importarEmSegundoPlano(arquivo, progresso::add)
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, resultado.getImportadas());
+        assertTrue(progresso.get(progresso.size() - 1).isConcluida());
+        assertFalse(Files.exists(arquivo));
+        // A importação passa pelo contêiner, e não por this
+        verify(sessionContext).getBusinessObject(ImportacaoService.class);
+    }
+
+    private ByteArrayInputStream entrada(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String mensagemDaLinha(ResultadoImportacaoDTO resultado, long linha) {
+        return resultado.getErros().stream()
+                .filter(e -> e.getLinha() == linha)
+                .map(ErroImportacaoDTO::getMensagem)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private String gerarCpf(int base) {
+        String digitos = String.format("%09d", base);
+        int d1 = 0, d2 = 0;
+        for (int i = 0; i < 9; i++) {
+            int digito = digitos.charAt(i) - '0';
+            d1 += digito * (10 - i);
+            d2 += digito * (11 - i);
+        }
+        int dv1 = d1 % 11 < 2 ? 0 : 11 - d1 % 11;
+        d2 += dv1 * 2;
+        int dv2 = d2 % 11 < 2 ? 0 : 11 - d2 % 11;
+        return digitos + dv1 + dv2;
+    }
+}
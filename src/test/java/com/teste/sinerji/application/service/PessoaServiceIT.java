@@ -1,14 +1,24 @@
 package com.teste.sinerji.application.service;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.event.Event;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.interceptor.InvocationContext;
 import jakarta.persistence.Persistence;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -16,10 +26,29 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 
+import com.teste.sinerji.application.dto.EnderecoDTO;
 import com.teste.sinerji.application.dto.PessoaDTO;
+import com.teste.sinerji.application.dto.PessoaFiltro;
+import com.teste.sinerji.application.dto.PessoaResumo;
+import com.teste.sinerji.application.dto.ResultadoBuscaDTO;
+import com.teste.sinerji.application.event.PessoaAlterada;
+import com.teste.sinerji.application.mapper.EnderecoMapper;
 import com.teste.sinerji.application.mapper.PessoaMapper;
+import com.teste.sinerji.domain.entity.Endereco;
+import com.teste.sinerji.domain.entity.Pessoa;
+import com.teste.sinerji.domain.enums.Estado;
 import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.domain.valueobject.Cpf;
+import com.teste.sinerji.infrastructure.cache.IndiceCpf;
+import com.teste.sinerji.infrastructure.cache.IndicePessoas;
+import com.teste.sinerji.infrastructure.persistence.RoteadorLeitura;
+import com.teste.sinerji.infrastructure.persistence.SomenteLeituraInterceptor;
+import com.teste.sinerji.infrastructure.persistence.TravasCpf;
+import com.teste.sinerji.infrastructure.repository.EnderecoRepository;
+import com.teste.sinerji.infrastructure.repository.EstatisticaRepository;
 import com.teste.sinerji.infrastructure.repository.PessoaRepository;
 import com.teste.sinerji.shared.exception.BusinessException;
 import com.teste.sinerji.shared.exception.EntityNotFoundException;
@@ -35,6 +64,7 @@ class PessoaServiceIT {
     private PessoaService pessoaService;
     private PessoaRepository pessoaRepository;
     private PessoaMapper pessoaMapper;
+    private EstatisticaService estatisticaService;
 
     @BeforeAll
     static void setUpClass() {
@@ -52,16 +82,70 @@ class PessoaServiceIT {
     void setUp() {
         em = emf.createEntityManager();
         
+        // Réplica desabilitada: a unidade de leitura é o próprio EntityManager do teste
+        RoteadorLeitura roteadorLeitura = new RoteadorLeitura();
         pessoaRepository = new PessoaRepository();
         setEntityManager(pessoaRepository, em);
+        setCampo(pessoaRepository, "replica", em);
+        setCampo(pessoaRepository, "roteadorLeitura", roteadorLeitura);
         
         pessoaMapper = new PessoaMapper();
+        EnderecoMapper enderecoMapper = new EnderecoMapper();
+        setCampo(enderecoMapper, "em", em);
+        setEnderecoMapper(pessoaMapper, enderecoMapper);
         
         pessoaService = new PessoaService();
         setPessoaRepository(pessoaService, pessoaRepository);
         setPessoaMapper(pessoaService, pessoaMapper);
         
+        EnderecoRepository enderecoRepository = new EnderecoRepository();
+        setCampo(enderecoRepository, "em", em);
+        setCampo(enderecoRepository, "replica", em);
+        setCampo(enderecoRepository, "roteadorLeitura", roteadorLeitura);
+        EstatisticaRepository estatisticaRepository = new EstatisticaRepository();
+        setCampo(estatisticaRepository, "em", em);
+        setCampo(estatisticaRepository, "replica", em);
+        setCampo(estatisticaRepository, "roteadorLeitura", roteadorLeitura);
+        estatisticaService = new EstatisticaService();
+        setCampo(estatisticaService, "estatisticaRepository", estatisticaRepository);
+        setCampo(estatisticaService, "pessoaRepository", pessoaRepository);
+        setCampo(estatisticaService, "enderecoRepository", enderecoRepository);
+        setCampo(pessoaService, "estatisticaService", estatisticaService);
+        
+        // As recargas dos índices rodam na própria thread, dentro da transação do teste
+        ManagedExecutorService executor = mock(ManagedExecutorService.class);
+        doAnswer(inv -> {
+            inv.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+        IndicePessoas indicePessoas = new IndicePessoas();
+        setCampo(indicePessoas, "pessoaRepository", pessoaRepository);
+        setCampo(indicePessoas, "executor", executor);
+        setCampo(pessoaService, "indicePessoas", indicePessoas);
+        IndiceCpf indiceCpf = new IndiceCpf();
+        setCampo(indiceCpf, "pessoaRepository", pessoaRepository);
+        setCampo(indiceCpf, "executor", executor);
+        setCampo(pessoaService, "indiceCpf", indiceCpf);
+        // Transação local de cada teste, sem registro JTA: as faixas travadas ficam no próprio teste
+        TransactionSynchronizationRegistry registro = mock(TransactionSynchronizationRegistry.class);
+        when(registro.getResource(any())).thenReturn(new HashSet<>());
+        TravasCpf travasCpf = new TravasCpf();
+        setCampo(travasCpf, "registro", registro);
+        setCampo(travasCpf, "pessoaRepository", pessoaRepository);
+        setCampo(pessoaService, "travasCpf", travasCpf);
+        // Sem contêiner CDI: cada alteração invalida os índices, recarregados na próxima leitura
+        @SuppressWarnings("unchecked")
+        Event<PessoaAlterada> pessoaAlterada = mock(Event.class);
+        doAnswer(inv -> {
+            indicePessoas.invalidar();
+            indiceCpf.invalidar();
+            return null;
+        }).when(pessoaAlterada).fire(any());
+        setCampo(pessoaService, "pessoaAlterada", pessoaAlterada);
+        
         em.getTransaction().begin();
+        // Faixas dos contadores criadas como na inicialização: as gravações só as atualizam
+        estatisticaService.prepararContadores();
     }
 
     @AfterEach
@@ -70,6 +154,12 @@ class PessoaServiceIT {
             em.getTransaction().rollback();
         }
         
+        em.getTransaction().begin();
+        em.createQuery("DELETE FROM Endereco").executeUpdate();
+        em.createQuery("DELETE FROM Pessoa").executeUpdate();
+        em.createQuery("DELETE FROM PessoaEstatistica").executeUpdate();
+        em.getTransaction().commit();
+        
         if (em.isOpen()) {
             em.close();
         }
@@ -83,7 +173,7 @@ class PessoaServiceIT {
     void deveSalvarERecuperarPessoa() throws BusinessException, EntityNotFoundException {
         PessoaDTO pessoaDTO = new PessoaDTO();
         pessoaDTO.setNome("João da Silva");
-        pessoaDTO.setCpf("529.982.247-25"); // CPF válido
+        pessoaDTO.setCpf(Cpf.parse("529.982.247-25")); // CPF válido
         pessoaDTO.setDataNascimento(criarData(1990, 1, 1));
         pessoaDTO.setSexo(Sexo.M);
 
@@ -96,7 +186,7 @@ class PessoaServiceIT {
 
         assertNotNull(pessoaSalva.getId());
         assertEquals("João da Silva", pessoaRecuperada.getNome());
-        assertEquals("529.982.247-25", pessoaRecuperada.getCpf());
+        assertEquals("529.982.247-25", pessoaRecuperada.getCpf().toString());
         assertEquals(criarData(1990, 1, 1), pessoaRecuperada.getDataNascimento());
         assertEquals(Sexo.M, pessoaRecuperada.getSexo());
     }
@@ -107,7 +197,7 @@ class PessoaServiceIT {
         for (int i = 1; i <= 3; i++) {
             PessoaDTO pessoaDTO = new PessoaDTO();
             pessoaDTO.setNome("Pessoa " + i);
-            pessoaDTO.setCpf("52998224" + i + "25"); // CPF válido com variação
+            pessoaDTO.setCpf(gerarCpf(500000000 + i));
             pessoaDTO.setDataNascimento(criarData(1990, i, i));
             pessoaDTO.setSexo(i % 2 == 0 ? Sexo.F : Sexo.M);
             
@@ -126,21 +216,21 @@ class PessoaServiceIT {
     void deveBuscarPessoasPorNome() throws BusinessException {
         PessoaDTO pessoa1 = new PessoaDTO();
         pessoa1.setNome("Maria Oliveira");
-        pessoa1.setCpf("529.982.247-25");
+        pessoa1.setCpf(Cpf.parse("529.982.247-25"));
         pessoa1.setDataNascimento(criarData(1990, 1, 1));
         pessoa1.setSexo(Sexo.F);
         pessoaService.salvar(pessoa1);
         
         PessoaDTO pessoa2 = new PessoaDTO();
         pessoa2.setNome("Maria Silva");
-        pessoa2.setCpf("171.827.200-17");
+        pessoa2.setCpf(Cpf.parse("603.164.820-21"));
         pessoa2.setDataNascimento(criarData(1985, 5, 10));
         pessoa2.setSexo(Sexo.F);
         pessoaService.salvar(pessoa2);
         
         PessoaDTO pessoa3 = new PessoaDTO();
         pessoa3.setNome("Ana Santos");
-        pessoa3.setCpf("070.672.730-86");
+        pessoa3.setCpf(Cpf.parse("070.672.730-48"));
         pessoa3.setDataNascimento(criarData(1995, 8, 15));
         pessoa3.setSexo(Sexo.F);
         pessoaService.salvar(pessoa3);
@@ -158,7 +248,7 @@ class PessoaServiceIT {
     void deveAtualizarPessoaExistente() throws BusinessException, EntityNotFoundException {
         PessoaDTO pessoaDTO = new PessoaDTO();
         pessoaDTO.setNome("João Pereira");
-        pessoaDTO.setCpf("070.672.730-86");
+        pessoaDTO.setCpf(Cpf.parse("070.672.730-48"));
         pessoaDTO.setDataNascimento(criarData(1980, 10, 15));
         pessoaDTO.setSexo(Sexo.M);
         
@@ -170,7 +260,7 @@ class PessoaServiceIT {
         pessoaSalva.setNome("Nome Atualizado");
         pessoaSalva.setDataNascimento(criarData(1990, 2, 2));
 
-        pessoaService.atualizar(pessoaDTO);
+        pessoaService.atualizar(pessoaSalva);
         
         em.getTransaction().commit();
         em.getTransaction().begin();
@@ -179,7 +269,7 @@ class PessoaServiceIT {
 
         assertEquals("Nome Atualizado", pessoaRecuperada.getNome());
         assertEquals(criarData(1990, 2, 2), pessoaRecuperada.getDataNascimento());
-        assertEquals("529.982.247-25", pessoaRecuperada.getCpf());
+        assertEquals("070.672.730-48", pessoaRecuperada.getCpf().toString());
     }
 
     @Test
@@ -187,7 +277,7 @@ class PessoaServiceIT {
     void deveRemoverPessoaExistente() throws BusinessException, EntityNotFoundException {
         PessoaDTO pessoaDTO = new PessoaDTO();
         pessoaDTO.setNome("Pessoa para Remover");
-        pessoaDTO.setCpf("529.982.247-25");
+        pessoaDTO.setCpf(Cpf.parse("529.982.247-25"));
         pessoaDTO.setDataNascimento(criarData(1990, 1, 1));
         pessoaDTO.setSexo(Sexo.M);
         
@@ -211,7 +301,7 @@ class PessoaServiceIT {
     void deveLancarExcecaoAoTentarSalvarPessoaComCpfDuplicado() throws BusinessException {
         PessoaDTO pessoa1 = new PessoaDTO();
         pessoa1.setNome("Pessoa 1");
-        pessoa1.setCpf("529.982.247-25");
+        pessoa1.setCpf(Cpf.parse("529.982.247-25"));
         pessoa1.setDataNascimento(criarData(1990, 1, 1));
         pessoa1.setSexo(Sexo.M);
         
@@ -222,13 +312,476 @@ class PessoaServiceIT {
         
         PessoaDTO pessoa2 = new PessoaDTO();
         pessoa2.setNome("Pessoa 2");
-        pessoa2.setCpf("529.982.247-25"); // Mesmo CPF
+        pessoa2.setCpf(Cpf.parse("529.982.247-25")); // Mesmo CPF
         pessoa2.setDataNascimento(criarData(1995, 5, 5));
         pessoa2.setSexo(Sexo.F);
 
         assertThrows(Exception.class, () -> pessoaService.salvar(pessoa2));
     }
     
+    @Test
+    @DisplayName("Deve paginar por cursor de nome sem repetir nem pular registros")
+    void devePaginarPorCursorDeNome() throws BusinessException {
+        String[] cpfs = {"529.982.247-25", "333.899.330-77", "813.839.480-38", "111.444.777-35", "347.337.210-21"};
+        String[] nomes = {"Carla", "Ana", "Bruno", "Ana", "Daniel"};
+        for (int i = 0; i < cpfs.length; i++) {
+            PessoaDTO dto = new PessoaDTO();
+            dto.setNome(nomes[i]);
+            dto.setCpf(Cpf.parse(cpfs[i]));
+            dto.setDataNascimento(criarData(1990, 1, 1));
+            dto.setSexo(Sexo.F);
+            pessoaService.salvar(dto);
+        }
+        
+        em.getTransaction().commit();
+        em.getTransaction().begin();
+        
+        PessoaFiltro filtro = new PessoaFiltro();
+        List<PessoaResumo> primeira = pessoaService.listarPaginaPorNome(filtro, null, null, 2, true);
+        PessoaResumo ultima = primeira.get(1);
+        List<PessoaResumo> segunda = pessoaService.listarPaginaPorNome(filtro, ultima.getNome(), ultima.getId(), 2, true);
+        
+        assertEquals("Ana", primeira.get(0).getNome());
+        assertEquals("Ana", primeira.get(1).getNome());
+        assertEquals("Bruno", segunda.get(0).getNome());
+        assertEquals("Carla", segunda.get(1).getNome());
+        assertEquals(5, pessoaService.contar(filtro));
+        assertEquals(2, pessoaService.contar(PessoaFiltro.builder().nome("an").build()));
+        assertEquals(1, pessoaService.contar(PessoaFiltro.builder().cpf("333.899").build()));
+    }
+    
+    @Test
+    @DisplayName("Deve combinar filtros de CPF, cidade, UF, sexo e faixa de idade")
+    void deveFiltrarPorCriterios() throws BusinessException {
+        int anoAtual = Calendar.getInstance().get(Calendar.YEAR);
+        PessoaDTO recife = new PessoaDTO();
+        recife.setNome("Ana Recife");
+        recife.setCpf(Cpf.parse("529.982.247-25"));
+        recife.setDataNascimento(criarData(anoAtual - 30, 1, 1));
+        recife.setSexo(Sexo.F);
+        recife.getEnderecos().add(criarEndereco("Rua Um", "Recife"));
+        pessoaService.salvar(recife);
+        
+        PessoaDTO olinda = new PessoaDTO();
+        olinda.setNome("Bruno Olinda");
+        olinda.setCpf(Cpf.parse("33389933077"));
+        olinda.setDataNascimento(criarData(anoAtual - 60, 1, 1));
+        olinda.setSexo(Sexo.M);
+        olinda.getEnderecos().add(criarEndereco("Rua Dois", "Olinda"));
+        olinda.getEnderecos().add(criarEndereco("Rua Três", "Recife"));
+        pessoaService.salvar(olinda);
+        
+        em.getTransaction().commit();
+        em.getTransaction().begin();
+        
+        assertEquals(2, pessoaService.contar(PessoaFiltro.builder().cidade("rec").build()));
+        assertEquals(1, pessoaService.contar(PessoaFiltro.builder().cidade("olin").build()));
+        assertEquals(2, pessoaService.contar(PessoaFiltro.builder().estado(Estado.PE).build()));
+        assertEquals(0, pessoaService.contar(PessoaFiltro.builder().estado(Estado.SP).build()));
+        assertEquals(1, pessoaService.contar(PessoaFiltro.builder().cpf("52998").build()));
+        assertEquals(1, pessoaService.contar(PessoaFiltro.builder().cpf("333.899").build()));
+        assertEquals(1, pessoaService.contar(PessoaFiltro.builder().idadeMinima(18).idadeMaxima(40).build()));
+        assertEquals(1, pessoaService.contar(PessoaFiltro.builder().idadeMinima(60).build()));
+        assertEquals(1, pessoaService.contar(PessoaFiltro.builder().cidade("recife").sexo(Sexo.M).build()));
+        // Mesmos critérios direto no banco, sem o índice em memória
+        assertEquals(2, pessoaRepository.contar(PessoaFiltro.builder().cidade("rec").build()));
+        assertEquals(1, pessoaRepository.contar(PessoaFiltro.builder().idadeMinima(18).idadeMaxima(40).build()));
+        assertEquals(1, pessoaRepository.contar(PessoaFiltro.builder().cidade("recife").sexo(Sexo.M).build()));
+        assertEquals(2, pessoaService.contar(PessoaFiltro.builder().mesNascimento(1).build()));
+        assertEquals(0, pessoaService.contar(PessoaFiltro.builder().mesNascimento(2).build()));
+        assertEquals(2, pessoaRepository.contar(PessoaFiltro.builder().mesNascimento(1).build()));
+        assertEquals(1, pessoaRepository.contar(PessoaFiltro.builder().mesNascimento(1).sexo(Sexo.M).build()));
+        List<PessoaResumo> doMes = pessoaService.listarPagina(
+                PessoaFiltro.builder().nome("ana").mesNascimento(1).build(), 0, 10, "nome", true);
+        assertEquals(1, doMes.size());
+        assertEquals("Ana Recife", doMes.get(0).getNome());
+        
+        List<PessoaResumo> pagina = pessoaService.listarPagina(PessoaFiltro.builder().cidade("Recife").build(),
+                0, 10, "dataNascimento", true);
+        assertEquals("Bruno Olinda", pagina.get(0).getNome());
+        assertEquals(2, pagina.size());
+        // Quantidade de endereços e endereço principal vêm da projeção, sem carregar Endereco
+        assertEquals(2, pagina.get(0).getQuantidadeEnderecos());
+        assertEquals("Olinda", pagina.get(0).getCidade());
+        assertEquals(Estado.PE, pagina.get(0).getEstado());
+        assertEquals(1, pagina.get(1).getQuantidadeEnderecos());
+        assertEquals("Recife", pagina.get(1).getCidade());
+    }
+    
+    @Test
+    @DisplayName("Deve agregar os indicadores do painel no banco")
+    void deveAgregarIndicadoresDoPainel() throws BusinessException {
+        int mesAtual = Calendar.getInstance().get(Calendar.MONTH) + 1;
+        int outroMes = mesAtual % 12 + 1;
+        String[] cpfs = {"529.982.247-25", "333.899.330-77", "813.839.480-38"};
+        Sexo[] sexos = {Sexo.M, Sexo.F, Sexo.M};
+        int[] meses = {mesAtual, outroMes, mesAtual};
+        Estado[] estados = {Estado.PE, Estado.SP, null};
+        for (int i = 0; i < cpfs.length; i++) {
+            PessoaDTO dto = new PessoaDTO();
+            dto.setNome("Pessoa Painel " + i);
+            dto.setCpf(Cpf.parse(cpfs[i]));
+            dto.setDataNascimento(criarData(1990, meses[i], 15));
+            dto.setSexo(sexos[i]);
+            if (estados[i] != null) {
+                EnderecoDTO principal = criarEndereco("Rua Principal", "Cidade");
+                principal.setEstado(estados[i]);
+                dto.getEnderecos().add(principal);
+                dto.getEnderecos().add(criarEndereco("Rua Secundária", "Recife"));
+            }
+            pessoaService.salvar(dto);
+        }
+        em.getTransaction().commit();
+        em.getTransaction().begin();
+        
+        long aniversariantes = pessoaRepository.contarPorMesDeNascimento().stream()
+                .filter(linha -> ((Number) linha[0]).intValue() == mesAtual).mapToLong(linha -> (Long) linha[1]).sum();
+        assertEquals(2, aniversariantes);
+        long homens = pessoaRepository.contarPorSexo().stream()
+                .filter(linha -> linha[0] == Sexo.M).mapToLong(linha -> (Long) linha[1]).sum();
+        assertEquals(2, homens);
+        
+        java.util.Map<Object, Object> porEstado = new java.util.HashMap<>();
+        pessoaRepository.contarPorEstadoDoEnderecoPrincipal().forEach(linha -> porEstado.put(linha[0], linha[1]));
+        assertEquals(1L, porEstado.get(Estado.PE));
+        assertEquals(1L, porEstado.get(Estado.SP));
+        assertEquals(2, porEstado.size());
+        
+        // Com filtro, cada pessoa entra só na UF do endereço principal
+        porEstado.clear();
+        pessoaRepository.contarPorEstadoDoEnderecoPrincipal(PessoaFiltro.builder().nome("Pessoa Painel").estado(Estado.PE).sexo(Sexo.F).build())
+                .forEach(linha -> porEstado.put(linha[0], linha[1]));
+        assertEquals(java.util.Collections.singletonMap(Estado.SP, 1L), porEstado);
+    }
+    
+    @Test
+    @DisplayName("Deve manter os contadores de estatísticas iguais aos da reconciliação")
+    void deveManterEstatisticasIncrementalmente() throws BusinessException, EntityNotFoundException {
+        PessoaDTO primeira = new PessoaDTO();
+        primeira.setNome("Pessoa Estatística 1");
+        primeira.setCpf(Cpf.parse("529.982.247-25"));
+        primeira.setDataNascimento(criarData(1990, 3, 10));
+        primeira.setSexo(Sexo.M);
+        primeira.getEnderecos().add(criarEndereco("Rua A", "Recife"));
+        primeira = pessoaService.salvar(primeira);
+        
+        PessoaDTO segunda = new PessoaDTO();
+        segunda.setNome("Pessoa Estatística 2");
+        segunda.setCpf(Cpf.parse("333.899.330-77"));
+        segunda.setDataNascimento(criarData(1985, 7, 1));
+        segunda.setSexo(Sexo.F);
+        EnderecoDTO enderecoSp = criarEndereco("Rua B", "São Paulo");
+        enderecoSp.setEstado(Estado.SP);
+        segunda.getEnderecos().add(enderecoSp);
+        segunda.getEnderecos().add(criarEndereco("Rua C", "Olinda"));
+        segunda = pessoaService.salvar(segunda);
+        em.getTransaction().commit();
+        em.getTransaction().begin();
+        
+        assertEquals(2, pessoaService.contarTodas());
+        
+        primeira.setSexo(Sexo.F);
+        primeira.setDataNascimento(criarData(1990, 12, 10));
+        primeira.getEnderecos().get(0).setEstado(Estado.BA);
+        primeira.getEnderecos().add(criarEndereco("Rua D", "Recife"));
+        pessoaService.atualizar(primeira);
+        pessoaService.remover(segunda.getId());
+        em.getTransaction().commit();
+        em.getTransaction().begin();
+        
+        Map<String, Long> incrementais = naoNulos(estatisticaService.valores());
+        assertEquals(1L, incrementais.get(EstatisticaService.PESSOAS));
+        assertEquals(2L, incrementais.get(EstatisticaService.ENDERECOS));
+        assertEquals(1L, incrementais.get(EstatisticaService.chaveUf(Estado.BA)));
+        assertEquals(1L, incrementais.get(EstatisticaService.chaveMes(12)));
+        
+        estatisticaService.reconciliar();
+        em.getTransaction().commit();
+        em.getTransaction().begin();
+        assertEquals(naoNulos(estatisticaService.valores()), incrementais);
+    }
+    
+    private Map<String, Long> naoNulos(Map<String, Long> valores) {
+        Map<String, Long> resultado = new HashMap<>();
+        valores.forEach((chave, valor) -> {
+            if (valor != 0) {
+                resultado.put(chave, valor);
+            }
+        });
+        return resultado;
+    }
+    
+    @Test
+    @DisplayName("Deve carregar pessoas e endereços com número fixo de consultas")
+    void deveCarregarPessoasEEnderecosComNumeroFixoDeConsultas() throws BusinessException {
+        String[] cpfs = {"529.982.247-25", "333.899.330-77", "813.839.480-38", "111.444.777-35",
+                "347.337.210-21", "603.164.820-21"};
+        Statistics estatisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        
+        int inseridas = 0;
+        for (int total : new int[] {1, cpfs.length}) {
+            for (int i = inseridas; i < total; i++) {
+                PessoaDTO dto = new PessoaDTO();
+                dto.setNome("Pessoa " + i);
+                dto.setCpf(Cpf.parse(cpfs[i]));
+                dto.setDataNascimento(criarData(1990, 1, 1));
+                dto.setSexo(Sexo.M);
+                dto.getEnderecos().add(criarEndereco("Rua Um", "Recife"));
+                dto.getEnderecos().add(criarEndereco("Rua Dois", "Olinda"));
+                pessoaService.salvar(dto);
+            }
+            inseridas = total;
+            em.getTransaction().commit();
+            em.clear();
+            em.getTransaction().begin();
+            
+            estatisticas.clear();
+            List<PessoaDTO> todas = pessoaService.listarTodas();
+            assertEquals(total, todas.size());
+            assertTrue(todas.stream().allMatch(p -> p.getEnderecos().size() == 2));
+            assertEquals(1, estatisticas.getPrepareStatementCount());
+            
+            em.clear();
+            estatisticas.clear();
+            List<PessoaDTO> porNome = pessoaService.buscarPorNome("Pessoa");
+            assertEquals(total, porNome.size());
+            assertTrue(porNome.stream().allMatch(p -> p.getEnderecos().size() == 2));
+            assertEquals(1, estatisticas.getPrepareStatementCount());
+            
+            em.clear();
+            estatisticas.clear();
+            List<PessoaResumo> pagina = pessoaService.listarPaginaPorNome(new PessoaFiltro(), null, null, 10, true);
+            assertEquals(total, pagina.size());
+            assertTrue(pagina.stream().allMatch(p -> p.getQuantidadeEnderecos() == 2 && "Recife".equals(p.getCidade())));
+            assertEquals(2, estatisticas.getPrepareStatementCount());
+            em.clear();
+        }
+    }
+    
+    @Test
+    @DisplayName("Deve atender leituras repetidas pelo cache de segundo nível e invalidá-lo nas gravações")
+    void deveUsarCacheDeSegundoNivel() throws BusinessException, EntityNotFoundException {
+        PessoaDTO dto = new PessoaDTO();
+        dto.setNome("Pessoa em Cache");
+        dto.setCpf(Cpf.parse("529.982.247-25"));
+        dto.setDataNascimento(criarData(1990, 1, 1));
+        dto.setSexo(Sexo.F);
+        dto.getEnderecos().add(criarEndereco("Rua Um", "Recife"));
+        Long id = pessoaService.salvar(dto).getId();
+        em.getTransaction().commit();
+        em.clear();
+        emf.getCache().evictAll();
+        
+        Statistics estatisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        em.getTransaction().begin();
+        pessoaService.buscarPorId(id);
+        em.getTransaction().commit();
+        em.clear();
+        
+        estatisticas.clear();
+        em.getTransaction().begin();
+        PessoaDTO emCache = pessoaService.buscarPorId(id);
+        assertEquals(1, emCache.getEnderecos().size());
+        assertEquals(0, estatisticas.getPrepareStatementCount());
+        assertTrue(estatisticas.getSecondLevelCacheHitCount() >= 3);
+        
+        // Endereço gravado apenas pelo lado Endereco.pessoa: a coleção em cache deve ser descartada
+        Endereco novo = new Endereco();
+        novo.setLogradouro("Rua Dois");
+        novo.setNumero(20);
+        novo.setCidade("Olinda");
+        novo.setEstado(Estado.PE);
+        novo.setCep("53000-000");
+        novo.setPessoa(em.getReference(Pessoa.class, id));
+        em.persist(novo);
+        emCache.setNome("Pessoa Renomeada");
+        pessoaService.atualizar(emCache);
+        em.getTransaction().commit();
+        em.clear();
+        
+        em.getTransaction().begin();
+        PessoaDTO atualizada = pessoaService.buscarPorId(id);
+        assertEquals("Pessoa Renomeada", atualizada.getNome());
+        assertEquals(2, atualizada.getEnderecos().size());
+    }
+    
+    @Test
+    @DisplayName("Deve salvar pessoas em lote com inserções agrupadas")
+    void deveSalvarPessoasEmLote() throws BusinessException {
+        int total = 120;
+        List<PessoaDTO> lote = new java.util.ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            PessoaDTO dto = new PessoaDTO();
+            dto.setNome("Pessoa Lote " + i);
+            dto.setCpf(gerarCpf(100000000 + i));
+            dto.setDataNascimento(criarData(1990, 1, 1));
+            dto.setSexo(Sexo.F);
+            dto.getEnderecos().add(criarEndereco("Rua do Lote", "Recife"));
+            lote.add(dto);
+        }
+        
+        PessoaDTO existente = new PessoaDTO();
+        existente.setNome("Pessoa Existente");
+        existente.setCpf(gerarCpf(99999999));
+        existente.setDataNascimento(criarData(1980, 1, 1));
+        existente.setSexo(Sexo.M);
+        Pessoa gerenciada = em.find(Pessoa.class, pessoaService.salvar(existente).getId());
+        
+        Statistics estatisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+        
+        assertEquals(total, pessoaService.salvarEmLote(lote));
+        // O lote só desanexa as pessoas que inseriu
+        assertTrue(em.contains(gerenciada));
+        em.getTransaction().commit();
+        em.getTransaction().begin();
+        
+        assertEquals(total + 1, pessoaService.contarTodas());
+        assertEquals(total, em.createQuery("SELECT COUNT(e) FROM Endereco e", Long.class).getSingleResult());
+        assertTrue(estatisticas.getPrepareStatementCount() < total / 4,
+                "Esperado agrupamento de inserções, obtido " + estatisticas.getPrepareStatementCount() + " statements");
+    }
+    
+    @Test
+    @DisplayName("Deve buscar por nome e cidade sem diferenciar acentos, maiúsculas e espaços")
+    void deveBuscarSemDiferenciarAcentos() throws BusinessException {
+        PessoaDTO dto = new PessoaDTO();
+        dto.setNome("José  da Conceição");
+        dto.setCpf(gerarCpf(300000001));
+        dto.setDataNascimento(criarData(1975, 2, 3));
+        dto.setSexo(Sexo.M);
+        dto.getEnderecos().add(criarEndereco("Avenida Paulista", "São Paulo"));
+        pessoaService.salvar(dto);
+        em.getTransaction().commit();
+        em.getTransaction().begin();
+        
+        assertEquals(1, pessoaService.buscarPorNome("jose da conceicao").size());
+        assertEquals(1, pessoaService.buscarPorNome("CONCEIÇAO").size());
+        assertEquals(1, pessoaService.contar(PessoaFiltro.builder().nome("Jose").cidade("sao pau").build()));
+        assertEquals(1, pessoaService.contar(PessoaFiltro.builder().cidade("Sao Paulo").build()));
+        assertEquals("jose da conceicao", em.createQuery("SELECT p.nomeBusca FROM Pessoa p", String.class).getSingleResult());
+    }
+    
+    @Test
+    @DisplayName("Deve buscar por fragmentos de nome, logradouro e cidade em uma única busca paginada")
+    void deveBuscarPorTexto() throws BusinessException {
+        PessoaDTO maria = new PessoaDTO();
+        maria.setNome("Maria Oliveira");
+        maria.setCpf(gerarCpf(400000001));
+        maria.setDataNascimento(criarData(1990, 1, 1));
+        maria.setSexo(Sexo.F);
+        maria.getEnderecos().add(criarEndereco("Rua da Aurora", "Recife"));
+        pessoaService.salvar(maria);
+        
+        PessoaDTO joao = new PessoaDTO();
+        joao.setNome("João Souza");
+        joao.setCpf(gerarCpf(400000002));
+        joao.setDataNascimento(criarData(1980, 6, 1));
+        joao.setSexo(Sexo.M);
+        joao.getEnderecos().add(criarEndereco("Rua Maria Amélia", "Olinda"));
+        pessoaService.salvar(joao);
+        em.getTransaction().commit();
+        em.getTransaction().begin();
+        
+        BuscaService buscaService = new BuscaService();
+        setCampo(buscaService, "pessoaRepository", pessoaRepository);
+        setCampo(buscaService, "pessoaMapper", pessoaMapper);
+        
+        ResultadoBuscaDTO resultado = buscaService.buscar("maria recife", 0, 10);
+        assertEquals(1, resultado.getTotal());
+        assertEquals("Maria Oliveira", resultado.getPessoas().get(0).getNome());
+        assertEquals(1, resultado.getPessoas().get(0).getEnderecos().size());
+        
+        assertEquals("João Souza", buscaService.buscar("MARIA  olin", 0, 10).getPessoas().get(0).getNome());
+        
+        ResultadoBuscaDTO pagina = buscaService.buscar("maria", 1, 1);
+        assertEquals(2, pagina.getTotal());
+        assertEquals(1, pagina.getPessoas().size());
+        assertEquals(1, pagina.getRelevancias().size());
+        
+        assertEquals(0, buscaService.buscar("  --  ", 0, 10).getTotal());
+    }
+    
+    @Test
+    @DisplayName("Deve enviar as leituras somente leitura para a réplica")
+    void deveRotearLeiturasParaReplica() throws Exception {
+        PessoaDTO dto = new PessoaDTO();
+        dto.setNome("Pessoa Replicada");
+        dto.setCpf(gerarCpf(200000001));
+        dto.setDataNascimento(criarData(1985, 4, 12));
+        dto.setSexo(Sexo.M);
+        pessoaService.salvar(dto);
+        em.getTransaction().commit();
+        em.getTransaction().begin();
+        
+        EntityManagerFactory replicaEmf = Persistence.createEntityManagerFactory("TesteLeituraPU");
+        EntityManager replica = replicaEmf.createEntityManager();
+        try {
+            RoteadorLeitura roteador = new RoteadorLeitura();
+            setCampo(roteador, "habilitada", true);
+            setCampo(pessoaRepository, "replica", replica);
+            setCampo(pessoaRepository, "roteadorLeitura", roteador);
+            SomenteLeituraInterceptor interceptor = new SomenteLeituraInterceptor();
+            setCampo(interceptor, "roteadorLeitura", roteador);
+            InvocationContext contexto = mock(InvocationContext.class);
+            when(contexto.proceed()).thenAnswer(inv -> pessoaService.buscarPorNome("Replicada"));
+            // Contagem e página do mesmo caminho somente leitura também vão à réplica
+            PessoaFiltro filtro = PessoaFiltro.builder().nome("Pessoa Repl").build();
+            InvocationContext contagem = mock(InvocationContext.class);
+            when(contagem.proceed()).thenAnswer(inv -> pessoaService.contar(filtro));
+            InvocationContext pagina = mock(InvocationContext.class);
+            when(pagina.proceed()).thenAnswer(inv -> pessoaService.listarPagina(filtro, 0, 10, "nome", true));
+            
+            // A réplica ainda não recebeu a pessoa; fora do escopo somente leitura a consulta vai ao primário
+            assertEquals(0, ((List<?>) interceptor.aplicar(contexto)).size());
+            assertEquals(0L, interceptor.aplicar(contagem));
+            assertEquals(0, ((List<?>) interceptor.aplicar(pagina)).size());
+            assertEquals(1, pessoaService.buscarPorNome("Replicada").size());
+            assertEquals(1L, pessoaService.contar(filtro));
+            
+            replica.getTransaction().begin();
+            replica.persist(Pessoa.builder().nome(dto.getNome()).cpf(dto.getCpf())
+                    .dataNascimento(dto.getDataNascimento()).sexo(dto.getSexo())
+                    .enderecos(new ArrayList<>()).build());
+            replica.getTransaction().commit();
+            replica.clear();
+            
+            assertEquals(1, ((List<?>) interceptor.aplicar(contexto)).size());
+            assertEquals(1L, interceptor.aplicar(contagem));
+            assertEquals(1, ((List<?>) interceptor.aplicar(pagina)).size());
+        } finally {
+            replica.close();
+            replicaEmf.close();
+        }
+    }
+    
+    /**
+     * Gera um CPF válido (com dígitos verificadores) a partir de uma base de 9 dígitos.
+     */
+    private Cpf gerarCpf(int base) {
+        String digitos = String.format("%09d", base);
+        int d1 = 0, d2 = 0;
+        for (int i = 0; i < 9; i++) {
+            int digito = digitos.charAt(i) - '0';
+            d1 += digito * (10 - i);
+            d2 += digito * (11 - i);
+        }
+        int dv1 = d1 % 11 < 2 ? 0 : 11 - d1 % 11;
+        d2 += dv1 * 2;
+        int dv2 = d2 % 11 < 2 ? 0 : 11 - d2 % 11;
+        return Cpf.parse(digitos + dv1 + dv2);
+    }
+    
+    private EnderecoDTO criarEndereco(String logradouro, String cidade) {
+        EnderecoDTO endereco = new EnderecoDTO();
+        endereco.setLogradouro(logradouro);
+        endereco.setNumero(10);
+        endereco.setCidade(cidade);
+        endereco.setEstado(Estado.PE);
+        endereco.setCep("50010-030");
+        return endereco;
+    }
+    
     private void setEntityManager(PessoaRepository repository, EntityManager entityManager) {
         try {
             java.lang.reflect.Field field = PessoaRepository.class.getDeclaredField("em");
@@ -249,6 +802,26 @@ class PessoaServiceIT {
         }
     }
     
+    private void setCampo(Object alvo, String campo, Object valor) {
+        try {
+            java.lang.reflect.Field field = alvo.getClass().getDeclaredField(campo);
+            field.setAccessible(true);
+            field.set(alvo, valor);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao injetar " + campo + " em " + alvo.getClass().getSimpleName(), e);
+        }
+    }
+    
+    private void setEnderecoMapper(PessoaMapper mapper, EnderecoMapper enderecoMapper) {
+        try {
+            java.lang.reflect.Field field = PessoaMapper.class.getDeclaredField("enderecoMapper");
+            field.setAccessible(true);
+            field.set(mapper, enderecoMapper);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao injetar EnderecoMapper no mapper", e);
+        }
+    }
+    
     private void setPessoaMapper(PessoaService service, PessoaMapper mapper) {
         try {
             java.lang.reflect.Field field = PessoaService.class.getDeclaredField("pessoaMapper");
@@ -5,9 +5,13 @@ import static org.mockito.Mockito.*;
 
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+
+import jakarta.enterprise.event.Event;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -18,9 +22,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.teste.sinerji.application.dto.PessoaDTO;
+import com.teste.sinerji.application.dto.PessoaFiltro;
+import com.teste.sinerji.application.event.PessoaAlterada;
 import com.teste.sinerji.application.mapper.PessoaMapper;
 import com.teste.sinerji.domain.entity.Pessoa;
 import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.domain.valueobject.Cpf;
+import com.teste.sinerji.infrastructure.cache.IndiceCpf;
+import com.teste.sinerji.infrastructure.cache.IndicePessoas;
+import com.teste.sinerji.infrastructure.persistence.TravasCpf;
 import com.teste.sinerji.infrastructure.repository.PessoaRepository;
 import com.teste.sinerji.shared.exception.BusinessException;
 import com.teste.sinerji.shared.exception.EntityNotFoundException;
@@ -38,6 +48,21 @@ class PessoaServiceTest {
     @Mock
     private PessoaMapper pessoaMapper;
 
+    @Mock
+    private EstatisticaService estatisticaService;
+
+    @Mock
+    private IndicePessoas indicePessoas;
+
+    @Mock
+    private IndiceCpf indiceCpf;
+
+    @Mock
+    private TravasCpf travasCpf;
+
+    @Mock
+    private Event<PessoaAlterada> pessoaAlterada;
+
     @InjectMocks
     private PessoaService pessoaService;
 
@@ -49,14 +74,14 @@ class PessoaServiceTest {
         pessoaDTO = new PessoaDTO();
         pessoaDTO.setId(1L);
         pessoaDTO.setNome("João Silva");
-        pessoaDTO.setCpf("529.982.247-25"); // CPF válido
+        pessoaDTO.setCpf(Cpf.parse("529.982.247-25")); // CPF válido
         pessoaDTO.setDataNascimento(criarData(1990, 1, 1));
         pessoaDTO.setSexo(Sexo.M);
 
         pessoa = new Pessoa();
         pessoa.setId(1L);
         pessoa.setNome("João Silva");
-        pessoa.setCpf("529.982.247-25");
+        pessoa.setCpf(Cpf.parse("529.982.247-25"));
         pessoa.setDataNascimento(criarData(1990, 1, 1));
         pessoa.setSexo(Sexo.M);
     }
@@ -67,14 +92,14 @@ class PessoaServiceTest {
         List<Pessoa> pessoas = Arrays.asList(pessoa);
         List<PessoaDTO> pessoasDTO = Arrays.asList(pessoaDTO);
         
-        when(pessoaRepository.listarTodas()).thenReturn(pessoas);
+        when(pessoaRepository.listarTodasComEnderecos()).thenReturn(pessoas);
         when(pessoaMapper.toDTOList(pessoas)).thenReturn(pessoasDTO);
 
         List<PessoaDTO> resultado = pessoaService.listarTodas();
 
         assertEquals(1, resultado.size());
         assertEquals(pessoaDTO, resultado.get(0));
-        verify(pessoaRepository).listarTodas();
+        verify(pessoaRepository).listarTodasComEnderecos();
         verify(pessoaMapper).toDTOList(pessoas);
     }
 
@@ -104,27 +129,27 @@ class PessoaServiceTest {
     void deveSalvarPessoaValida() throws BusinessException {
         PessoaDTO novaPessoaDTO = new PessoaDTO();
         novaPessoaDTO.setNome("Maria Santos");
-        novaPessoaDTO.setCpf("52998224725"); // CPF válido
+        novaPessoaDTO.setCpf(Cpf.parse("52998224725")); // CPF válido
         novaPessoaDTO.setDataNascimento(criarData(1995, 5, 15));
         novaPessoaDTO.setSexo(Sexo.F);
 
         Pessoa novaPessoa = new Pessoa();
         novaPessoa.setNome("Maria Santos");
-        novaPessoa.setCpf("52998224725");
+        novaPessoa.setCpf(Cpf.parse("52998224725"));
         novaPessoa.setDataNascimento(criarData(1995, 5, 15));
         novaPessoa.setSexo(Sexo.F);
 
         Pessoa pessoaSalva = new Pessoa();
         pessoaSalva.setId(2L);
         pessoaSalva.setNome("Maria Santos");
-        pessoaSalva.setCpf("52998224725");
+        pessoaSalva.setCpf(Cpf.parse("52998224725"));
         pessoaSalva.setDataNascimento(criarData(1995, 5, 15));
         pessoaSalva.setSexo(Sexo.F);
 
         PessoaDTO pessoaSalvaDTO = new PessoaDTO();
         pessoaSalvaDTO.setId(2L);
         pessoaSalvaDTO.setNome("Maria Santos");
-        pessoaSalvaDTO.setCpf("52998224725");
+        pessoaSalvaDTO.setCpf(Cpf.parse("52998224725"));
         pessoaSalvaDTO.setDataNascimento(criarData(1995, 5, 15));
         pessoaSalvaDTO.setSexo(Sexo.F);
 
@@ -137,13 +162,52 @@ class PessoaServiceTest {
         assertEquals(2L, resultado.getId());
         assertEquals("Maria Santos", resultado.getNome());
         verify(pessoaRepository).salvar(novaPessoa);
+        // CPF descartado pelo índice: nenhuma consulta de confirmação
+        verify(pessoaRepository, never()).buscarIdPorCpf(any());
+    }
+
+    @Test
+    @DisplayName("Deve recusar CPF já cadastrado antes de gravar")
+    void deveRecusarCpfDuplicadoAntesDeGravar() {
+        pessoaDTO.setId(null);
+        when(indiceCpf.talvezCadastrado(pessoaDTO.getCpf())).thenReturn(true);
+        when(pessoaRepository.buscarIdPorCpf(pessoaDTO.getCpf())).thenReturn(Optional.of(1L));
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> pessoaService.salvar(pessoaDTO));
+
+        assertEquals("Já existe um usuário cadastrado com esse CPF.", exception.getMessage());
+        verify(pessoaRepository, never()).salvar(any());
+    }
+
+    @Test
+    @DisplayName("Deve recusar no lote o CPF gravado por outra transação enquanto esperava")
+    void deveRecusarNoLoteCpfGravadoDuranteEspera() throws BusinessException {
+        pessoaDTO.setId(null);
+        PessoaDTO outra = new PessoaDTO();
+        outra.setNome("Maria Santos");
+        outra.setCpf(Cpf.parse("333.899.330-77"));
+        outra.setDataNascimento(criarData(1992, 2, 2));
+        outra.setSexo(Sexo.F);
+        List<PessoaDTO> lote = Arrays.asList(pessoaDTO, outra);
+        List<Cpf> cpfs = Arrays.asList(pessoaDTO.getCpf(), outra.getCpf());
+        // Esperou a outra gravação: o índice não é consultado, todos os CPFs vão ao banco
+        when(travasCpf.travarTodos(cpfs)).thenReturn(true);
+        when(pessoaRepository.buscarCpfsExistentes(cpfs)).thenReturn(Collections.singletonList(pessoaDTO.getCpf()));
+        when(pessoaMapper.toEntity(outra)).thenReturn(new Pessoa());
+        when(pessoaRepository.salvarEmLote(anyList())).thenReturn(1);
+
+        Set<Cpf> recusados = pessoaService.salvarNovasEmLote(lote);
+
+        assertEquals(Collections.singleton(pessoaDTO.getCpf()), recusados);
+        verify(pessoaMapper, never()).toEntity(pessoaDTO);
+        verify(indiceCpf, never()).talvezCadastrado(any());
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao salvar pessoa com nome vazio")
     void deveLancarExcecaoAoSalvarPessoaComNomeVazio() {
         PessoaDTO pessoaInvalida = new PessoaDTO();
-        pessoaInvalida.setCpf("171.827.200-17");
+        pessoaInvalida.setCpf(Cpf.parse("171.827.200-17"));
         pessoaInvalida.setDataNascimento(criarData(1995, 5, 15));
         pessoaInvalida.setSexo(Sexo.F);
         BusinessException exception = assertThrows(BusinessException.class, 
@@ -156,7 +220,7 @@ class PessoaServiceTest {
     void deveLancarExcecaoAoSalvarPessoaComCpfInvalido() {
         PessoaDTO pessoaInvalida = new PessoaDTO();
         pessoaInvalida.setNome("João Silva");
-        pessoaInvalida.setCpf("111.111.111-11"); // CPF inválido
+        pessoaInvalida.setCpf(Cpf.parse("111.111.111-11")); // CPF inválido
         pessoaInvalida.setDataNascimento(criarData(1990, 1, 1));
         pessoaInvalida.setSexo(Sexo.M);
 
@@ -170,7 +234,7 @@ class PessoaServiceTest {
     void deveLancarExcecaoAoSalvarPessoaComDataNascimentoNula() {
         PessoaDTO pessoaInvalida = new PessoaDTO();
         pessoaInvalida.setNome("João Silva");
-        pessoaInvalida.setCpf("529.982.247-25");
+        pessoaInvalida.setCpf(Cpf.parse("529.982.247-25"));
         pessoaInvalida.setSexo(Sexo.M);
         BusinessException exception = assertThrows(BusinessException.class, 
             () -> pessoaService.salvar(pessoaInvalida));
@@ -182,7 +246,7 @@ class PessoaServiceTest {
     void deveLancarExcecaoAoSalvarPessoaComSexoNulo() {
         PessoaDTO pessoaInvalida = new PessoaDTO();
         pessoaInvalida.setNome("João Silva");
-        pessoaInvalida.setCpf("529.982.247-25");
+        pessoaInvalida.setCpf(Cpf.parse("529.982.247-25"));
         pessoaInvalida.setDataNascimento(criarData(1990, 1, 1));
         BusinessException exception = assertThrows(BusinessException.class, 
             () -> pessoaService.salvar(pessoaInvalida));
@@ -209,29 +273,43 @@ class PessoaServiceTest {
         pessoaService.remover(1L);
         verify(pessoaRepository).buscarPorId(1L);
         verify(pessoaRepository).remover(1L);
+        verify(estatisticaService).registrar(EstatisticaService.contribuicao(pessoa), Collections.emptyMap());
+        verify(pessoaAlterada).fire(argThat(evento -> evento.getAntes().getId() == 1L && evento.getDepois() == null));
+    }
+
+    @Test
+    @DisplayName("Deve contar pelo índice sem nome nem CPF e resolver os IDs para o banco com nome")
+    void deveUsarIndiceEmMemoriaParaFiltros() {
+        PessoaFiltro porSexo = PessoaFiltro.builder().sexo(Sexo.F).build();
+        when(indicePessoas.contar(porSexo)).thenReturn(7L);
+        assertEquals(7L, pessoaService.contar(porSexo));
+
+        PessoaFiltro comNome = PessoaFiltro.builder().nome("ana").sexo(Sexo.F).build();
+        when(indicePessoas.listarIds(comNome, IndicePessoas.LIMITE_IDS)).thenReturn(Arrays.asList(3L, 5L));
+        when(pessoaRepository.contar(any())).thenReturn(1L);
+        assertEquals(1L, pessoaService.contar(comNome));
+        verify(pessoaRepository).contar(PessoaFiltro.builder().nome("ana").ids(Arrays.asList(3L, 5L)).build());
     }
 
     @Test
     @DisplayName("Deve validar CPF correto")
-    void deveValidarCpfCorreto() throws Exception {
-        java.lang.reflect.Method method = PessoaService.class.getDeclaredMethod("isCpfValido", String.class);
-        method.setAccessible(true);
-        assertTrue((Boolean) method.invoke(pessoaService, "11144477735"));
-        assertTrue((Boolean) method.invoke(pessoaService, "52998224725"));
-        assertTrue((Boolean) method.invoke(pessoaService, "52998224725"));
+    void deveValidarCpfCorreto() {
+        assertTrue(Cpf.valido("11144477735"));
+        assertTrue(Cpf.valido("529.982.247-25"));
+        assertTrue(Cpf.parse("07067273048").isValido());
+        assertEquals("070.672.730-48", Cpf.of(7067273048L).toString());
     }
 
     @Test
     @DisplayName("Deve invalidar CPF incorreto")
-    void deveInvalidarCpfIncorreto() throws Exception {
-        // Arrange - usando reflexão para acessar método privado
-        java.lang.reflect.Method method = PessoaService.class.getDeclaredMethod("isCpfValido", String.class);
-        method.setAccessible(true);
-
-        assertFalse((Boolean) method.invoke(pessoaService, "111.111.111-11"));
-        assertFalse((Boolean) method.invoke(pessoaService, "123.456.789-10"));
-        assertFalse((Boolean) method.invoke(pessoaService, ""));
-        assertFalse((Boolean) method.invoke(pessoaService, (Object) null));
+    void deveInvalidarCpfIncorreto() {
+        assertFalse(Cpf.valido("111.111.111-11"));
+        assertFalse(Cpf.valido("000.000.000-00"));
+        assertFalse(Cpf.valido("123.456.789-10"));
+        assertFalse(Cpf.valido("529.982.247-250"));
+        assertFalse(Cpf.valido(""));
+        assertFalse(Cpf.valido(null));
+        assertThrows(IllegalArgumentException.class, () -> Cpf.parse("529.982.247"));
     }
     
     /**
@@ -0,0 +1,113 @@
+package com.teste.sinerji.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.teste.sinerji.application.dto.ViaCepDTO;
+import com.teste.sinerji.domain.entity.CepCacheEntrada;
+import com.teste.sinerji.infrastructure.repository.CepCacheRepository;
+
+/**
+ * Testes unitários para o CepCachePersistente.
+ * Verifica a pré-carga, a gravação em lote e a nova tentativa após falha.
+ */
+@ExtendWith(MockitoExtension.class)
+class CepCachePersistenteTest {
+
+    private static final long AGORA = 1_700_000_000_000L;
+
+    @Mock
+    private CepCacheRepository cepCacheRepository;
+
+    @Spy
+    private CepCache cepCache = new CepCache();
+
+    @InjectMocks
+    private CepCachePersistente cepCachePersistente;
+
+    @BeforeEach
+    void setUp() {
+        cepCachePersistente.setRelogio(() -> AGORA);
+    }
+
+    @Test
+    @DisplayName("Deve pré-carregar as entradas mais acessadas no cache em memória")
+    void devePreCarregarEntradasMaisAcessadas() {
+        CepCacheEntrada se = CepCacheEntrada.builder().cep("01001000").cidade("São Paulo").estado("SP").build();
+        when(cepCacheRepository.listarMaisAcessadas(anyInt(), any(Date.class))).thenReturn(Arrays.asList(se));
+
+        cepCachePersistente.preCarregar();
+
+        ViaCepDTO dto = cepCache.consultar("01001000");
+        assertEquals("01001-000", dto.getCep());
+        assertEquals("São Paulo", dto.getCidade());
+    }
+
+    @Test
+    @DisplayName("Deve gravar em lote as respostas e acessos pendentes com a validade adequada")
+    @SuppressWarnings("unchecked")
+    void deveGravarPendentesEmLote() {
+        cepCachePersistente.enfileirar("01001000", dto(false));
+        cepCachePersistente.enfileirar("99999999", dto(true));
+        cepCachePersistente.registrarAcesso("01001000");
+        cepCachePersistente.registrarAcesso("01001000");
+
+        cepCachePersistente.gravarPendentes();
+
+        ArgumentCaptor<Collection<CepCacheEntrada>> lote = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Map<String, Long>> acessos = ArgumentCaptor.forClass(Map.class);
+        verify(cepCacheRepository).gravar(lote.capture());
+        verify(cepCacheRepository).somarAcessos(acessos.capture());
+
+        List<CepCacheEntrada> entradas = new ArrayList<>(lote.getValue());
+        assertEquals(2, entradas.size());
+        for (CepCacheEntrada entrada : entradas) {
+            long validade = entrada.isNaoEncontrado()
+                    ? CepCachePersistente.VALIDADE_NAO_ENCONTRADO_MILLIS : CepCachePersistente.VALIDADE_MILLIS;
+            assertEquals(AGORA + validade, entrada.getExpiraEm().getTime());
+        }
+        assertEquals(2L, acessos.getValue().get("01001000"));
+    }
+
+    @Test
+    @DisplayName("Deve manter as entradas na fila quando a gravação falha")
+    void deveManterPendentesAposFalha() {
+        cepCachePersistente.enfileirar("01001000", dto(false));
+        doThrow(new IllegalStateException("banco indisponível")).doNothing()
+                .when(cepCacheRepository).gravar(anyCollection());
+
+        cepCachePersistente.gravarPendentes();
+        cepCachePersistente.gravarPendentes();
+
+        verify(cepCacheRepository, times(2)).gravar(argThat(lote -> lote.size() == 1));
+        verify(cepCacheRepository, times(1)).somarAcessos(anyMap());
+    }
+
+    private ViaCepDTO dto(boolean erro) {
+        ViaCepDTO dto = new ViaCepDTO();
+        dto.setCidade("São Paulo");
+        dto.setErro(erro);
+        return dto;
+    }
+}
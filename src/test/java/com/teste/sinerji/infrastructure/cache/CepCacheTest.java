@@ -0,0 +1,112 @@
+package com.teste.sinerji.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.teste.sinerji.application.dto.ViaCepDTO;
+import com.teste.sinerji.shared.cache.CacheLruTtl;
+import com.teste.sinerji.shared.exception.BusinessException;
+
+/**
+ * Testes unitários para o CepCache.
+ * Usa relógio controlado para verificar TTL e cache negativo.
+ */
+class CepCacheTest {
+
+    private AtomicLong relogio;
+    private CacheLruTtl<String, ViaCepDTO> cacheInterno;
+    private CepCache cepCache;
+
+    @BeforeEach
+    void setUp() {
+        relogio = new AtomicLong();
+        cacheInterno = new CacheLruTtl<>(32, relogio::get);
+        cepCache = new CepCache(cacheInterno);
+    }
+
+    @Test
+    @DisplayName("Deve fazer uma única consulta para acessos simultâneos ao mesmo CEP")
+    void deveAgruparConsultasSimultaneas() throws Exception {
+        AtomicInteger chamadas = new AtomicInteger();
+        CompletableFuture<ViaCepDTO> resposta = new CompletableFuture<>();
+
+        List<CompletableFuture<ViaCepDTO>> resultados = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            resultados.add(cepCache.obterAsync("01001000", cep -> {
+                chamadas.incrementAndGet();
+                return resposta;
+            }));
+        }
+        assertTrue(resultados.stream().noneMatch(CompletableFuture::isDone));
+
+        resposta.complete(dto("01001000", false));
+
+        for (CompletableFuture<ViaCepDTO> resultado : resultados) {
+            assertEquals("01001000", resultado.get(5, TimeUnit.SECONDS).getCep());
+        }
+        assertEquals(1, chamadas.get());
+        assertTrue(cepCache.obterAsync("01001000", cep -> { throw new IllegalStateException(); }).isDone());
+    }
+
+    @Test
+    @DisplayName("Deve manter CEP não encontrado apenas pelo TTL curto")
+    void deveExpirarCacheNegativoAntesDoPositivo() throws Exception {
+        AtomicInteger chamadas = new AtomicInteger();
+        CepCache.CarregadorCep carregador = cep -> {
+            chamadas.incrementAndGet();
+            return CompletableFuture.completedFuture(dto(cep, cep.startsWith("9")));
+        };
+
+        assertTrue(cepCache.obterAsync("99999999", carregador).get().isErro());
+        cepCache.obterAsync("01001000", carregador).get();
+        assertEquals(2, chamadas.get());
+
+        relogio.addAndGet(CepCache.TTL_NAO_ENCONTRADO_NANOS + 1);
+        cepCache.obterAsync("99999999", carregador).get();
+        cepCache.obterAsync("01001000", carregador).get();
+        assertEquals(3, chamadas.get());
+        assertEquals(1, cacheInterno.getExpiracoes());
+    }
+
+    @Test
+    @DisplayName("Deve propagar falhas sem armazená-las em cache")
+    void devePropagarFalhasSemArmazenar() throws Exception {
+        CompletableFuture<ViaCepDTO> falha = cepCache.obterAsync("01001000",
+                cep -> CompletableFuture.failedFuture(new BusinessException("timeout")));
+
+        ExecutionException erro = assertThrows(ExecutionException.class, falha::get);
+        assertTrue(erro.getCause() instanceof BusinessException);
+        assertEquals("01001000", cepCache.obterAsync("01001000",
+                cep -> CompletableFuture.completedFuture(dto(cep, false))).get().getCep());
+    }
+
+    @Test
+    @DisplayName("Deve respeitar o limite de tamanho despejando entradas menos usadas")
+    void deveRespeitarLimiteDeTamanho() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            cepCache.obterAsync(String.format("%08d", i),
+                    cep -> CompletableFuture.completedFuture(dto(cep, false))).get();
+        }
+
+        assertTrue(cacheInterno.size() <= 32);
+        assertEquals(200 - cacheInterno.size(), cacheInterno.getDespejos());
+    }
+
+    private ViaCepDTO dto(String cep, boolean erro) {
+        ViaCepDTO dto = new ViaCepDTO();
+        dto.setCep(cep);
+        dto.setErro(erro);
+        return dto;
+    }
+}
@@ -0,0 +1,282 @@
+package com.teste.sinerji.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.teste.sinerji.application.event.PerfilPessoa;
+import com.teste.sinerji.application.event.PessoaAlterada;
+import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.enums.FaixaEtaria;
+import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.infrastructure.repository.PessoaRepository;
+
+/**
+ * Testes unitários para o CuboPessoas.
+ * Verifica as fatias do cubo, a carga paralela em lotes, a aplicação de alterações, a
+ * numeração das alterações em relação à marca da carga e a recarga fora da thread da leitura.
+ */
+@ExtendWith(MockitoExtension.class)
+class CuboPessoasTest {
+
+    @Mock
+    private PessoaRepository pessoaRepository;
+
+    @Mock
+    private ManagedExecutorService executor;
+
+    /** Sem transação, a menos que o teste a simule. */
+    @Mock
+    private TransactionSynchronizationRegistry registro;
+
+    @InjectMocks
+    private CuboPessoas cubo;
+
+    private final LocalDate hoje = LocalDate.of(2024, 6, 15);
+
+    private final AtomicLong relogio = new AtomicLong(hoje.atTime(10, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+
+    private List<PerfilPessoa> banco;
+
+    /** Cargas agendadas e ainda não executadas, quando {@link #adiar} é true. */
+    private final Queue<Runnable> agendadas = new ArrayDeque<>();
+
+    private boolean adiar;
+
+    /** Executada pela carga durante a leitura do banco, se informada. */
+    private Runnable durantePercurso;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        cubo.iniciar();
+        cubo.setRelogio(relogio::get);
+        banco = new ArrayList<>(Arrays.asList(
+                perfil(1L, Sexo.M, LocalDate.of(1994, 3, 1), Estado.PE, Estado.SP),
+                perfil(2L, Sexo.F, LocalDate.of(2004, 3, 10), Estado.PE),
+                perfil(3L, Sexo.F, LocalDate.of(1970, 7, 20), Estado.BA),
+                perfil(4L, Sexo.M, null)));
+        doAnswer(inv -> {
+            List<PerfilPessoa> lidos = new ArrayList<>(banco);
+            if (durantePercurso != null) {
+                durantePercurso.run();
+            }
+            lidos.forEach(inv.<Consumer<PerfilPessoa>>getArgument(0));
+            return null;
+        }).when(pessoaRepository).percorrerPerfis(any(Consumer.class));
+        lenient().doAnswer(inv -> {
+            Runnable tarefa = inv.getArgument(0);
+            if (adiar) {
+                agendadas.add(tarefa);
+            } else {
+                tarefa.run();
+            }
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cubo.encerrar();
+    }
+
+    @Test
+    @DisplayName("Deve responder fatias por UF principal, sexo, mês e faixa etária")
+    void deveContarFatias() {
+        assertEquals(4, cubo.contar(null, null, null, null));
+        assertEquals(2, cubo.contar(Estado.PE, null, null, null));
+        assertEquals(0, cubo.contar(Estado.SP, null, null, null));
+        assertEquals(1, cubo.contar(Estado.PE, Sexo.F, 3, FaixaEtaria.DE_18_A_29));
+        assertEquals(2, cubo.contar(null, null, 3, null));
+        assertEquals(0, cubo.contar(null, null, 13, null));
+
+        Map<Estado, Long> porEstado = cubo.contarPorEstado(null, Sexo.F, null, null);
+        assertEquals(Arrays.asList(Estado.BA, Estado.PE), new ArrayList<>(porEstado.keySet()));
+        assertEquals(1L, porEstado.get(Estado.PE));
+        assertEquals(Collections.singletonMap(Estado.PE, 2L), cubo.contarPorEstado(Estado.PE, null, null, null));
+
+        Map<FaixaEtaria, Long> porFaixa = cubo.contarPorFaixaEtaria(null, null, null);
+        assertEquals(1L, porFaixa.get(FaixaEtaria.DE_18_A_29));
+        assertEquals(1L, porFaixa.get(FaixaEtaria.DE_30_A_44));
+        assertEquals(1L, porFaixa.get(FaixaEtaria.DE_45_A_59));
+        assertEquals(0L, porFaixa.get(FaixaEtaria.ATE_17));
+        verify(pessoaRepository, times(1)).percorrerPerfis(any());
+    }
+
+    @Test
+    @DisplayName("Deve somar as contagens parciais de vários lotes na carga")
+    void deveCarregarEmLotes() {
+        banco = new ArrayList<>();
+        for (long id = 1; id <= CuboPessoas.TAMANHO_LOTE * 2 + 10; id++) {
+            banco.add(perfil(id, id % 2 == 0 ? Sexo.F : Sexo.M, LocalDate.of(1990, 1, 1), Estado.RJ));
+        }
+
+        assertEquals(banco.size(), cubo.contar(Estado.RJ, null, 1, FaixaEtaria.DE_30_A_44));
+        assertEquals(CuboPessoas.TAMANHO_LOTE + 5, cubo.contar(null, Sexo.F, null, null));
+    }
+
+    @Test
+    @DisplayName("Deve aplicar alterações confirmadas e recarregar após a validade e na virada do dia")
+    void deveAplicarAlteracoesERecarregarNaViradaDoDia() {
+        assertEquals(2, cubo.contar(Estado.PE, null, null, null));
+
+        cubo.aoAlterarPessoa(new PessoaAlterada(null, perfil(5L, Sexo.F, LocalDate.of(2015, 1, 1), Estado.PE)));
+        cubo.aoAlterarPessoa(new PessoaAlterada(banco.get(1), perfil(2L, Sexo.F, LocalDate.of(2004, 3, 10), Estado.RJ)));
+        cubo.aoAlterarPessoa(new PessoaAlterada(banco.get(2), null));
+
+        assertEquals(4, cubo.contar(null, null, null, null));
+        assertEquals(2, cubo.contar(Estado.PE, null, null, null));
+        assertEquals(1, cubo.contar(Estado.PE, null, null, FaixaEtaria.ATE_17));
+        assertEquals(1, cubo.contar(Estado.RJ, Sexo.F, 3, null));
+        assertEquals(0, cubo.contar(Estado.BA, null, null, null));
+        verify(pessoaRepository, times(1)).percorrerPerfis(any());
+
+        relogio.addAndGet(CuboPessoas.VALIDADE_MILLIS - 1);
+        assertEquals(4, cubo.contar(null, null, null, null));
+        verify(pessoaRepository, times(1)).percorrerPerfis(any());
+
+        // Gravação de outro nó, sem evento: incorporada pela revalidação
+        banco.add(perfil(8L, Sexo.M, LocalDate.of(1980, 5, 5), Estado.AM));
+        relogio.addAndGet(1);
+        assertEquals(5, cubo.contar(null, null, null, null));
+        assertEquals(1, cubo.contar(Estado.AM, null, null, null));
+        verify(pessoaRepository, times(2)).percorrerPerfis(any());
+
+        relogio.set(hoje.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        assertEquals(5, cubo.contar(null, null, null, null));
+        verify(pessoaRepository, times(3)).percorrerPerfis(any());
+    }
+
+    @Test
+    @DisplayName("Deve recarregar no executor e contar uma única vez as alterações confirmadas durante a carga")
+    void deveRecarregarSemContarAlteracoesEmDobro() {
+        cubo.recarregar();
+        verifyNoInteractions(executor);
+        assertEquals(4, cubo.contar(null, null, null, null));
+
+        relogio.set(hoje.plusDays(1).atTime(0, 5).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        adiar = true;
+        assertEquals(4, cubo.contar(null, null, null, null));
+        assertEquals(1, agendadas.size());
+
+        // Confirmada antes da consulta da carga: já está no banco que ela lê
+        PerfilPessoa antes = perfil(5L, Sexo.F, LocalDate.of(2000, 1, 1), Estado.PE);
+        banco.add(antes);
+        cubo.aoAlterarPessoa(new PessoaAlterada(null, antes));
+        assertEquals(5, cubo.contar(null, null, null, null));
+        // Confirmada depois do início da consulta: não está no que ela lê
+        durantePercurso = () -> cubo.aoAlterarPessoa(
+                new PessoaAlterada(null, perfil(6L, Sexo.M, LocalDate.of(2001, 1, 1), Estado.SP)));
+
+        agendadas.poll().run();
+        assertEquals(6, cubo.contar(null, null, null, null));
+        assertEquals(3, cubo.contar(Estado.PE, null, null, null));
+        assertEquals(1, cubo.contar(Estado.SP, null, null, null));
+        verify(pessoaRepository, times(2)).percorrerPerfis(any());
+    }
+
+    @Test
+    @DisplayName("Deve descartar a fila que transborda sem leituras e recarregar na próxima")
+    void deveRecarregarQuandoFilaTransborda() {
+        cubo.recarregar();
+        for (long id = 100; id <= 100 + CuboPessoas.LIMITE_PENDENTES; id++) {
+            PerfilPessoa novo = perfil(id, Sexo.F, LocalDate.of(2000, 1, 1), Estado.RJ);
+            banco.add(novo);
+            cubo.aoAlterarPessoa(new PessoaAlterada(null, novo));
+        }
+
+        // A recarga fica no executor: a leitura responde com o cubo anterior
+        adiar = true;
+        assertEquals(4, cubo.contar(null, null, null, null));
+        assertEquals(1, agendadas.size());
+
+        agendadas.poll().run();
+        assertEquals(5 + CuboPessoas.LIMITE_PENDENTES, cubo.contar(null, null, null, null));
+        verify(pessoaRepository, times(2)).percorrerPerfis(any());
+        assertTrue(agendadas.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve contar uma única vez a alteração confirmada antes das consultas da carga e notificada depois")
+    void deveSepararCommitsDaMarcaDaCarga() throws InterruptedException {
+        cubo.recarregar();
+        assertEquals(4, cubo.contar(null, null, null, null));
+        Map<Object, Object> recursos = new HashMap<>();
+        List<Synchronization> transacoes = new ArrayList<>();
+        when(registro.getTransactionKey()).thenReturn("transacao");
+        when(registro.getResource(any())).thenAnswer(inv -> recursos.get(inv.getArgument(0)));
+        doAnswer(inv -> recursos.put(inv.getArgument(0), inv.getArgument(1))).when(registro).putResource(any(), any());
+        doAnswer(inv -> transacoes.add(inv.getArgument(0))).when(registro).registerInterposedSynchronization(any());
+
+        // Transação A: numerada e gravada no banco, mas o fim da transação ainda não rodou
+        PerfilPessoa confirmada = perfil(5L, Sexo.F, LocalDate.of(2000, 1, 1), Estado.PE);
+        cubo.aoAlterarPessoa(new PessoaAlterada(null, confirmada));
+        transacoes.get(0).beforeCompletion();
+        banco.add(confirmada);
+        // Transação B: numerada e desfeita no commit
+        recursos.clear();
+        cubo.aoAlterarPessoa(new PessoaAlterada(null, perfil(6L, Sexo.M, LocalDate.of(2001, 1, 1), Estado.SP)));
+        transacoes.get(1).beforeCompletion();
+
+        // A carga da virada do dia espera o fim das duas para tomar a marca
+        relogio.set(hoje.plusDays(1).atTime(0, 5).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        adiar = true;
+        assertEquals(4, cubo.contar(null, null, null, null));
+        Thread carga = new Thread(agendadas.poll());
+        carga.start();
+        carga.join(200);
+        assertTrue(carga.isAlive());
+        verify(pessoaRepository, times(1)).percorrerPerfis(any());
+
+        transacoes.get(1).afterCompletion(Status.STATUS_ROLLEDBACK);
+        transacoes.get(0).afterCompletion(Status.STATUS_COMMITTED);
+        carga.join(5000);
+        assertFalse(carga.isAlive());
+        assertEquals(5, cubo.contar(null, null, null, null));
+        assertEquals(3, cubo.contar(Estado.PE, null, null, null));
+        assertEquals(0, cubo.contar(Estado.SP, null, null, null));
+
+        // Transação C, depois da carga: aplicada uma vez
+        recursos.clear();
+        PerfilPessoa depois = perfil(7L, Sexo.M, LocalDate.of(1990, 1, 1), Estado.SP);
+        cubo.aoAlterarPessoa(new PessoaAlterada(null, depois));
+        transacoes.get(2).beforeCompletion();
+        banco.add(depois);
+        transacoes.get(2).afterCompletion(Status.STATUS_COMMITTED);
+        assertEquals(6, cubo.contar(null, null, null, null));
+        assertEquals(1, cubo.contar(Estado.SP, null, null, null));
+        verify(pessoaRepository, times(2)).percorrerPerfis(any());
+    }
+
+    private PerfilPessoa perfil(Long id, Sexo sexo, LocalDate nascimento, Estado... estados) {
+        List<String> cidades = new ArrayList<>(Collections.nCopies(estados.length, "Cidade"));
+        return new PerfilPessoa(id, sexo, nascimento, Arrays.asList(estados), cidades);
+    }
+}
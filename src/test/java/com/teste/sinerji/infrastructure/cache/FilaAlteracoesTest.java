@@ -0,0 +1,49 @@
+package com.teste.sinerji.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes unitários para a FilaAlteracoes.
+ * Verifica o limite de itens, o descarte ao transbordar e a reabertura após a carga.
+ */
+class FilaAlteracoesTest {
+
+    @Test
+    @DisplayName("Deve descartar os itens e recusar novos ao passar do limite")
+    void deveTransbordarNoLimite() {
+        FilaAlteracoes<Integer> fila = new FilaAlteracoes<>(3);
+        for (int i = 0; i < 3; i++) {
+            fila.adicionar(i);
+        }
+        assertFalse(fila.isTransbordada());
+        assertEquals(0, fila.retirar());
+
+        fila.adicionar(3);
+        fila.adicionar(4);
+        assertTrue(fila.isTransbordada());
+        assertTrue(fila.isVazia());
+        assertEquals(0, fila.getTamanho());
+
+        fila.adicionar(5);
+        assertTrue(fila.isVazia());
+    }
+
+    @Test
+    @DisplayName("Deve voltar a aceitar itens após reiniciar")
+    void deveAceitarAposReiniciar() {
+        FilaAlteracoes<Integer> fila = new FilaAlteracoes<>(1);
+        fila.adicionar(1);
+        fila.adicionar(2);
+        assertTrue(fila.isTransbordada());
+
+        fila.reiniciar();
+        fila.adicionar(3);
+        assertFalse(fila.isTransbordada());
+        assertEquals(3, fila.retirar());
+        assertNull(fila.retirar());
+        assertEquals(0, fila.getTamanho());
+    }
+}
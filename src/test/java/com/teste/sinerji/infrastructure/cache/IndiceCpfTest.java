@@ -0,0 +1,173 @@
+package com.teste.sinerji.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.teste.sinerji.application.event.PerfilPessoa;
+import com.teste.sinerji.application.event.PessoaAlterada;
+import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.domain.valueobject.Cpf;
+import com.teste.sinerji.infrastructure.repository.PessoaRepository;
+
+/**
+ * Testes unitários para o IndiceCpf.
+ * Verifica a ausência de falsos negativos, a taxa de falsos positivos, as inclusões
+ * incrementais e a carga fora da thread da consulta.
+ */
+@ExtendWith(MockitoExtension.class)
+class IndiceCpfTest {
+
+    private static final int TOTAL = 100_000;
+
+    @Mock
+    private PessoaRepository pessoaRepository;
+
+    @Mock
+    private ManagedExecutorService executor;
+
+    @InjectMocks
+    private IndiceCpf indice;
+
+    private final AtomicLong relogio = new AtomicLong();
+
+    /** Cargas agendadas e ainda não executadas, quando {@link #adiar} é true. */
+    private final Queue<Runnable> agendadas = new ArrayDeque<>();
+
+    private boolean adiar;
+
+    @BeforeEach
+    void setUp() {
+        indice.setRelogio(relogio::get);
+        // CPFs pares de 10.000.000.000 em diante, em ordem crescente
+        doAnswer(inv -> {
+            LongStream.range(0, TOTAL).forEach(i -> inv.<LongConsumer>getArgument(0).accept(10_000_000_000L + i * 2));
+            return null;
+        }).when(pessoaRepository).percorrerCpfs(any());
+        lenient().doAnswer(inv -> {
+            Runnable tarefa = inv.getArgument(0);
+            if (adiar) {
+                agendadas.add(tarefa);
+            } else {
+                tarefa.run();
+            }
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+    }
+
+    @Test
+    @DisplayName("Deve encontrar todos os CPFs carregados e descartar quase todos os ausentes")
+    void deveEncontrarCadastradosEDescartarAusentes() {
+        for (long i = 0; i < TOTAL; i++) {
+            assertTrue(indice.talvezCadastrado(Cpf.of(10_000_000_000L + i * 2)));
+        }
+        int falsosPositivos = 0;
+        for (long i = 0; i < TOTAL; i++) {
+            if (indice.talvezCadastrado(Cpf.of(10_000_000_001L + i * 2))) {
+                falsosPositivos++;
+            }
+        }
+        // Filtro de Bloom seguido da busca binária: nenhum falso positivo chega ao chamador
+        assertEquals(0, falsosPositivos);
+        assertFalse(indice.talvezCadastrado(Cpf.of(0L)));
+        verify(pessoaRepository, times(1)).percorrerCpfs(any());
+    }
+
+    @Test
+    @DisplayName("Deve incluir os CPFs confirmados sem recarregar do banco")
+    void deveAplicarInclusoesIncrementais() {
+        Cpf novo = Cpf.parse("529.982.247-25");
+        assertFalse(indice.talvezCadastrado(novo));
+
+        indice.aoAlterarPessoa(new PessoaAlterada(null, perfil(1L), "Maria", novo));
+        // Alteração apenas de endereço: sem CPF
+        indice.aoAlterarPessoa(new PessoaAlterada(perfil(2L), perfil(2L)));
+
+        assertTrue(indice.talvezCadastrado(novo));
+        assertTrue(indice.talvezCadastrado(Cpf.of(10_000_000_000L)));
+        verify(pessoaRepository, times(1)).percorrerCpfs(any());
+    }
+
+    @Test
+    @DisplayName("Deve recarregar do banco após a validade ou invalidação")
+    void deveRecarregarAposValidade() {
+        Cpf cpf = Cpf.of(10_000_000_000L);
+        indice.talvezCadastrado(cpf);
+        relogio.addAndGet(IndiceCpf.VALIDADE_MILLIS - 1);
+        indice.talvezCadastrado(cpf);
+        verify(pessoaRepository, times(1)).percorrerCpfs(any());
+
+        relogio.addAndGet(1);
+        indice.talvezCadastrado(cpf);
+        verify(pessoaRepository, times(2)).percorrerCpfs(any());
+
+        indice.invalidar();
+        indice.talvezCadastrado(cpf);
+        verify(pessoaRepository, times(3)).percorrerCpfs(any());
+    }
+
+    @Test
+    @DisplayName("Deve intercalar as inclusões acima do limite na base sem recarregar do banco")
+    void deveIntercalarInclusoesAcimaDoLimite() {
+        indice.talvezCadastrado(Cpf.of(0L));
+        int quantidade = IndiceCpf.LIMITE_ALTERACOES + 1;
+        for (long i = 0; i < quantidade; i++) {
+            indice.aoAlterarPessoa(new PessoaAlterada(null, perfil(i), "Maria", Cpf.of(10_000_000_001L + i * 2)));
+        }
+
+        assertTrue(indice.talvezCadastrado(Cpf.of(10_000_000_001L)));
+        IndiceCpf.Fotografia atual = indice.atual();
+        assertEquals(TOTAL + quantidade, atual.tamanho);
+        assertEquals(0, atual.adicionados.length);
+        for (long i = 0; i < quantidade; i++) {
+            assertTrue(atual.contem(10_000_000_001L + i * 2));
+        }
+        assertTrue(atual.contem(10_000_000_000L + (TOTAL - 1) * 2L));
+        verify(pessoaRepository, times(1)).percorrerCpfs(any());
+    }
+
+    @Test
+    @DisplayName("Não deve ler o banco na thread da consulta")
+    void naoDeveCarregarNaThreadDaConsulta() {
+        adiar = true;
+        Cpf ausente = Cpf.of(1L);
+        // Sem base: o CPF vai para a confirmação no banco
+        assertTrue(indice.talvezCadastrado(ausente));
+        assertTrue(indice.talvezCadastrado(ausente));
+        assertEquals(1, agendadas.size());
+        verifyNoInteractions(pessoaRepository);
+
+        Cpf novo = Cpf.parse("529.982.247-25");
+        indice.aoAlterarPessoa(new PessoaAlterada(null, perfil(1L), "Maria", novo));
+        agendadas.poll().run();
+        assertFalse(indice.talvezCadastrado(ausente));
+        assertTrue(indice.talvezCadastrado(novo));
+
+        // Expirada, a base anterior continua valendo até a nova carga terminar
+        relogio.addAndGet(IndiceCpf.VALIDADE_MILLIS);
+        assertFalse(indice.talvezCadastrado(ausente));
+        assertEquals(1, agendadas.size());
+        verify(pessoaRepository, times(1)).percorrerCpfs(any());
+    }
+
+    private PerfilPessoa perfil(Long id) {
+        return new PerfilPessoa(id, Sexo.F, null, Collections.emptyList(), Collections.emptyList());
+    }
+}
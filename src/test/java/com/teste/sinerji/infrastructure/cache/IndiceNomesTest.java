@@ -0,0 +1,172 @@
+package com.teste.sinerji.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.teste.sinerji.application.event.PerfilPessoa;
+import com.teste.sinerji.application.event.PessoaAlterada;
+import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.infrastructure.repository.PessoaRepository;
+
+/**
+ * Testes unitários para o IndiceNomes.
+ * Verifica a ordem das sugestões, a aplicação de alterações e a recarga fora da thread da consulta.
+ */
+@ExtendWith(MockitoExtension.class)
+class IndiceNomesTest {
+
+    @Mock
+    private PessoaRepository pessoaRepository;
+
+    @Mock
+    private ManagedExecutorService executor;
+
+    @InjectMocks
+    private IndiceNomes indice;
+
+    /** Cargas agendadas e ainda não executadas, quando {@link #adiar} é true. */
+    private final Queue<Runnable> agendadas = new ArrayDeque<>();
+
+    private boolean adiar;
+
+    private final Map<Long, String> banco = new LinkedHashMap<>();
+
+    private final AtomicLong relogio = new AtomicLong();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        indice.setRelogio(relogio::get);
+        banco.put(1L, "João da Silva");
+        banco.put(2L, "Maria José Silveira");
+        banco.put(3L, "Joana Prado");
+        banco.put(4L, "Ana Maria Joaquina Souza");
+        banco.put(5L, "Jo Ramos");
+        doAnswer(inv -> {
+            banco.forEach(inv.<BiConsumer<Long, String>>getArgument(0));
+            return null;
+        }).when(pessoaRepository).percorrerNomes(any(BiConsumer.class));
+        lenient().doAnswer(inv -> {
+            Runnable tarefa = inv.getArgument(0);
+            if (adiar) {
+                agendadas.add(tarefa);
+            } else {
+                tarefa.run();
+            }
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+    }
+
+    @Test
+    @DisplayName("Deve sugerir primeiro os nomes que começam pelo texto, dos mais curtos aos mais longos")
+    void deveSugerirPorPrefixoDasPalavras() {
+        assertEquals(Arrays.asList("Jo Ramos", "Joana Prado", "João da Silva", "Maria José Silveira",
+                "Ana Maria Joaquina Souza"), indice.sugerir("jo", 10));
+        assertEquals(Arrays.asList("João da Silva", "Maria José Silveira"), indice.sugerir("JO SIL", 10));
+        assertEquals(Arrays.asList("Maria José Silveira", "Ana Maria Joaquina Souza"), indice.sugerir("mari", 10));
+        assertEquals(Collections.singletonList("Ana Maria Joaquina Souza"), indice.sugerir("souza ana", 10));
+        assertEquals(Arrays.asList("Jo Ramos", "Joana Prado"), indice.sugerir("jo", 2));
+        assertTrue(indice.sugerir("ilva", 10).isEmpty());
+        assertTrue(indice.sugerir("  ", 10).isEmpty());
+        verify(pessoaRepository, times(1)).percorrerNomes(any());
+
+        int[] lista = {1, 3, 5, 7, 9, 11, 13, 15, 17};
+        assertEquals(3, IndiceNomes.avancar(lista, 0, 6));
+        assertEquals(8, IndiceNomes.avancar(lista, 1, 17));
+        assertEquals(9, IndiceNomes.avancar(lista, 4, 18));
+        assertEquals(5, IndiceNomes.avancar(lista, 5, 2));
+    }
+
+    @Test
+    @DisplayName("Deve aplicar inclusões, renomeações e remoções confirmadas sem recarregar do banco")
+    void deveAplicarAlteracoesIncrementais() {
+        assertEquals(Collections.singletonList("Joana Prado"), indice.sugerir("prado", 10));
+
+        indice.aoAlterarPessoa(new PessoaAlterada(null, perfil(6L), "Pedro Prado", null));
+        indice.aoAlterarPessoa(new PessoaAlterada(perfil(3L), perfil(3L), "Joana Prado Lima", null));
+        indice.aoAlterarPessoa(new PessoaAlterada(perfil(5L), null));
+        // Alteração apenas de endereço: ignorada
+        indice.aoAlterarPessoa(new PessoaAlterada(perfil(1L), perfil(1L)));
+
+        assertEquals(Arrays.asList("Pedro Prado", "Joana Prado Lima"), indice.sugerir("prado", 10));
+        assertEquals(Arrays.asList("João da Silva", "Joana Prado Lima", "Maria José Silveira",
+                "Ana Maria Joaquina Souza"), indice.sugerir("jo", 10));
+        verify(pessoaRepository, times(1)).percorrerNomes(any());
+    }
+
+    @Test
+    @DisplayName("Deve carregar na inicialização e reler o banco, fora da consulta, após a validade")
+    void deveRecarregarAposValidade() {
+        indice.recarregar();
+        verify(pessoaRepository, times(1)).percorrerNomes(any());
+        verifyNoInteractions(executor);
+
+        // Gravação de outro nó: não chega pelo evento
+        banco.put(7L, "Jonas Melo");
+        relogio.addAndGet(IndiceNomes.VALIDADE_MILLIS - 1);
+        for (int i = 0; i < 5; i++) {
+            assertFalse(indice.sugerir("jon", 10).contains("Jonas Melo"));
+        }
+        verify(pessoaRepository, times(1)).percorrerNomes(any());
+        verifyNoInteractions(executor);
+
+        relogio.addAndGet(1);
+        adiar = true;
+        // A consulta que encontra a base expirada ainda responde com ela
+        assertFalse(indice.sugerir("jon", 10).contains("Jonas Melo"));
+        assertEquals(1, agendadas.size());
+        agendadas.poll().run();
+        assertEquals(Collections.singletonList("Jonas Melo"), indice.sugerir("jon", 10));
+        assertTrue(agendadas.isEmpty());
+        verify(pessoaRepository, times(2)).percorrerNomes(any());
+    }
+
+    @Test
+    @DisplayName("Deve descartar a fila que transborda sem consultas e recarregar na próxima")
+    void deveRecarregarQuandoFilaTransborda() {
+        indice.recarregar();
+        for (long id = 100; id <= 100 + IndiceNomes.LIMITE_ALTERACOES; id++) {
+            banco.put(id, "Pessoa " + id);
+            indice.aoAlterarPessoa(new PessoaAlterada(null, perfil(id), "Pessoa " + id, null));
+        }
+
+        // A recarga fica no executor: a consulta responde com a fotografia anterior
+        adiar = true;
+        assertTrue(indice.sugerir("pessoa 100", 1).isEmpty());
+        assertEquals("Jo Ramos", indice.sugerir("jo", 1).get(0));
+        assertEquals(1, agendadas.size());
+        // Alteração confirmada durante a leitura: reaplicada à base nova
+        indice.aoAlterarPessoa(new PessoaAlterada(perfil(5L), null));
+        indice.sugerir("jo", 1);
+
+        agendadas.poll().run();
+        assertEquals(Collections.singletonList("Pessoa 100"), indice.sugerir("pessoa 100", 1));
+        assertEquals("Joana Prado", indice.sugerir("jo", 1).get(0));
+        verify(pessoaRepository, times(2)).percorrerNomes(any());
+        assertTrue(agendadas.isEmpty());
+    }
+
+    private PerfilPessoa perfil(Long id) {
+        return new PerfilPessoa(id, Sexo.F, null, Collections.emptyList(), Collections.emptyList());
+    }
+}
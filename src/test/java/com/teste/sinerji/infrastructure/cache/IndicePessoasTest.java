@@ -0,0 +1,236 @@
+package com.teste.sinerji.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.teste.sinerji.application.dto.PessoaFiltro;
+import com.teste.sinerji.application.event.PerfilPessoa;
+import com.teste.sinerji.application.event.PessoaAlterada;
+import com.teste.sinerji.domain.enums.Estado;
+import com.teste.sinerji.domain.enums.Sexo;
+import com.teste.sinerji.infrastructure.repository.PessoaRepository;
+
+/**
+ * Testes unitários para o IndicePessoas.
+ * Verifica os filtros por bitmap, a aplicação de alterações e a recarga periódica fora da
+ * thread da leitura.
+ */
+@ExtendWith(MockitoExtension.class)
+class IndicePessoasTest {
+
+    @Mock
+    private PessoaRepository pessoaRepository;
+
+    @Mock
+    private ManagedExecutorService executor;
+
+    @InjectMocks
+    private IndicePessoas indice;
+
+    /** Recargas agendadas e ainda não executadas, quando {@link #adiar} é true. */
+    private final Queue<Runnable> agendadas = new ArrayDeque<>();
+
+    private boolean adiar;
+
+    private final AtomicLong relogio = new AtomicLong();
+
+    private final LocalDate hoje = LocalDate.now();
+
+    private List<PerfilPessoa> banco;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        indice.setRelogio(relogio::get);
+        banco = Arrays.asList(
+                perfil(1L, Sexo.M, hoje.minusYears(30).withDayOfMonth(1).withMonth(3),
+                        Arrays.asList(Estado.PE, Estado.SP), Arrays.asList("Recife", "São Paulo")),
+                perfil(2L, Sexo.F, hoje.minusYears(20).withDayOfMonth(1).withMonth(3),
+                        Collections.singletonList(Estado.PE), Collections.singletonList("Olinda")),
+                perfil(3L, Sexo.F, hoje.minusYears(50).withDayOfMonth(1).withMonth(7),
+                        Collections.singletonList(Estado.BA), Collections.singletonList("Salvador")),
+                perfil(4L, Sexo.M, null, Collections.emptyList(), Collections.emptyList()));
+        doAnswer(inv -> {
+            banco.forEach(inv.<Consumer<PerfilPessoa>>getArgument(0));
+            return null;
+        }).when(pessoaRepository).percorrerPerfis(any(Consumer.class));
+        lenient().doAnswer(inv -> {
+            Runnable tarefa = inv.getArgument(0);
+            if (adiar) {
+                agendadas.add(tarefa);
+            } else {
+                tarefa.run();
+            }
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+    }
+
+    @Test
+    @DisplayName("Deve combinar sexo, UF, cidade, mês e idade por interseção de bitmaps")
+    void deveFiltrarPorBitmaps() {
+        assertEquals(4, indice.contar(null));
+        assertEquals(2, indice.contar(PessoaFiltro.builder().estado(Estado.PE).build()));
+        assertEquals(1, indice.contar(PessoaFiltro.builder().estado(Estado.SP).sexo(Sexo.M).build()));
+        assertEquals(0, indice.contar(PessoaFiltro.builder().estado(Estado.SP).sexo(Sexo.F).build()));
+        assertEquals(2, indice.contar(PessoaFiltro.builder().mesNascimento(3).build()));
+        assertEquals(2, indice.contar(PessoaFiltro.builder().cidade(" s").build()));
+        assertEquals(1, indice.contar(PessoaFiltro.builder().cidade("OLIN").build()));
+        assertEquals(2, indice.contar(PessoaFiltro.builder().idadeMinima(25).build()));
+        assertEquals(1, indice.contar(PessoaFiltro.builder().idadeMinima(25).idadeMaxima(40).build()));
+        assertEquals(Arrays.asList(1L, 2L), indice.listarIds(PessoaFiltro.builder().mesNascimento(3).build(), 10));
+        assertNull(indice.listarIds(null, 3));
+        verify(pessoaRepository, times(1)).percorrerPerfis(any());
+    }
+
+    @Test
+    @DisplayName("Deve contar por UF do endereço principal as pessoas do filtro")
+    void deveContarPorEstadoPrincipal() {
+        Map<Estado, Long> esperado = new EnumMap<>(Estado.class);
+        esperado.put(Estado.PE, 2L);
+        esperado.put(Estado.BA, 1L);
+        assertEquals(esperado, indice.contarPorEstado(null));
+        // Pessoa 1 tem endereço em SP, mas o principal é PE
+        assertEquals(Collections.singletonMap(Estado.PE, 1L),
+                indice.contarPorEstado(PessoaFiltro.builder().cidade("são paulo").build()));
+    }
+
+    @Test
+    @DisplayName("Deve aplicar alterações confirmadas sem recarregar do banco")
+    void deveAplicarAlteracoesIncrementais() {
+        assertEquals(2, indice.contar(PessoaFiltro.builder().estado(Estado.PE).build()));
+
+        indice.aoAlterarPessoa(new PessoaAlterada(null, perfil(5L, Sexo.F, hoje.minusYears(10),
+                Collections.singletonList(Estado.PE), Collections.singletonList("Recife"))));
+        indice.aoAlterarPessoa(new PessoaAlterada(banco.get(1), perfil(2L, Sexo.F, banco.get(1).getDataNascimento(),
+                Collections.singletonList(Estado.RJ), Collections.singletonList("Niterói"))));
+        indice.aoAlterarPessoa(new PessoaAlterada(banco.get(2), null));
+
+        assertEquals(4, indice.contar(null));
+        assertEquals(Arrays.asList(1L, 5L), indice.listarIds(PessoaFiltro.builder().estado(Estado.PE).build(), 10));
+        assertEquals(2, indice.contar(PessoaFiltro.builder().cidade("recife").build()));
+        assertEquals(0, indice.contar(PessoaFiltro.builder().estado(Estado.BA).build()));
+        assertEquals(0, indice.contar(PessoaFiltro.builder().cidade("olinda").build()));
+        verify(pessoaRepository, times(1)).percorrerPerfis(any());
+    }
+
+    @Test
+    @DisplayName("Deve acrescentar alterações copiando só os bitmaps tocados e sem mudar a fotografia anterior")
+    void deveAcrescentarSemAlterarFotografiaAnterior() {
+        IndicePessoas.Fotografia antes = indice.atual();
+        indice.aoAlterarPessoa(new PessoaAlterada(banco.get(2), perfil(3L, Sexo.F, banco.get(2).getDataNascimento(),
+                Collections.singletonList(Estado.RJ), Collections.singletonList("Niterói"))));
+        IndicePessoas.Fotografia depois = indice.atual();
+
+        PessoaFiltro naBahia = PessoaFiltro.builder().estado(Estado.BA).build();
+        assertEquals(1, IndicePessoas.filtrar(antes, naBahia).cardinality());
+        assertEquals(0, IndicePessoas.filtrar(depois, naBahia).cardinality());
+        assertEquals(0, IndicePessoas.filtrar(antes, PessoaFiltro.builder().cidade("Niterói").build()).cardinality());
+        assertEquals(1, IndicePessoas.filtrar(depois, PessoaFiltro.builder().cidade("Niterói").build()).cardinality());
+        assertSame(antes.porSexo[Sexo.M.ordinal()], depois.porSexo[Sexo.M.ordinal()]);
+        assertNotSame(antes.porSexo[Sexo.F.ordinal()], depois.porSexo[Sexo.F.ordinal()]);
+        assertSame(antes.porCidade.get("recife"), depois.porCidade.get("recife"));
+        assertEquals(5, depois.tamanho);
+        assertEquals(4, depois.quantidade);
+        verify(pessoaRepository, times(1)).percorrerPerfis(any());
+    }
+
+    @Test
+    @DisplayName("Deve recarregar do banco quando as linhas mortas superarem as vivas")
+    void deveRecarregarComMuitasLinhasMortas() {
+        indice.contar(null);
+        for (int i = 0; i < 5; i++) {
+            indice.aoAlterarPessoa(new PessoaAlterada(banco.get(0), banco.get(0)));
+            assertEquals(4, indice.contar(null));
+        }
+        verify(pessoaRepository, times(1)).percorrerPerfis(any());
+
+        assertEquals(4, indice.contar(null));
+        assertEquals(4, indice.atual().tamanho);
+        verify(pessoaRepository, times(2)).percorrerPerfis(any());
+    }
+
+    @Test
+    @DisplayName("Deve descartar a fila que transborda sem leituras e recarregar na próxima")
+    void deveRecarregarQuandoFilaTransborda() {
+        indice.contar(null);
+        for (int i = 0; i <= IndicePessoas.LIMITE_PENDENTES; i++) {
+            indice.aoAlterarPessoa(new PessoaAlterada(banco.get(0), banco.get(0)));
+        }
+
+        assertEquals(4, indice.contar(null));
+        assertEquals(4, indice.atual().tamanho);
+        verify(pessoaRepository, times(2)).percorrerPerfis(any());
+    }
+
+    @Test
+    @DisplayName("Deve recarregar do banco após a validade ou invalidação")
+    void deveRecarregarAposValidade() {
+        indice.contar(null);
+        relogio.addAndGet(IndicePessoas.VALIDADE_MILLIS - 1);
+        indice.contar(null);
+        verify(pessoaRepository, times(1)).percorrerPerfis(any());
+
+        relogio.addAndGet(1);
+        indice.contar(null);
+        verify(pessoaRepository, times(2)).percorrerPerfis(any());
+
+        indice.invalidar();
+        indice.contar(null);
+        verify(pessoaRepository, times(3)).percorrerPerfis(any());
+    }
+
+    @Test
+    @DisplayName("Deve recarregar no executor, servindo a fotografia atual e reaplicando as alterações da leitura")
+    void deveRecarregarForaDaLeitura() {
+        indice.recarregar();
+        verifyNoInteractions(executor);
+        assertEquals(4, indice.contar(null));
+
+        relogio.addAndGet(IndicePessoas.VALIDADE_MILLIS);
+        adiar = true;
+        banco = new ArrayList<>(banco.subList(0, 3));
+        assertEquals(4, indice.contar(null));
+        assertEquals(1, agendadas.size());
+        verify(pessoaRepository, times(1)).percorrerPerfis(any());
+
+        // Confirmada durante a leitura: aplicada à fotografia atual e depois à nova
+        indice.aoAlterarPessoa(new PessoaAlterada(null, perfil(5L, Sexo.F, null,
+                Collections.singletonList(Estado.RJ), Collections.singletonList("Niterói"))));
+        assertEquals(5, indice.contar(null));
+        assertEquals(1, agendadas.size());
+
+        agendadas.poll().run();
+        assertEquals(4, indice.contar(null));
+        assertEquals(Collections.singletonList(5L), indice.listarIds(PessoaFiltro.builder().estado(Estado.RJ).build(), 10));
+        assertEquals(4, indice.atual().tamanho);
+        verify(pessoaRepository, times(2)).percorrerPerfis(any());
+        assertTrue(agendadas.isEmpty());
+    }
+
+    private PerfilPessoa perfil(Long id, Sexo sexo, LocalDate nascimento, List<Estado> estados, List<String> cidades) {
+        return new PerfilPessoa(id, sexo, nascimento, estados, cidades);
+    }
+}
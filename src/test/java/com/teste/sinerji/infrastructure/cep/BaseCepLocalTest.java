@@ -0,0 +1,62 @@
+package com.teste.sinerji.infrastructure.cep;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.teste.sinerji.application.dto.ViaCepDTO;
+
+/**
+ * Testes unitários para o GeradorBaseCep e a BaseCepLocal.
+ * Gera um arquivo em diretório temporário e consulta o mapeamento.
+ */
+class BaseCepLocalTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("Deve encontrar CEPs gravados fora de ordem e ignorar os ausentes")
+    void deveEncontrarCepsGravados() throws Exception {
+        GeradorBaseCep gerador = new GeradorBaseCep();
+        gerador.ler(new StringReader("cep;logradouro;cidade;uf\n"
+                + "70040-010;Esplanada dos Ministérios;Brasília;DF\n"
+                + "01001-000;Praça da Sé;São Paulo;SP\n"
+                + "01310-100;Avenida Paulista;São Paulo;SP\n"
+                + "69900-000;;Rio Branco;AC\n"
+                + "01001-000;Duplicado;São Paulo;SP\n"
+                + "123;Inválido;Lugar;XX\n"));
+        Path arquivo = diretorio.resolve("ceps.bin");
+        gerador.gravar(arquivo);
+
+        BaseCepLocal base = new BaseCepLocal();
+        base.abrir(arquivo);
+
+        ViaCepDTO se = base.buscar("01001000");
+        assertEquals("01001-000", se.getCep());
+        assertEquals("Praça da Sé", se.getLogradouro());
+        assertEquals("São Paulo", se.getCidade());
+        assertEquals("SP", se.getEstado());
+
+        assertEquals("Esplanada dos Ministérios", base.buscar("70040010").getLogradouro());
+        assertNull(base.buscar("69900000").getLogradouro());
+        assertNull(base.buscar("01001001"));
+        assertNull(base.buscar("99999999"));
+        assertEquals(4, gerador.getQuantidade());
+        assertEquals(2, gerador.getDescartados());
+    }
+
+    @Test
+    @DisplayName("Deve ficar desativada sem arquivo configurado")
+    void deveFicarDesativadaSemArquivo() {
+        BaseCepLocal base = new BaseCepLocal();
+
+        assertFalse(base.isDisponivel());
+        assertNull(base.buscar("01001000"));
+    }
+}
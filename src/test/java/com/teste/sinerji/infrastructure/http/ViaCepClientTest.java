@@ -0,0 +1,206 @@
+package com.teste.sinerji.infrastructure.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.teste.sinerji.application.dto.ViaCepDTO;
+import com.teste.sinerji.shared.exception.BusinessException;
+import com.teste.sinerji.shared.resiliencia.Disjuntor;
+
+/**
+ * Testes do ViaCepClient contra um servidor HTTP local que simula
+ * lentidão e erros da ViaCEP.
+ */
+class ViaCepClientTest {
+
+    private HttpServer servidor;
+    private final AtomicInteger chamadas = new AtomicInteger();
+    /** Respostas programadas: {status, atraso em ms}. Sem programação, responde 200 de imediato. */
+    private final Queue<int[]> respostas = new ConcurrentLinkedQueue<>();
+    private ViaCepClient cliente;
+    /** Faz o papel do executor gerenciado do servidor. */
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/ws/", this::responder);
+        servidor.setExecutor(Executors.newCachedThreadPool());
+        servidor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+        servidor.stop(0);
+    }
+
+    @Test
+    @DisplayName("Deve abrir o disjuntor após falhas seguidas e fechá-lo após teste bem-sucedido")
+    void deveAbrirEFecharDisjuntor() throws Exception {
+        cliente = iniciar(configuracao().limiarFalhas(3).tempoAbertoMillis(200).build());
+        for (int i = 0; i < 3; i++) {
+            respostas.add(new int[] {503, 0});
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertFalha(cliente.consultar("01001000"));
+        }
+        assertEquals(Disjuntor.Estado.ABERTO, cliente.getDisjuntor().getEstado());
+
+        assertFalha(cliente.consultar("01001000"));
+        assertEquals(3, chamadas.get());
+
+        Thread.sleep(250);
+        assertEquals("01001-000", cliente.consultar("01001000").get(5, TimeUnit.SECONDS).getCep());
+        assertEquals(Disjuntor.Estado.FECHADO, cliente.getDisjuntor().getEstado());
+    }
+
+    @Test
+    @DisplayName("Não deve abrir o disjuntor por CEP em formato inválido (400)")
+    void naoDeveContarErroDeRequisicaoComoFalha() {
+        cliente = iniciar(configuracao().limiarFalhas(1).build());
+        respostas.add(new int[] {400, 0});
+
+        assertFalha(cliente.consultar("01001000"));
+        assertEquals(Disjuntor.Estado.FECHADO, cliente.getDisjuntor().getEstado());
+    }
+
+    @Test
+    @DisplayName("Deve recusar de imediato acima do limite de requisições simultâneas")
+    void deveLimitarConcorrencia() throws Exception {
+        cliente = iniciar(configuracao().maxConcorrencia(2).build());
+        respostas.add(new int[] {200, 500});
+        respostas.add(new int[] {200, 500});
+
+        CompletableFuture<ViaCepDTO> primeira = cliente.consultar("01001000");
+        CompletableFuture<ViaCepDTO> segunda = cliente.consultar("01001000");
+        CompletableFuture<ViaCepDTO> terceira = cliente.consultar("01001000");
+
+        assertTrue(terceira.isCompletedExceptionally());
+        assertNotNull(primeira.get(5, TimeUnit.SECONDS));
+        assertNotNull(segunda.get(5, TimeUnit.SECONDS));
+        assertNotNull(cliente.consultar("01001000").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Deve recusar requisições acima da rajada do limitador de taxa")
+    void deveLimitarTaxa() throws Exception {
+        cliente = iniciar(configuracao().requisicoesPorSegundo(0.5).rajada(2).build());
+
+        cliente.consultar("01001000").get(5, TimeUnit.SECONDS);
+        cliente.consultar("01001000").get(5, TimeUnit.SECONDS);
+
+        assertFalha(cliente.consultar("01001000"));
+        assertEquals(2, chamadas.get());
+    }
+
+    @Test
+    @DisplayName("Não deve gastar a taxa com consultas recusadas pelo disjuntor")
+    void naoDeveGastarTaxaComRecusaDoDisjuntor() throws Exception {
+        cliente = iniciar(configuracao().requisicoesPorSegundo(0.001).rajada(2)
+                .limiarFalhas(1).tempoAbertoMillis(200).build());
+        respostas.add(new int[] {503, 0});
+
+        assertFalha(cliente.consultar("01001000"));
+        for (int i = 0; i < 3; i++) {
+            assertFalha(cliente.consultar("01001000"));
+        }
+
+        Thread.sleep(250);
+        assertEquals("01001-000", cliente.consultar("01001000").get(5, TimeUnit.SECONDS).getCep());
+        assertEquals(2, chamadas.get());
+    }
+
+    @Test
+    @DisplayName("Deve disparar requisição paralela quando a resposta passa do p95")
+    void deveDispararRequisicaoParalela() throws Exception {
+        cliente = iniciar(configuracao().requisicaoParalela(true)
+                .amostrasMinimasParalela(5).atrasoMinimoParalelaMillis(50).build());
+        List<CompletableFuture<ViaCepDTO>> aquecimento = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            aquecimento.add(cliente.consultar("01001000"));
+        }
+        for (CompletableFuture<ViaCepDTO> futuro : aquecimento) {
+            futuro.get(5, TimeUnit.SECONDS);
+        }
+        chamadas.set(0);
+        respostas.add(new int[] {200, 3000});
+
+        long inicio = System.nanoTime();
+        ViaCepDTO dto = cliente.consultar("01001000").get(5, TimeUnit.SECONDS);
+
+        assertEquals("01001-000", dto.getCep());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 2000);
+        assertEquals(2, chamadas.get());
+    }
+
+    private ConfiguracaoViaCep.ConfiguracaoViaCepBuilder configuracao() {
+        return ConfiguracaoViaCep.builder()
+                .urlBase("http://127.0.0.1:" + servidor.getAddress().getPort() + "/ws/%s/json/")
+                .timeoutMillis(5_000)
+                .requisicoesPorSegundo(1_000)
+                .rajada(1_000);
+    }
+
+    private ViaCepClient iniciar(ConfiguracaoViaCep configuracao) {
+        ManagedExecutorService executor = mock(ManagedExecutorService.class);
+        doAnswer(inv -> {
+            pool.execute(inv.getArgument(0));
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+        ViaCepClient novo = new ViaCepClient(configuracao);
+        novo.setExecutor(executor);
+        novo.iniciar();
+        return novo;
+    }
+
+    private void assertFalha(CompletableFuture<ViaCepDTO> futuro) {
+        ExecutionException erro = assertThrows(ExecutionException.class, () -> futuro.get(5, TimeUnit.SECONDS));
+        assertTrue(erro.getCause() instanceof BusinessException);
+    }
+
+    private void responder(HttpExchange troca) throws IOException {
+        chamadas.incrementAndGet();
+        int[] resposta = respostas.poll();
+        int status = resposta != null ? resposta[0] : 200;
+        int atraso = resposta != null ? resposta[1] : 0;
+        try {
+            Thread.sleep(atraso);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] corpo = (status == 200
+                ? "{\"cep\":\"01001-000\",\"logradouro\":\"Praça da Sé\",\"localidade\":\"São Paulo\",\"uf\":\"SP\"}"
+                : "erro").getBytes(StandardCharsets.UTF_8);
+        troca.sendResponseHeaders(status, corpo.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(corpo);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.teste.sinerji.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.enterprise.context.ContextNotActiveException;
+import jakarta.enterprise.context.SessionScoped;
+import jakarta.enterprise.context.spi.Context;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.teste.sinerji.application.event.PessoaAlterada;
+
+/**
+ * Testes unitários para o RoteadorLeitura.
+ * Verifica quando as consultas vão para a réplica e a aderência ao primário após gravações.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RoteadorLeituraTest {
+
+    @Mock
+    private BeanManager beanManager;
+
+    @Mock
+    private Context contextoSessao;
+
+    @Mock
+    private Instance<EscritasSessao> escritasSessao;
+
+    @Mock
+    private EntityManager primario;
+
+    @Mock
+    private EntityManager replica;
+
+    @InjectMocks
+    private RoteadorLeitura roteador;
+
+    private final EscritasSessao escritas = new EscritasSessao();
+
+    private final AtomicLong relogio = new AtomicLong(1_000_000);
+
+    @BeforeEach
+    void setUp() {
+        roteador.setHabilitada(true);
+        roteador.setRelogio(relogio::get);
+        when(beanManager.getContext(SessionScoped.class)).thenReturn(contextoSessao);
+        when(contextoSessao.isActive()).thenReturn(true);
+        when(escritasSessao.get()).thenReturn(escritas);
+    }
+
+    @AfterEach
+    void tearDown() {
+        roteador.sair();
+    }
+
+    @Test
+    @DisplayName("Deve usar o primário fora de métodos somente leitura ou com a réplica desabilitada")
+    void deveUsarPrimarioForaDoEscopoOuDesabilitada() {
+        assertSame(primario, roteador.escolher(primario, replica));
+
+        roteador.entrar();
+        assertSame(replica, roteador.escolher(primario, replica));
+        assertSame(primario, roteador.escolher(primario, null));
+
+        roteador.setHabilitada(false);
+        assertSame(primario, roteador.escolher(primario, replica));
+    }
+
+    @Test
+    @DisplayName("Deve manter no primário a sessão que gravou até o fim da janela")
+    void deveManterNoPrimarioAposGravacaoDaSessao() {
+        roteador.entrar();
+        roteador.aoAlterarPessoa(new PessoaAlterada(null, null));
+
+        relogio.addAndGet(RoteadorLeitura.JANELA_PADRAO_MILLIS - 1);
+        assertSame(primario, roteador.escolher(primario, replica));
+
+        relogio.addAndGet(1);
+        assertSame(replica, roteador.escolher(primario, replica));
+    }
+
+    @Test
+    @DisplayName("Deve ignorar a sessão quando o contexto de sessão não está ativo")
+    void deveIgnorarSessaoInativa() {
+        when(beanManager.getContext(SessionScoped.class)).thenThrow(new ContextNotActiveException());
+
+        roteador.aoAlterarPessoa(new PessoaAlterada(null, null));
+        roteador.entrar();
+
+        assertSame(replica, roteador.escolher(primario, replica));
+        verify(escritasSessao, never()).get();
+    }
+
+    @Test
+    @DisplayName("Deve voltar ao primário ao sair do último método somente leitura aninhado")
+    void deveControlarProfundidadeAninhada() {
+        roteador.entrar();
+        roteador.entrar();
+        roteador.sair();
+        assertSame(replica, roteador.escolher(primario, replica));
+
+        roteador.sair();
+        assertSame(primario, roteador.escolher(primario, replica));
+        roteador.entrar();
+    }
+}
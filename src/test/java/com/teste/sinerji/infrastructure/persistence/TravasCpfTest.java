@@ -0,0 +1,191 @@
+package com.teste.sinerji.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.teste.sinerji.domain.valueobject.Cpf;
+import com.teste.sinerji.infrastructure.repository.PessoaRepository;
+import com.teste.sinerji.shared.exception.BusinessException;
+
+/**
+ * Testes unitários para as TravasCpf.
+ * Verifica a espera entre transações do mesmo CPF, a independência entre CPFs diferentes,
+ * a reentrada na mesma transação e o limite de espera.
+ */
+@ExtendWith(MockitoExtension.class)
+class TravasCpfTest {
+
+    private static final Cpf CPF = Cpf.parse("529.982.247-25");
+
+    @Mock
+    private TransactionSynchronizationRegistry registro;
+
+    @Mock
+    private PessoaRepository pessoaRepository;
+
+    @InjectMocks
+    private TravasCpf travas;
+
+    /** Transação da thread corrente, como o registro do servidor de aplicação. */
+    private final ThreadLocal<Transacao> transacao = new ThreadLocal<>();
+
+    private final ExecutorService outraThread = Executors.newSingleThreadExecutor();
+
+    @BeforeEach
+    void setUp() {
+        when(registro.getResource(any())).thenAnswer(inv -> transacao.get().recursos.get(inv.getArgument(0)));
+        lenient().doAnswer(inv -> transacao.get().recursos.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(registro).putResource(any(), any());
+        lenient().doAnswer(inv -> transacao.get().sincronizacoes.add(inv.getArgument(0)))
+                .when(registro).registerInterposedSynchronization(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        outraThread.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deve fazer a segunda gravação do mesmo CPF esperar o fim da primeira")
+    void deveSerializarGravacoesDoMesmoCpf() throws Exception {
+        Transacao primeira = iniciar();
+        assertFalse(travas.travar(CPF));
+        // Reentrada na mesma transação não espera
+        assertFalse(travas.travar(CPF));
+
+        Future<Boolean> segunda = outraThread.submit(() -> {
+            iniciar();
+            return travas.travar(CPF);
+        });
+        assertThrows(TimeoutException.class, () -> segunda.get(100, TimeUnit.MILLISECONDS));
+
+        primeira.concluir();
+        assertTrue(segunda.get(5, TimeUnit.SECONDS));
+        verifyNoInteractions(pessoaRepository);
+    }
+
+    @Test
+    @DisplayName("Não deve fazer esperar a gravação de outro CPF, mesmo com um lote grande travado")
+    void naoDeveEsperarOutroCpf() throws Exception {
+        Cpf outro = Cpf.parse("171.827.200-17");
+        List<Cpf> lote = LongStream.range(0, 1000).mapToObj(i -> Cpf.of(10_000_000_000L + i))
+                .collect(Collectors.toList());
+
+        Transacao importacao = iniciar();
+        assertFalse(travas.travarTodos(lote));
+        assertFalse(travas.travar(CPF));
+
+        Future<Boolean> segunda = outraThread.submit(() -> {
+            iniciar();
+            return travas.travar(outro);
+        });
+        assertFalse(segunda.get(1, TimeUnit.SECONDS));
+
+        // Concluídas as transações, nenhuma trava fica no mapa
+        importacao.concluir();
+        outraThread.submit(() -> transacao.get().concluir()).get(1, TimeUnit.SECONDS);
+        assertEquals(0, travas.quantidadeTravas());
+    }
+
+    @Test
+    @DisplayName("Deve recusar a gravação quando a espera passar do limite")
+    void deveRecusarAposEsgotarEspera() throws Exception {
+        travas.setEsperaMillis(50);
+        Transacao primeira = iniciar();
+        travas.travar(CPF);
+
+        Future<Boolean> segunda = outraThread.submit(() -> {
+            iniciar();
+            return travas.travar(CPF);
+        });
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> segunda.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof BusinessException);
+
+        // A tentativa recusada não fica com a trava
+        primeira.concluir();
+        Future<Boolean> terceira = outraThread.submit(() -> {
+            iniciar();
+            return travas.travar(CPF);
+        });
+        assertFalse(terceira.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Deve travar também no banco quando habilitado")
+    void deveTravarNoBancoQuandoHabilitado() throws Exception {
+        travas.setBanco(true);
+        when(pessoaRepository.travarCpfs(any(), anyLong())).thenReturn(true);
+        iniciar();
+
+        assertTrue(travas.travar(CPF));
+        verify(pessoaRepository).travarCpfs(Set.of(CPF), TravasCpf.ESPERA_PADRAO_MILLIS);
+    }
+
+    @Test
+    @DisplayName("Deve travar os CPFs de um lote em ordem crescente, em uma única chamada ao banco")
+    @SuppressWarnings("unchecked")
+    void deveTravarLoteEmOrdem() throws Exception {
+        travas.setBanco(true);
+        Cpf outro = Cpf.parse("171.827.200-17");
+        iniciar();
+
+        assertFalse(travas.travarTodos(List.of(CPF, outro, CPF)));
+
+        ArgumentCaptor<Collection<Cpf>> cpfs = ArgumentCaptor.forClass(Collection.class);
+        verify(pessoaRepository).travarCpfs(cpfs.capture(), anyLong());
+        assertEquals(List.of(outro, CPF), new ArrayList<>(cpfs.getValue()));
+        // As travas do lote ficam com a transação: o CPF avulso não espera
+        assertFalse(travas.travar(CPF));
+        Future<Boolean> segunda = outraThread.submit(() -> {
+            iniciar();
+            return travas.travar(outro);
+        });
+        assertThrows(TimeoutException.class, () -> segunda.get(100, TimeUnit.MILLISECONDS));
+    }
+
+    private Transacao iniciar() {
+        Transacao nova = new Transacao();
+        transacao.set(nova);
+        return nova;
+    }
+
+    private static final class Transacao {
+        final Map<Object, Object> recursos = new HashMap<>();
+        final List<Synchronization> sincronizacoes = new ArrayList<>();
+
+        void concluir() {
+            sincronizacoes.forEach(s -> s.afterCompletion(Status.STATUS_COMMITTED));
+        }
+    }
+}
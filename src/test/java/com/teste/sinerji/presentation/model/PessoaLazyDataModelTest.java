@@ -0,0 +1,90 @@
+package com.teste.sinerji.presentation.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.teste.sinerji.application.dto.PessoaFiltro;
+import com.teste.sinerji.application.dto.PessoaResumo;
+import com.teste.sinerji.application.service.PessoaService;
+
+/**
+ * Testes unitários para o PessoaLazyDataModel.
+ * Verifica quando a paginação segue pelo cursor (nome, id) e quando recorre ao deslocamento.
+ */
+@ExtendWith(MockitoExtension.class)
+class PessoaLazyDataModelTest {
+
+    @Mock
+    private PessoaService pessoaService;
+
+    private PessoaLazyDataModel model;
+
+    @BeforeEach
+    void setUp() {
+        model = new PessoaLazyDataModel(pessoaService);
+    }
+
+    @Test
+    @DisplayName("Deve usar o cursor da última linha ao avançar para a próxima página")
+    void deveUsarCursorAoAvancarPagina() {
+        List<PessoaResumo> primeiraPagina = Arrays.asList(pessoa(1L, "Ana"), pessoa(7L, "Bruno"));
+        when(pessoaService.listarPaginaPorNome(any(PessoaFiltro.class), isNull(), isNull(), eq(2), eq(true)))
+                .thenReturn(primeiraPagina);
+        when(pessoaService.listarPaginaPorNome(any(PessoaFiltro.class), eq("Bruno"), eq(7L), eq(2), eq(true)))
+                .thenReturn(Collections.singletonList(pessoa(3L, "Carlos")));
+
+        model.load(0, 2, Collections.emptyMap(), Collections.emptyMap());
+        List<PessoaResumo> segunda = model.load(2, 2, Collections.emptyMap(), Collections.emptyMap());
+
+        assertEquals("Carlos", segunda.get(0).getNome());
+        verify(pessoaService, never()).listarPagina(any(), anyInt(), anyInt(), any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Deve recorrer ao deslocamento ao saltar para uma página arbitrária")
+    void deveUsarDeslocamentoAoSaltarPagina() {
+        when(pessoaService.listarPaginaPorNome(any(PessoaFiltro.class), isNull(), isNull(), eq(2), eq(true)))
+                .thenReturn(Arrays.asList(pessoa(1L, "Ana"), pessoa(7L, "Bruno")));
+
+        model.load(0, 2, Collections.emptyMap(), Collections.emptyMap());
+        model.load(10, 2, Collections.emptyMap(), Collections.emptyMap());
+
+        verify(pessoaService).listarPagina(any(PessoaFiltro.class), eq(10), eq(2), eq("nome"), eq(true));
+    }
+
+    @Test
+    @DisplayName("Deve descartar o cursor quando o filtro muda")
+    void deveDescartarCursorQuandoFiltroMuda() {
+        when(pessoaService.listarPaginaPorNome(any(PessoaFiltro.class), isNull(), isNull(), eq(2), eq(true)))
+                .thenReturn(Arrays.asList(pessoa(1L, "Ana"), pessoa(7L, "Bruno")));
+
+        model.load(0, 2, Collections.emptyMap(), Collections.emptyMap());
+        model.setFiltro(PessoaFiltro.builder().cidade("Recife").build());
+        model.load(2, 2, Collections.emptyMap(), Collections.emptyMap());
+
+        verify(pessoaService).listarPagina(any(PessoaFiltro.class), eq(2), eq(2), eq("nome"), eq(true));
+    }
+
+    private PessoaResumo pessoa(Long id, String nome) {
+        PessoaResumo resumo = new PessoaResumo();
+        resumo.setId(id);
+        resumo.setNome(nome);
+        return resumo;
+    }
+}
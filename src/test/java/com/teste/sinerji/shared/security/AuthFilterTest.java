@@ -108,6 +108,39 @@ class AuthFilterTest {
         verify(response, never()).sendRedirect(anyString());
     }
 
+    @Test
+    @DisplayName("Deve recusar com 401 as métricas sem administrador logado nem token")
+    void deveRecusarMetricasSemAutenticacao() throws IOException, ServletException {
+        when(request.getRequestURI()).thenReturn("/metricas");
+        when(loginBean.isLoggedIn()).thenReturn(true);
+        when(loginBean.isAdmin()).thenReturn(false);
+
+        authFilter.doFilter(request, response, chain);
+
+        verify(response).sendError(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(response, never()).sendRedirect(anyString());
+        verify(chain, never()).doFilter(request, response);
+    }
+
+    @Test
+    @DisplayName("Deve liberar as métricas para o coletor com o token configurado")
+    void deveLiberarMetricasComToken() throws IOException, ServletException {
+        System.setProperty(AuthFilter.PROPRIEDADE_TOKEN_METRICAS, "segredo");
+        try {
+            when(request.getRequestURI()).thenReturn("/metricas");
+            when(request.getHeader("Authorization")).thenReturn("Bearer outro", "Bearer segredo");
+
+            authFilter.doFilter(request, response, chain);
+            verify(response).sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            verify(chain, never()).doFilter(request, response);
+
+            authFilter.doFilter(request, response, chain);
+            verify(chain).doFilter(request, response);
+        } finally {
+            System.clearProperty(AuthFilter.PROPRIEDADE_TOKEN_METRICAS);
+        }
+    }
+
     @Test
     @DisplayName("Deve redirecionar para login quando sessão é nula")
     void deveRedirecionarParaLoginQuandoSessaoENula() throws IOException, ServletException {
@@ -0,0 +1,189 @@
+package com.teste.sinerji.infrastructure.cep;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * Ferramenta offline que gera o arquivo binário lido pela {@link BaseCepLocal}.
+ * 
+ * Entrada: CSV UTF-8 separado por ";" com cabeçalho {@code cep;logradouro;cidade;uf}.
+ * Textos repetidos (cidades, UFs, logradouros comuns) são gravados uma única vez.
+ * CEPs repetidos mantêm a primeira ocorrência.
+ * 
+ * Fica em {@code src/tools/java}, fora do WAR. Uso:
+ * {@code mvn -Pbase-cep -Dceps.csv=ceps.csv -Dceps.bin=ceps.bin process-test-classes}
+ * 
+ * @author Teste Sinerji
+ */
+public class GeradorBaseCep {
+    
+    private static final CSVFormat FORMATO = CSVFormat.DEFAULT.builder()
+            .setDelimiter(';')
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setIgnoreEmptyLines(true)
+            .setTrim(true)
+            .build();
+    
+    private final Map<String, Integer> offsets = new HashMap<>();
+    private final ByteArrayOutputStream textos = new ByteArrayOutputStream();
+    private final DataOutputStream saidaTextos = new DataOutputStream(textos);
+    
+    private int[] registros = new int[4096 * 4];
+    private int quantidade;
+    private int descartados;
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: GeradorBaseCep <entrada.csv> <saida.bin>");
+            System.exit(2);
+        }
+        GeradorBaseCep gerador = new GeradorBaseCep();
+        try (Reader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            gerador.ler(reader);
+        }
+        gerador.gravar(Paths.get(args[1]));
+        System.out.println("CEPs gravados: " + gerador.quantidade + ", descartados: " + gerador.descartados);
+    }
+    
+    /**
+     * Lê os CEPs do CSV informado.
+     * 
+     * @param reader O conteúdo CSV
+     * @throws IOException Se ocorrer erro de leitura
+     */
+    public void ler(Reader reader) throws IOException {
+        try (CSVParser parser = FORMATO.parse(reader)) {
+            for (CSVRecord registro : parser) {
+                int cep = BaseCepLocal.converter(registro.get("cep").replaceAll("\\D", ""));
+                if (cep < 0) {
+                    descartados++;
+                    continue;
+                }
+                adicionar(cep, registro.get("logradouro"), registro.get("cidade"), registro.get("uf"));
+            }
+        }
+    }
+    
+    /**
+     * Adiciona um CEP à base.
+     * 
+     * @param cep CEP numérico (8 dígitos)
+     * @param logradouro Logradouro (pode ser vazio para CEPs de localidade)
+     * @param cidade Cidade
+     * @param uf Sigla da UF
+     * @throws IOException Se ocorrer erro ao montar a tabela de textos
+     */
+    public void adicionar(int cep, String logradouro, String cidade, String uf) throws IOException {
+        if (quantidade * 4 == registros.length) {
+            int[] maior = new int[registros.length * 2];
+            System.arraycopy(registros, 0, maior, 0, registros.length);
+            registros = maior;
+        }
+        int base = quantidade * 4;
+        registros[base] = cep;
+        registros[base + 1] = texto(logradouro);
+        registros[base + 2] = texto(cidade);
+        registros[base + 3] = texto(uf);
+        quantidade++;
+    }
+    
+    /**
+     * Ordena os registros por CEP e grava o arquivo de forma atômica.
+     * 
+     * @param destino O arquivo de saída
+     * @throws IOException Se ocorrer erro de escrita
+     */
+    public void gravar(Path destino) throws IOException {
+        Integer[] ordem = new Integer[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            ordem[i] = i;
+        }
+        // Ordenação estável: entre CEPs repetidos, a primeira ocorrência vem antes
+        Arrays.sort(ordem, (a, b) -> Integer.compare(registros[a * 4], registros[b * 4]));
+        
+        Path temporario = Files.createTempFile(destino.toAbsolutePath().getParent(), "ceps", ".tmp");
+        int gravados = 0;
+        try (OutputStream arquivo = Files.newOutputStream(temporario);
+             DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(arquivo, 1 << 16))) {
+            int unicos = contarUnicos(ordem);
+            saida.writeInt(BaseCepLocal.MAGIC);
+            saida.writeInt(BaseCepLocal.VERSAO);
+            saida.writeInt(unicos);
+            saida.writeInt(0);
+            
+            int anterior = -1;
+            for (Integer indice : ordem) {
+                int base = indice * 4;
+                if (registros[base] == anterior) {
+                    descartados++;
+                    continue;
+                }
+                anterior = registros[base];
+                for (int campo = 0; campo < 4; campo++) {
+                    saida.writeInt(registros[base + campo]);
+                }
+                gravados++;
+            }
+            saidaTextos.flush();
+            textos.writeTo(saida);
+        }
+        Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        quantidade = gravados;
+    }
+    
+    private int contarUnicos(Integer[] ordem) {
+        int unicos = 0;
+        int anterior = -1;
+        for (Integer indice : ordem) {
+            if (registros[indice * 4] != anterior) {
+                unicos++;
+                anterior = registros[indice * 4];
+            }
+        }
+        return unicos;
+    }
+    
+    private int texto(String valor) throws IOException {
+        if (valor == null || valor.isEmpty()) {
+            return BaseCepLocal.SEM_TEXTO;
+        }
+        Integer existente = offsets.get(valor);
+        if (existente != null) {
+            return existente;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Texto muito longo: " + valor.substring(0, 40));
+        }
+        int offset = saidaTextos.size();
+        saidaTextos.writeShort(bytes.length);
+        saidaTextos.write(bytes);
+        offsets.put(valor, offset);
+        return offset;
+    }
+    
+    public int getQuantidade() {
+        return quantidade;
+    }
+    
+    public int getDescartados() {
+        return descartados;
+    }
+}